@@ -0,0 +1,62 @@
+package games.strategy.engine.framework;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import games.strategy.engine.data.GameData;
+import games.strategy.triplea.xml.BenchmarkGame;
+
+/**
+ * Copies, saves and loads whole games.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameDataBenchmark {
+  @Param
+  public BenchmarkGame game;
+
+  private GameData m_data;
+  private byte[] m_savegame;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    m_data = game.load();
+    m_savegame = saveGame().toByteArray();
+  }
+
+  @Benchmark
+  public GameData cloneGameData() {
+    return GameDataUtils.cloneGameData(m_data);
+  }
+
+  @Benchmark
+  public ByteArrayOutputStream saveGame() throws IOException {
+    final ByteArrayOutputStream sink = new ByteArrayOutputStream(m_savegame == null ? 25000 : m_savegame.length);
+    new GameDataManager().saveGame(sink, m_data);
+    return sink;
+  }
+
+  @Benchmark
+  public GameData loadGame() throws IOException {
+    return new GameDataManager().loadGame(new ByteArrayInputStream(m_savegame), null);
+  }
+}
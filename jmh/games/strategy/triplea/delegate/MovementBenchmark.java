@@ -0,0 +1,83 @@
+package games.strategy.triplea.delegate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import games.strategy.engine.data.GameData;
+import games.strategy.engine.data.PlayerID;
+import games.strategy.engine.data.Route;
+import games.strategy.engine.data.Territory;
+import games.strategy.engine.data.Unit;
+import games.strategy.engine.data.changefactory.ChangeFactory;
+import games.strategy.triplea.xml.BenchmarkGame;
+
+/**
+ * Finds routes across the map and the territories around a territory, the way movement validation and the AIs do.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MovementBenchmark {
+  @Param
+  public BenchmarkGame game;
+  @Param({"3", "6"})
+  public int distance;
+
+  private GameData m_data;
+  private PlayerID m_player;
+  private Territory m_start;
+  private Territory m_end;
+  private List<Unit> m_landUnits;
+  private List<Unit> m_airUnits;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    m_data = game.load();
+    m_player = BenchmarkGame.defender(m_data);
+    m_start = game.routeStart(m_data);
+    m_end = game.routeEnd(m_data);
+    m_landUnits = m_data.getUnitTypeList().getUnitType("armour").create(2, m_player);
+    m_airUnits = m_data.getUnitTypeList().getUnitType("bomber").create(1, m_player);
+  }
+
+  /**
+   * MoveValidator keeps its route searches with the game data until the game changes, so change it before every
+   * invocation, or we would only measure looking up the search found the first time.
+   */
+  @Setup(Level.Invocation)
+  public void forgetRouteSearches() {
+    m_data.performChange(ChangeFactory.EMPTY_CHANGE);
+  }
+
+  @Benchmark
+  public Route getBestRouteForLandUnits() {
+    return MoveValidator.getBestRoute(m_start, m_end, m_data, m_player, m_landUnits, true);
+  }
+
+  @Benchmark
+  public Route getBestRouteForAirUnits() {
+    return MoveValidator.getBestRoute(m_start, m_end, m_data, m_player, m_airUnits, false);
+  }
+
+  @Benchmark
+  public Set<Territory> getNeighbors() {
+    return m_data.getMap().getNeighbors(m_start, distance);
+  }
+}
@@ -0,0 +1,92 @@
+package games.strategy.triplea.oddsCalculator.ta;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import games.strategy.engine.data.CompositeChange;
+import games.strategy.engine.data.GameData;
+import games.strategy.engine.data.PlayerID;
+import games.strategy.engine.data.Territory;
+import games.strategy.engine.data.TerritoryEffect;
+import games.strategy.engine.data.Unit;
+import games.strategy.engine.random.SimulationRandomSource;
+import games.strategy.net.GUID;
+import games.strategy.triplea.delegate.BattleCalculator;
+import games.strategy.triplea.delegate.BattleTracker;
+import games.strategy.triplea.delegate.DiceRoll;
+import games.strategy.triplea.delegate.MustFightBattle;
+import games.strategy.triplea.delegate.TerritoryEffectHelper;
+import games.strategy.triplea.delegate.dataObjects.CasualtyDetails;
+import games.strategy.triplea.xml.BenchmarkGame;
+
+/**
+ * Rolls the dice and selects the casualties of one round of a big land battle, the way the odds calculator does
+ * for every round it simulates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BattleBenchmark {
+  @Param
+  public BenchmarkGame game;
+
+  private DummyDelegateBridge m_bridge;
+  private MustFightBattle m_battle;
+  private PlayerID m_attacker;
+  private PlayerID m_defender;
+  private Territory m_location;
+  private List<Unit> m_attackingUnits;
+  private List<Unit> m_defendingUnits;
+  private Collection<TerritoryEffect> m_territoryEffects;
+  private DiceRoll m_attackerDice;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    final GameData data = game.load();
+    m_attacker = BenchmarkGame.attacker(data);
+    m_defender = BenchmarkGame.defender(data);
+    m_location = game.battleSite(data);
+    m_attackingUnits = BenchmarkGame.createAttackingUnits(data);
+    m_defendingUnits = BenchmarkGame.createDefendingUnits(data);
+    m_territoryEffects = TerritoryEffectHelper.getEffects(m_location);
+    m_bridge = new DummyDelegateBridge(m_attacker, data, new CompositeChange(), SimulationRandomSource.create(), null,
+        null, false, -1, -1, false);
+    m_battle = new MustFightBattle(m_location, m_attacker, data, new BattleTracker());
+    m_bridge.setBattle(m_battle);
+    // the defender must have some casualties to select
+    do {
+      m_attackerDice = rollDice();
+    } while (m_attackerDice.getHits() == 0);
+  }
+
+  @Benchmark
+  public DiceRoll rollDice() {
+    return DiceRoll.rollDice(m_attackingUnits, false, m_attacker, m_bridge, m_battle, "", m_territoryEffects,
+        m_defendingUnits);
+  }
+
+  @Benchmark
+  public CasualtyDetails selectCasualties() {
+    return BattleCalculator.selectCasualties("", m_defender, m_defendingUnits, m_defendingUnits, m_attacker,
+        m_attackingUnits, false, Collections.emptyList(), m_location, m_territoryEffects, m_bridge, "",
+        m_attackerDice, true, new GUID(), true, 0, true);
+  }
+}
@@ -0,0 +1,78 @@
+package games.strategy.triplea.oddsCalculator.ta;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import games.strategy.engine.data.GameData;
+import games.strategy.engine.data.PlayerID;
+import games.strategy.engine.data.Territory;
+import games.strategy.engine.data.TerritoryEffect;
+import games.strategy.engine.data.Unit;
+import games.strategy.triplea.delegate.TerritoryEffectHelper;
+import games.strategy.triplea.xml.BenchmarkGame;
+
+/**
+ * Calculates the odds of a big land battle, with and without the fast battle simulator.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OddsCalculatorBenchmark {
+  private static final int RUN_COUNT = 200;
+
+  @Param
+  public BenchmarkGame game;
+  @Param({"true", "false"})
+  public boolean useFastBattleSimulator;
+
+  private OddsCalculator m_calculator;
+  private PlayerID m_attacker;
+  private PlayerID m_defender;
+  private Territory m_location;
+  private List<Unit> m_attackingUnits;
+  private List<Unit> m_defendingUnits;
+  private Collection<TerritoryEffect> m_territoryEffects;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    final GameData data = game.load();
+    m_attacker = BenchmarkGame.attacker(data);
+    m_defender = BenchmarkGame.defender(data);
+    m_location = game.battleSite(data);
+    m_attackingUnits = BenchmarkGame.createAttackingUnits(data);
+    m_defendingUnits = BenchmarkGame.createDefendingUnits(data);
+    m_territoryEffects = TerritoryEffectHelper.getEffects(m_location);
+    m_calculator = new OddsCalculator(data);
+    m_calculator.setUseFastBattleSimulator(useFastBattleSimulator);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    m_calculator.shutdown();
+  }
+
+  @Benchmark
+  public AggregateResults calculate() {
+    return m_calculator.setCalculateDataAndCalculate(m_attacker, m_defender, m_location, m_attackingUnits,
+        m_defendingUnits, Collections.emptyList(), m_territoryEffects, RUN_COUNT);
+  }
+}
@@ -0,0 +1,84 @@
+package games.strategy.triplea.xml;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import games.strategy.engine.data.GameData;
+import games.strategy.engine.data.PlayerID;
+import games.strategy.engine.data.Territory;
+import games.strategy.engine.data.Unit;
+
+/**
+ * The bundled test games the benchmarks run on, with a big land battle and a long route on each map.
+ */
+public enum BenchmarkGame {
+  BIG_WORLD_1942(LoadGameUtil.TestMapXml.BIG_WORLD_1942, "Belorussia", "Western Germany", "Irkutsk"),
+  IRON_BLITZ(LoadGameUtil.TestMapXml.IRON_BLITZ, "East Europe", "West Europe", "Soviet Far East");
+
+  private final LoadGameUtil.TestMapXml m_map;
+  private final String m_battleSite;
+  private final String m_routeStart;
+  private final String m_routeEnd;
+
+  BenchmarkGame(final LoadGameUtil.TestMapXml map, final String battleSite, final String routeStart,
+      final String routeEnd) {
+    m_map = map;
+    m_battleSite = battleSite;
+    m_routeStart = routeStart;
+    m_routeEnd = routeEnd;
+  }
+
+  public GameData load() {
+    return LoadGameUtil.loadTestGame(m_map);
+  }
+
+  public static PlayerID attacker(final GameData data) {
+    return data.getPlayerList().getPlayerID("Russians");
+  }
+
+  public static PlayerID defender(final GameData data) {
+    return data.getPlayerList().getPlayerID("Germans");
+  }
+
+  /**
+   * Where the Russians attack the Germans.
+   */
+  public Territory battleSite(final GameData data) {
+    return data.getMap().getTerritory(m_battleSite);
+  }
+
+  public Territory routeStart(final GameData data) {
+    return data.getMap().getTerritory(m_routeStart);
+  }
+
+  public Territory routeEnd(final GameData data) {
+    return data.getMap().getTerritory(m_routeEnd);
+  }
+
+  /**
+   * A big attack without support, so the odds calculator may fight it with either battle simulator.
+   */
+  public static List<Unit> createAttackingUnits(final GameData data) {
+    final PlayerID attacker = attacker(data);
+    final List<Unit> units = new ArrayList<>();
+    units.addAll(create(data, "infantry", 12, attacker));
+    units.addAll(create(data, "armour", 6, attacker));
+    units.addAll(create(data, "fighter", 3, attacker));
+    units.addAll(create(data, "bomber", 1, attacker));
+    return units;
+  }
+
+  public static List<Unit> createDefendingUnits(final GameData data) {
+    final PlayerID defender = defender(data);
+    final List<Unit> units = new ArrayList<>();
+    units.addAll(create(data, "infantry", 10, defender));
+    units.addAll(create(data, "armour", 4, defender));
+    units.addAll(create(data, "fighter", 2, defender));
+    return units;
+  }
+
+  private static List<Unit> create(final GameData data, final String unitType, final int quantity,
+      final PlayerID owner) {
+    return data.getUnitTypeList().getUnitType(unitType).create(quantity, owner);
+  }
+}
@@ -73,6 +73,11 @@ public class ChangeAttachmentChange extends Change {
   public void perform(final GameData data) {
     final IAttachment attachment = attachedTo.getAttachment(attachmentName);
     PropertyUtil.set(property, newValue, attachment, clearFirst);
+    if (attachedTo instanceof UnitType) {
+      ((UnitType) attachedTo).clearCapabilities();
+    } else if (attachedTo instanceof RelationshipType) {
+      data.getRelationshipTracker().clearCache();
+    }
   }
 
   @Override
@@ -6,6 +6,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.logging.Logger;
 
 import games.strategy.triplea.delegate.Matches;
@@ -61,11 +62,12 @@ public class CompositeRouteFinder {
       previous.put(ter, start);
     }
     while (routeLeadersToProcess.size() > 0) {
+      final Set<Territory> oldLeaders = new HashSet<>(routeLeadersToProcess);
       final List<Territory> newLeaders = new ArrayList<>();
       for (final Territory oldLeader : routeLeadersToProcess) {
         for (final Territory ter : m_map.getNeighbors(oldLeader, Matches.territoryIsInList(allMatchingTers))) {
           final int routeScore = routeScoreMap.get(oldLeader) + terScoreMap.get(ter);
-          if (routeLeadersToProcess.contains(ter) || ter.equals(start)) {
+          if (oldLeaders.contains(ter) || ter.equals(start)) {
             continue;
           }
           if (previous.containsKey(ter)) // If we're bumping into an existing route
@@ -10,8 +10,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
 
 import javax.swing.SwingUtilities;
 
@@ -61,7 +64,7 @@ public class GameData implements java.io.Serializable {
   private static final long serialVersionUID = -2612710634080125728L;
   public static final String GAME_UUID = "GAME_UUID";
   private final ReadWriteLock readWriteLock = new ReentrantReadWriteLock();
-  private transient LockUtil lockUtil = new LockUtil();
+  private transient LockUtil lockUtil = LockUtil.create();
   private volatile transient boolean forceInSwingEventThread = false;
   private String gameName;
   private Version gameVersion;
@@ -70,6 +73,7 @@ public class GameData implements java.io.Serializable {
   private transient ListenerList<GameDataChangeListener> dataChangeListeners =
       new ListenerList<>();
   private transient ListenerList<GameMapListener> gameMapListeners = new ListenerList<>();
+  private transient ListenerList<GameDataChangeListener> changeRecorders = new ListenerList<>();
   private final AllianceTracker alliances = new AllianceTracker();
   // Tracks current relationships between players, this is empty if relationships aren't used
   private final RelationshipTracker relationships = new RelationshipTracker(this);
@@ -93,6 +97,11 @@ public class GameData implements java.io.Serializable {
   private IGameLoader loader;
   private final History gameHistory = new History(this);
   private volatile transient boolean testLockIsHeld = false;
+  private volatile transient UnitIndex unitIndex = null;
+  // how many times a unit changed owner, so unit counts by owner know when to be worked out again
+  private volatile transient int unitOwnerChanges = 0;
+  // state other classes work out from the game data, kept here so that it is collected along with the game data
+  private transient ConcurrentMap<Object, Object> derivedState = new ConcurrentHashMap<>();
   private final List<Tuple<IAttachment, ArrayList<Tuple<String, String>>>> attachmentOrderAndValues =
       new ArrayList<>();
   private final Hashtable<String, TerritoryEffect> territoryEffectList = new Hashtable<>();
@@ -107,7 +116,8 @@ public class GameData implements java.io.Serializable {
 
   private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
     in.defaultReadObject();
-    lockUtil = new LockUtil();
+    lockUtil = LockUtil.create();
+    derivedState = new ConcurrentHashMap<>();
   }
 
   /**
@@ -120,6 +130,63 @@ public class GameData implements java.io.Serializable {
     return map;
   }
 
+  /**
+   * @return the index of where the units on the map are and what they transport, built the first time it is needed.
+   */
+  public UnitIndex getUnitIndex() {
+    UnitIndex index = unitIndex;
+    if (index == null) {
+      synchronized (this) {
+        index = unitIndex;
+        if (index == null) {
+          index = new UnitIndex(map);
+          unitIndex = index;
+        }
+      }
+    }
+    return index;
+  }
+
+  /**
+   * @return the unit index, or null if it was not built yet and so needs no updates.
+   */
+  UnitIndex getUnitIndexIfBuilt() {
+    return unitIndex;
+  }
+
+  int getUnitOwnerChanges() {
+    return unitOwnerChanges;
+  }
+
+  void unitOwnerChanged() {
+    unitOwnerChanges++;
+  }
+
+  /**
+   * Keeps state worked out from this game data, such as a cache, with the game data rather than in a static map that
+   * would keep the game data from being collected. Whoever makes the state keeps it up to date, usually by clearing it
+   * from a change recorder.
+   *
+   * @param key
+   *        identifies the state, such as the class that keeps it
+   * @param factory
+   *        makes the state the first time it is asked for
+   * @return the state kept under the key
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T getDerivedState(final Object key, final Function<GameData, T> factory) {
+    return (T) derivedState.computeIfAbsent(key, k -> factory.apply(this));
+  }
+
+  /**
+   * Called once a {@link GameDataSnapshot} has been put back, which sets fields directly instead of performing changes.
+   */
+  void snapshotRestored(final Change change) {
+    unitIndex = null;
+    unitOwnerChanges++;
+    changeRecorders.forEach(recorder -> recorder.gameDataChanged(change));
+  }
+
   /**
    * Print an exception report if we are testing the lock is held, and
    * do not currently hold the read or write lock
@@ -131,7 +198,7 @@ public class GameData implements java.io.Serializable {
     if (readWriteLockMissing()) {
       return;
     }
-    if (!lockUtil.isLockHeld(readWriteLock.readLock()) && !lockUtil.isLockHeld(readWriteLock.writeLock())) {
+    if (!isLockHeld()) {
       new Exception("Lock not held").printStackTrace(System.out);
     }
   }
@@ -268,6 +335,19 @@ public class GameData implements java.io.Serializable {
     dataChangeListeners.remove(listener);
   }
 
+  /**
+   * Unlike a data change listener, a change recorder is told about a change before the write lock is released.
+   * So whoever holds the read lock sees either a change and its notification, or neither of them.
+   * Recorders must be quick and must not touch the game data.
+   */
+  public void addChangeRecorder(final GameDataChangeListener recorder) {
+    changeRecorders.add(recorder);
+  }
+
+  public void removeChangeRecorder(final GameDataChangeListener recorder) {
+    changeRecorders.remove(recorder);
+  }
+
   public void addGameMapListener(final GameMapListener listener) {
     gameMapListeners.add(listener);
   }
@@ -346,6 +426,7 @@ public class GameData implements java.io.Serializable {
     territoryListeners = new ListenerList<>();
     dataChangeListeners = new ListenerList<>();
     gameMapListeners = new ListenerList<>();
+    changeRecorders = new ListenerList<>();
   }
 
   /**
@@ -386,6 +467,22 @@ public class GameData implements java.io.Serializable {
     lockUtil.releaseLock(readWriteLock.writeLock());
   }
 
+  /**
+   * @return whether the current thread holds the read or write lock.
+   */
+  private boolean isLockHeld() {
+    final ReentrantReadWriteLock lock = (ReentrantReadWriteLock) readWriteLock;
+    return lock.getReadHoldCount() > 0 || lock.isWriteLockedByCurrentThread();
+  }
+
+  /**
+   * @return the lock util the read and write locks are acquired through, which counts how often threads had to wait for
+   *         them.
+   */
+  public LockUtil getLockUtil() {
+    return lockUtil;
+  }
+
   /**
    * @return boolean, whether readWriteLock is missing
    *         This can happen in very odd circumstances while deserializing.
@@ -491,6 +588,7 @@ public class GameData implements java.io.Serializable {
     try {
       acquireWriteLock();
       change.perform(this);
+      changeRecorders.forEach(recorder -> recorder.gameDataChanged(change));
     } finally {
       releaseWriteLock();
     }
@@ -0,0 +1,575 @@
+package games.strategy.engine.data;
+
+import java.io.File;
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Properties;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Multimap;
+
+import games.strategy.debug.ClientLogger;
+import games.strategy.engine.delegate.IDelegate;
+import games.strategy.engine.history.History;
+import games.strategy.net.GUID;
+import games.strategy.util.Version;
+
+/**
+ * Makes a deep copy of a GameData by walking its object graph directly, instead of writing it to an
+ * ObjectOutputStream and reading it back in.
+ * <p>
+ * The copy has the same shape the serialized copy would have: transient fields are left empty, every object
+ * that is reachable more than once is copied once, and the delegates (which are not part of the graph) are
+ * copied through their saveState()/loadState() methods. Game classes are copied field by field, the jdk and
+ * guava collections the game data uses are rebuilt, and immutable values (strings, numbers, enums, GUIDs, ...)
+ * are shared.
+ * </p>
+ * <p>
+ * Anything else (a jdk class we do not know how to rebuild) causes an IllegalStateException, callers should
+ * fall back to the serialized copy in that case. So does copying on a jvm that does not let us at sun.misc.Unsafe,
+ * see {@link #isAvailable()}.
+ * </p>
+ * <p>
+ * You should have the game datas read or write lock before calling any of these methods.
+ * </p>
+ */
+public final class GameDataCopier {
+  private static final Set<Class<?>> s_immutableTypes = new HashSet<>(Arrays.<Class<?>>asList(String.class,
+      Boolean.class, Character.class, Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class,
+      BigInteger.class, BigDecimal.class, Class.class, UUID.class, File.class, java.awt.Color.class, GUID.class,
+      Version.class));
+  private static final Map<Class<?>, Field[]> s_fieldsByClass = new ConcurrentHashMap<>();
+
+  /**
+   * The game classes mostly have no default constructor, so we allocate them the same way ObjectInputStream does,
+   * without running any constructor. Looked up the first time a game data is copied, and left null if the jvm does not
+   * let us at sun.misc.Unsafe.
+   */
+  private static final class Allocator {
+    private static final Object s_unsafe;
+    private static final Method s_allocateInstance;
+
+    static {
+      Object unsafe = null;
+      Method allocateInstance = null;
+      try {
+        final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+        final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+        theUnsafe.setAccessible(true);
+        unsafe = theUnsafe.get(null);
+        allocateInstance = unsafeClass.getMethod("allocateInstance", Class.class);
+      } catch (final ReflectiveOperationException | RuntimeException e) {
+        ClientLogger.logQuietly("Game datas will be copied by serializing them", e);
+        unsafe = null;
+        allocateInstance = null;
+      }
+      s_unsafe = unsafe;
+      s_allocateInstance = allocateInstance;
+    }
+  }
+
+  private final GameData m_source;
+  private final GameData m_target;
+  private final boolean m_shallow;
+  private final Map<Object, Object> m_copies = new IdentityHashMap<>();
+  // hashed collections are filled once the whole graph is copied, since the hash codes of our keys
+  // may depend on fields that have not been copied yet
+  private final List<Runnable> m_deferredFills = new ArrayList<>();
+
+  private GameDataCopier(final GameData source, final boolean shallow) {
+    m_source = source;
+    m_target = new GameData();
+    m_shallow = shallow;
+  }
+
+  /**
+   * Create a complete deep copy of the game data, including its history.
+   */
+  public static GameData copy(final GameData data, final boolean copyDelegates) {
+    checkAvailable();
+    return new GameDataCopier(data, false).copyGameData(copyDelegates);
+  }
+
+  /**
+   * Create a copy of the game data for running simulations (battle calculations, ai look ahead).
+   * The history is not copied (the copy starts with an empty history), and the record of the
+   * attachment options the game was parsed with, which is only used when exporting the game to xml,
+   * is shared with the original instead of being copied.
+   */
+  public static GameData copyForSimulation(final GameData data, final boolean copyDelegates) {
+    checkAvailable();
+    return new GameDataCopier(data, true).copyGameData(copyDelegates);
+  }
+
+  /**
+   * @return whether game datas can be copied, which they can not on a jvm that does not let us at sun.misc.Unsafe.
+   */
+  public static boolean isAvailable() {
+    return Allocator.s_allocateInstance != null;
+  }
+
+  private static void checkAvailable() {
+    if (!isAvailable()) {
+      throw new IllegalStateException("Game objects can not be allocated on this jvm");
+    }
+  }
+
+  private GameData copyGameData(final boolean copyDelegates) {
+    m_copies.put(m_source, m_target);
+    final Object history = m_source.getHistory();
+    final Object delegateList = m_source.getDelegateList();
+    final Object attachmentOrderAndValues = m_source.getAttachmentOrderAndValues();
+    Field historyField = null;
+    for (final Field field : getFields(GameData.class)) {
+      final Object value = getField(field, m_source);
+      if (value == history) {
+        // copied last, since replaying the history reads the sequence
+        historyField = field;
+      } else if (value == delegateList) {
+        // delegates are not part of the graph, keep the empty list the new game data made
+        continue;
+      } else if (value == attachmentOrderAndValues && m_shallow) {
+        setField(field, m_target, value);
+      } else {
+        setField(field, m_target, copyOf(value));
+      }
+    }
+    m_target.getSequence().initializeTransients();
+    final Map<IDelegate, Object> delegateStates = new LinkedHashMap<>();
+    if (copyDelegates) {
+      for (final IDelegate delegate : m_source.getDelegateList()) {
+        delegateStates.put(delegate, copyOf(delegate.saveState()));
+      }
+    }
+    if (historyField != null && !m_shallow) {
+      for (final Runnable fill : m_deferredFills) {
+        fill.run();
+      }
+      m_deferredFills.clear();
+      setField(historyField, m_target, m_source.getHistory().copyInto(m_target, this::copyOf));
+    }
+    for (final Runnable fill : m_deferredFills) {
+      fill.run();
+    }
+    for (final Entry<IDelegate, Object> entry : delegateStates.entrySet()) {
+      final IDelegate delegate = newDelegate(entry.getKey());
+      if (entry.getValue() != null) {
+        delegate.loadState((Serializable) entry.getValue());
+      }
+    }
+    return m_target;
+  }
+
+  private IDelegate newDelegate(final IDelegate original) {
+    final IDelegate delegate;
+    try {
+      delegate = original.getClass().newInstance();
+    } catch (final ReflectiveOperationException e) {
+      throw new IllegalStateException("Could not create delegate:" + original.getName(), e);
+    }
+    delegate.initialize(original.getName(), original.getDisplayName());
+    m_target.getDelegateList().addDelegate(delegate);
+    return delegate;
+  }
+
+  private Object copyOf(final Object original) {
+    if (original == null || isShared(original)) {
+      return original;
+    }
+    final Object existing = m_copies.get(original);
+    if (existing != null) {
+      return existing;
+    }
+    final Class<?> type = original.getClass();
+    if (type.isArray()) {
+      return copyArray(original);
+    } else if (original instanceof History) {
+      // only reachable through something other than GameData, which never happens in practice
+      throw new IllegalStateException("History can only be copied as part of its game data");
+    } else if (type.getName().startsWith("games.strategy.")) {
+      return copyGameObject(original);
+    } else if (original instanceof Multimap) {
+      return copyMultimap((Multimap<?, ?>) original);
+    } else if (original instanceof Map) {
+      return copyMap((Map<?, ?>) original);
+    } else if (original instanceof Collection) {
+      return copyCollection((Collection<?>) original);
+    }
+    return copyJdkObject(original);
+  }
+
+  private boolean isShared(final Object original) {
+    return isImmutable(original) || original == PlayerID.NULL_PLAYERID || hasNoState(original.getClass());
+  }
+
+  /**
+   * @return whether the object is a value (string, number, enum, ...) that never changes.
+   */
+  static boolean isImmutable(final Object object) {
+    final Class<?> type = object.getClass();
+    return s_immutableTypes.contains(type) || type.isEnum() || object instanceof Enum;
+  }
+
+  static boolean hasNoState(final Class<?> type) {
+    // stateless game objects (empty changes, comparators, matches) are safe to share
+    return type.getName().startsWith("games.strategy.") && getFields(type).length == 0;
+  }
+
+  private Object copyGameObject(final Object original) {
+    final Object copy;
+    try {
+      copy = Allocator.s_allocateInstance.invoke(Allocator.s_unsafe, original.getClass());
+    } catch (final ReflectiveOperationException e) {
+      throw new IllegalStateException("Could not create:" + original.getClass(), e);
+    }
+    m_copies.put(original, copy);
+    for (final Field field : getFields(original.getClass())) {
+      setField(field, copy, copyOf(getField(field, original)));
+    }
+    return copy;
+  }
+
+  private Object copyArray(final Object original) {
+    final int length = Array.getLength(original);
+    final Class<?> componentType = original.getClass().getComponentType();
+    if (componentType.isPrimitive()) {
+      final Object copy = Array.newInstance(componentType, length);
+      System.arraycopy(original, 0, copy, 0, length);
+      m_copies.put(original, copy);
+      return copy;
+    }
+    final Object[] copy = (Object[]) Array.newInstance(componentType, length);
+    m_copies.put(original, copy);
+    final Object[] source = (Object[]) original;
+    for (int i = 0; i < length; i++) {
+      copy[i] = copyOf(source[i]);
+    }
+    return copy;
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private Object copyCollection(final Collection<?> original) {
+    final Class<?> type = original.getClass();
+    final String name = type.getName();
+    if (name.startsWith("java.util.Collections$Empty")) {
+      return original;
+    } else if (name.equals("java.util.Collections$SingletonList")) {
+      return register(original, Collections.singletonList(copyOf(original.iterator().next())));
+    } else if (name.equals("java.util.Collections$SingletonSet")) {
+      return register(original, Collections.singleton(copyOf(original.iterator().next())));
+    } else if (name.equals("java.util.Arrays$ArrayList")) {
+      return register(original, Arrays.asList((Object[]) copyOf(original.toArray())));
+    } else if (original instanceof ImmutableList) {
+      return register(original, ImmutableList.copyOf(copyElements(original)));
+    } else if (original instanceof ImmutableSet) {
+      return register(original, ImmutableSet.copyOf(copyElements(original)));
+    } else if (name.startsWith("java.util.Collections$Unmodifiable")) {
+      // we cant get at the wrapped collection, so we copy the view into a collection
+      // with the same iteration order and wrap that
+      if (original instanceof SortedSet) {
+        final TreeSet copy = new TreeSet(copyComparator(((SortedSet) original).comparator()));
+        m_copies.put(original, Collections.unmodifiableSortedSet(copy));
+        fillLater(copy, copyElements(original));
+      } else if (original instanceof Set) {
+        final Set copy = new LinkedHashSet(setCapacity(original.size()));
+        m_copies.put(original, Collections.unmodifiableSet(copy));
+        fillLater(copy, copyElements(original));
+      } else if (original instanceof List) {
+        final List copy = new ArrayList(original.size());
+        m_copies.put(original, Collections.unmodifiableList(copy));
+        copy.addAll(copyElements(original));
+      } else {
+        final List copy = new ArrayList(original.size());
+        m_copies.put(original, Collections.unmodifiableCollection(copy));
+        copy.addAll(copyElements(original));
+      }
+      return m_copies.get(original);
+    }
+    final Collection copy;
+    if (type == ArrayList.class) {
+      copy = new ArrayList(original.size());
+    } else if (type == LinkedList.class) {
+      copy = new LinkedList();
+    } else if (type == Vector.class) {
+      copy = new Vector(original.size());
+    } else if (type == CopyOnWriteArrayList.class) {
+      copy = new CopyOnWriteArrayList();
+    } else if (type == HashSet.class) {
+      copy = new HashSet(setCapacity(original.size()));
+    } else if (type == LinkedHashSet.class) {
+      copy = new LinkedHashSet(setCapacity(original.size()));
+    } else if (type == TreeSet.class) {
+      copy = new TreeSet(copyComparator(((TreeSet) original).comparator()));
+    } else {
+      throw new IllegalStateException("Can not copy collection:" + type);
+    }
+    m_copies.put(original, copy);
+    if (copy instanceof List) {
+      copy.addAll(copyElements(original));
+    } else {
+      fillLater(copy, copyElements(original));
+    }
+    return copy;
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private Object copyMap(final Map<?, ?> original) {
+    final Class<?> type = original.getClass();
+    final String name = type.getName();
+    if (name.startsWith("java.util.Collections$Empty")) {
+      return original;
+    } else if (name.equals("java.util.Collections$SingletonMap")) {
+      final Entry<?, ?> entry = original.entrySet().iterator().next();
+      return register(original, Collections.singletonMap(copyOf(entry.getKey()), copyOf(entry.getValue())));
+    } else if (original instanceof ImmutableMap) {
+      final List<Object> entries = copyEntries(original);
+      final ImmutableMap.Builder builder = ImmutableMap.builder();
+      for (int i = 0; i < entries.size(); i += 2) {
+        builder.put(entries.get(i), entries.get(i + 1));
+      }
+      return register(original, builder.build());
+    } else if (name.startsWith("java.util.Collections$Unmodifiable")) {
+      final Map copy;
+      if (original instanceof SortedMap) {
+        copy = new TreeMap(copyComparator(((SortedMap) original).comparator()));
+        m_copies.put(original, Collections.unmodifiableSortedMap((SortedMap) copy));
+      } else {
+        copy = new LinkedHashMap(mapCapacity(original.size()));
+        m_copies.put(original, Collections.unmodifiableMap(copy));
+      }
+      fillLater(copy, copyEntries(original));
+      return m_copies.get(original);
+    }
+    final Map copy;
+    if (type == HashMap.class) {
+      copy = new HashMap(mapCapacity(original.size()));
+    } else if (type == LinkedHashMap.class) {
+      copy = new LinkedHashMap(mapCapacity(original.size()));
+    } else if (type == Hashtable.class) {
+      copy = new Hashtable(hashtableCapacity(original.size()));
+    } else if (type == Properties.class) {
+      copy = new Properties();
+    } else if (type == ConcurrentHashMap.class) {
+      copy = new ConcurrentHashMap(mapCapacity(original.size()));
+    } else if (type == IdentityHashMap.class) {
+      copy = new IdentityHashMap(original.size());
+    } else if (type == TreeMap.class) {
+      copy = new TreeMap(copyComparator(((TreeMap) original).comparator()));
+    } else {
+      throw new IllegalStateException("Can not copy map:" + type);
+    }
+    m_copies.put(original, copy);
+    fillLater(copy, copyEntries(original));
+    return copy;
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private Object copyMultimap(final Multimap<?, ?> original) {
+    final List<Object> entries = new ArrayList<>(original.size() * 2);
+    final Multimap copy;
+    if (original instanceof ImmutableListMultimap || original instanceof ImmutableSetMultimap) {
+      for (final Entry<?, ?> entry : original.entries()) {
+        entries.add(copyOf(entry.getKey()));
+        entries.add(copyOf(entry.getValue()));
+      }
+      final ImmutableMultimap.Builder builder =
+          original instanceof ImmutableListMultimap ? ImmutableListMultimap.builder() : ImmutableSetMultimap.builder();
+      for (int i = 0; i < entries.size(); i += 2) {
+        builder.put(entries.get(i), entries.get(i + 1));
+      }
+      return register(original, builder.build());
+    } else if (original instanceof HashMultimap) {
+      copy = HashMultimap.create();
+    } else if (original instanceof LinkedHashMultimap) {
+      copy = LinkedHashMultimap.create();
+    } else if (original instanceof ArrayListMultimap) {
+      copy = ArrayListMultimap.create();
+    } else {
+      throw new IllegalStateException("Can not copy multimap:" + original.getClass());
+    }
+    m_copies.put(original, copy);
+    for (final Entry<?, ?> entry : original.entries()) {
+      entries.add(copyOf(entry.getKey()));
+      entries.add(copyOf(entry.getValue()));
+    }
+    m_deferredFills.add(() -> {
+      for (int i = 0; i < entries.size(); i += 2) {
+        copy.put(entries.get(i), entries.get(i + 1));
+      }
+    });
+    return copy;
+  }
+
+  private Object copyJdkObject(final Object original) {
+    if (original instanceof ReentrantReadWriteLock) {
+      return register(original, new ReentrantReadWriteLock());
+    } else if (original instanceof ReentrantLock) {
+      return register(original, new ReentrantLock());
+    } else if (original instanceof AtomicInteger) {
+      return register(original, new AtomicInteger(((AtomicInteger) original).get()));
+    } else if (original instanceof AtomicLong) {
+      return register(original, new AtomicLong(((AtomicLong) original).get()));
+    } else if (original instanceof AtomicBoolean) {
+      return register(original, new AtomicBoolean(((AtomicBoolean) original).get()));
+    } else if (original instanceof java.util.Date) {
+      return register(original, ((java.util.Date) original).clone());
+    } else if (original instanceof Comparator) {
+      // jdk comparators (String.CASE_INSENSITIVE_ORDER, reverseOrder()) are stateless
+      return original;
+    }
+    throw new IllegalStateException("Can not copy:" + original.getClass());
+  }
+
+  // the capacities below are the ones the jdk collections pick when they are deserialized,
+  // so that our copies iterate in the same order as a serialized copy would
+
+  private static int mapCapacity(final int size) {
+    return Math.max(16, (int) (size / 0.75f + 1.0f));
+  }
+
+  private static int setCapacity(final int size) {
+    return (int) (size * (1 / 0.75f));
+  }
+
+  private static int hashtableCapacity(final int size) {
+    int length = (int) ((size + size / 20) / 0.75f) + 3;
+    if (length > size && (length & 1) == 0) {
+      length--;
+    }
+    return length;
+  }
+
+  private Comparator<?> copyComparator(final Comparator<?> comparator) {
+    return (Comparator<?>) copyOf(comparator);
+  }
+
+  private Object register(final Object original, final Object copy) {
+    m_copies.put(original, copy);
+    return copy;
+  }
+
+  private List<Object> copyElements(final Collection<?> original) {
+    final List<Object> elements = new ArrayList<>(original.size());
+    for (final Object element : original) {
+      elements.add(copyOf(element));
+    }
+    return elements;
+  }
+
+  private List<Object> copyEntries(final Map<?, ?> original) {
+    final List<Object> entries = new ArrayList<>(original.size() * 2);
+    for (final Entry<?, ?> entry : original.entrySet()) {
+      entries.add(copyOf(entry.getKey()));
+      entries.add(copyOf(entry.getValue()));
+    }
+    return entries;
+  }
+
+  private void fillLater(final Collection<Object> copy, final List<Object> elements) {
+    m_deferredFills.add(() -> copy.addAll(elements));
+  }
+
+  private void fillLater(final Map<Object, Object> copy, final List<Object> entries) {
+    m_deferredFills.add(() -> {
+      for (int i = 0; i < entries.size(); i += 2) {
+        copy.put(entries.get(i), entries.get(i + 1));
+      }
+    });
+  }
+
+  /**
+   * The serialized fields of the class, super class fields first.
+   * Fields that cant hold a reference to other game objects come first, so that names and
+   * ids (which our hash codes use) are set before we recurse into the rest of the object.
+   */
+  static Field[] getFields(final Class<?> type) {
+    Field[] fields = s_fieldsByClass.get(type);
+    if (fields == null) {
+      final List<Field> leaves = new ArrayList<>();
+      final List<Field> references = new ArrayList<>();
+      final List<Class<?>> hierarchy = new ArrayList<>();
+      for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+        if (!current.getName().startsWith("games.strategy.")) {
+          throw new IllegalStateException("Can not copy:" + type + " it extends:" + current);
+        }
+        hierarchy.add(0, current);
+      }
+      for (final Class<?> current : hierarchy) {
+        for (final Field field : current.getDeclaredFields()) {
+          final int modifiers = field.getModifiers();
+          if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)) {
+            continue;
+          }
+          field.setAccessible(true);
+          if (field.getType().isPrimitive() || s_immutableTypes.contains(field.getType())) {
+            leaves.add(field);
+          } else {
+            references.add(field);
+          }
+        }
+      }
+      leaves.addAll(references);
+      fields = leaves.toArray(new Field[leaves.size()]);
+      s_fieldsByClass.put(type, fields);
+    }
+    return fields;
+  }
+
+  static Object getField(final Field field, final Object object) {
+    try {
+      return field.get(object);
+    } catch (final IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  static void setField(final Field field, final Object object, final Object value) {
+    try {
+      field.set(object, value);
+    } catch (final IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,443 @@
+package games.strategy.engine.data;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Multimap;
+
+import games.strategy.engine.history.History;
+
+/**
+ * The state of a game data at some point, which can later be put back into the same game data.
+ * <p>
+ * Unlike a copy made by {@link GameDataCopier}, putting a snapshot back keeps the game data and everything in it, so
+ * listeners and anything else holding on to territories, units or players keep working. The snapshot records what every
+ * field, array and collection reachable from the game data held, and putting it back sets them to that again.
+ * The caches worked out from the game (unit counts, relationship flags, unit capabilities and the map's adjacency)
+ * are cleared, and those kept in the game data's derived state are cleared by its change recorders. Other transient
+ * fields, such as the display of the game loader, are left alone.
+ * </p>
+ * <p>
+ * Only the objects reachable from the game data when the snapshot is taken are covered, along with the other roots
+ * passed in, which should be the objects the changes that can be made afterwards refer to (see
+ * {@link #getReferencedObjects(Collection)}). The history and the delegates are not covered.
+ * </p>
+ * <p>
+ * You should have the game datas write lock before calling any of these methods.
+ * </p>
+ */
+public final class GameDataSnapshot {
+  private static final Set<Class<?>> s_orderedCollections = new HashSet<>(Arrays.<Class<?>>asList(ArrayList.class,
+      LinkedList.class, Vector.class, CopyOnWriteArrayList.class, LinkedHashSet.class, TreeSet.class,
+      LinkedHashMap.class, TreeMap.class, LinkedHashMultimap.class, ArrayListMultimap.class));
+  private static final Set<Class<?>> s_unorderedCollections = new HashSet<>(Arrays.<Class<?>>asList(HashSet.class,
+      HashMap.class, Hashtable.class, Properties.class, ConcurrentHashMap.class, IdentityHashMap.class,
+      HashMultimap.class));
+  private final GameData m_data;
+  private final Map<Field, Object> m_gameDataFields = new LinkedHashMap<>();
+  // what each object held when the snapshot was taken: its fields, array elements, collection elements, map keys
+  // and values one after the other, or its value
+  private final List<Object> m_objects = new ArrayList<>();
+  private final List<Object[]> m_states = new ArrayList<>();
+  // the objects already covered, or found to be values
+  private final Set<Object> m_visited = Collections.newSetFromMap(new IdentityHashMap<>());
+
+  private GameDataSnapshot(final GameData data, final Collection<?> otherRoots) {
+    m_data = data;
+    final Deque<Object> pending = new ArrayDeque<>();
+    final Object history = data.getHistory();
+    final Object delegateList = data.getDelegateList();
+    final Object attachmentOrderAndValues = data.getAttachmentOrderAndValues();
+    for (final Field field : GameDataCopier.getFields(GameData.class)) {
+      final Object value = GameDataCopier.getField(field, data);
+      if (value != history && value != delegateList && value != attachmentOrderAndValues) {
+        m_gameDataFields.put(field, value);
+        push(pending, value);
+      }
+    }
+    pending.addAll(otherRoots);
+    m_visited.add(data);
+    recordAll(pending);
+  }
+
+  private void recordAll(final Deque<Object> pending) {
+    while (!pending.isEmpty()) {
+      final Object object = pending.pop();
+      if (!isValue(object) && m_visited.add(object)) {
+        final Object[] state = record(object, pending);
+        if (state != null) {
+          m_objects.add(object);
+          m_states.add(state);
+        }
+      }
+    }
+  }
+
+  /**
+   * @throws IllegalStateException
+   *         if the game data holds something we do not know how to put back
+   */
+  public static GameDataSnapshot take(final GameData data, final Collection<?> otherRoots) {
+    return new GameDataSnapshot(data, otherRoots);
+  }
+
+  /**
+   * Also covers the objects reachable from the given roots that the snapshot does not cover yet, as they are now. Use
+   * this for the objects referred to by changes made after the snapshot was taken, which were not part of the game
+   * data then and so have not been changed since.
+   *
+   * @throws IllegalStateException
+   *         if one of them holds something we do not know how to put back
+   */
+  public void cover(final Collection<?> roots) {
+    recordAll(new ArrayDeque<>(roots));
+  }
+
+  /**
+   * @return how many objects the snapshot covers, which is roughly what putting it back costs.
+   */
+  public int size() {
+    return m_objects.size();
+  }
+
+  /**
+   * @return the game objects (units, attachments, ...) the changes refer to, without the changes themselves.
+   */
+  public static Collection<Object> getReferencedObjects(final Collection<? extends Change> changes) {
+    final Set<Object> referenced = Collections.newSetFromMap(new IdentityHashMap<>());
+    final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    final Deque<Object> pending = new ArrayDeque<>(changes);
+    while (!pending.isEmpty()) {
+      final Object object = pending.pop();
+      if (isValue(object) || !visited.add(object)) {
+        continue;
+      }
+      if (object instanceof Change) {
+        for (final Field field : GameDataCopier.getFields(object.getClass())) {
+          push(pending, GameDataCopier.getField(field, object));
+        }
+      } else if (object.getClass().getName().startsWith("games.strategy.")) {
+        referenced.add(object);
+      } else {
+        pushContents(object, pending);
+      }
+    }
+    return referenced;
+  }
+
+  private static boolean isValue(final Object object) {
+    // the null player is shared by every game data, as it is by a copy, so it is never put back
+    return GameDataCopier.isImmutable(object) || object == PlayerID.NULL_PLAYERID
+        || GameDataCopier.hasNoState(object.getClass());
+  }
+
+  private static void push(final Deque<Object> pending, final Object object) {
+    if (object != null) {
+      pending.push(object);
+    }
+  }
+
+  private static void pushContents(final Object object, final Deque<Object> pending) {
+    if (object instanceof Object[]) {
+      for (final Object element : (Object[]) object) {
+        push(pending, element);
+      }
+    } else if (object instanceof Collection) {
+      ((Collection<?>) object).forEach(element -> push(pending, element));
+    } else if (object instanceof Map) {
+      ((Map<?, ?>) object).forEach((key, value) -> {
+        push(pending, key);
+        push(pending, value);
+      });
+    } else if (object instanceof Multimap) {
+      ((Multimap<?, ?>) object).forEach((key, value) -> {
+        push(pending, key);
+        push(pending, value);
+      });
+    }
+  }
+
+  /**
+   * @return what the object holds, or null if it can not change.
+   */
+  private static Object[] record(final Object object, final Deque<Object> pending) {
+    final Class<?> type = object.getClass();
+    if (type.isArray()) {
+      if (type.getComponentType().isPrimitive()) {
+        final Object elements = Array.newInstance(type.getComponentType(), Array.getLength(object));
+        System.arraycopy(object, 0, elements, 0, Array.getLength(object));
+        return new Object[] {elements};
+      }
+      pushContents(object, pending);
+      return ((Object[]) object).clone();
+    } else if (object instanceof History) {
+      throw new IllegalStateException("History is not part of a snapshot");
+    } else if (type.getName().startsWith("games.strategy.")) {
+      final Field[] fields = GameDataCopier.getFields(type);
+      final Object[] values = new Object[fields.length];
+      for (int i = 0; i < fields.length; i++) {
+        values[i] = GameDataCopier.getField(fields[i], object);
+        push(pending, values[i]);
+      }
+      return values;
+    }
+    pushContents(object, pending);
+    if (s_orderedCollections.contains(type) || s_unorderedCollections.contains(type)) {
+      return getContents(object);
+    } else if (object instanceof Collection || object instanceof Map || object instanceof Multimap) {
+      // immutable and unmodifiable collections
+      return null;
+    } else if (object instanceof AtomicInteger) {
+      return new Object[] {((AtomicInteger) object).get()};
+    } else if (object instanceof AtomicLong) {
+      return new Object[] {((AtomicLong) object).get()};
+    } else if (object instanceof AtomicBoolean) {
+      return new Object[] {((AtomicBoolean) object).get()};
+    } else if (object instanceof java.util.Date) {
+      return new Object[] {((java.util.Date) object).getTime()};
+    } else if (object instanceof ReentrantReadWriteLock || object instanceof ReentrantLock
+        || object instanceof Comparator) {
+      return null;
+    }
+    throw new IllegalStateException("Can not take a snapshot of:" + type);
+  }
+
+  private static Object[] getContents(final Object collection) {
+    if (collection instanceof Collection) {
+      return ((Collection<?>) collection).toArray();
+    }
+    final Collection<? extends Entry<?, ?>> entries = collection instanceof Map ? ((Map<?, ?>) collection).entrySet()
+        : ((Multimap<?, ?>) collection).entries();
+    final Object[] contents = new Object[entries.size() * 2];
+    int i = 0;
+    for (final Entry<?, ?> entry : entries) {
+      contents[i++] = entry.getKey();
+      contents[i++] = entry.getValue();
+    }
+    return contents;
+  }
+
+  /**
+   * Puts the state back, then tells the change recorders and listeners of the game data about the given change, as
+   * if it had been performed.
+   *
+   * @param change
+   *        a change that would take the game data from its current state to the snapshot
+   */
+  public void restore(final Change change) {
+    final Set<Object> restored = Collections.newSetFromMap(new IdentityHashMap<>());
+    // collections are filled once every object is restored, since our hash codes depend on fields
+    final List<Integer> refills = new ArrayList<>();
+    for (int i = 0; i < m_objects.size(); i++) {
+      final Object object = m_objects.get(i);
+      final Class<?> type = object.getClass();
+      if (s_orderedCollections.contains(type) || s_unorderedCollections.contains(type)) {
+        refills.add(i);
+      } else if (restore(object, m_states.get(i))) {
+        restored.add(object);
+      }
+    }
+    for (final Entry<Field, Object> entry : m_gameDataFields.entrySet()) {
+      GameDataCopier.setField(entry.getKey(), m_data, entry.getValue());
+    }
+    for (final int i : refills) {
+      if (refill(m_objects.get(i), m_states.get(i))) {
+        restored.add(m_objects.get(i));
+      }
+    }
+    m_data.getSequence().initializeTransients();
+    m_data.snapshotRestored(change);
+    for (final Territory territory : m_data.getMap().getTerritories()) {
+      if (restored.contains(territory)) {
+        m_data.notifyTerritoryOwnerChanged(territory);
+      }
+      if (isRestored(territory.getUnits(), restored)) {
+        m_data.notifyTerritoryUnitsChanged(territory);
+      }
+      for (final IAttachment attachment : territory.getAttachments().values()) {
+        if (restored.contains(attachment)) {
+          m_data.notifyTerritoryAttachmentChanged(territory);
+          break;
+        }
+      }
+    }
+    m_data.notifyGameDataChanged(change);
+  }
+
+  /**
+   * @return whether the object was changed.
+   */
+  private static boolean restore(final Object object, final Object[] state) {
+    final Class<?> type = object.getClass();
+    if (type.isArray()) {
+      if (type.getComponentType().isPrimitive()) {
+        if (Objects.deepEquals(object, state[0])) {
+          return false;
+        }
+        System.arraycopy(state[0], 0, object, 0, Array.getLength(object));
+        return true;
+      }
+      final Object[] elements = (Object[]) object;
+      final boolean changed = !sameInOrder(Arrays.asList(elements), state);
+      System.arraycopy(state, 0, elements, 0, elements.length);
+      return changed;
+    } else if (type.getName().startsWith("games.strategy.")) {
+      final Field[] fields = GameDataCopier.getFields(type);
+      boolean changed = false;
+      for (int i = 0; i < fields.length; i++) {
+        if (!same(GameDataCopier.getField(fields[i], object), state[i])) {
+          GameDataCopier.setField(fields[i], object, state[i]);
+          changed = true;
+        }
+      }
+      clearCaches(object);
+      return changed;
+    } else if (object instanceof AtomicInteger) {
+      return ((AtomicInteger) object).getAndSet((Integer) state[0]) != (Integer) state[0];
+    } else if (object instanceof AtomicLong) {
+      return ((AtomicLong) object).getAndSet((Long) state[0]) != (Long) state[0];
+    } else if (object instanceof AtomicBoolean) {
+      return ((AtomicBoolean) object).getAndSet((Boolean) state[0]) != (Boolean) state[0];
+    }
+    final long time = ((java.util.Date) object).getTime();
+    ((java.util.Date) object).setTime((Long) state[0]);
+    return time != (Long) state[0];
+  }
+
+  /**
+   * @return whether the contents of the collection were changed.
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static boolean refill(final Object collection, final Object[] contents) {
+    final boolean ordered = s_orderedCollections.contains(collection.getClass());
+    if (collection instanceof Collection) {
+      final Collection elements = (Collection) collection;
+      if (ordered ? sameInOrder(elements, contents)
+          : elements.size() == contents.length && elements.containsAll(Arrays.asList(contents))) {
+        return false;
+      }
+      elements.clear();
+      elements.addAll(Arrays.asList(contents));
+      return true;
+    } else if (collection instanceof Map) {
+      final Map map = (Map) collection;
+      if (ordered ? sameEntriesInOrder(map.entrySet(), contents) : sameEntries(map, contents)) {
+        return false;
+      }
+      map.clear();
+      for (int i = 0; i < contents.length; i += 2) {
+        map.put(contents[i], contents[i + 1]);
+      }
+      return true;
+    }
+    final Multimap multimap = (Multimap) collection;
+    if (sameEntriesInOrder(multimap.entries(), contents)) {
+      return false;
+    }
+    multimap.clear();
+    for (int i = 0; i < contents.length; i += 2) {
+      multimap.put(contents[i], contents[i + 1]);
+    }
+    return true;
+  }
+
+  private static boolean sameInOrder(final Collection<?> elements, final Object[] contents) {
+    if (elements.size() != contents.length) {
+      return false;
+    }
+    int i = 0;
+    for (final Object element : elements) {
+      if (!same(element, contents[i++])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean sameEntriesInOrder(final Collection<? extends Entry<?, ?>> entries, final Object[] contents) {
+    if (entries.size() * 2 != contents.length) {
+      return false;
+    }
+    int i = 0;
+    for (final Entry<?, ?> entry : entries) {
+      if (!same(entry.getKey(), contents[i++]) || !same(entry.getValue(), contents[i++])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean sameEntries(final Map<?, ?> map, final Object[] contents) {
+    if (map.size() * 2 != contents.length) {
+      return false;
+    }
+    for (int i = 0; i < contents.length; i += 2) {
+      if (!map.containsKey(contents[i]) || !same(map.get(contents[i]), contents[i + 1])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isRestored(final Object object, final Set<Object> restored) {
+    if (restored.contains(object)) {
+      return true;
+    }
+    for (final Field field : GameDataCopier.getFields(object.getClass())) {
+      final Object value = GameDataCopier.getField(field, object);
+      if (value != null && restored.contains(value)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean same(final Object value, final Object recorded) {
+    return value == recorded || (value != null && GameDataCopier.isImmutable(value) && value.equals(recorded));
+  }
+
+  private static void clearCaches(final Object object) {
+    if (object instanceof UnitCollection) {
+      ((UnitCollection) object).clearCounts();
+    } else if (object instanceof RelationshipTracker) {
+      ((RelationshipTracker) object).clearCache();
+    } else if (object instanceof UnitType) {
+      ((UnitType) object).clearCapabilities();
+    } else if (object instanceof GameMap) {
+      ((GameMap) object).clearAdjacency();
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package games.strategy.engine.data;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -11,6 +12,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.function.ObjIntConsumer;
 
 import games.strategy.triplea.delegate.Matches;
 import games.strategy.util.CompositeMatch;
@@ -33,11 +35,169 @@ public class GameMap extends GameDataComponent implements Iterable<Territory> {
   // otherwise, m_gridDimensions.length is the number of dimensions,
   // and each element is the size of a dimension
   private int[] m_gridDimensions = null;
+  // the connections as arrays, built when first needed and dropped whenever a territory or connection is added
+  private transient volatile Adjacency m_adjacency;
 
   GameMap(final GameData data) {
     super(data);
   }
 
+  /**
+   * The territories numbered by their place in the map, with the connections of territory i held in
+   * m_targets[m_offsets[i]] up to m_targets[m_offsets[i + 1]].
+   */
+  static final class Adjacency {
+    private final Territory[] m_territories;
+    private final Map<Territory, Integer> m_indices;
+    final int[] m_offsets;
+    final int[] m_targets;
+
+    private Adjacency(final List<Territory> territories, final Map<Territory, Set<Territory>> connections) {
+      m_territories = territories.toArray(new Territory[territories.size()]);
+      m_indices = new HashMap<>(m_territories.length * 2);
+      for (int i = 0; i < m_territories.length; i++) {
+        m_indices.put(m_territories[i], i);
+      }
+      m_offsets = new int[m_territories.length + 1];
+      int count = 0;
+      for (int i = 0; i < m_territories.length; i++) {
+        count += connections.get(m_territories[i]).size();
+        m_offsets[i + 1] = count;
+      }
+      m_targets = new int[count];
+      for (int i = 0; i < m_territories.length; i++) {
+        int next = m_offsets[i];
+        for (final Territory to : connections.get(m_territories[i])) {
+          m_targets[next++] = m_indices.get(to);
+        }
+      }
+    }
+
+    /**
+     * @return the number of the territory, or -1 if it is not on the map.
+     */
+    int indexOf(final Territory territory) {
+      final Integer index = m_indices.get(territory);
+      return index == null ? -1 : index;
+    }
+
+    Territory getTerritory(final int index) {
+      return m_territories[index];
+    }
+
+    int size() {
+      return m_territories.length;
+    }
+  }
+
+  Adjacency getAdjacency() {
+    Adjacency adjacency = m_adjacency;
+    if (adjacency == null) {
+      adjacency = new Adjacency(m_territories, m_connections);
+      m_adjacency = adjacency;
+    }
+    return adjacency;
+  }
+
+  /**
+   * Makes the adjacency be worked out again, after the territories or connections were set directly.
+   */
+  void clearAdjacency() {
+    m_adjacency = null;
+  }
+
+  /**
+   * A breadth first search from a set of territories through the territories matching a condition.
+   * Every territory is tested against the condition at most once per search.
+   */
+  static final class Search {
+    private final Adjacency m_adjacency;
+    private final Match<Territory> m_cond;
+    private final BitSet m_reached;
+    private final BitSet m_rejected;
+    // the territories in the order they were reached, each level of the search following the one before
+    private final int[] m_queue;
+    // the territory each reached territory was first reached from, or -1 for the starting territories
+    private final int[] m_previous;
+    private int m_head = 0;
+    private int m_tail = 0;
+
+    /**
+     * Territories not on the map are not searched from, unless there is no condition, which is an error.
+     */
+    Search(final Adjacency adjacency, final Collection<Territory> start, final Match<Territory> cond) {
+      m_adjacency = adjacency;
+      m_cond = cond;
+      m_reached = new BitSet(adjacency.size());
+      m_rejected = new BitSet(adjacency.size());
+      m_queue = new int[adjacency.size()];
+      m_previous = new int[adjacency.size()];
+      for (final Territory territory : start) {
+        final int index = adjacency.indexOf(territory);
+        if (index < 0) {
+          if (cond == null) {
+            throw new IllegalArgumentException("No neighbors for:" + territory);
+          }
+        } else if (!m_reached.get(index)) {
+          m_reached.set(index);
+          m_previous[index] = -1;
+          m_queue[m_tail++] = index;
+        }
+      }
+    }
+
+    /**
+     * @param distance
+     *        how far to search
+     * @param target
+     *        the territory to stop at, or -1 to search up to the distance
+     * @param visitor
+     *        called with each territory reached and its distance, or null
+     * @return the distance of the target, or -1 if it was not reached
+     */
+    int run(final int distance, final int target, final ObjIntConsumer<Territory> visitor) {
+      for (int level = 1; level <= distance && m_head < m_tail; level++) {
+        final int levelEnd = m_tail;
+        while (m_head < levelEnd) {
+          final int from = m_queue[m_head++];
+          for (int i = m_adjacency.m_offsets[from]; i < m_adjacency.m_offsets[from + 1]; i++) {
+            final int to = m_adjacency.m_targets[i];
+            if (m_reached.get(to) || m_rejected.get(to)) {
+              continue;
+            }
+            final Territory territory = m_adjacency.m_territories[to];
+            if (m_cond != null && !m_cond.match(territory)) {
+              m_rejected.set(to);
+              continue;
+            }
+            m_reached.set(to);
+            m_previous[to] = from;
+            m_queue[m_tail++] = to;
+            if (visitor != null) {
+              visitor.accept(territory, level);
+            }
+            if (to == target) {
+              return level;
+            }
+          }
+        }
+      }
+      return -1;
+    }
+
+    /**
+     * @return the territories from a starting territory to the reached territory.
+     */
+    List<Territory> getPath(final int reached) {
+      final List<Territory> path = new ArrayList<>();
+      for (int current = reached; current >= 0; current = m_previous[current]) {
+        path.add(m_adjacency.m_territories[current]);
+      }
+      Collections.reverse(path);
+      return path;
+    }
+  }
+
   public void setGridDimensions(final int... gridDimensions) {
     m_gridDimensions = gridDimensions;
   }
@@ -93,6 +253,7 @@ public class GameMap extends GameDataComponent implements Iterable<Territory> {
 
   protected void reorderTerritoryList() {
     Collections.sort(m_territories, TERRITORY_GRID_ORDERING);
+    m_adjacency = null;
   }
 
   private static Comparator<Territory> TERRITORY_GRID_ORDERING = (t1, t2) -> {
@@ -168,6 +329,7 @@ public class GameMap extends GameDataComponent implements Iterable<Territory> {
     m_territories.add(t1);
     m_connections.put(t1, Collections.emptySet());
     m_territoryLookup.put(t1.getName(), t1);
+    m_adjacency = null;
   }
 
   public void removeTerritory(final Territory t1) {
@@ -191,6 +353,7 @@ public class GameMap extends GameDataComponent implements Iterable<Territory> {
     for (final Entry<Territory, Set<Territory>> entry : tempConnections.entrySet()) {
       m_connections.put(entry.getKey(), Collections.unmodifiableSet(entry.getValue()));
     }
+    m_adjacency = null;
   }
 
   /**
@@ -234,6 +397,7 @@ public class GameMap extends GameDataComponent implements Iterable<Territory> {
     final Set<Territory> modified = new HashSet<>(current);
     modified.add(to);
     m_connections.put(from, Collections.unmodifiableSet(modified));
+    m_adjacency = null;
   }
 
   /**
@@ -294,20 +458,17 @@ public class GameMap extends GameDataComponent implements Iterable<Territory> {
    *         Does NOT include the original/starting territory in the returned Set.
    */
   @SuppressWarnings("unchecked")
-  public Set<Territory> getNeighbors(final Territory territory, int distance) {
+  public Set<Territory> getNeighbors(final Territory territory, final int distance) {
     if (distance < 0) {
       throw new IllegalArgumentException("Distance must be positive not:" + distance);
     }
     if (distance == 0) {
       return Collections.EMPTY_SET;
     }
-    final Set<Territory> start = getNeighbors(territory);
     if (distance == 1) {
-      return start;
+      return getNeighbors(territory);
     }
-    final Set<Territory> neighbors = getNeighbors(start, new HashSet<>(start), --distance);
-    neighbors.remove(territory);
-    return neighbors;
+    return collectNeighbors(Collections.singleton(territory), distance, null);
   }
 
   /**
@@ -318,20 +479,17 @@ public class GameMap extends GameDataComponent implements Iterable<Territory> {
    *         Does NOT include the original/starting territory in the returned Set.
    */
   @SuppressWarnings("unchecked")
-  public Set<Territory> getNeighbors(final Territory territory, int distance, final Match<Territory> cond) {
+  public Set<Territory> getNeighbors(final Territory territory, final int distance, final Match<Territory> cond) {
     if (distance < 0) {
       throw new IllegalArgumentException("Distance must be positive not:" + distance);
     }
     if (distance == 0) {
       return Collections.EMPTY_SET;
     }
-    final Set<Territory> start = getNeighbors(territory, cond);
     if (distance == 1) {
-      return start;
+      return getNeighbors(territory, cond);
     }
-    final Set<Territory> neighbors = getNeighbors(start, new HashSet<>(start), --distance, cond);
-    neighbors.remove(territory);
-    return neighbors;
+    return collectNeighbors(Collections.singleton(territory), distance, cond);
   }
 
   /**
@@ -343,9 +501,7 @@ public class GameMap extends GameDataComponent implements Iterable<Territory> {
    *         other.
    */
   public Set<Territory> getNeighbors(final Set<Territory> frontier, final int distance, final Match<Territory> cond) {
-    final Set<Territory> rVal = getNeighbors(frontier, new HashSet<>(frontier), distance, cond);
-    rVal.removeAll(frontier);
-    return rVal;
+    return collectNeighbors(frontier, distance, cond);
   }
 
   /**
@@ -356,40 +512,44 @@ public class GameMap extends GameDataComponent implements Iterable<Territory> {
    *         other.
    */
   public Set<Territory> getNeighbors(final Set<Territory> frontier, final int distance) {
-    final Set<Territory> rVal = getNeighbors(frontier, new HashSet<>(frontier), distance);
-    rVal.removeAll(frontier);
-    return rVal;
+    return collectNeighbors(frontier, distance, null);
   }
 
-  private Set<Territory> getNeighbors(final Set<Territory> frontier, final Set<Territory> searched, int distance,
+  private Set<Territory> collectNeighbors(final Collection<Territory> frontier, final int distance,
       final Match<Territory> cond) {
-    if (distance == 0) {
-      return searched;
-    }
-    final Iterator<Territory> iter = frontier.iterator();
-    final Set<Territory> newFrontier = new HashSet<>();
-    while (iter.hasNext()) {
-      final Territory t = iter.next();
-      newFrontier.addAll(getNeighbors(t, cond));
-    }
-    newFrontier.removeAll(searched);
-    searched.addAll(newFrontier);
-    return getNeighbors(newFrontier, searched, --distance, cond);
+    final Set<Territory> neighbors = new HashSet<>();
+    visitNeighbors(frontier, distance, cond, (territory, territoryDistance) -> neighbors.add(territory));
+    return neighbors;
   }
 
-  private Set<Territory> getNeighbors(final Set<Territory> frontier, final Set<Territory> searched, int distance) {
-    if (distance == 0) {
-      return searched;
-    }
-    final Iterator<Territory> iter = frontier.iterator();
-    final Set<Territory> newFrontier = new HashSet<>();
-    while (iter.hasNext()) {
-      final Territory t = iter.next();
-      newFrontier.addAll(getNeighbors(t));
-    }
-    newFrontier.removeAll(searched);
-    searched.addAll(newFrontier);
-    return getNeighbors(newFrontier, searched, --distance);
+  /**
+   * Visits the neighbors within a certain distance of the starting territory that match the condition, nearest first,
+   * with their distance from it. No sets are built, so this is the cheaper way to look around a territory when the
+   * neighbors are only needed one at a time.
+   * Does NOT visit the original/starting territory.
+   *
+   * @param territory
+   *        starting territory
+   * @param distance
+   *        maximal distance of the neighboring territories
+   * @param cond
+   *        condition the neighboring territories and the territories between have to match, or null
+   * @param visitor
+   *        called with each neighbor and its distance
+   */
+  public void visitNeighbors(final Territory territory, final int distance, final Match<Territory> cond,
+      final ObjIntConsumer<Territory> visitor) {
+    visitNeighbors(Collections.singleton(territory), distance, cond, visitor);
+  }
+
+  /**
+   * Visits the neighbors within a certain distance of the starting territories that match the condition, nearest
+   * first, with their distance from the nearest starting territory.
+   * Does NOT visit the original/starting territories, even if they are neighbors of each other.
+   */
+  public void visitNeighbors(final Collection<Territory> frontier, final int distance, final Match<Territory> cond,
+      final ObjIntConsumer<Territory> visitor) {
+    new Search(getAdjacency(), frontier, cond).run(distance, -1, visitor);
   }
 
   /**
@@ -535,9 +695,8 @@ public class GameMap extends GameDataComponent implements Iterable<Territory> {
     if (t1.equals(t2)) {
       return 0;
     }
-    final Set<Territory> frontier = new HashSet<>();
-    frontier.add(t1);
-    return getDistance(0, new HashSet<>(), frontier, t2, cond);
+    final Adjacency adjacency = getAdjacency();
+    return new Search(adjacency, Collections.singleton(t1), cond).run(Integer.MAX_VALUE, adjacency.indexOf(t2), null);
   }
 
   /**
@@ -555,39 +714,6 @@ public class GameMap extends GameDataComponent implements Iterable<Territory> {
     return getDistance(t1, t2, new CompositeMatchOr<>(Matches.territoryIs(t2), cond));
   }
 
-  /**
-   * Guaranteed that frontier doesn't contain target.
-   * Territories on the frontier are not target. They represent the extent of paths already searched.
-   * Territories in searched have already been on the frontier.
-   */
-  private int getDistance(final int distance, final Set<Territory> searched, final Set<Territory> frontier,
-      final Territory target, final Match<Territory> cond) {
-    // add the frontier to the searched
-    searched.addAll(frontier);
-    // find the new frontier
-    final Set<Territory> newFrontier = new HashSet<>();
-    final Iterator<Territory> frontierIterator = frontier.iterator();
-    while (frontierIterator.hasNext()) {
-      final Territory onFrontier = frontierIterator.next();
-      final Set<Territory> connections = m_connections.get(onFrontier);
-      final Iterator<Territory> connectionIterator = connections.iterator();
-      while (connectionIterator.hasNext()) {
-        final Territory nextFrontier = connectionIterator.next();
-        if (cond == null || cond.match(nextFrontier)) {
-          newFrontier.add(nextFrontier);
-        }
-      }
-    }
-    if (newFrontier.contains(target)) {
-      return distance + 1;
-    }
-    newFrontier.removeAll(searched);
-    if (newFrontier.isEmpty()) {
-      return -1;
-    }
-    return getDistance(distance + 1, searched, newFrontier, target, cond);
-  }
-
   public IntegerMap<Territory> getDistance(final Territory target, final Collection<Territory> territories,
       final Match<Territory> condition) {
     final IntegerMap<Territory> rVal = new IntegerMap<>();
@@ -94,6 +94,21 @@ public class GameSequence extends GameDataComponent implements Iterable<GameStep
     m_currentIndex = newIndex;
   }
 
+  /**
+   * Moves straight to the given round and step, used to keep a copy of the game data in step with the original.
+   *
+   * @param round
+   *        the round, not counting the round offset
+   * @param stepIndex
+   *        index of the step
+   */
+  public void setRoundAndStepIndex(final int round, final int stepIndex) {
+    synchronized (m_currentStepMutex) {
+      setStepIndex(stepIndex);
+      m_round = round;
+    }
+  }
+
   /**
    * @return boolean wether the round has changed
    */
@@ -152,6 +167,11 @@ public class GameSequence extends GameDataComponent implements Iterable<GameStep
   /** make sure transient lock object is initialized on deserialization. */
   private void readObject(final java.io.ObjectInputStream in) throws IOException, ClassNotFoundException {
     in.defaultReadObject();
+    initializeTransients();
+  }
+
+  /** Used by GameDataCopier, which fills in the fields without running our constructor either. */
+  void initializeTransients() {
     if (m_currentStepMutex == null) {
       m_currentStepMutex = new Object();
     }
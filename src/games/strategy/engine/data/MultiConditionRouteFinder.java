@@ -0,0 +1,165 @@
+package games.strategy.engine.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import games.strategy.util.Match;
+
+/**
+ * Finds, in one search, the shortest routes from a territory to every other territory that cover only territories
+ * matching any combination of a list of conditions.
+ * <p>
+ * Every covered territory has to match the required condition. The end territory of a route is never tested, as with
+ * {@link GameMap#getRoute_IgnoreEnd(Territory, Territory, Match)}. Each territory is tested against the conditions at
+ * most once.
+ * </p>
+ */
+public class MultiConditionRouteFinder {
+  private static final int REQUIRED = 1 << 31;
+  private final GameMap.Adjacency m_adjacency;
+  private final Territory m_start;
+  private final Match<Territory> m_required;
+  private final List<Match<Territory>> m_conditions;
+  private final int m_masks;
+  // the conditions each territory matches, as bits, with REQUIRED set if it matches the required condition
+  private final int[] m_matched;
+  private final BitSet m_tested;
+  // for each territory and set of conditions kept so far, the distance and the state it was reached from, or -1
+  private final int[] m_distance;
+  private final int[] m_previous;
+  // the same for reaching a territory as the end of a route, without testing it
+  private final int[] m_endDistance;
+  private final int[] m_endPrevious;
+
+  /**
+   * @param map
+   *        map to search
+   * @param start
+   *        start territory of the routes
+   * @param required
+   *        condition every covered territory must match
+   * @param conditions
+   *        conditions the routes may be asked to keep to, at most 16
+   */
+  public MultiConditionRouteFinder(final GameMap map, final Territory start, final Match<Territory> required,
+      final List<Match<Territory>> conditions) {
+    if (conditions.size() > 16) {
+      throw new IllegalArgumentException("Too many conditions: " + conditions.size());
+    }
+    m_adjacency = map.getAdjacency();
+    m_start = start;
+    m_required = required;
+    m_conditions = new ArrayList<>(conditions);
+    m_masks = 1 << conditions.size();
+    final int size = m_adjacency.size();
+    m_matched = new int[size];
+    m_tested = new BitSet(size);
+    m_distance = new int[size * m_masks];
+    m_previous = new int[size * m_masks];
+    m_endDistance = new int[size * m_masks];
+    m_endPrevious = new int[size * m_masks];
+    Arrays.fill(m_distance, -1);
+    Arrays.fill(m_endDistance, -1);
+    final int startIndex = m_adjacency.indexOf(start);
+    if (startIndex >= 0) {
+      search(startIndex * m_masks + m_masks - 1);
+    }
+  }
+
+  private void search(final int startState) {
+    final int[] queue = new int[m_distance.length];
+    int head = 0;
+    int tail = 0;
+    m_distance[startState] = 0;
+    m_previous[startState] = -1;
+    queue[tail++] = startState;
+    while (head < tail) {
+      final int state = queue[head++];
+      final int from = state / m_masks;
+      final int kept = state % m_masks;
+      final int distance = m_distance[state] + 1;
+      for (int i = m_adjacency.m_offsets[from]; i < m_adjacency.m_offsets[from + 1]; i++) {
+        final int to = m_adjacency.m_targets[i];
+        final int endState = to * m_masks + kept;
+        if (m_endDistance[endState] < 0) {
+          m_endDistance[endState] = distance;
+          m_endPrevious[endState] = state;
+        }
+        final int matched = getMatched(to);
+        if ((matched & REQUIRED) == 0) {
+          continue;
+        }
+        final int next = to * m_masks + (kept & matched);
+        if (m_distance[next] < 0) {
+          m_distance[next] = distance;
+          m_previous[next] = state;
+          queue[tail++] = next;
+        }
+      }
+    }
+  }
+
+  private int getMatched(final int index) {
+    if (!m_tested.get(index)) {
+      final Territory territory = m_adjacency.getTerritory(index);
+      int matched = 0;
+      if (m_required == null || m_required.match(territory)) {
+        matched |= REQUIRED;
+        for (int i = 0; i < m_conditions.size(); i++) {
+          if (m_conditions.get(i).match(territory)) {
+            matched |= 1 << i;
+          }
+        }
+      }
+      m_matched[index] = matched;
+      m_tested.set(index);
+    }
+    return m_matched[index];
+  }
+
+  /**
+   * @param end
+   *        end territory of the route
+   * @param conditions
+   *        conditions, from those given when searching, the covered territories of the route must match
+   * @return the shortest route to the end territory keeping to the conditions or null if no route exists
+   */
+  public Route getRoute(final Territory end, final List<Match<Territory>> conditions) {
+    if (m_start.equals(end)) {
+      return new Route(m_start);
+    }
+    int wanted = 0;
+    for (final Match<Territory> condition : conditions) {
+      final int i = m_conditions.indexOf(condition);
+      if (i < 0) {
+        throw new IllegalArgumentException("Not searched for: " + condition);
+      }
+      wanted |= 1 << i;
+    }
+    final int endIndex = m_adjacency.indexOf(end);
+    if (endIndex < 0) {
+      return null;
+    }
+    int best = -1;
+    for (int kept = 0; kept < m_masks; kept++) {
+      final int state = endIndex * m_masks + kept;
+      if ((kept & wanted) == wanted && m_endDistance[state] >= 0
+          && (best < 0 || m_endDistance[state] < m_endDistance[best])) {
+        best = state;
+      }
+    }
+    if (best < 0) {
+      return null;
+    }
+    final List<Territory> route = new ArrayList<>();
+    route.add(end);
+    for (int state = m_endPrevious[best]; state >= 0; state = m_previous[state]) {
+      route.add(m_adjacency.getTerritory(state / m_masks));
+    }
+    Collections.reverse(route);
+    return new Route(route);
+  }
+}
@@ -20,6 +20,8 @@ public class PlayerID extends NamedAttachable implements NamedUnitHolder {
   private RepairFrontier m_repairFrontier;
   private final TechnologyFrontierList m_technologyFrontiers;
   private String m_whoAmI = "null:no_one";
+  // our position in the player list plus one, 0 until the relationship tracker first looks us up
+  private transient int m_index = 0;
 
   /** Creates new Player */
   public PlayerID(final String name, final boolean optional, final boolean canBeDisabled, final GameData data) {
@@ -75,6 +77,17 @@ public class PlayerID extends NamedAttachable implements NamedUnitHolder {
     return false;
   }
 
+  /**
+   * @return our position in the player list, or -1 if it was not looked up yet.
+   */
+  int getIndex() {
+    return m_index - 1;
+  }
+
+  void setIndex(final int index) {
+    m_index = index + 1;
+  }
+
   public static final PlayerID NULL_PLAYERID = new PlayerID(Constants.PLAYER_NAME_NEUTRAL, true, false, null) {
     // compatible with 0.9.0.2 saved games
     private static final long serialVersionUID = -6596127754502509049L;
@@ -1,10 +1,8 @@
 package games.strategy.engine.data;
 
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.Set;
 
-import games.strategy.triplea.delegate.Matches;
 
 public class RelationshipInterpreter extends GameDataComponent {
   private static final long serialVersionUID = -643454441052535241L;
@@ -21,12 +19,12 @@ public class RelationshipInterpreter extends GameDataComponent {
    * @return whether player p1 is allied to player p2
    */
   public boolean isAllied(final PlayerID p1, final PlayerID p2) {
-    return Matches.RelationshipTypeIsAllied.match((getRelationshipType(p1, p2)));
+    return hasFlag(p1, p2, RelationshipTracker.ALLIED);
   }
 
   public boolean isAlliedWithAnyOfThesePlayers(final PlayerID p1, final Collection<PlayerID> p2s) {
     for (final PlayerID p2 : p2s) {
-      if (Matches.RelationshipTypeIsAllied.match((getRelationshipType(p1, p2)))) {
+      if (hasFlag(p1, p2, RelationshipTracker.ALLIED)) {
         return true;
       }
     }
@@ -34,12 +32,7 @@ public class RelationshipInterpreter extends GameDataComponent {
   }
 
   public Set<PlayerID> getAllies(final PlayerID p1, final boolean includeSelf) {
-    final Set<PlayerID> allies = new HashSet<>();
-    for (final PlayerID player : getData().getPlayerList().getPlayers()) {
-      if (Matches.RelationshipTypeIsAllied.match(getRelationshipType(p1, player))) {
-        allies.add(player);
-      }
-    }
+    final Set<PlayerID> allies = getPlayersWithFlag(p1, RelationshipTracker.ALLIED);
     if (includeSelf) {
       allies.add(p1);
     } else {
@@ -58,12 +51,12 @@ public class RelationshipInterpreter extends GameDataComponent {
    * @return whether p1 is at war with p2
    */
   public boolean isAtWar(final PlayerID p1, final PlayerID p2) {
-    return Matches.RelationshipTypeIsAtWar.match((getRelationshipType(p1, p2)));
+    return hasFlag(p1, p2, RelationshipTracker.WAR);
   }
 
   public boolean isAtWarWithAnyOfThesePlayers(final PlayerID p1, final Collection<PlayerID> p2s) {
     for (final PlayerID p2 : p2s) {
-      if (Matches.RelationshipTypeIsAtWar.match((getRelationshipType(p1, p2)))) {
+      if (hasFlag(p1, p2, RelationshipTracker.WAR)) {
         return true;
       }
     }
@@ -71,12 +64,7 @@ public class RelationshipInterpreter extends GameDataComponent {
   }
 
   public Set<PlayerID> getEnemies(final PlayerID p1) {
-    final Set<PlayerID> enemies = new HashSet<>();
-    for (final PlayerID player : getData().getPlayerList().getPlayers()) {
-      if (Matches.RelationshipTypeIsAtWar.match(getRelationshipType(p1, player))) {
-        enemies.add(player);
-      }
-    }
+    final Set<PlayerID> enemies = getPlayersWithFlag(p1, RelationshipTracker.WAR);
     enemies.remove(p1);
     return enemies;
   }
@@ -89,12 +77,12 @@ public class RelationshipInterpreter extends GameDataComponent {
    * @return whether player1 is neutral to player2
    */
   public boolean isNeutral(final PlayerID p1, final PlayerID p2) {
-    return Matches.RelationshipTypeIsNeutral.match((getRelationshipType(p1, p2)));
+    return hasFlag(p1, p2, RelationshipTracker.NEUTRAL);
   }
 
   public boolean isNeutralWithAnyOfThesePlayers(final PlayerID p1, final Collection<PlayerID> p2s) {
     for (final PlayerID p2 : p2s) {
-      if (Matches.RelationshipTypeIsNeutral.match((getRelationshipType(p1, p2)))) {
+      if (hasFlag(p1, p2, RelationshipTracker.NEUTRAL)) {
         return true;
       }
     }
@@ -102,26 +90,21 @@ public class RelationshipInterpreter extends GameDataComponent {
   }
 
   public Set<PlayerID> getNeutralities(final PlayerID p1) {
-    final Set<PlayerID> neutrals = new HashSet<>();
-    for (final PlayerID player : getData().getPlayerList().getPlayers()) {
-      if (Matches.RelationshipTypeIsNeutral.match(getRelationshipType(p1, player))) {
-        neutrals.add(player);
-      }
-    }
+    final Set<PlayerID> neutrals = getPlayersWithFlag(p1, RelationshipTracker.NEUTRAL);
     neutrals.remove(p1);
     return neutrals;
   }
 
   public boolean canMoveLandUnitsOverOwnedLand(final PlayerID p1, final PlayerID p2) {
-    return Matches.RelationshipTypeCanMoveLandUnitsOverOwnedLand.match(getRelationshipType(p1, p2));
+    return hasFlag(p1, p2, RelationshipTracker.CAN_MOVE_LAND_UNITS_OVER_OWNED_LAND);
   }
 
   public boolean canMoveAirUnitsOverOwnedLand(final PlayerID p1, final PlayerID p2) {
-    return Matches.RelationshipTypeCanMoveAirUnitsOverOwnedLand.match(getRelationshipType(p1, p2));
+    return hasFlag(p1, p2, RelationshipTracker.CAN_MOVE_AIR_UNITS_OVER_OWNED_LAND);
   }
 
   public boolean canLandAirUnitsOnOwnedLand(final PlayerID p1, final PlayerID p2) {
-    return Matches.RelationshipTypeCanLandAirUnitsOnOwnedLand.match(getRelationshipType(p1, p2));
+    return hasFlag(p1, p2, RelationshipTracker.CAN_LAND_AIR_UNITS_ON_OWNED_LAND);
   }
 
   public String getUpkeepCost(final PlayerID p1, final PlayerID p2) {
@@ -129,31 +112,39 @@ public class RelationshipInterpreter extends GameDataComponent {
   }
 
   public boolean alliancesCanChainTogether(final PlayerID p1, final PlayerID p2) {
-    return Matches.RelationshipTypeIsAlliedAndAlliancesCanChainTogether.match(getRelationshipType(p1, p2));
+    return hasFlag(p1, p2, RelationshipTracker.ALLIANCES_CAN_CHAIN_TOGETHER);
   }
 
   public boolean isDefaultWarPosition(final PlayerID p1, final PlayerID p2) {
-    return Matches.RelationshipTypeIsDefaultWarPosition.match(getRelationshipType(p1, p2));
+    return hasFlag(p1, p2, RelationshipTracker.DEFAULT_WAR_POSITION);
   }
 
   public boolean canTakeOverOwnedTerritory(final PlayerID p1, final PlayerID p2) {
-    return Matches.RelationshipTypeCanTakeOverOwnedTerritory.match(getRelationshipType(p1, p2));
+    return hasFlag(p1, p2, RelationshipTracker.CAN_TAKE_OVER_OWNED_TERRITORY);
   }
 
   public boolean givesBackOriginalTerritories(final PlayerID p1, final PlayerID p2) {
-    return Matches.RelationshipTypeGivesBackOriginalTerritories.match(getRelationshipType(p1, p2));
+    return hasFlag(p1, p2, RelationshipTracker.GIVES_BACK_ORIGINAL_TERRITORIES);
   }
 
   public boolean canMoveIntoDuringCombatMove(final PlayerID p1, final PlayerID p2) {
-    return Matches.RelationshipTypeCanMoveIntoDuringCombatMove.match(getRelationshipType(p1, p2));
+    return hasFlag(p1, p2, RelationshipTracker.CAN_MOVE_INTO_DURING_COMBAT_MOVE);
   }
 
   public boolean canMoveThroughCanals(final PlayerID p1, final PlayerID p2) {
-    return Matches.RelationshipTypeCanMoveThroughCanals.match(getRelationshipType(p1, p2));
+    return hasFlag(p1, p2, RelationshipTracker.CAN_MOVE_THROUGH_CANALS);
   }
 
   public boolean rocketsCanFlyOver(final PlayerID p1, final PlayerID p2) {
-    return Matches.RelationshipTypeRocketsCanFlyOver.match(getRelationshipType(p1, p2));
+    return hasFlag(p1, p2, RelationshipTracker.ROCKETS_CAN_FLY_OVER);
+  }
+
+  private boolean hasFlag(final PlayerID p1, final PlayerID p2, final int flag) {
+    return getData().getRelationshipTracker().hasFlag(p1, p2, flag);
+  }
+
+  private Set<PlayerID> getPlayersWithFlag(final PlayerID p1, final int flag) {
+    return getData().getRelationshipTracker().getPlayersWithFlag(p1, flag);
   }
 
   /**
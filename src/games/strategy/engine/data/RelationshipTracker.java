@@ -1,8 +1,11 @@
 package games.strategy.engine.data;
 
 import java.io.Serializable;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import games.strategy.triplea.attachments.RelationshipTypeAttachment;
 
@@ -10,11 +13,202 @@ public class RelationshipTracker extends RelationshipInterpreter {
   private static final long serialVersionUID = -4740671761925519069L;
   // map of "playername:playername" to RelationshipType that exists between those 2 players
   private final HashMap<RelatedPlayers, Relationship> m_relationships = new HashMap<>();
+  // the flags of every relationship, worked out from m_relationships when first needed and again after they change
+  private transient volatile RelationshipMatrix m_matrix = null;
+
+  // the flags of a relationship between two players, KNOWN is not set if we do not have the relationship
+  static final int KNOWN = 1;
+  static final int ALLIED = 1 << 1;
+  static final int WAR = 1 << 2;
+  static final int NEUTRAL = 1 << 3;
+  static final int CAN_MOVE_LAND_UNITS_OVER_OWNED_LAND = 1 << 4;
+  static final int CAN_MOVE_AIR_UNITS_OVER_OWNED_LAND = 1 << 5;
+  static final int CAN_LAND_AIR_UNITS_ON_OWNED_LAND = 1 << 6;
+  static final int CAN_TAKE_OVER_OWNED_TERRITORY = 1 << 7;
+  static final int GIVES_BACK_ORIGINAL_TERRITORIES = 1 << 8;
+  static final int CAN_MOVE_INTO_DURING_COMBAT_MOVE = 1 << 9;
+  static final int CAN_MOVE_THROUGH_CANALS = 1 << 10;
+  static final int ROCKETS_CAN_FLY_OVER = 1 << 11;
+  static final int ALLIANCES_CAN_CHAIN_TOGETHER = 1 << 12;
+  static final int DEFAULT_WAR_POSITION = 1 << 13;
+
+  /**
+   * The flags of the relationship between every two players, by player index with the null player last, and the
+   * allies, enemies and neutrals of every player. Never changed once built, a change of relationships builds a new one.
+   */
+  private static final class RelationshipMatrix {
+    private final PlayerID[] m_players;
+    private final int[][] m_flags;
+    // by player index, the indices of the players we have the flag with, null if a relationship is missing
+    private final BitSet[] m_allies;
+    private final BitSet[] m_enemies;
+    private final BitSet[] m_neutrals;
+
+    private RelationshipMatrix(final RelationshipTracker tracker) {
+      final List<PlayerID> players = tracker.getData().getPlayerList().getPlayers();
+      final int count = players.size();
+      m_players = players.toArray(new PlayerID[count]);
+      m_flags = new int[count + 1][count + 1];
+      m_allies = new BitSet[count + 1];
+      m_enemies = new BitSet[count + 1];
+      m_neutrals = new BitSet[count + 1];
+      for (int i = 0; i <= count; i++) {
+        final PlayerID p1 = i < count ? m_players[i] : PlayerID.NULL_PLAYERID;
+        boolean complete = true;
+        for (int j = 0; j <= count; j++) {
+          final PlayerID p2 = j < count ? m_players[j] : PlayerID.NULL_PLAYERID;
+          final Relationship relationship = tracker.m_relationships.get(tracker.new RelatedPlayers(p1, p2));
+          if (relationship == null || relationship.getRelationshipType().getRelationshipTypeAttachment() == null) {
+            complete = complete && j == count;
+            continue;
+          }
+          m_flags[i][j] = flags(relationship.getRelationshipType());
+        }
+        if (complete) {
+          m_allies[i] = playersWith(m_flags[i], count, ALLIED);
+          m_enemies[i] = playersWith(m_flags[i], count, WAR);
+          m_neutrals[i] = playersWith(m_flags[i], count, NEUTRAL);
+        }
+      }
+    }
+
+    private static BitSet playersWith(final int[] flags, final int count, final int flag) {
+      final BitSet players = new BitSet(count);
+      for (int j = 0; j < count; j++) {
+        if ((flags[j] & flag) != 0) {
+          players.set(j);
+        }
+      }
+      return players;
+    }
+
+    /**
+     * @return the index of the player, or -1 if the player is not one of ours.
+     */
+    private int indexOf(final PlayerID player) {
+      if (player == null) {
+        return -1;
+      }
+      if (player.isNull()) {
+        return m_players.length;
+      }
+      final int index = player.getIndex();
+      if (index >= 0 && index < m_players.length && m_players[index] == player) {
+        return index;
+      }
+      // a player of a copy of our game data has the same name
+      for (int i = 0; i < m_players.length; i++) {
+        if (m_players[i].getName().equals(player.getName())) {
+          if (m_players[i] == player) {
+            player.setIndex(i);
+          }
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    private Set<PlayerID> getPlayers(final BitSet indices) {
+      final Set<PlayerID> players = new HashSet<>();
+      for (int i = indices.nextSetBit(0); i >= 0; i = indices.nextSetBit(i + 1)) {
+        players.add(m_players[i]);
+      }
+      return players;
+    }
+  }
 
   public RelationshipTracker(final GameData data) {
     super(data);
   }
 
+  private static int flags(final RelationshipType relationshipType) {
+    final RelationshipTypeAttachment rta = relationshipType.getRelationshipTypeAttachment();
+    int flags = KNOWN;
+    flags |= rta.isAllied() ? ALLIED : 0;
+    flags |= rta.isWar() ? WAR : 0;
+    flags |= rta.isNeutral() ? NEUTRAL : 0;
+    flags |= rta.getCanMoveLandUnitsOverOwnedLand() ? CAN_MOVE_LAND_UNITS_OVER_OWNED_LAND : 0;
+    flags |= rta.getCanMoveAirUnitsOverOwnedLand() ? CAN_MOVE_AIR_UNITS_OVER_OWNED_LAND : 0;
+    flags |= rta.getCanLandAirUnitsOnOwnedLand() ? CAN_LAND_AIR_UNITS_ON_OWNED_LAND : 0;
+    flags |= rta.getCanTakeOverOwnedTerritory() ? CAN_TAKE_OVER_OWNED_TERRITORY : 0;
+    flags |= rta.getGivesBackOriginalTerritories() ? GIVES_BACK_ORIGINAL_TERRITORIES : 0;
+    flags |= rta.getCanMoveIntoDuringCombatMove() ? CAN_MOVE_INTO_DURING_COMBAT_MOVE : 0;
+    flags |= rta.getCanMoveThroughCanals() ? CAN_MOVE_THROUGH_CANALS : 0;
+    flags |= rta.getRocketsCanFlyOver() ? ROCKETS_CAN_FLY_OVER : 0;
+    flags |= rta.isAllied() && rta.getAlliancesCanChainTogether() ? ALLIANCES_CAN_CHAIN_TOGETHER : 0;
+    flags |= rta.getIsDefaultWarPosition() ? DEFAULT_WAR_POSITION : 0;
+    return flags;
+  }
+
+  private RelationshipMatrix getMatrix() {
+    RelationshipMatrix matrix = m_matrix;
+    // players are only added while the game is parsed
+    if (matrix == null || matrix.m_players.length != getData().getPlayerList().size()) {
+      synchronized (this) {
+        matrix = m_matrix;
+        if (matrix == null || matrix.m_players.length != getData().getPlayerList().size()) {
+          matrix = new RelationshipMatrix(this);
+          m_matrix = matrix;
+        }
+      }
+    }
+    return matrix;
+  }
+
+  /**
+   * Makes the relationship flags be worked out again, after a relationship type attachment changed.
+   */
+  public synchronized void clearCache() {
+    m_matrix = null;
+  }
+
+  /**
+   * @return whether the relationship between the players has the given flag.
+   */
+  boolean hasFlag(final PlayerID p1, final PlayerID p2, final int flag) {
+    final RelationshipMatrix matrix = getMatrix();
+    final int i = matrix.indexOf(p1);
+    final int j = matrix.indexOf(p2);
+    if (i >= 0 && j >= 0) {
+      final int flags = matrix.m_flags[i][j];
+      if ((flags & KNOWN) != 0) {
+        return (flags & flag) != 0;
+      }
+    }
+    return (flags(getRelationshipType(p1, p2)) & flag) != 0;
+  }
+
+  /**
+   * @return a new set of the players, not counting the null player, that player1 has a relationship with the given
+   *         flag with, where the flag is ALLIED, WAR or NEUTRAL.
+   */
+  Set<PlayerID> getPlayersWithFlag(final PlayerID player1, final int flag) {
+    final RelationshipMatrix matrix = getMatrix();
+    final int i = matrix.indexOf(player1);
+    final BitSet players;
+    if (i < 0) {
+      players = null;
+    } else if (flag == ALLIED) {
+      players = matrix.m_allies[i];
+    } else if (flag == WAR) {
+      players = matrix.m_enemies[i];
+    } else if (flag == NEUTRAL) {
+      players = matrix.m_neutrals[i];
+    } else {
+      throw new IllegalArgumentException("No players kept for flag:" + flag);
+    }
+    if (players != null) {
+      return matrix.getPlayers(players);
+    }
+    final Set<PlayerID> result = new HashSet<>();
+    for (final PlayerID player : getData().getPlayerList().getPlayers()) {
+      if (hasFlag(player1, player, flag)) {
+        result.add(player);
+      }
+    }
+    return result;
+  }
+
   /**
    * Method for setting a relationship between two players, this should only be called through the Change Factory.
    *
@@ -25,8 +219,9 @@ public class RelationshipTracker extends RelationshipInterpreter {
    * @param r
    *        the RelationshipType between those two players that will be set.
    */
-  public void setRelationship(final PlayerID p1, final PlayerID p2, final RelationshipType r) {
+  public synchronized void setRelationship(final PlayerID p1, final PlayerID p2, final RelationshipType r) {
     m_relationships.put(new RelatedPlayers(p1, p2), new Relationship(r));
+    m_matrix = null;
   }
 
   /**
@@ -37,8 +232,10 @@ public class RelationshipTracker extends RelationshipInterpreter {
    * @param r
    * @param roundValue
    */
-  protected void setRelationship(final PlayerID p1, final PlayerID p2, final RelationshipType r, final int roundValue) {
+  protected synchronized void setRelationship(final PlayerID p1, final PlayerID p2, final RelationshipType r,
+      final int roundValue) {
     m_relationships.put(new RelatedPlayers(p1, p2), new Relationship(r, roundValue));
+    m_matrix = null;
   }
 
   /**
@@ -1,12 +1,6 @@
 package games.strategy.engine.data;
 
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
 
 import games.strategy.util.Match;
 
@@ -15,57 +9,30 @@ import games.strategy.util.Match;
 public class RouteFinder {
   private final GameMap m_map;
   private final Match<Territory> m_condition;
-  private final Map<Territory, Territory> m_previous;
 
   public RouteFinder(final GameMap map, final Match<Territory> condition) {
     m_map = map;
     m_condition = condition;
-    m_previous = new HashMap<>();
   }
 
+  /**
+   * @return the shortest route, or null if there is none, which is also the case if the end is not on the map.
+   * @throws IllegalArgumentException
+   *         if the start is not on the map
+   */
   public Route findRoute(final Territory start, final Territory end) {
-    final Set<Territory> startSet = m_map.getNeighbors(start, m_condition);
-    for (final Territory t : startSet) {
-      m_previous.put(t, start);
+    final GameMap.Adjacency adjacency = m_map.getAdjacency();
+    if (adjacency.indexOf(start) < 0) {
+      throw new IllegalArgumentException("No neighbors for:" + start);
     }
-    if (calculate(startSet, end)) {
-      return getRoute(start, end);
+    if (start.equals(end)) {
+      return new Route(start);
     }
-    return null;
-  }
-
-  private boolean calculate(final Set<Territory> startSet, final Territory end) {
-    final Set<Territory> nextSet = new HashSet<>();
-    for (final Territory t : startSet) {
-      final Set<Territory> neighbors = m_map.getNeighbors(t, m_condition);
-      for (final Territory neighbor : neighbors) {
-        if (!m_previous.containsKey(neighbor)) {
-          m_previous.put(neighbor, t);
-          if (neighbor.equals(end)) {
-            return true;
-          }
-          nextSet.add(neighbor);
-        }
-      }
-    }
-    if (nextSet.isEmpty()) {
-      return false;
-    }
-    return calculate(nextSet, end);
-  }
-
-  private Route getRoute(final Territory start, final Territory destination) {
-    final List<Territory> route = new ArrayList<>();
-    Territory current = destination;
-    while (current != start) {
-      if (current == null) {
-        return null;
-      }
-      route.add(current);
-      current = m_previous.get(current);
+    final int target = adjacency.indexOf(end);
+    final GameMap.Search search = new GameMap.Search(adjacency, Collections.singleton(start), m_condition);
+    if (target < 0 || search.run(Integer.MAX_VALUE, target, null) < 0) {
+      return null;
     }
-    route.add(start);
-    Collections.reverse(route);
-    return new Route(route);
+    return new Route(search.getPath(target));
   }
 }
@@ -0,0 +1,181 @@
+package games.strategy.engine.data;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import games.strategy.engine.data.changefactory.ChangeFactory;
+import games.strategy.util.Match;
+
+/**
+ * The distances between territories through the territories matching a condition, such as the territories land units
+ * of a player may move through.
+ * <p>
+ * The distances from a territory are worked out by one search the first time they are asked for, and each territory is
+ * tested against the condition once. They are kept until a change is made that could change which territories match,
+ * which is any change but those to units and resources (see {@link ChangeFactory#isUnitOrResourceChange(Change)}), so
+ * the condition must not depend on the units in a territory.
+ * </p>
+ */
+public final class TerritoryDistances {
+  private final GameMap.Adjacency m_adjacency;
+  private final Match<Territory> m_condition;
+  // 0 if not tested yet, 1 if the territory matches the condition, -1 if it does not
+  private final byte[] m_matches;
+  private final Map<Territory, Distances> m_from = new HashMap<>();
+
+  /**
+   * The distances from one territory, -1 where not connected.
+   */
+  private static final class Distances {
+    // through matching territories to matching territories
+    private final int[] m_distance;
+    // through matching territories to any territory
+    private final int[] m_endDistance;
+
+    private Distances(final int size) {
+      m_distance = new int[size];
+      m_endDistance = new int[size];
+      Arrays.fill(m_distance, -1);
+      Arrays.fill(m_endDistance, -1);
+    }
+  }
+
+  private TerritoryDistances(final GameMap.Adjacency adjacency, final Match<Territory> condition) {
+    m_adjacency = adjacency;
+    m_condition = condition;
+    m_matches = new byte[adjacency.size()];
+  }
+
+  /**
+   * @return the distances for a condition that is kept as a constant, such as {@code Matches.TerritoryIsWater}, and so
+   *         can be its own key.
+   */
+  public static TerritoryDistances get(final GameData data, final Match<Territory> condition) {
+    return get(data, condition, condition);
+  }
+
+  /**
+   * @param data
+   *        game data
+   * @param key
+   *        identifies the condition, equal keys must be given equivalent conditions
+   * @param condition
+   *        condition the covered territories must match, used if the distances for the key are not known yet
+   * @return the distances for the condition
+   */
+  public static TerritoryDistances get(final GameData data, final Object key, final Match<Territory> condition) {
+    // kept with the game data, rather than in a static map, so they are collected along with it
+    final Map<Object, TerritoryDistances> distances = data.getDerivedState(TerritoryDistances.class, d -> {
+      final Map<Object, TerritoryDistances> newDistances = new ConcurrentHashMap<>();
+      d.addChangeRecorder(change -> {
+        if (!ChangeFactory.isUnitOrResourceChange(change)) {
+          newDistances.clear();
+        }
+      });
+      return newDistances;
+    });
+    final GameMap.Adjacency adjacency = data.getMap().getAdjacency();
+    final TerritoryDistances forKey = distances.get(key);
+    if (forKey != null && forKey.m_adjacency == adjacency) {
+      return forKey;
+    }
+    return distances.compute(key, (k, old) -> old != null && old.m_adjacency == adjacency ? old
+        : new TerritoryDistances(adjacency, condition));
+  }
+
+  /**
+   * @return the distance between two territories where the covered territories of the route, and the end, match the
+   *         condition, or -1 if they are not connected. The same as {@link GameMap#getDistance(Territory, Territory,
+   *         Match)}.
+   */
+  public synchronized int getDistance(final Territory t1, final Territory t2) {
+    if (t1.equals(t2)) {
+      return 0;
+    }
+    final int index = m_adjacency.indexOf(t2);
+    return index < 0 ? -1 : getDistances(t1).m_distance[index];
+  }
+
+  /**
+   * @return the distance between two territories where the covered territories of the route, but not the end, match
+   *         the condition, or -1 if they are not connected. The same as
+   *         {@link GameMap#getDistance_IgnoreEndForCondition(Territory, Territory, Match)}.
+   */
+  public synchronized int getDistance_IgnoreEndForCondition(final Territory t1, final Territory t2) {
+    if (t1.equals(t2)) {
+      return 0;
+    }
+    final int index = m_adjacency.indexOf(t2);
+    return index < 0 ? -1 : getDistances(t1).m_endDistance[index];
+  }
+
+  /**
+   * @return All neighbors within a certain distance of the starting territory that match the condition. The same as
+   *         {@link GameMap#getNeighbors(Territory, int, Match)}.
+   *         Does NOT include the original/starting territory in the returned Set.
+   */
+  public synchronized Set<Territory> getNeighbors(final Territory territory, final int distance) {
+    if (distance < 0) {
+      throw new IllegalArgumentException("Distance must be positive not:" + distance);
+    }
+    final Set<Territory> neighbors = new HashSet<>();
+    if (distance == 0) {
+      return neighbors;
+    }
+    final int[] distances = getDistances(territory).m_distance;
+    for (int i = 0; i < distances.length; i++) {
+      if (distances[i] > 0 && distances[i] <= distance) {
+        neighbors.add(m_adjacency.getTerritory(i));
+      }
+    }
+    return neighbors;
+  }
+
+  private Distances getDistances(final Territory from) {
+    Distances distances = m_from.get(from);
+    if (distances == null) {
+      distances = search(from);
+      m_from.put(from, distances);
+    }
+    return distances;
+  }
+
+  private Distances search(final Territory from) {
+    final Distances distances = new Distances(m_adjacency.size());
+    final int start = m_adjacency.indexOf(from);
+    if (start < 0) {
+      return distances;
+    }
+    final int[] queue = new int[m_adjacency.size()];
+    int head = 0;
+    int tail = 0;
+    distances.m_distance[start] = 0;
+    queue[tail++] = start;
+    while (head < tail) {
+      final int current = queue[head++];
+      final int distance = distances.m_distance[current] + 1;
+      for (int i = m_adjacency.m_offsets[current]; i < m_adjacency.m_offsets[current + 1]; i++) {
+        final int next = m_adjacency.m_targets[i];
+        if (distances.m_endDistance[next] < 0) {
+          distances.m_endDistance[next] = distance;
+        }
+        if (distances.m_distance[next] < 0 && matches(next)) {
+          distances.m_distance[next] = distance;
+          queue[tail++] = next;
+        }
+      }
+    }
+    return distances;
+  }
+
+  private boolean matches(final int index) {
+    if (m_matches[index] == 0) {
+      m_matches[index] = m_condition.match(m_adjacency.getTerritory(index)) ? (byte) 1 : (byte) -1;
+    }
+    return m_matches[index] > 0;
+  }
+}
@@ -56,7 +56,7 @@ public class Unit extends GameDataComponent {
   @Deprecated
   protected Territory getTerritoryUnitIsIn() {
     for (final Territory t : this.getData().getMap().getTerritories()) {
-      if (t.getUnits().getUnits().contains(this)) {
+      if (t.getUnits().contains(this)) {
         return t;
       }
     }
@@ -87,6 +87,9 @@ public class Unit extends GameDataComponent {
     if (player == null) {
       player = PlayerID.NULL_PLAYERID;
     }
+    if (m_owner != null && !m_owner.equals(player) && getData() != null) {
+      getData().unitOwnerChanged();
+    }
     m_owner = player;
   }
 
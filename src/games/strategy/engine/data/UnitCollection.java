@@ -1,11 +1,20 @@
 package games.strategy.engine.data;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 import games.strategy.util.IntegerMap;
@@ -13,11 +22,50 @@ import games.strategy.util.Match;
 
 /**
  * A collection of units.
+ * <p>
+ * The units are kept in the order they were first added, hashed so adding and removing a unit takes constant time, and
+ * the number of units of each owner and unit type is counted as units are added and removed.
+ * </p>
  */
 public class UnitCollection extends GameDataComponent implements Iterable<Unit> {
   private static final long serialVersionUID = -3534037864426122864L;
-  private final List<Unit> m_units = new ArrayList<>();
-  private final NamedUnitHolder m_holder;
+  // written the same way as when the units were kept in a list, so saved games stay compatible
+  private static final ObjectStreamField[] serialPersistentFields =
+      {new ObjectStreamField("m_units", List.class), new ObjectStreamField("m_holder", NamedUnitHolder.class)};
+  // each unit and how many times it was added
+  private LinkedHashMap<Unit, Integer> m_units = new LinkedHashMap<>();
+  private NamedUnitHolder m_holder;
+  // worked out from m_units when first needed, null after a copy. Readers holding only the read lock may work it out at
+  // the same time, so it is only published once built
+  private transient volatile Counts m_counts;
+
+  /**
+   * The number of units by owner and unit type.
+   */
+  private static final class Counts {
+    private final Map<PlayerID, IntegerMap<UnitType>> m_byOwner = new HashMap<>();
+    private final int m_ownerChanges;
+    private int m_size = 0;
+
+    private Counts(final Map<Unit, Integer> units, final int ownerChanges) {
+      m_ownerChanges = ownerChanges;
+      for (final Entry<Unit, Integer> entry : units.entrySet()) {
+        add(entry.getKey(), entry.getValue());
+      }
+    }
+
+    private void add(final Unit unit, final int count) {
+      final IntegerMap<UnitType> byType = m_byOwner.computeIfAbsent(unit.getOwner(), k -> new IntegerMap<>());
+      byType.add(unit.getType(), count);
+      if (byType.getInt(unit.getType()) == 0) {
+        byType.removeKey(unit.getType());
+        if (byType.isEmpty()) {
+          m_byOwner.remove(unit.getOwner());
+        }
+      }
+      m_size += count;
+    }
+  }
 
   /**
    * Creates new UnitCollection
@@ -33,69 +81,118 @@ public class UnitCollection extends GameDataComponent implements Iterable<Unit>
   }
 
   void addUnit(final Unit unit) {
-    m_units.add(unit);
+    add(unit);
+    unitsAdded(Collections.singleton(unit));
     m_holder.notifyChanged();
   }
 
   void addAllUnits(final UnitCollection collection) {
-    m_units.addAll(collection.m_units);
+    final List<Unit> units = collection.toList();
+    for (final Unit unit : units) {
+      add(unit);
+    }
+    unitsAdded(units);
     m_holder.notifyChanged();
   }
 
   public void addAllUnits(final Collection<Unit> units) {
-    m_units.addAll(units);
+    for (final Unit unit : units) {
+      add(unit);
+    }
+    unitsAdded(units);
     m_holder.notifyChanged();
   }
 
+  /**
+   * Removes every occurrence of the given units.
+   */
   public void removeAllUnits(final Collection<Unit> units) {
-    m_units.removeAll(units);
+    final Counts counts = m_counts;
+    for (final Unit unit : units) {
+      final Integer count = m_units.remove(unit);
+      if (count != null && counts != null) {
+        counts.add(unit, -count);
+      }
+    }
+    if (m_holder instanceof Territory && getData() != null) {
+      final UnitIndex index = getData().getUnitIndexIfBuilt();
+      if (index != null) {
+        index.unitsRemoved((Territory) m_holder, units);
+      }
+    }
     m_holder.notifyChanged();
   }
 
+  private void add(final Unit unit) {
+    m_units.merge(unit, 1, Integer::sum);
+    final Counts counts = m_counts;
+    if (counts != null) {
+      counts.add(unit, 1);
+    }
+  }
+
+  private void unitsAdded(final Collection<Unit> units) {
+    if (m_holder instanceof Territory && getData() != null) {
+      final UnitIndex index = getData().getUnitIndexIfBuilt();
+      if (index != null) {
+        index.unitsAdded((Territory) m_holder, units);
+      }
+    }
+  }
+
+  /**
+   * @return the counts, worked out again if a unit changed owner since they were.
+   */
+  private Counts getCounts() {
+    final int ownerChanges = getData() == null ? 0 : getData().getUnitOwnerChanges();
+    Counts counts = m_counts;
+    if (counts == null || counts.m_ownerChanges != ownerChanges) {
+      counts = new Counts(m_units, ownerChanges);
+      m_counts = counts;
+    }
+    return counts;
+  }
+
+  /**
+   * Makes the counts be worked out again, after the units were set directly.
+   */
+  void clearCounts() {
+    m_counts = null;
+  }
+
   public int getUnitCount() {
-    return m_units.size();
+    return size();
   }
 
   public int getUnitCount(final UnitType type) {
     int count = 0;
-    final Iterator<Unit> iterator = m_units.iterator();
-    while (iterator.hasNext()) {
-      if (iterator.next().getType().equals(type)) {
-        count++;
-      }
+    for (final IntegerMap<UnitType> byType : getCounts().m_byOwner.values()) {
+      count += byType.getInt(type);
     }
     return count;
   }
 
   public int getUnitCount(final UnitType type, final PlayerID owner) {
-    int count = 0;
-    final Iterator<Unit> iterator = m_units.iterator();
-    while (iterator.hasNext()) {
-      final Unit current = iterator.next();
-      if (current.getType().equals(type) && current.getOwner().equals(owner)) {
-        count++;
-      }
-    }
-    return count;
+    final IntegerMap<UnitType> byType = getCounts().m_byOwner.get(owner);
+    return byType == null ? 0 : byType.getInt(type);
   }
 
   public int getUnitCount(final PlayerID owner) {
-    int count = 0;
-    final Iterator<Unit> iterator = m_units.iterator();
-    while (iterator.hasNext()) {
-      if (iterator.next().getOwner().equals(owner)) {
-        count++;
-      }
-    }
-    return count;
+    final IntegerMap<UnitType> byType = getCounts().m_byOwner.get(owner);
+    return byType == null ? 0 : byType.totalValues();
+  }
+
+  public boolean contains(final Unit unit) {
+    return m_units.containsKey(unit);
   }
 
   public boolean containsAll(final Collection<Unit> units) {
-    // much faster for large sets
-    if (m_units.size() > 500 && units.size() > 500) {
-      return new HashSet<>(m_units).containsAll(units);
+    for (final Unit unit : units) {
+      if (!m_units.containsKey(unit)) {
+        return false;
+      }
     }
-    return m_units.containsAll(units);
+    return true;
   }
 
   /**
@@ -113,7 +210,10 @@ public class UnitCollection extends GameDataComponent implements Iterable<Unit>
       throw new IllegalArgumentException("value must be positiive.  Instead its:" + max_units);
     }
     final Collection<Unit> rVal = new ArrayList<>();
-    for (final Unit current : m_units) {
+    if (getUnitCount(type) == 0) {
+      return rVal;
+    }
+    for (final Unit current : this) {
       if (current.getType().equals(type)) {
         rVal.add(current);
         if (rVal.size() == max_units) {
@@ -129,11 +229,8 @@ public class UnitCollection extends GameDataComponent implements Iterable<Unit>
    */
   public IntegerMap<UnitType> getUnitsByType() {
     final IntegerMap<UnitType> units = new IntegerMap<>();
-    for (final UnitType type : getData().getUnitTypeList()) {
-      final int count = getUnitCount(type);
-      if (count > 0) {
-        units.put(type, count);
-      }
+    for (final IntegerMap<UnitType> byType : getCounts().m_byOwner.values()) {
+      units.add(byType);
     }
     return units;
   }
@@ -144,13 +241,8 @@ public class UnitCollection extends GameDataComponent implements Iterable<Unit>
    * @return map of UnitType (only of units for the specified player)
    */
   public IntegerMap<UnitType> getUnitsByType(final PlayerID id) {
-    final IntegerMap<UnitType> count = new IntegerMap<>();
-    for (final Unit unit : m_units) {
-      if (unit.getOwner().equals(id)) {
-        count.add(unit.getType(), 1);
-      }
-    }
-    return count;
+    final IntegerMap<UnitType> byType = getCounts().m_byOwner.get(id);
+    return byType == null ? new IntegerMap<>() : new IntegerMap<>(byType);
   }
 
   /**
@@ -167,15 +259,26 @@ public class UnitCollection extends GameDataComponent implements Iterable<Unit>
   }
 
   public int size() {
-    return m_units.size();
+    return getCounts().m_size;
   }
 
   public boolean isEmpty() {
     return m_units.isEmpty();
   }
 
+  /**
+   * @return a copy of the units, that the caller may change.
+   */
   public Collection<Unit> getUnits() {
-    return new ArrayList<>(m_units);
+    return toList();
+  }
+
+  private List<Unit> toList() {
+    final List<Unit> units = new ArrayList<>(m_units.size());
+    for (final Unit unit : this) {
+      units.add(unit);
+    }
+    return units;
   }
 
   /**
@@ -183,11 +286,7 @@ public class UnitCollection extends GameDataComponent implements Iterable<Unit>
    */
   public Set<PlayerID> getPlayersWithUnits() {
     // note nulls are handled by PlayerID.NULL_PLAYERID
-    final Set<PlayerID> ids = new HashSet<>();
-    for (final Unit unit : m_units) {
-      ids.add(unit.getOwner());
-    }
-    return ids;
+    return new HashSet<>(getCounts().m_byOwner.keySet());
   }
 
   /**
@@ -195,14 +294,14 @@ public class UnitCollection extends GameDataComponent implements Iterable<Unit>
    */
   public IntegerMap<PlayerID> getPlayerUnitCounts() {
     final IntegerMap<PlayerID> count = new IntegerMap<>();
-    for (final Unit unit : m_units) {
-      count.add(unit.getOwner(), 1);
+    for (final Entry<PlayerID, IntegerMap<UnitType>> entry : getCounts().m_byOwner.entrySet()) {
+      count.add(entry.getKey(), entry.getValue().totalValues());
     }
     return count;
   }
 
   public boolean hasUnitsFromMultiplePlayers() {
-    return getPlayersWithUnits().size() > 1;
+    return getCounts().m_byOwner.size() > 1;
   }
 
   public NamedUnitHolder getHolder() {
@@ -210,7 +309,7 @@ public class UnitCollection extends GameDataComponent implements Iterable<Unit>
   }
 
   public boolean allMatch(final Match<Unit> matcher) {
-    for (final Unit unit : m_units) {
+    for (final Unit unit : m_units.keySet()) {
       if (!matcher.match(unit)) {
         return false;
       }
@@ -219,7 +318,7 @@ public class UnitCollection extends GameDataComponent implements Iterable<Unit>
   }
 
   public boolean someMatch(final Match<Unit> matcher) {
-    for (final Unit unit : m_units) {
+    for (final Unit unit : m_units.keySet()) {
       if (matcher.match(unit)) {
         return true;
       }
@@ -228,12 +327,18 @@ public class UnitCollection extends GameDataComponent implements Iterable<Unit>
   }
 
   public int countMatches(final Match<Unit> predicate) {
-    return Match.countMatches(m_units, predicate);
+    int count = 0;
+    for (final Entry<Unit, Integer> entry : m_units.entrySet()) {
+      if (predicate.match(entry.getKey())) {
+        count += entry.getValue();
+      }
+    }
+    return count;
   }
 
   public List<Unit> getMatches(final Match<Unit> predicate) {
     final List<Unit> values = new ArrayList<>();
-    for (final Unit unit : m_units) {
+    for (final Unit unit : this) {
       if (predicate.match(unit)) {
         values.add(unit);
       }
@@ -253,8 +358,56 @@ public class UnitCollection extends GameDataComponent implements Iterable<Unit>
     return buf.toString();
   }
 
+  /**
+   * @return the units in the order they were added, a unit added more than once is returned that many times. The
+   *         collection must not be changed while iterating.
+   */
   @Override
   public Iterator<Unit> iterator() {
-    return Collections.unmodifiableList(m_units).iterator();
+    final Iterator<Entry<Unit, Integer>> entries = m_units.entrySet().iterator();
+    return new Iterator<Unit>() {
+      private Unit m_current = null;
+      private int m_remaining = 0;
+
+      @Override
+      public boolean hasNext() {
+        return m_remaining > 0 || entries.hasNext();
+      }
+
+      @Override
+      public Unit next() {
+        if (m_remaining == 0) {
+          if (!entries.hasNext()) {
+            throw new NoSuchElementException();
+          }
+          final Entry<Unit, Integer> entry = entries.next();
+          m_current = entry.getKey();
+          m_remaining = entry.getValue();
+        }
+        m_remaining--;
+        return m_current;
+      }
+    };
+  }
+
+  private void writeObject(final ObjectOutputStream out) throws IOException {
+    final ObjectOutputStream.PutField fields = out.putFields();
+    fields.put("m_units", toList());
+    fields.put("m_holder", m_holder);
+    out.writeFields();
+  }
+
+  @SuppressWarnings("unchecked")
+  private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+    final ObjectInputStream.GetField fields = in.readFields();
+    final List<Unit> units = (List<Unit>) fields.get("m_units", null);
+    m_holder = (NamedUnitHolder) fields.get("m_holder", null);
+    m_units = new LinkedHashMap<>();
+    // the units may not have their ids yet, so they are hashed once the whole game data is read
+    in.registerValidation(() -> {
+      for (final Unit unit : units) {
+        m_units.merge(unit, 1, Integer::sum);
+      }
+    }, 0);
   }
 }
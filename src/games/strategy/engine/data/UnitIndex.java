@@ -0,0 +1,103 @@
+package games.strategy.engine.data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import games.strategy.triplea.TripleAUnit;
+
+/**
+ * The territory every unit on the map is in, and the units every transport is transporting, so neither has to be
+ * found by searching all territories.
+ * <p>
+ * Built from the map when first asked for, then kept up to date by the unit collections of the territories and by
+ * setting the transport of a unit.
+ * </p>
+ */
+public final class UnitIndex {
+  private final Map<Unit, Territory> m_territories = new HashMap<>();
+  // the units on the map whose transportedBy is the key
+  private final Map<Unit, Set<Unit>> m_cargo = new HashMap<>();
+
+  UnitIndex(final GameMap map) {
+    for (final Territory territory : map.getTerritories()) {
+      unitsAdded(territory, territory.getUnits().getUnits());
+    }
+  }
+
+  /**
+   * @return the territory the unit is in, or null if it is not on the map.
+   */
+  public synchronized Territory getTerritory(final Unit unit) {
+    return m_territories.get(unit);
+  }
+
+  /**
+   * @return the units the transport is transporting, in the same territory as the transport.
+   */
+  public synchronized List<Unit> getTransporting(final Unit transport) {
+    final Set<Unit> cargo = m_cargo.get(transport);
+    final Territory territory = m_territories.get(transport);
+    if (cargo == null || territory == null) {
+      return Collections.emptyList();
+    }
+    final List<Unit> transporting = new ArrayList<>(cargo.size());
+    for (final Unit unit : cargo) {
+      if (m_territories.get(unit) == territory) {
+        transporting.add(unit);
+      }
+    }
+    return transporting;
+  }
+
+  synchronized void unitsAdded(final Territory territory, final Collection<Unit> units) {
+    for (final Unit unit : units) {
+      m_territories.put(unit, territory);
+      final Unit transport = getTransportedBy(unit);
+      if (transport != null) {
+        m_cargo.computeIfAbsent(transport, k -> new LinkedHashSet<>()).add(unit);
+      }
+    }
+  }
+
+  synchronized void unitsRemoved(final Territory territory, final Collection<Unit> units) {
+    for (final Unit unit : units) {
+      // the unit may already have been added to another territory
+      if (m_territories.remove(unit, territory)) {
+        removeCargo(getTransportedBy(unit), unit);
+      }
+    }
+  }
+
+  private static Unit getTransportedBy(final Unit unit) {
+    return unit instanceof TripleAUnit ? ((TripleAUnit) unit).getTransportedBy() : null;
+  }
+
+  private void removeCargo(final Unit transport, final Unit unit) {
+    if (transport == null) {
+      return;
+    }
+    final Set<Unit> cargo = m_cargo.get(transport);
+    if (cargo != null) {
+      cargo.remove(unit);
+      if (cargo.isEmpty()) {
+        m_cargo.remove(transport);
+      }
+    }
+  }
+
+  /**
+   * Called when the transport of a unit is set.
+   */
+  public synchronized void transportChanged(final Unit unit, final Unit oldTransport, final Unit newTransport) {
+    removeCargo(oldTransport, unit);
+    if (newTransport != null && m_territories.containsKey(unit)) {
+      m_cargo.computeIfAbsent(newTransport, k -> new LinkedHashSet<>()).add(unit);
+    }
+  }
+}
@@ -23,11 +23,47 @@ import games.strategy.util.LocalizeHTML;
  */
 public class UnitType extends NamedAttachable {
   private static final long serialVersionUID = 4885339076798905247L;
+  // set in the capabilities once they are worked out, so they are never 0 then
+  private static final int CAPABILITIES_KNOWN = 1 << 31;
+  // the UnitAttachment.CAPABILITY_* bits of our unit attachment, 0 until they are first asked for
+  private transient volatile int m_capabilities = 0;
 
   public UnitType(final String name, final GameData data) {
     super(name, data);
   }
 
+  /**
+   * @return the UnitAttachment.CAPABILITY_* bits of our unit attachment, worked out once until the attachment
+   *         changes.
+   */
+  public int getCapabilities() {
+    int capabilities = m_capabilities;
+    if (capabilities == 0) {
+      capabilities = UnitAttachment.get(this).computeCapabilities() | CAPABILITIES_KNOWN;
+      m_capabilities = capabilities;
+    }
+    return capabilities;
+  }
+
+  /**
+   * Makes the capabilities be worked out again, after our unit attachment changed.
+   */
+  public void clearCapabilities() {
+    m_capabilities = 0;
+  }
+
+  @Override
+  public void addAttachment(final String key, final IAttachment value) {
+    super.addAttachment(key, value);
+    clearCapabilities();
+  }
+
+  @Override
+  public void removeAttachment(final String keyString) {
+    super.removeAttachment(keyString);
+    clearCapabilities();
+  }
+
   public List<Unit> create(final int quantity, final PlayerID owner) {
     return create(quantity, owner, false);
   }
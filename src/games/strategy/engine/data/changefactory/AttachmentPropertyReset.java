@@ -4,6 +4,8 @@ import games.strategy.engine.data.Attachable;
 import games.strategy.engine.data.Change;
 import games.strategy.engine.data.GameData;
 import games.strategy.engine.data.IAttachment;
+import games.strategy.engine.data.RelationshipType;
+import games.strategy.engine.data.UnitType;
 import games.strategy.util.PropertyUtil;
 
 /**
@@ -46,6 +48,11 @@ class AttachmentPropertyReset extends Change {
   public void perform(final GameData data) {
     final IAttachment attachment = m_attachedTo.getAttachment(m_attachmentName);
     PropertyUtil.reset(m_property, attachment);
+    if (m_attachedTo instanceof UnitType) {
+      ((UnitType) m_attachedTo).clearCapabilities();
+    } else if (m_attachedTo instanceof RelationshipType) {
+      data.getRelationshipTracker().clearCache();
+    }
   }
 
   @Override
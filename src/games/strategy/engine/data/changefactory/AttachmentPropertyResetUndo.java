@@ -4,6 +4,8 @@ import games.strategy.engine.data.Attachable;
 import games.strategy.engine.data.Change;
 import games.strategy.engine.data.GameData;
 import games.strategy.engine.data.IAttachment;
+import games.strategy.engine.data.RelationshipType;
+import games.strategy.engine.data.UnitType;
 import games.strategy.util.PropertyUtil;
 
 class AttachmentPropertyResetUndo extends Change {
@@ -33,6 +35,11 @@ class AttachmentPropertyResetUndo extends Change {
   public void perform(final GameData data) {
     final IAttachment attachment = m_attachedTo.getAttachment(m_attachmentName);
     PropertyUtil.set(m_property, m_newValue, attachment, false);
+    if (m_attachedTo instanceof UnitType) {
+      ((UnitType) m_attachedTo).clearCapabilities();
+    } else if (m_attachedTo instanceof RelationshipType) {
+      data.getRelationshipTracker().clearCache();
+    }
   }
 
   @Override
@@ -197,6 +197,42 @@ public class ChangeFactory {
     return new AddBattleRecordsChange(records, data);
   }
 
+  /**
+   * @return whether the change only adds, removes or changes units, changes who owns units and territories, or changes
+   *         resources, production or battle records. Unlike changes to attachments, techs, relationships or properties,
+   *         these do not change the rules the game is played by.
+   */
+  public static boolean isUnitOwnerOrResourceChange(final Change change) {
+    return isUnitOwnerOrResourceChange(change, true);
+  }
+
+  /**
+   * @return whether the change only adds, removes or changes units, changes who owns units, or changes resources,
+   *         production or battle records. Unlike changes to who owns territories, these do not change which territories
+   *         units may move through.
+   */
+  public static boolean isUnitOrResourceChange(final Change change) {
+    return isUnitOwnerOrResourceChange(change, false);
+  }
+
+  private static boolean isUnitOwnerOrResourceChange(final Change change, final boolean territoryOwner) {
+    if (change instanceof CompositeChange) {
+      for (final Change child : ((CompositeChange) change).getChanges()) {
+        if (!isUnitOwnerOrResourceChange(child, territoryOwner)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    return change == EMPTY_CHANGE || change instanceof AddUnits || change instanceof RemoveUnits
+        || change instanceof UnitHitsChange || change instanceof BombingUnitDamageChange
+        || change instanceof ObjectPropertyChange || (territoryOwner && change instanceof OwnerChange)
+        || change instanceof PlayerOwnerChange || change instanceof ChangeResourceChange
+        || change instanceof AddBattleRecordsChange || change instanceof RemoveBattleRecordsChange
+        || change instanceof ProductionFrontierChange || change instanceof AddProductionRule
+        || change instanceof RemoveProductionRule || change instanceof PlayerWhoAmIChange;
+  }
+
   /** Creates new ChangeFactory. No need */
   private ChangeFactory() {}
 
@@ -0,0 +1,167 @@
+package games.strategy.engine.framework;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import games.strategy.debug.ClientLogger;
+import games.strategy.engine.data.GameData;
+
+/**
+ * Writes autosaves on a background thread, so the game does not wait for them to be written to disk.
+ * <p>
+ * An autosave is given a copy of the game data that nothing else changes, such as one made with
+ * {@link GameDataUtils#cloneGameData(GameData, boolean)}. If another autosave to the same file is asked for before the
+ * first is written, only the newer copy is written.
+ * </p>
+ */
+public class AutoSaver {
+  private final ExecutorService m_executor;
+  // the copies waiting to be written to each file, and when they were asked for
+  private final Map<File, PendingSave> m_pending = new LinkedHashMap<>();
+  private int m_saves = 0;
+  private int m_coalesced = 0;
+  private int m_failures = 0;
+  private long m_lastLatencyMillis = 0;
+  private long m_lastWriteMillis = 0;
+  private long m_lastSize = 0;
+
+  private static final class PendingSave {
+    private final GameData m_data;
+    private final long m_requested;
+
+    private PendingSave(final GameData data, final long requested) {
+      m_data = data;
+      m_requested = requested;
+    }
+  }
+
+  public AutoSaver() {
+    this(Executors.newSingleThreadExecutor(r -> {
+      final Thread thread = new Thread(r, "Autosave Writer");
+      thread.setDaemon(true);
+      return thread;
+    }));
+  }
+
+  AutoSaver(final ExecutorService executor) {
+    m_executor = executor;
+  }
+
+  /**
+   * @param file
+   *        file to save to
+   * @param data
+   *        copy of the game data, which must not be changed after this call
+   */
+  public void save(final File file, final GameData data) {
+    synchronized (this) {
+      if (m_pending.put(file, new PendingSave(data, System.nanoTime())) != null) {
+        // the write already waiting for this file will write the newer copy
+        m_coalesced++;
+        return;
+      }
+    }
+    try {
+      m_executor.execute(() -> write(file));
+    } catch (final RejectedExecutionException e) {
+      synchronized (this) {
+        m_pending.remove(file);
+        m_failures++;
+      }
+      ClientLogger.logQuietly(e);
+    }
+  }
+
+  private void write(final File file) {
+    final PendingSave pending;
+    synchronized (this) {
+      pending = m_pending.remove(file);
+    }
+    final long start = System.nanoTime();
+    try {
+      GameDataManager.saveGameReplacing(file, out -> new GameDataManager().saveGame(out, pending.m_data));
+      final long end = System.nanoTime();
+      synchronized (this) {
+        m_saves++;
+        m_lastLatencyMillis = TimeUnit.NANOSECONDS.toMillis(end - pending.m_requested);
+        m_lastWriteMillis = TimeUnit.NANOSECONDS.toMillis(end - start);
+        m_lastSize = file.length();
+      }
+    } catch (final Exception e) {
+      synchronized (this) {
+        m_failures++;
+      }
+      ClientLogger.logQuietly(e);
+    }
+  }
+
+  /**
+   * Writes the autosaves asked for so far, then stops the writer thread.
+   *
+   * @param timeoutMillis
+   *        longest time to wait for the autosaves to be written
+   * @return whether all autosaves were written in time
+   */
+  public boolean shutDown(final long timeoutMillis) {
+    m_executor.shutdown();
+    try {
+      return m_executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  /**
+   * @return how many autosaves were written.
+   */
+  public synchronized int getSaveCount() {
+    return m_saves;
+  }
+
+  /**
+   * @return how many autosaves were dropped because a newer one to the same file was asked for before they were
+   *         written.
+   */
+  public synchronized int getCoalescedCount() {
+    return m_coalesced;
+  }
+
+  public synchronized int getFailureCount() {
+    return m_failures;
+  }
+
+  /**
+   * @return the time from the last autosave written being asked for to it being written, in milliseconds.
+   */
+  public synchronized long getLastLatencyMillis() {
+    return m_lastLatencyMillis;
+  }
+
+  /**
+   * @return the time writing the last autosave took, in milliseconds.
+   */
+  public synchronized long getLastWriteMillis() {
+    return m_lastWriteMillis;
+  }
+
+  /**
+   * @return the size of the last autosave written, in bytes.
+   */
+  public synchronized long getLastSize() {
+    return m_lastSize;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "Autosaves: " + m_saves + " written, " + m_coalesced + " coalesced, " + m_failures + " failed"
+        + (m_saves == 0 ? ""
+            : ", last " + m_lastSize + " bytes written in " + m_lastWriteMillis + "ms, " + m_lastLatencyMillis
+                + "ms after it was asked for");
+  }
+}
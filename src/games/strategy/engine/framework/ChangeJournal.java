@@ -0,0 +1,543 @@
+package games.strategy.engine.framework;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import games.strategy.debug.ClientLogger;
+import games.strategy.engine.data.Change;
+import games.strategy.engine.data.GameData;
+import games.strategy.engine.data.GameObjectOutputStream;
+import games.strategy.engine.data.GameSequence;
+import games.strategy.engine.data.PlayerID;
+import games.strategy.engine.delegate.IDelegate;
+import games.strategy.engine.history.EventChild;
+import games.strategy.engine.history.HistoryWriter;
+
+/**
+ * Records a running game as a full snapshot followed by an append-only log of what was written to its history, so
+ * that the game can be recovered after a crash without saving all of it after every step.
+ * <p>
+ * The log is written a step at a time. Each step is written as one frame, holding the changes, history events and
+ * markers of the step, then the position in the game sequence and the state of the delegates once it has ended. A
+ * frame cut short by a crash is ignored when recovering, so the game is recovered as it was after the last step that
+ * was written in full.
+ * </p>
+ * <p>
+ * Every few rounds the game asks for a new snapshot, which starts a new generation: a snapshot written by an
+ * {@link AutoSaver} and a new log. The previous generation is kept until the next starts, so that if the process dies
+ * before the newest snapshot is written, the game is recovered from the previous snapshot and both logs.
+ * </p>
+ * <p>
+ * The journal locks its folder while it is written, so a second game can not write to the same folder, and it only
+ * deletes the generations it wrote itself.
+ * </p>
+ */
+public class ChangeJournal {
+  public static final String LOG_EXTENSION = ".tjnl";
+  private static final String SNAPSHOT_EXTENSION = ".tsvg";
+  private static final Pattern FILE_NAME = Pattern.compile("journal_(\\d+)(\\.tjnl|\\.tsvg)");
+  private static final String LOCK_FILE_NAME = "journal.lock";
+  private static final int MAGIC = 0x544a4e4c;
+  private static final int FORMAT_VERSION = 1;
+  private static final int CHANGE = 1;
+  private static final int EVENT = 2;
+  private static final int EVENT_CHILD = 3;
+  private static final int RENDERING_DATA = 4;
+  private static final int STEP = 5;
+  private static final int ROUND = 6;
+  private static final int STEP_END = 7;
+  private final File m_folder;
+  private final AutoSaver m_autoSaver;
+  // the generation the journal was started with, older generations belong to an earlier game
+  private int m_firstGeneration = 0;
+  private int m_generation = 0;
+  private DataOutputStream m_log;
+  private FileLock m_lock;
+  private ByteArrayOutputStream m_frameBytes;
+  private ObjectOutputStream m_frame;
+  private boolean m_failed = false;
+  private int m_frames = 0;
+  private long m_bytesWritten = 0;
+  private int m_lastFrameSize = 0;
+  // the delegates as they were written to the log, serialized
+  private final Map<String, byte[]> m_delegateStates = new HashMap<>();
+
+  /**
+   * @param folder
+   *        folder to write the journal to
+   * @param autoSaver
+   *        writes the snapshots
+   */
+  public ChangeJournal(final File folder, final AutoSaver autoSaver) {
+    m_folder = folder;
+    m_autoSaver = autoSaver;
+  }
+
+  public synchronized void addChange(final Change change) {
+    write(CHANGE, change);
+  }
+
+  public synchronized void startEvent(final String event) {
+    write(EVENT, event);
+  }
+
+  public synchronized void addChildToEvent(final String text, final Object renderingData) {
+    write(EVENT_CHILD, text, renderingData);
+  }
+
+  public synchronized void setRenderingData(final Object renderingData) {
+    write(RENDERING_DATA, renderingData);
+  }
+
+  public synchronized void startNextStep(final String stepName, final String delegateName, final PlayerID player,
+      final String displayName) {
+    write(STEP, stepName, delegateName, player, displayName);
+  }
+
+  public synchronized void startNextRound(final int round) {
+    write(ROUND, round);
+  }
+
+  private void write(final int type, final Object... values) {
+    if (m_failed || m_log == null) {
+      return;
+    }
+    try {
+      if (m_frame == null) {
+        m_frameBytes = new ByteArrayOutputStream();
+        m_frame = new GameObjectOutputStream(new DeflaterOutputStream(m_frameBytes));
+      }
+      m_frame.writeInt(type);
+      for (final Object value : values) {
+        m_frame.writeObject(value);
+      }
+    } catch (final IOException e) {
+      fail(e);
+    }
+  }
+
+  /**
+   * Writes the step that has just ended to the log. Call once the game sequence has moved on to the next step, with
+   * delegate execution blocked.
+   *
+   * @param data
+   *        the running game
+   */
+  public synchronized void endStep(final GameData data) {
+    if (m_failed || m_log == null) {
+      return;
+    }
+    final GameSequence sequence = data.getSequence();
+    final int[] runCounts = new int[sequence.size()];
+    for (int i = 0; i < runCounts.length; i++) {
+      runCounts[i] = sequence.getStep(i).getRunCount();
+    }
+    // most delegates do not change from one step to the next, so only write those that did
+    final Map<String, byte[]> delegateStates = new LinkedHashMap<>();
+    try {
+      for (final IDelegate delegate : data.getDelegateList()) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new GameObjectOutputStream(bytes)) {
+          out.writeObject(delegate.saveState());
+        }
+        final byte[] state = bytes.toByteArray();
+        if (!Arrays.equals(state, m_delegateStates.put(delegate.getName(), state))) {
+          delegateStates.put(delegate.getName(), state);
+        }
+      }
+    } catch (final IOException e) {
+      fail(e);
+      return;
+    }
+    write(STEP_END, sequence.getRound() - sequence.getRoundOffset(), sequence.getStepIndex(), runCounts,
+        delegateStates);
+    if (m_failed) {
+      return;
+    }
+    try {
+      m_frame.close();
+      final byte[] frame = m_frameBytes.toByteArray();
+      m_frame = null;
+      m_frameBytes = null;
+      final CRC32 crc = new CRC32();
+      crc.update(frame);
+      final ByteArrayOutputStream bytes = new ByteArrayOutputStream(frame.length + 8);
+      final DataOutputStream out = new DataOutputStream(bytes);
+      out.writeInt(frame.length);
+      out.writeInt((int) crc.getValue());
+      out.write(frame);
+      // one write, so that a crash leaves at most one frame cut short
+      bytes.writeTo(m_log);
+      m_log.flush();
+      m_frames++;
+      m_bytesWritten += bytes.size();
+      m_lastFrameSize = bytes.size();
+    } catch (final IOException e) {
+      fail(e);
+    }
+  }
+
+  /**
+   * Starts a new generation of the journal from a snapshot of the game. Call between steps, just after
+   * {@link #endStep(GameData)}, or before the game has started.
+   *
+   * @param snapshot
+   *        copy of the game data and delegates, which must not be changed after this call
+   */
+  public synchronized void startSnapshot(final GameData snapshot) {
+    if (m_failed) {
+      return;
+    }
+    if (m_frame != null && m_log != null) {
+      throw new IllegalStateException("Snapshot asked for part way through a step");
+    }
+    try {
+      if (m_log == null) {
+        if (!m_folder.isDirectory() && !m_folder.mkdirs()) {
+          throw new IOException("Could not create " + m_folder);
+        }
+        lockFolder();
+        final List<Integer> generations = getGenerations(m_folder);
+        m_generation = generations.isEmpty() ? 0 : generations.get(generations.size() - 1);
+        m_firstGeneration = m_generation + 1;
+      } else {
+        m_log.close();
+        m_log = null;
+      }
+      m_generation++;
+      m_frame = null;
+      m_frameBytes = null;
+      final DataOutputStream log =
+          new DataOutputStream(new FileOutputStream(getFile(m_folder, m_generation, LOG_EXTENSION)));
+      log.writeInt(MAGIC);
+      log.writeInt(FORMAT_VERSION);
+      log.writeInt(m_firstGeneration);
+      log.flush();
+      m_log = log;
+      m_autoSaver.save(getFile(m_folder, m_generation, SNAPSHOT_EXTENSION), snapshot);
+      deleteGenerationsBefore(m_generation - 1);
+    } catch (final IOException e) {
+      fail(e);
+    }
+  }
+
+  private void lockFolder() throws IOException {
+    final FileChannel channel = new RandomAccessFile(new File(m_folder, LOCK_FILE_NAME), "rw").getChannel();
+    FileLock lock;
+    try {
+      lock = channel.tryLock();
+    } catch (final OverlappingFileLockException e) {
+      // locked by another journal in this process
+      lock = null;
+    }
+    if (lock == null) {
+      channel.close();
+      throw new IOException("Another game is writing a journal to " + m_folder);
+    }
+    m_lock = lock;
+  }
+
+  /**
+   * Deletes the generations this journal wrote before the given one, older generations belong to an earlier game.
+   */
+  private void deleteGenerationsBefore(final int generation) {
+    final File[] files = m_folder.listFiles();
+    if (files == null) {
+      return;
+    }
+    for (final File file : files) {
+      final Matcher matcher = FILE_NAME.matcher(file.getName());
+      if (!matcher.matches()) {
+        continue;
+      }
+      final int fileGeneration = Integer.parseInt(matcher.group(1));
+      if (fileGeneration >= m_firstGeneration && fileGeneration < generation && !file.delete()) {
+        ClientLogger.logQuietly("Could not delete " + file);
+      }
+    }
+  }
+
+  private void fail(final IOException e) {
+    ClientLogger.logQuietly(e);
+    m_failed = true;
+    close();
+  }
+
+  /**
+   * Stops writing the journal. The step being played when this is called is not written.
+   */
+  public synchronized void close() {
+    m_frame = null;
+    m_frameBytes = null;
+    if (m_log != null) {
+      try {
+        m_log.close();
+      } catch (final IOException e) {
+        ClientLogger.logQuietly(e);
+      }
+      m_log = null;
+    }
+    if (m_lock != null) {
+      try {
+        // closing the channel releases the lock
+        m_lock.channel().close();
+      } catch (final IOException e) {
+        ClientLogger.logQuietly(e);
+      }
+      m_lock = null;
+    }
+  }
+
+  /**
+   * @return whether the journal is being written, which it is not before the first snapshot, once closed, or once
+   *         writing it failed.
+   */
+  public synchronized boolean isWriting() {
+    return !m_failed && m_log != null;
+  }
+
+  /**
+   * @return how many steps were written to the log.
+   */
+  public synchronized int getFrameCount() {
+    return m_frames;
+  }
+
+  /**
+   * @return the bytes written to the logs, not counting the snapshots.
+   */
+  public synchronized long getBytesWritten() {
+    return m_bytesWritten;
+  }
+
+  /**
+   * @return the size of the last step written to the log, in bytes.
+   */
+  public synchronized int getLastFrameSize() {
+    return m_lastFrameSize;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "Journal: generation " + m_generation + ", " + m_frames + " steps in " + m_bytesWritten + " bytes"
+        + (m_failed ? ", failed" : "");
+  }
+
+  private static File getFile(final File folder, final int generation, final String extension) {
+    return new File(folder, "journal_" + generation + extension);
+  }
+
+  private static List<Integer> getGenerations(final File folder) {
+    final TreeSet<Integer> generations = new TreeSet<>();
+    final File[] files = folder.listFiles();
+    if (files != null) {
+      for (final File file : files) {
+        final Matcher matcher = FILE_NAME.matcher(file.getName());
+        if (matcher.matches()) {
+          generations.add(Integer.parseInt(matcher.group(1)));
+        }
+      }
+    }
+    return new ArrayList<>(generations);
+  }
+
+  /**
+   * @return whether the file is a log written by a journal.
+   */
+  public static boolean isJournal(final File file) {
+    return FILE_NAME.matcher(file.getName()).matches() && file.getName().endsWith(LOG_EXTENSION);
+  }
+
+  /**
+   * Recovers the game written to a journal: loads the newest snapshot that can be loaded, then replays the logs from
+   * it on, up to the last step written in full.
+   *
+   * @param folder
+   *        folder the journal was written to
+   * @return the game as it was after the last step written in full
+   */
+  public static GameData recover(final File folder) throws IOException {
+    final List<Integer> generations = getGenerations(folder);
+    if (generations.isEmpty()) {
+      throw new IOException("No journal in " + folder);
+    }
+    final int lastGeneration = generations.get(generations.size() - 1);
+    final int firstGeneration = readHeader(getFile(folder, lastGeneration, LOG_EXTENSION));
+    final List<Integer> newestFirst = new ArrayList<>(generations);
+    Collections.reverse(newestFirst);
+    for (final int generation : newestFirst) {
+      if (generation < firstGeneration) {
+        // written by an earlier game
+        break;
+      }
+      final File snapshot = getFile(folder, generation, SNAPSHOT_EXTENSION);
+      if (!snapshot.exists()) {
+        continue;
+      }
+      final GameData data;
+      try {
+        data = new GameDataManager().loadGame(snapshot);
+      } catch (final IOException e) {
+        ClientLogger.logQuietly(e);
+        continue;
+      }
+      for (int replayed = generation; replayed <= lastGeneration; replayed++) {
+        if (!replay(getFile(folder, replayed, LOG_EXTENSION), data)) {
+          break;
+        }
+      }
+      return data;
+    }
+    throw new IOException("No snapshot to recover the journal in " + folder + " from");
+  }
+
+  private static int readHeader(final File log) throws IOException {
+    try (DataInputStream in = new DataInputStream(new FileInputStream(log))) {
+      return readHeader(in);
+    } catch (final EOFException e) {
+      throw new IOException("Journal cut short: " + log);
+    }
+  }
+
+  private static int readHeader(final DataInputStream in) throws IOException {
+    if (in.readInt() != MAGIC) {
+      throw new IOException("Not a journal");
+    }
+    final int version = in.readInt();
+    if (version > FORMAT_VERSION) {
+      throw new IOException("Journal written in a newer format: " + version);
+    }
+    return in.readInt();
+  }
+
+  /**
+   * @return whether the whole log was replayed, rather than stopping at a frame cut short.
+   */
+  private static boolean replay(final File log, final GameData data) throws IOException {
+    if (!log.exists()) {
+      return false;
+    }
+    final GameObjectStreamFactory streamFactory = new GameObjectStreamFactory(data);
+    try (DataInputStream in = new DataInputStream(new FileInputStream(log))) {
+      readHeader(in);
+      while (true) {
+        final int first = in.read();
+        if (first < 0) {
+          return true;
+        }
+        final byte[] frame;
+        final int checksum;
+        try {
+          final int length = (first << 24) | (in.readUnsignedByte() << 16) | in.readUnsignedShort();
+          checksum = in.readInt();
+          if (length < 0) {
+            return false;
+          }
+          frame = new byte[length];
+          in.readFully(frame);
+        } catch (final EOFException e) {
+          // the process died while the frame was being written
+          return false;
+        }
+        final CRC32 crc = new CRC32();
+        crc.update(frame);
+        if ((int) crc.getValue() != checksum) {
+          return false;
+        }
+        try (ObjectInputStream frameIn =
+            streamFactory.create(new InflaterInputStream(new ByteArrayInputStream(frame)))) {
+          replayFrame(frameIn, streamFactory);
+        } catch (final ClassNotFoundException e) {
+          throw new IOException(e.getMessage());
+        }
+      }
+    } catch (final EOFException e) {
+      // the process died before the header was written
+      return false;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void replayFrame(final ObjectInputStream in, final GameObjectStreamFactory streamFactory)
+      throws IOException, ClassNotFoundException {
+    final GameData data = streamFactory.getData();
+    final HistoryWriter writer = data.getHistory().getHistoryWriter();
+    while (true) {
+      final int type = in.readInt();
+      switch (type) {
+        case CHANGE:
+          final Change change = (Change) in.readObject();
+          data.performChange(change);
+          writer.addChange(change);
+          break;
+        case EVENT:
+          writer.startEvent((String) in.readObject());
+          break;
+        case EVENT_CHILD:
+          writer.addChildToEvent(new EventChild((String) in.readObject(), in.readObject()));
+          break;
+        case RENDERING_DATA:
+          writer.setRenderingData(in.readObject());
+          break;
+        case STEP:
+          writer.startNextStep((String) in.readObject(), (String) in.readObject(), (PlayerID) in.readObject(),
+              (String) in.readObject());
+          break;
+        case ROUND:
+          writer.startNextRound((Integer) in.readObject());
+          break;
+        case STEP_END:
+          final int round = (Integer) in.readObject();
+          final int stepIndex = (Integer) in.readObject();
+          final int[] runCounts = (int[]) in.readObject();
+          final Map<String, byte[]> delegateStates = (Map<String, byte[]>) in.readObject();
+          final GameSequence sequence = data.getSequence();
+          sequence.setRoundAndStepIndex(round, stepIndex);
+          for (int i = 0; i < runCounts.length && i < sequence.size(); i++) {
+            // run counts only go up
+            while (sequence.getStep(i).getRunCount() < runCounts[i]) {
+              sequence.getStep(i).incrementRunCount();
+            }
+          }
+          for (final Map.Entry<String, byte[]> entry : delegateStates.entrySet()) {
+            final IDelegate delegate = data.getDelegateList().getDelegate(entry.getKey());
+            if (delegate != null) {
+              try (ObjectInputStream state = streamFactory.create(new ByteArrayInputStream(entry.getValue()))) {
+                delegate.loadState((Serializable) state.readObject());
+              }
+            }
+          }
+          return;
+        default:
+          throw new IOException("Unknown journal record: " + type);
+      }
+    }
+  }
+}
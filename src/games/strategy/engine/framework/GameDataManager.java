@@ -1,18 +1,24 @@
 package games.strategy.engine.framework;
 
 import java.io.BufferedInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.io.Serializable;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 
 import javax.swing.JDialog;
 import javax.swing.JOptionPane;
@@ -40,6 +46,36 @@ public class GameDataManager {
   private final static String DELEGATE_DATA_NEXT = "<DelegateData>";
   private final static String DELEGATE_LIST_END = "<EndDelegateList>";
 
+  /**
+   * The upgraders every GameDataManager starts with. Whenever one gets out of date, just remove it (but keep the
+   * example).
+   * <p>
+   * example:
+   * </p>
+   *
+   * <pre>
+   * // if original save was done under 1.6.1.0, and new engine is greater than 1.6.1.0 and less than 1.6.2.0
+   * new GameDataUpgrader() {
+   *   public boolean appliesTo(final Version savedWith) {
+   *     final Version v1610 = new Version(1, 6, 1, 0);
+   *     final Version v1620 = new Version(1, 6, 2, 0);
+   *     return savedWith.equals(v1610, false) &amp;&amp; ClientContext.engineVersion().getVersion().isGreaterThan(v1610, false)
+   *         &amp;&amp; ClientContext.engineVersion().getVersion().isLessThan(v1620, true);
+   *   }
+   *
+   *   public void upgrade(final GameData data) {
+   *     if (TechAdvance.getTechAdvances(data).isEmpty()) {
+   *       System.out.println("Adding tech to be compatible with 1.6.1.x");
+   *       TechAdvance.createDefaultTechAdvances(data);
+   *       TechAbilityAttachment.setDefaultTechnologyAttachments(data);
+   *     }
+   *   }
+   * }
+   * </pre>
+   */
+  private static final List<GameDataUpgrader> DEFAULT_UPGRADERS = Collections.emptyList();
+  private final List<GameDataUpgrader> m_upgraders = new ArrayList<>(DEFAULT_UPGRADERS);
+
   public GameDataManager() {}
 
   public GameData loadGame(final File savedGameFile) throws IOException {
@@ -56,96 +92,124 @@ public class GameDataManager {
     }
   }
 
+  /**
+   * Loads a game saved in the current format, or in the gzipped object stream format games were saved in before.
+   */
   public GameData loadGame(final InputStream inputStream, final String savegamePath) throws IOException {
-    ObjectInputStream input = new ObjectInputStream(new GZIPInputStream(inputStream));
+    final InputStream markableInput = inputStream.markSupported() ? inputStream : new BufferedInputStream(inputStream);
     try {
-      final Version readVersion = (Version) input.readObject();
-      final boolean headless = HeadlessGameServer.headless();
-      if (!readVersion.equals(ClientContext.engineVersion().getVersion(), true)) {
-        // a hack for now, but a headless server should not try to open any savegame that is not its version
-        if (headless) {
-          final String message = "Incompatible game save, we are: " + ClientContext.engineVersion().getVersion()
-              + "  Trying to load game created with: " + readVersion;
-          HeadlessGameServer.sendChat(message);
-          System.out.println(message);
+      if (SavedGameFormat.isSavedGameFormat(markableInput)) {
+        final SavedGameFormat.SavedGame savedGame = SavedGameFormat.read(markableInput);
+        if (!canLoad(savedGame.getEngineVersion(), savegamePath)) {
           return null;
         }
-        final String error = "<html>Incompatible engine versions, and no old engine found. We are: "
-            + ClientContext.engineVersion().getVersion() + " . Trying to load game created with: " + readVersion
-            + "<br>To download the latest version of TripleA, Please visit " + UrlConstants.LATEST_GAME_DOWNLOAD_WEBSITE + "</html>";
-        if (savegamePath == null) {
-          throw new IOException(error);
-        }
-        // so, what we do here is try to see if our installed copy of triplea includes older jars with it that are the
-        // same engine as was
-        // used for this savegame, and if so try to run it
-        try {
-          final String newClassPath = GameRunner.findOldJar(readVersion, true);
-          // ask user if we really want to do this?
-          final String messageString = "<html>This TripleA engine is version " + ClientContext.engineVersion().getVersion()
-              + " and you are trying to open a savegame made with version " + readVersion.toString()
-              + "<br>However, this TripleA cannot open any savegame made by any engine other than engines with the same first three version numbers as it (x_x_x_x)."
-              + "<br><br>TripleA now comes with older engines included with it, and has found the engine to run this savegame. This is a new feature and is in 'beta' stage."
-              + "<br>It will attempt to run a new instance of TripleA using the older engine jar file, and this instance will only be able to play this savegame."
-              + "<br><b>You may choose to either Close or Keep the current instance of TripleA!</b> (If hosting, you must close it). Please report any bugs or issues."
-              + "<br><br>Do you wish to continue?</html>";
-          final String yesClose = "Yes & Close Current";
-          final String yesOpen = "Yes & Do Not Close";
-          final String cancel = "Cancel";
-          final Object[] options = new Object[] {yesClose, yesOpen, cancel};
-          final JOptionPane pane = new JOptionPane(messageString, JOptionPane.PLAIN_MESSAGE,
-              JOptionPane.YES_NO_CANCEL_OPTION, null, options, yesClose);
-          final JDialog window = pane.createDialog(null, "Run old jar to open old Save Game?");
-          window.setVisible(true);
-          final Object buttonPressed = pane.getValue();
-          if (buttonPressed == null || buttonPressed.equals(cancel)) {
-            return null;
-          }
-          final boolean closeCurrentInstance = buttonPressed.equals(yesClose);
-          GameRunner.startGame(savegamePath, newClassPath, null);
-          if (closeCurrentInstance) {
-            ThreadUtil.sleep(1000);
-            System.exit(0);
-          }
-        } catch (final IOException e) {
-          if (ClientFileSystemHelper.areWeOldExtraJar()) {
-            throw new IOException("<html>Please run the default TripleA and try to open this game again. "
-                + "<br>This TripleA engine is old and kept only for backwards compatibility and can only open savegames created by engines with these first 3 version digits: "
-                + ClientContext.engineVersion().getVersion().toStringFull("_", true) + "</html>");
-          } else {
-            throw new IOException(error);
-          }
+        try (ObjectInputStream input = savedGame.openGame()) {
+          return readGame(input, savedGame.getEngineVersion());
         }
+      }
+      final ObjectInputStream input = new ObjectInputStream(new GZIPInputStream(markableInput));
+      final Version readVersion = (Version) input.readObject();
+      if (!canLoad(readVersion, savegamePath)) {
         return null;
-      } else if (!headless && readVersion.isGreaterThan(ClientContext.engineVersion().getVersion(), false)) {
-        // we can still load it because first 3 numbers of the version are the same, however this save was made by a
-        // newer engine, so prompt
-        // the user to upgrade
-        final String messageString =
-            "<html>Your TripleA engine is OUT OF DATE.  This save was made by a newer version of TripleA."
-                + "<br>However, because the first 3 version numbers are the same as your current version, we can still open the savegame."
-                + "<br><br>This TripleA engine is version " + ClientContext.engineVersion().getVersion().toStringFull("_")
-                + " and you are trying to open a savegame made with version " + readVersion.toStringFull("_")
-                + "<br><br>To download the latest version of TripleA, Please visit " + UrlConstants.LATEST_GAME_DOWNLOAD_WEBSITE
-                + "<br><br>It is recommended that you upgrade to the latest version of TripleA before playing this savegame."
-                + "<br><br>Do you wish to continue and open this save with your current 'old' version?</html>";
-        final int answer =
-            JOptionPane.showConfirmDialog(null, messageString, "Open Newer Save Game?", JOptionPane.YES_NO_OPTION);
-        if (answer != JOptionPane.YES_OPTION) {
-          return null;
-        }
       }
-      final GameData data = (GameData) input.readObject();
-      // TODO: expand this functionality (and keep it updated)
-      updateDataToBeCompatibleWithNewEngine(readVersion, data);
-      loadDelegates(input, data);
-      data.postDeSerialize();
-      return data;
+      return readGame(input, readVersion);
     } catch (final ClassNotFoundException cnfe) {
       throw new IOException(cnfe.getMessage());
     }
   }
 
+  /**
+   * @return whether a game saved by the given engine version can be loaded by this engine, if not the user has been
+   *         told why or the game has been started with an older engine.
+   */
+  private boolean canLoad(final Version readVersion, final String savegamePath) throws IOException {
+    final boolean headless = HeadlessGameServer.headless();
+    if (!readVersion.equals(ClientContext.engineVersion().getVersion(), true)) {
+      // a hack for now, but a headless server should not try to open any savegame that is not its version
+      if (headless) {
+        final String message = "Incompatible game save, we are: " + ClientContext.engineVersion().getVersion()
+            + "  Trying to load game created with: " + readVersion;
+        HeadlessGameServer.sendChat(message);
+        System.out.println(message);
+        return false;
+      }
+      final String error = "<html>Incompatible engine versions, and no old engine found. We are: "
+          + ClientContext.engineVersion().getVersion() + " . Trying to load game created with: " + readVersion
+          + "<br>To download the latest version of TripleA, Please visit " + UrlConstants.LATEST_GAME_DOWNLOAD_WEBSITE + "</html>";
+      if (savegamePath == null) {
+        throw new IOException(error);
+      }
+      // so, what we do here is try to see if our installed copy of triplea includes older jars with it that are the
+      // same engine as was
+      // used for this savegame, and if so try to run it
+      try {
+        final String newClassPath = GameRunner.findOldJar(readVersion, true);
+        // ask user if we really want to do this?
+        final String messageString = "<html>This TripleA engine is version " + ClientContext.engineVersion().getVersion()
+            + " and you are trying to open a savegame made with version " + readVersion.toString()
+            + "<br>However, this TripleA cannot open any savegame made by any engine other than engines with the same first three version numbers as it (x_x_x_x)."
+            + "<br><br>TripleA now comes with older engines included with it, and has found the engine to run this savegame. This is a new feature and is in 'beta' stage."
+            + "<br>It will attempt to run a new instance of TripleA using the older engine jar file, and this instance will only be able to play this savegame."
+            + "<br><b>You may choose to either Close or Keep the current instance of TripleA!</b> (If hosting, you must close it). Please report any bugs or issues."
+            + "<br><br>Do you wish to continue?</html>";
+        final String yesClose = "Yes & Close Current";
+        final String yesOpen = "Yes & Do Not Close";
+        final String cancel = "Cancel";
+        final Object[] options = new Object[] {yesClose, yesOpen, cancel};
+        final JOptionPane pane = new JOptionPane(messageString, JOptionPane.PLAIN_MESSAGE,
+            JOptionPane.YES_NO_CANCEL_OPTION, null, options, yesClose);
+        final JDialog window = pane.createDialog(null, "Run old jar to open old Save Game?");
+        window.setVisible(true);
+        final Object buttonPressed = pane.getValue();
+        if (buttonPressed == null || buttonPressed.equals(cancel)) {
+          return false;
+        }
+        final boolean closeCurrentInstance = buttonPressed.equals(yesClose);
+        GameRunner.startGame(savegamePath, newClassPath, null);
+        if (closeCurrentInstance) {
+          ThreadUtil.sleep(1000);
+          System.exit(0);
+        }
+      } catch (final IOException e) {
+        if (ClientFileSystemHelper.areWeOldExtraJar()) {
+          throw new IOException("<html>Please run the default TripleA and try to open this game again. "
+              + "<br>This TripleA engine is old and kept only for backwards compatibility and can only open savegames created by engines with these first 3 version digits: "
+              + ClientContext.engineVersion().getVersion().toStringFull("_", true) + "</html>");
+        } else {
+          throw new IOException(error);
+        }
+      }
+      return false;
+    } else if (!headless && readVersion.isGreaterThan(ClientContext.engineVersion().getVersion(), false)) {
+      // we can still load it because first 3 numbers of the version are the same, however this save was made by a
+      // newer engine, so prompt
+      // the user to upgrade
+      final String messageString =
+          "<html>Your TripleA engine is OUT OF DATE.  This save was made by a newer version of TripleA."
+              + "<br>However, because the first 3 version numbers are the same as your current version, we can still open the savegame."
+              + "<br><br>This TripleA engine is version " + ClientContext.engineVersion().getVersion().toStringFull("_")
+              + " and you are trying to open a savegame made with version " + readVersion.toStringFull("_")
+              + "<br><br>To download the latest version of TripleA, Please visit " + UrlConstants.LATEST_GAME_DOWNLOAD_WEBSITE
+              + "<br><br>It is recommended that you upgrade to the latest version of TripleA before playing this savegame."
+              + "<br><br>Do you wish to continue and open this save with your current 'old' version?</html>";
+      final int answer =
+          JOptionPane.showConfirmDialog(null, messageString, "Open Newer Save Game?", JOptionPane.YES_NO_OPTION);
+      if (answer != JOptionPane.YES_OPTION) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private GameData readGame(final ObjectInputStream input, final Version readVersion)
+      throws IOException, ClassNotFoundException {
+    final GameData data = (GameData) input.readObject();
+    updateDataToBeCompatibleWithNewEngine(readVersion, data);
+    loadDelegates(input, data);
+    data.postDeSerialize();
+    return data;
+  }
+
   /**
    * Use this to keep compatibility between savegames when it is easy to do so.
    * When it is not easy to do so, just make sure to include the last release's .jar file in the "old" folder for
@@ -154,33 +218,19 @@ public class GameDataManager {
    * Any changes to the first 3 digits means that the savegame is not compatible between different engines.
    * While any change only to the 4th (last) digit means that the savegame must be compatible between different engines.
    *
-   * @param originalEngineVersion
-   * @param data
+   * @param upgrader
+   *        upgrader to run, after those added before it, on games it applies to
    */
+  public void addUpgrader(final GameDataUpgrader upgrader) {
+    m_upgraders.add(upgrader);
+  }
+
   private void updateDataToBeCompatibleWithNewEngine(final Version originalEngineVersion, final GameData data) {
-    // whenever this gets out of date, just comment out (but keep as an example, by commenting out)
-    /*
-     * example1:
-     * final Version v1610 = new Version(1, 6, 1, 0);
-     * final Version v1620 = new Version(1, 6, 2, 0);
-     * if (originalEngineVersion.equals(v1610, false) && ClientContext.engineVersion().getVersion().isGreaterThan(v1610, false) &&
-     * ClientContext.engineVersion().getVersion().isLessThan(v1620, true))
-     * {
-     * // if original save was done under 1.6.1.0, and new engine is greater than 1.6.1.0 and less than 1.6.2.0
-     * try
-     * {
-     * if (TechAdvance.getTechAdvances(data).isEmpty())
-     * {
-     * System.out.println("Adding tech to be compatible with 1.6.1.x");
-     * TechAdvance.createDefaultTechAdvances(data);
-     * TechAbilityAttachment.setDefaultTechnologyAttachments(data);
-     * }
-     * } catch (final Exception e)
-     * {
-     * ClientLogger.logQuietly(e);
-     * }
-     * }
-     */
+    for (final GameDataUpgrader upgrader : m_upgraders) {
+      if (upgrader.appliesTo(originalEngineVersion)) {
+        upgrader.upgrade(data);
+      }
+    }
   }
 
   private void loadDelegates(final ObjectInputStream input, final GameData data)
@@ -211,24 +261,54 @@ public class GameDataManager {
 
   public void saveGame(final OutputStream sink, final GameData data, final boolean saveDelegateInfo)
       throws IOException {
-    // write internally first in case of error
-    final ByteArrayOutputStream bytes = new ByteArrayOutputStream(25000);
-    final ObjectOutputStream outStream = new ObjectOutputStream(bytes);
-    outStream.writeObject(games.strategy.engine.ClientContext.engineVersion().getVersion());
+    // write internally first in case of error, and compress once the read lock is released
+    final SavedGameFormat.CapturedGame game;
     data.acquireReadLock();
     try {
-      outStream.writeObject(data);
-      if (saveDelegateInfo) {
-        writeDelegates(data, outStream);
-      } else {
-        outStream.writeObject(DELEGATE_LIST_END);
-      }
+      game = SavedGameFormat.captureGame(outStream -> {
+        outStream.writeObject(data);
+        if (saveDelegateInfo) {
+          writeDelegates(data, outStream);
+        } else {
+          outStream.writeObject(DELEGATE_LIST_END);
+        }
+      });
     } finally {
       data.releaseReadLock();
     }
-    try (final GZIPOutputStream zippedOut = new GZIPOutputStream(sink)) {
-      // now write to file
-      zippedOut.write(bytes.toByteArray());
+    SavedGameFormat.write(sink, ClientContext.engineVersion().getVersion(), game);
+  }
+
+  /**
+   * Writes a saved game to a stream.
+   */
+  public interface SaveWriter {
+    void write(OutputStream out) throws IOException;
+  }
+
+  /**
+   * Saves to a temporary file next to the file, which is then renamed over the file. If saving fails, or the
+   * process dies while saving, the file keeps the game saved in it before.
+   *
+   * @param file
+   *        file to save to
+   * @param writer
+   *        writes the game, such as by calling {@link #saveGame(OutputStream, GameData)}
+   */
+  public static void saveGameReplacing(final File file, final SaveWriter writer) throws IOException {
+    final File temp = File.createTempFile(file.getName(), ".tmp", file.getAbsoluteFile().getParentFile());
+    try {
+      try (OutputStream out = new BufferedOutputStream(new FileOutputStream(temp))) {
+        writer.write(out);
+      }
+      try {
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } catch (final AtomicMoveNotSupportedException e) {
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(temp.toPath());
     }
   }
 
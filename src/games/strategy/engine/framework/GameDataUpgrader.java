@@ -0,0 +1,19 @@
+package games.strategy.engine.framework;
+
+import games.strategy.engine.data.GameData;
+import games.strategy.util.Version;
+
+/**
+ * Brings the game data of a game saved by an older engine up to date with this engine, when it is easy to do so.
+ * Upgraders added to a {@link GameDataManager} are run, in the order they were added, on each game it loads.
+ */
+public interface GameDataUpgrader {
+  /**
+   * @param savedWith
+   *        version of the engine the game was saved with
+   * @return whether the game data needs this upgrade
+   */
+  boolean appliesTo(Version savedWith);
+
+  void upgrade(GameData data);
+}
@@ -7,6 +7,7 @@ import java.io.ObjectInputStream;
 
 import games.strategy.debug.ClientLogger;
 import games.strategy.engine.data.GameData;
+import games.strategy.engine.data.GameDataCopier;
 import games.strategy.engine.data.GameObjectOutputStream;
 
 public class GameDataUtils {
@@ -19,6 +20,40 @@ public class GameDataUtils {
    * <Strong>You should have the game datas read or write lock before calling this method</STRONG>
    */
   public static GameData cloneGameData(final GameData data, final boolean copyDelegates) {
+    if (!GameDataCopier.isAvailable()) {
+      return cloneGameDataBySerialization(data, copyDelegates);
+    }
+    try {
+      return GameDataCopier.copy(data, copyDelegates);
+    } catch (final RuntimeException e) {
+      ClientLogger.logQuietly(e);
+      return cloneGameDataBySerialization(data, copyDelegates);
+    }
+  }
+
+  /**
+   * Create a copy of GameData to run simulations on (battle calculator, ai).
+   * The copy has no history, see {@link GameDataCopier#copyForSimulation(GameData, boolean)}.
+   * <Strong>You should have the game datas read or write lock before calling this method</STRONG>
+   */
+  public static GameData cloneGameDataForSimulation(final GameData data, final boolean copyDelegates) {
+    if (!GameDataCopier.isAvailable()) {
+      return cloneGameDataBySerialization(data, copyDelegates);
+    }
+    try {
+      return GameDataCopier.copyForSimulation(data, copyDelegates);
+    } catch (final RuntimeException e) {
+      ClientLogger.logQuietly(e);
+      return cloneGameDataBySerialization(data, copyDelegates);
+    }
+  }
+
+  /**
+   * Create a deep copy of GameData by saving it to memory and loading it back.
+   * Slower than {@link #cloneGameData(GameData, boolean)}, but works for anything that can be saved.
+   * <Strong>You should have the game datas read or write lock before calling this method</STRONG>
+   */
+  public static GameData cloneGameDataBySerialization(final GameData data, final boolean copyDelegates) {
     try {
       final GameDataManager manager = new GameDataManager();
       ByteArrayOutputStream sink = new ByteArrayOutputStream(10000);
@@ -38,14 +73,32 @@ public class GameDataUtils {
    * game data into another.
    */
   public static Object translateIntoOtherGameData(final Object object, final GameData translateInto) {
+    return readGameObject(writeGameObject(object), translateInto);
+  }
+
+  /**
+   * Write game data objects so they can be read into another game data with {@link #readGameObject(byte[], GameData)}.
+   * Useful when the same objects need translating into more than one game data.
+   */
+  public static byte[] writeGameObject(final Object object) {
     try {
-      ByteArrayOutputStream sink = new ByteArrayOutputStream(1024);
+      final ByteArrayOutputStream sink = new ByteArrayOutputStream(1024);
       final GameObjectOutputStream out = new GameObjectOutputStream(sink);
       out.writeObject(object);
       out.flush();
       out.close();
-      final ByteArrayInputStream source = new ByteArrayInputStream(sink.toByteArray());
-      sink = null;
+      return sink.toByteArray();
+    } catch (final IOException ioe) {
+      throw new RuntimeException(ioe);
+    }
+  }
+
+  /**
+   * Read game data objects written by {@link #writeGameObject(Object)}, translating them into the given game data.
+   */
+  public static Object readGameObject(final byte[] bytes, final GameData translateInto) {
+    try {
+      final ByteArrayInputStream source = new ByteArrayInputStream(bytes);
       final GameObjectStreamFactory factory = new GameObjectStreamFactory(translateInto);
       final ObjectInputStream in = factory.create(source);
       try {
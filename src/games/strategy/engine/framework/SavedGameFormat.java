@@ -0,0 +1,409 @@
+package games.strategy.engine.framework;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import games.strategy.util.Version;
+
+/**
+ * The format games are saved in.
+ * <p>
+ * A saved game starts with {@link #MAGIC}, the schema version of the format and the version of the engine that saved
+ * it. Tagged sections follow, each with its length so a reader can skip sections it does not know, ending with
+ * {@link #END_SECTION}. The game itself, the game data and the delegates, is an object stream in the
+ * {@link #GAME_SECTION}. Each equal string and number is written once in that stream and referred to after that, as
+ * territories, unit types and other game data objects already are.
+ * </p>
+ * <p>
+ * The object stream is cut into blocks of {@link #BLOCK_SIZE} bytes that are deflated separately, on several threads,
+ * each with the end of the block before it as its dictionary. The game section is the number of blocks followed by each
+ * block's length, its deflated length and its deflated bytes, so it is read one block at a time. Games saved with
+ * schema version 1 have the whole object stream deflated as one in the game section.
+ * </p>
+ * <p>
+ * Games saved before this format are a gzipped object stream, which {@link #isSavedGameFormat(InputStream)} tells apart
+ * from this format by the first bytes.
+ * </p>
+ */
+final class SavedGameFormat {
+  static final byte[] MAGIC = {'T', 'R', 'I', 'P', 'L', 'E', 'A', 0};
+  /**
+   * The schema version written, to be increased whenever the layout of the sections changes.
+   */
+  static final int SCHEMA_VERSION = 2;
+  static final int GAME_SECTION = tag("GAME");
+  static final int END_SECTION = tag("END ");
+  static final int BLOCK_SIZE = 256 * 1024;
+  // the most a deflate dictionary can use
+  private static final int DICTIONARY_SIZE = 32 * 1024;
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final ExecutorService s_compressors =
+      Executors.newFixedThreadPool(Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors())), r -> {
+        final Thread thread = new Thread(r, "Saved Game Compressor");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  private SavedGameFormat() {}
+
+  /**
+   * Writes the game to an object stream.
+   */
+  interface GameWriter {
+    void write(ObjectOutputStream out) throws IOException;
+  }
+
+  /**
+   * The object stream a game was written to, not yet compressed.
+   */
+  static final class CapturedGame {
+    private final List<byte[]> m_blocks;
+    private final int m_lastLength;
+
+    private CapturedGame(final List<byte[]> blocks, final int lastLength) {
+      m_blocks = blocks;
+      m_lastLength = lastLength;
+    }
+
+    private int getLength(final int block) {
+      return block == m_blocks.size() - 1 ? m_lastLength : BLOCK_SIZE;
+    }
+  }
+
+  /**
+   * A saved game whose header has been read.
+   */
+  static final class SavedGame {
+    private final int m_schemaVersion;
+    private final Version m_engineVersion;
+    // positioned after the length of the game section
+    private final DataInputStream m_in;
+    private final int m_length;
+
+    private SavedGame(final int schemaVersion, final Version engineVersion, final DataInputStream in,
+        final int length) {
+      m_schemaVersion = schemaVersion;
+      m_engineVersion = engineVersion;
+      m_in = in;
+      m_length = length;
+    }
+
+    int getSchemaVersion() {
+      return m_schemaVersion;
+    }
+
+    Version getEngineVersion() {
+      return m_engineVersion;
+    }
+
+    /**
+     * @return the object stream the game was written to, which may only be opened once.
+     */
+    ObjectInputStream openGame() throws IOException {
+      if (m_schemaVersion == 1) {
+        final byte[] game = new byte[m_length];
+        m_in.readFully(game);
+        return new ObjectInputStream(new InflaterInputStream(new ByteArrayInputStream(game)));
+      }
+      return new ObjectInputStream(new BlockInputStream(m_in));
+    }
+  }
+
+  private static int tag(final String name) {
+    return name.charAt(0) << 24 | name.charAt(1) << 16 | name.charAt(2) << 8 | name.charAt(3);
+  }
+
+  /**
+   * @param input
+   *        stream supporting mark and reset, which is reset to where it was
+   * @return whether the stream starts with a game saved in this format
+   */
+  static boolean isSavedGameFormat(final InputStream input) throws IOException {
+    if (!input.markSupported()) {
+      throw new IllegalArgumentException("Mark not supported by: " + input);
+    }
+    final byte[] start = new byte[MAGIC.length];
+    input.mark(start.length);
+    try {
+      new DataInputStream(input).readFully(start);
+      return Arrays.equals(start, MAGIC);
+    } catch (final EOFException e) {
+      return false;
+    } finally {
+      input.reset();
+    }
+  }
+
+  /**
+   * Writes the game to an object stream kept in blocks, ready to be compressed by
+   * {@link #write(OutputStream, Version, CapturedGame)}. Anything the game is read from only needs to be locked while
+   * this runs.
+   */
+  static CapturedGame captureGame(final GameWriter writer) throws IOException {
+    final BlockOutputStream blocks = new BlockOutputStream();
+    try (final ObjectOutputStream out = new InterningObjectOutputStream(blocks)) {
+      writer.write(out);
+    }
+    return new CapturedGame(blocks.m_blocks, blocks.m_length);
+  }
+
+  static void write(final OutputStream sink, final Version engineVersion, final CapturedGame game)
+      throws IOException {
+    final List<byte[]> deflated = deflate(game);
+    int length = 4;
+    for (final byte[] block : deflated) {
+      length += 8 + block.length;
+    }
+    final DataOutputStream out = new DataOutputStream(sink);
+    out.write(MAGIC);
+    out.writeInt(SCHEMA_VERSION);
+    out.writeUTF(engineVersion.toStringFull("."));
+    out.writeInt(GAME_SECTION);
+    out.writeInt(length);
+    out.writeInt(deflated.size());
+    for (int i = 0; i < deflated.size(); i++) {
+      out.writeInt(game.getLength(i));
+      out.writeInt(deflated.get(i).length);
+      out.write(deflated.get(i));
+    }
+    out.writeInt(END_SECTION);
+    out.flush();
+  }
+
+  private static List<byte[]> deflate(final CapturedGame game) throws IOException {
+    final List<Future<byte[]>> futures = new ArrayList<>();
+    for (int i = 0; i < game.m_blocks.size(); i++) {
+      final byte[] block = game.m_blocks.get(i);
+      final int length = game.getLength(i);
+      final byte[] previous = i == 0 ? null : game.m_blocks.get(i - 1);
+      if (game.m_blocks.size() == 1) {
+        futures.add(CompletableFuture.completedFuture(deflate(block, length, previous)));
+      } else {
+        futures.add(s_compressors.submit(() -> deflate(block, length, previous)));
+      }
+    }
+    final List<byte[]> deflated = new ArrayList<>();
+    try {
+      for (final Future<byte[]> future : futures) {
+        deflated.add(future.get());
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while compressing saved game");
+    } catch (final ExecutionException e) {
+      throw new IOException(e.getCause());
+    }
+    return deflated;
+  }
+
+  private static byte[] deflate(final byte[] block, final int length, final byte[] previous) {
+    final Deflater deflater = new Deflater();
+    try {
+      if (previous != null) {
+        deflater.setDictionary(previous, previous.length - DICTIONARY_SIZE, DICTIONARY_SIZE);
+      }
+      deflater.setInput(block, 0, length);
+      deflater.finish();
+      final ByteArrayOutputStream out = new ByteArrayOutputStream(length / 4);
+      final byte[] buffer = new byte[BUFFER_SIZE];
+      while (!deflater.finished()) {
+        out.write(buffer, 0, deflater.deflate(buffer));
+      }
+      return out.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  /**
+   * Reads the header of a saved game, up to its game section.
+   */
+  static SavedGame read(final InputStream input) throws IOException {
+    final DataInputStream in = new DataInputStream(input);
+    final byte[] magic = new byte[MAGIC.length];
+    in.readFully(magic);
+    if (!Arrays.equals(magic, MAGIC)) {
+      throw new IOException("Not a saved game");
+    }
+    final int schemaVersion = in.readInt();
+    if (schemaVersion > SCHEMA_VERSION) {
+      throw new IOException("Saved game format " + schemaVersion + " is newer than the format " + SCHEMA_VERSION
+          + " this engine reads, please upgrade TripleA");
+    }
+    final Version engineVersion;
+    try {
+      engineVersion = new Version(in.readUTF());
+    } catch (final IllegalArgumentException e) {
+      throw new IOException(e.getMessage());
+    }
+    for (int tag = in.readInt(); tag != END_SECTION; tag = in.readInt()) {
+      final int length = in.readInt();
+      if (length < 0) {
+        throw new IOException("Invalid section length: " + length);
+      }
+      if (tag == GAME_SECTION) {
+        return new SavedGame(schemaVersion, engineVersion, in, length);
+      }
+      if (in.skipBytes(length) != length) {
+        throw new EOFException();
+      }
+    }
+    throw new IOException("No game in saved game");
+  }
+
+  /**
+   * Keeps what is written in blocks of {@link #BLOCK_SIZE} bytes, so they are never copied to grow a buffer.
+   */
+  private static final class BlockOutputStream extends OutputStream {
+    private final List<byte[]> m_blocks = new ArrayList<>();
+    // bytes used in the last block
+    private int m_length = BLOCK_SIZE;
+
+    @Override
+    public void write(final int b) {
+      if (m_length == BLOCK_SIZE) {
+        nextBlock();
+      }
+      m_blocks.get(m_blocks.size() - 1)[m_length++] = (byte) b;
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) {
+      int written = 0;
+      while (written < len) {
+        if (m_length == BLOCK_SIZE) {
+          nextBlock();
+        }
+        final int count = Math.min(len - written, BLOCK_SIZE - m_length);
+        System.arraycopy(b, off + written, m_blocks.get(m_blocks.size() - 1), m_length, count);
+        m_length += count;
+        written += count;
+      }
+    }
+
+    private void nextBlock() {
+      m_blocks.add(new byte[BLOCK_SIZE]);
+      m_length = 0;
+    }
+  }
+
+  /**
+   * Reads the blocks of a game section, inflating one block at a time.
+   */
+  private static final class BlockInputStream extends InputStream {
+    private final DataInputStream m_in;
+    private int m_blocksLeft;
+    private byte[] m_block = new byte[0];
+    private int m_position = 0;
+
+    private BlockInputStream(final DataInputStream in) throws IOException {
+      m_in = in;
+      m_blocksLeft = in.readInt();
+    }
+
+    @Override
+    public int read() throws IOException {
+      if (m_position == m_block.length && !nextBlock()) {
+        return -1;
+      }
+      return m_block[m_position++] & 0xff;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+      if (len == 0) {
+        return 0;
+      }
+      if (m_position == m_block.length && !nextBlock()) {
+        return -1;
+      }
+      final int count = Math.min(len, m_block.length - m_position);
+      System.arraycopy(m_block, m_position, b, off, count);
+      m_position += count;
+      return count;
+    }
+
+    @Override
+    public int available() {
+      return m_block.length - m_position;
+    }
+
+    private boolean nextBlock() throws IOException {
+      if (m_blocksLeft == 0) {
+        return false;
+      }
+      m_blocksLeft--;
+      final int length = m_in.readInt();
+      final byte[] deflated = new byte[m_in.readInt()];
+      m_in.readFully(deflated);
+      final byte[] block = new byte[length];
+      final Inflater inflater = new Inflater();
+      try {
+        inflater.setInput(deflated);
+        int inflated = 0;
+        while (inflated < length) {
+          final int count = inflater.inflate(block, inflated, length - inflated);
+          if (count == 0) {
+            if (inflater.needsDictionary() && m_block.length >= DICTIONARY_SIZE) {
+              inflater.setDictionary(m_block, m_block.length - DICTIONARY_SIZE, DICTIONARY_SIZE);
+            } else {
+              throw new IOException("Corrupt saved game block");
+            }
+          }
+          inflated += count;
+        }
+      } catch (final DataFormatException e) {
+        throw new IOException(e.getMessage());
+      } finally {
+        inflater.end();
+      }
+      m_block = block;
+      m_position = 0;
+      return true;
+    }
+  }
+
+  /**
+   * Writes each equal string or number once, so later ones refer back to the first.
+   */
+  private static final class InterningObjectOutputStream extends ObjectOutputStream {
+    private final Map<Object, Object> m_values = new HashMap<>();
+
+    private InterningObjectOutputStream(final OutputStream out) throws IOException {
+      super(out);
+      enableReplaceObject(true);
+    }
+
+    @Override
+    protected Object replaceObject(final Object obj) {
+      if (obj instanceof String || obj instanceof Integer || obj instanceof Long || obj instanceof Double) {
+        final Object interned = m_values.putIfAbsent(obj, obj);
+        return interned == null ? obj : interned;
+      }
+      return obj;
+    }
+  }
+}
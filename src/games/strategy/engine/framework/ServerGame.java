@@ -61,12 +61,20 @@ public class ServerGame extends AbstractGame {
 
   public final static String GAME_HAS_BEEN_SAVED_PROPERTY =
       "games.strategy.engine.framework.ServerGame.GameHasBeenSaved";
+  /**
+   * Rounds between the snapshots of the change journal. The journal is only written when this is set above 0.
+   */
+  public static final String JOURNAL_SNAPSHOT_ROUNDS_PROPERTY = "triplea.journalSnapshotRounds";
 
   // maps PlayerID->GamePlayer
   private final RandomStats m_randomStats;
   private IRandomSource m_randomSource = new PlainRandomSource();
   private IRandomSource m_delegateRandomSource;
   private final DelegateExecutionManager m_delegateExecutionManager = new DelegateExecutionManager();
+  private final AutoSaver m_autoSaver = new AutoSaver();
+  private final int m_journalSnapshotRounds = Integer.getInteger(JOURNAL_SNAPSHOT_ROUNDS_PROPERTY, 0);
+  private final ChangeJournal m_journal =
+      m_journalSnapshotRounds > 0 ? new ChangeJournal(getJournalFolder(m_data), m_autoSaver) : null;
   private InGameLobbyWatcherWrapper m_inGameLobbyWatcher;
   private boolean m_needToInitialize = true;
   /**
@@ -99,6 +107,9 @@ public class ServerGame extends AbstractGame {
         assertCorrectCaller();
         m_data.performChange(aChange);
         m_data.getHistory().getHistoryWriter().addChange(aChange);
+        if (m_journal != null) {
+          m_journal.addChange(aChange);
+        }
       }
 
       private void assertCorrectCaller() {
@@ -119,17 +130,26 @@ public class ServerGame extends AbstractGame {
       public void startHistoryEvent(final String event) {
         assertCorrectCaller();
         m_data.getHistory().getHistoryWriter().startEvent(event);
+        if (m_journal != null) {
+          m_journal.startEvent(event);
+        }
       }
 
       @Override
       public void addChildToEvent(final String text, final Object renderingData) {
         assertCorrectCaller();
         m_data.getHistory().getHistoryWriter().addChildToEvent(new EventChild(text, renderingData));
+        if (m_journal != null) {
+          m_journal.addChildToEvent(text, renderingData);
+        }
       }
 
       protected void setRenderingData(final Object renderingData) {
         assertCorrectCaller();
         m_data.getHistory().getHistoryWriter().setRenderingData(renderingData);
+        if (m_journal != null) {
+          m_journal.setRenderingData(renderingData);
+        }
       }
 
       @Override
@@ -140,6 +160,9 @@ public class ServerGame extends AbstractGame {
           return;
         }
         m_data.getHistory().getHistoryWriter().startNextStep(stepName, delegateName, player, displayName);
+        if (m_journal != null) {
+          m_journal.startNextStep(stepName, delegateName, player, displayName);
+        }
       }
 
       // nothing to do, we call this
@@ -254,6 +277,7 @@ public class ServerGame extends AbstractGame {
       if (!gameHasBeenSaved) {
         m_data.getProperties().set(GAME_HAS_BEEN_SAVED_PROPERTY, Boolean.TRUE);
       }
+      startJournal();
       startPersistentDelegates();
       if (gameHasBeenSaved) {
         runStep(gameHasBeenSaved);
@@ -342,12 +366,22 @@ public class ServerGame extends AbstractGame {
       m_delegateExecutionManager.resumeDelegateExecution();
     }
     m_data.getGameLoader().shutDown();
+    if (m_journal != null) {
+      m_journal.close();
+    }
+    if (!m_autoSaver.shutDown(30000)) {
+      ClientLogger.logQuietly("Could not finish writing autosaves.");
+    }
     if (HeadlessGameServer.headless()) {
       System.out.println("StopGame successful.");
     }
   }
 
   private void autoSave() {
+    if (m_journal != null && m_journal.isWriting()) {
+      // the journal has the game as it was after every step, so there is no need to save all of it
+      return;
+    }
     SaveGameFileChooser.ensureMapsFolderExists();
     final File f1 =
         new File(ClientContext.folderSettings().getSaveGamePath(), SaveGameFileChooser.getAutoSaveFileName());
@@ -359,12 +393,7 @@ public class ServerGame extends AbstractGame {
     } else {
       f = f1;
     }
-
-    try (FileOutputStream out = new FileOutputStream(f)) {
-      saveGame(out);
-    } catch (final Exception e) {
-      ClientLogger.logQuietly(e);
-    }
+    autoSave(f);
   }
 
   private void autoSaveRound() {
@@ -377,14 +406,103 @@ public class ServerGame extends AbstractGame {
       autosaveFile =
           new File(ClientContext.folderSettings().getSaveGamePath(), SaveGameFileChooser.getAutoSaveOddFileName());
     }
+    autoSave(autosaveFile);
+  }
 
-    try (FileOutputStream out = new FileOutputStream(autosaveFile)) {
-      saveGame(out);
+  /**
+   * Copies the game and leaves writing it to the autosaver, so the game goes on while it is written.
+   */
+  private void autoSave(final File file) {
+    try {
+      m_autoSaver.save(file, copyGameData());
     } catch (final Exception e) {
       ClientLogger.logQuietly(e);
     }
   }
 
+  /**
+   * @return a copy of the game data and delegates, made with delegate execution blocked so it is consistent.
+   */
+  private GameData copyGameData() throws IOException {
+    try {
+      if (!m_delegateExecutionManager.blockDelegateExecution(6000)) {
+        throw new IOException("Could not lock delegate execution");
+      }
+    } catch (final InterruptedException ie) {
+      throw new IOException(ie.getMessage());
+    }
+    try {
+      m_data.acquireReadLock();
+      try {
+        final GameData copy = GameDataUtils.cloneGameData(m_data, true);
+        if (copy == null) {
+          throw new IOException("Could not copy game data");
+        }
+        return copy;
+      } finally {
+        m_data.releaseReadLock();
+      }
+    } finally {
+      m_delegateExecutionManager.resumeDelegateExecution();
+    }
+  }
+
+  /**
+   * @return the folder the change journal of the game is written to, from which {@link ChangeJournal#recover(File)}
+   *         recovers it. Each game has its own folder, so that games hosted at the same time do not share a journal.
+   */
+  public static File getJournalFolder(final GameData data) {
+    final File journals = new File(ClientContext.folderSettings().getSaveGamePath(), "journal");
+    final Object gameId = data.getProperties().get(GameData.GAME_UUID);
+    return gameId == null ? journals : new File(journals, gameId.toString());
+  }
+
+  private void startJournal() {
+    if (m_journal == null) {
+      return;
+    }
+    try {
+      m_journal.startSnapshot(copyGameData());
+    } catch (final IOException e) {
+      ClientLogger.logQuietly(e);
+      m_journal.close();
+    }
+  }
+
+  /**
+   * Writes the step that has ended to the journal, and starts a new snapshot every few rounds.
+   */
+  private void journalStep(final boolean newRound) {
+    if (m_journal == null) {
+      return;
+    }
+    try {
+      if (!m_delegateExecutionManager.blockDelegateExecution(6000)) {
+        throw new IOException("Could not lock delegate execution");
+      }
+    } catch (final InterruptedException | IOException e) {
+      ClientLogger.logQuietly(e);
+      return;
+    }
+    try {
+      m_data.acquireReadLock();
+      try {
+        m_journal.endStep(m_data);
+      } finally {
+        m_data.releaseReadLock();
+      }
+    } finally {
+      m_delegateExecutionManager.resumeDelegateExecution();
+    }
+    if (newRound && m_data.getSequence().getRound() % m_journalSnapshotRounds == 0) {
+      startJournal();
+    }
+  }
+
+  public AutoSaver getAutoSaver() {
+    return m_autoSaver;
+  }
+
   @Override
   public void saveGame(final File f) {
     try (FileOutputStream fout = new FileOutputStream(f)) {
@@ -429,8 +547,15 @@ public class ServerGame extends AbstractGame {
     if (m_isGameOver) {
       return;
     }
-    if (m_data.getSequence().next()) {
+    final boolean newRound = m_data.getSequence().next();
+    if (newRound) {
       m_data.getHistory().getHistoryWriter().startNextRound(m_data.getSequence().getRound());
+      if (m_journal != null) {
+        m_journal.startNextRound(m_data.getSequence().getRound());
+      }
+    }
+    journalStep(newRound);
+    if (newRound) {
       autoSaveRound();
     }
     // save after the step has advanced
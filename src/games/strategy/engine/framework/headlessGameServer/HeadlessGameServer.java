@@ -495,7 +495,8 @@ public class HeadlessGameServer {
     if (game != null) {
       message += "\nIs currently running: " + game.isGameSequenceRunning() + "\nIs GameOver: " + game.isGameOver()
           + "\nGame: " + game.getData().getGameName() + "\nRound: " + game.getData().getSequence().getRound()
-          + "\nPlayers: " + game.getPlayerManager().toString();
+          + "\nPlayers: " + game.getPlayerManager().toString() + "\n" + game.getAutoSaver()
+          + "\nGame data locks: " + game.getData().getLockUtil();
     } else {
       message += "\nCurrently Waiting To Start A Game";
     }
@@ -18,6 +18,7 @@ import games.strategy.engine.data.EngineVersionException;
 import games.strategy.engine.data.GameData;
 import games.strategy.engine.data.GameParseException;
 import games.strategy.engine.data.GameParser;
+import games.strategy.engine.framework.ChangeJournal;
 import games.strategy.engine.framework.GameDataManager;
 import games.strategy.engine.framework.ui.NewGameChooser;
 import games.strategy.engine.framework.ui.NewGameChooserEntry;
@@ -126,6 +127,10 @@ public class GameSelectorModel extends Observable {
           newData = (new GameParser(file.getAbsolutePath())).parse(fis, gameName, false);
         }
       }
+      // a log of a change journal, recover the game from the journal it belongs to
+      else if (ChangeJournal.isJournal(file)) {
+        newData = ChangeJournal.recover(file.getAbsoluteFile().getParentFile());
+      }
       // the extension should be tsvg, but
       // try to load it as a saved game whatever the extension
       else {
@@ -31,6 +31,7 @@ import games.strategy.engine.data.GameData;
 import games.strategy.engine.data.GameParseException;
 import games.strategy.engine.data.properties.IEditableProperty;
 import games.strategy.engine.data.properties.PropertiesUI;
+import games.strategy.engine.framework.ChangeJournal;
 import games.strategy.engine.framework.map.download.DownloadMapsWindow;
 import games.strategy.engine.framework.startup.mc.ClientModel;
 import games.strategy.engine.framework.startup.mc.GameSelectorModel;
@@ -355,7 +356,9 @@ public class GameSelectorPanel extends JPanel implements Observer {
       fileDialog.setFilenameFilter((dir, name) -> {
         // the extension should be .tsvg, but find svg extensions as well
         // also, macs download the file as tsvg.gz, so accept that as well
-        return name.endsWith(".tsvg") || name.endsWith(".svg") || name.endsWith("tsvg.gz");
+        // and a game can be recovered from the log of a change journal
+        return name.endsWith(".tsvg") || name.endsWith(".svg") || name.endsWith("tsvg.gz")
+            || name.endsWith(ChangeJournal.LOG_EXTENSION);
       });
       fileDialog.setVisible(true);
       final String fileName = fileDialog.getFile();
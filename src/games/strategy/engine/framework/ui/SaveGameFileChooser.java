@@ -6,6 +6,7 @@ import javax.swing.JFileChooser;
 import javax.swing.filechooser.FileFilter;
 
 import games.strategy.engine.ClientContext;
+import games.strategy.engine.framework.ChangeJournal;
 import games.strategy.engine.framework.GameRunner;
 import games.strategy.engine.framework.headlessGameServer.HeadlessGameServer;
 
@@ -100,7 +101,9 @@ public class SaveGameFileChooser extends JFileChooser {
       }
       // the extension should be .tsvg, but find svg extensions as well
       // also, macs download the file as tsvg.gz, so accept that as well
-      return f.getName().endsWith(".tsvg") || f.getName().endsWith(".svg") || f.getName().endsWith("tsvg.gz");
+      // and a game can be recovered from the log of a change journal
+      return f.getName().endsWith(".tsvg") || f.getName().endsWith(".svg") || f.getName().endsWith("tsvg.gz")
+          || f.getName().endsWith(ChangeJournal.LOG_EXTENSION);
     }
 
     @Override
@@ -3,8 +3,16 @@ package games.strategy.engine.history;
 import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.Function;
 
 import javax.swing.SwingUtilities;
 import javax.swing.tree.DefaultMutableTreeNode;
@@ -22,18 +30,34 @@ import javax.swing.tree.DefaultTreeModel;
  * Step - the current step, eg Britian Combat Move
  * Event - an event that happened in the game, eg Russia buys 8 inf.
  */
+import games.strategy.debug.ClientLogger;
 import games.strategy.engine.data.Change;
 import games.strategy.engine.data.CompositeChange;
 import games.strategy.engine.data.GameData;
+import games.strategy.engine.data.GameDataSnapshot;
 import games.strategy.triplea.ui.history.HistoryPanel;
 
 public class History extends DefaultTreeModel {
   private static final long serialVersionUID = -1769876896869L;
+  /**
+   * The system property with the number of checkpoints to keep, see {@link #setCheckpointLimit(int)}.
+   */
+  public static final String CHECKPOINT_LIMIT_PROPERTY = "triplea.historyCheckpoints";
+  private static final int DEFAULT_CHECKPOINT_LIMIT = 8;
+  // putting back a checkpoint costs about as much as performing one change for every this many objects in it
+  private static final int OBJECTS_PER_CHANGE = 10;
 
   private final HistoryWriter m_writer = new HistoryWriter(this);
   private final List<Change> m_changes = new ArrayList<>();
   private final GameData m_data;
   private HistoryNode m_currentNode;
+  // snapshots of the game data at the start of some rounds, by change index, least recently used first
+  private final Map<Integer, GameDataSnapshot> m_checkpoints = new LinkedHashMap<>(16, 0.75f, true);
+  private int m_checkpointLimit = Integer.getInteger(CHECKPOINT_LIMIT_PROPERTY, DEFAULT_CHECKPOINT_LIMIT);
+  // worked out the first time a checkpoint is used, extended as changes are added and forgotten when they are removed
+  private Collection<Object> m_referencedObjects;
+  private int[] m_changeCounts;
+  private int m_checkpointsRestored = 0;
 
   private void assertCorrectThread() {
     if (m_data.areChangesOnlyInSwingEventThread() && !SwingUtilities.isEventDispatchThread()) {
@@ -95,8 +119,10 @@ public class History extends DefaultTreeModel {
 
   public Change getDelta(final HistoryNode start, final HistoryNode end) {
     assertCorrectThread();
-    final int firstChange = getLastChange(start);
-    final int lastChange = getLastChange(end);
+    return getDelta(getLastChange(start), getLastChange(end));
+  }
+
+  private Change getDelta(final int firstChange, final int lastChange) {
     if (firstChange == lastChange) {
       return null;
     }
@@ -110,6 +136,15 @@ public class History extends DefaultTreeModel {
     }
   }
 
+  /**
+   * Changes the game data to what it was at the given node.
+   * <p>
+   * Rather than performing every change between the current node and the given one, we put back the nearest
+   * checkpoint (a snapshot of the game data at the start of a round) if that is quicker, and perform the changes from
+   * there. Checkpoints are taken the first time we pass the start of a round that should have one. While there are
+   * checkpoints the game data must only be changed through this history.
+   * </p>
+   */
   public synchronized void gotoNode(final HistoryNode node) {
     assertCorrectThread();
     getGameData().acquireWriteLock();
@@ -117,16 +152,162 @@ public class History extends DefaultTreeModel {
       if (m_currentNode == null) {
         m_currentNode = getLastNode();
       }
-      final Change dataChange = getDelta(m_currentNode, node);
+      final int from = getLastChange(m_currentNode);
+      final int to = getLastChange(node);
       m_currentNode = node;
-      if (dataChange != null) {
-        m_data.performChange(dataChange);
+      int current = from;
+      if (m_checkpointLimit > 0 && from != to) {
+        current = restoreNearestCheckpoint(from, to);
+        for (final int checkpoint : getMissingCheckpoints(current, to)) {
+          performDelta(current, checkpoint);
+          current = checkpoint;
+          if (m_checkpointLimit > 0) {
+            takeCheckpoint(current);
+          }
+        }
       }
+      performDelta(current, to);
     } finally {
       getGameData().releaseWriteLock();
     }
   }
 
+  private void performDelta(final int from, final int to) {
+    final Change dataChange = getDelta(from, to);
+    if (dataChange != null) {
+      m_data.performChange(dataChange);
+    }
+  }
+
+  /**
+   * @return the change index the game data is at, which is the nearest checkpoint if one was put back.
+   */
+  private int restoreNearestCheckpoint(final int from, final int to) {
+    final int[] changeCounts = getChangeCounts();
+    long bestCost = Math.abs(changeCounts[to] - changeCounts[from]);
+    int best = from;
+    for (final Entry<Integer, GameDataSnapshot> checkpoint : m_checkpoints.entrySet()) {
+      final long cost = checkpoint.getValue().size() / OBJECTS_PER_CHANGE
+          + Math.abs(changeCounts[to] - changeCounts[checkpoint.getKey()]);
+      if (cost < bestCost) {
+        bestCost = cost;
+        best = checkpoint.getKey();
+      }
+    }
+    if (best != from) {
+      m_checkpoints.get(best).restore(getDelta(from, best));
+      m_checkpointsRestored++;
+    }
+    return best;
+  }
+
+  /**
+   * @return the rounds that should have a checkpoint but do not, between the two change indexes (including the
+   *         second), in the order we pass them going from the first to the second.
+   */
+  private List<Integer> getMissingCheckpoints(final int from, final int to) {
+    final List<Integer> missing = new ArrayList<>();
+    final HistoryNode root = (HistoryNode) getRoot();
+    final int rounds = root.getChildCount();
+    // spread the checkpoints over the whole game
+    final int roundsPerCheckpoint = Math.max(1, (rounds + m_checkpointLimit - 1) / m_checkpointLimit);
+    for (int i = 0; i < rounds; i += roundsPerCheckpoint) {
+      final HistoryNode round = (HistoryNode) root.getChildAt(i);
+      if (!(round instanceof IndexedHistoryNode)) {
+        continue;
+      }
+      final int index = getLastChange(round);
+      final boolean passed = from < to ? from < index && index <= to : to <= index && index < from;
+      if (passed && !m_checkpoints.containsKey(index)) {
+        missing.add(index);
+      }
+    }
+    if (from > to) {
+      Collections.reverse(missing);
+    }
+    return missing;
+  }
+
+  private void takeCheckpoint(final int index) {
+    try {
+      if (m_referencedObjects == null) {
+        m_referencedObjects = GameDataSnapshot.getReferencedObjects(m_changes);
+      }
+      m_checkpoints.put(index, GameDataSnapshot.take(m_data, m_referencedObjects));
+      trimCheckpoints();
+    } catch (final IllegalStateException e) {
+      // something in the game data can not be copied, so we only perform changes from now on
+      ClientLogger.logQuietly(e);
+      m_checkpointLimit = 0;
+      forgetCheckpoints();
+    }
+  }
+
+  private void trimCheckpoints() {
+    final Iterator<Integer> leastRecentlyUsed = m_checkpoints.keySet().iterator();
+    while (m_checkpoints.size() > m_checkpointLimit) {
+      leastRecentlyUsed.next();
+      leastRecentlyUsed.remove();
+    }
+  }
+
+  private void forgetCheckpoints() {
+    m_checkpoints.clear();
+    m_referencedObjects = null;
+    m_changeCounts = null;
+  }
+
+  /**
+   * @return how many changes (counting each change in a composite change) come before each change index.
+   */
+  private int[] getChangeCounts() {
+    final int counted = m_changeCounts == null ? 0 : m_changeCounts.length - 1;
+    if (counted < m_changes.size()) {
+      m_changeCounts = m_changeCounts == null ? new int[m_changes.size() + 1]
+          : Arrays.copyOf(m_changeCounts, m_changes.size() + 1);
+      for (int i = counted; i < m_changes.size(); i++) {
+        m_changeCounts[i + 1] = m_changeCounts[i] + countChanges(m_changes.get(i));
+      }
+    }
+    return m_changeCounts;
+  }
+
+  private static int countChanges(final Change change) {
+    if (!(change instanceof CompositeChange)) {
+      return 1;
+    }
+    int count = 0;
+    for (final Change child : ((CompositeChange) change).getChanges()) {
+      count += countChanges(child);
+    }
+    return count;
+  }
+
+  /**
+   * Sets how many checkpoints {@link #gotoNode(HistoryNode)} may keep, each of which takes about as much memory as
+   * a copy of the game data. The default is set by the {@value #CHECKPOINT_LIMIT_PROPERTY} system property,
+   * 0 means no checkpoints are kept and every change is performed.
+   */
+  public synchronized void setCheckpointLimit(final int limit) {
+    if (limit < 0) {
+      throw new IllegalArgumentException("Checkpoint limit can not be negative:" + limit);
+    }
+    m_checkpointLimit = limit;
+    trimCheckpoints();
+  }
+
+  public synchronized int getCheckpointLimit() {
+    return m_checkpointLimit;
+  }
+
+  synchronized int getCheckpointCount() {
+    return m_checkpoints.size();
+  }
+
+  synchronized int getCheckpointsRestored() {
+    return m_checkpointsRestored;
+  }
+
   public synchronized void removeAllHistoryAfterNode(final HistoryNode removeAfterNode) {
     gotoNode(removeAfterNode);
     assertCorrectThread();
@@ -155,6 +336,7 @@ public class History extends DefaultTreeModel {
       while (!nodesToRemove.isEmpty()) {
         this.removeNodeFromParent(nodesToRemove.remove(0));
       }
+      forgetCheckpoints();
     } finally {
       getGameData().releaseWriteLock();
     }
@@ -162,6 +344,20 @@ public class History extends DefaultTreeModel {
 
   synchronized void changeAdded(final Change aChange) {
     m_changes.add(aChange);
+    // the checkpoints are all before the new change, so they stay right as long as they cover what it refers to
+    if (m_referencedObjects != null) {
+      final Collection<Object> referenced = GameDataSnapshot.getReferencedObjects(Collections.singletonList(aChange));
+      m_referencedObjects.addAll(referenced);
+      try {
+        for (final GameDataSnapshot checkpoint : m_checkpoints.values()) {
+          checkpoint.cover(referenced);
+        }
+      } catch (final IllegalStateException e) {
+        ClientLogger.logQuietly(e);
+        m_checkpointLimit = 0;
+        forgetCheckpoints();
+      }
+    }
     if (m_currentNode == null) {
       return;
     }
@@ -174,6 +370,20 @@ public class History extends DefaultTreeModel {
     return new SerializedHistory(this, m_data, m_changes);
   }
 
+  /**
+   * Rebuilds this history for another GameData, the same way it is rebuilt when it is deserialized.
+   * Every writer is passed through the translator before it is replayed, so the translator must map
+   * the units, territories and players it references into the other GameData.
+   */
+  public History copyInto(final GameData data, final Function<Object, Object> translator) {
+    final History rVal = new History(data);
+    final HistoryWriter historyWriter = rVal.getHistoryWriter();
+    for (final SerializationWriter element : new SerializedHistory(this, m_data, m_changes).getWriters()) {
+      ((SerializationWriter) translator.apply(element)).write(historyWriter);
+    }
+    return rVal;
+  }
+
   List<Change> getChanges() {
     return m_changes;
   }
@@ -217,6 +427,10 @@ class SerializedHistory implements Serializable {
     }
   }
 
+  List<SerializationWriter> getWriters() {
+    return m_Writers;
+  }
+
   public Object readResolve() throws ObjectStreamException {
     final History rVal = new History(m_data);
     final HistoryWriter historyWriter = rVal.getHistoryWriter();
@@ -0,0 +1,67 @@
+package games.strategy.engine.random;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random numbers for battle simulations, like the odds calculator and the AI's simulated moves. Never use it for real
+ * games, use PlainRandomSource or a dice server there.
+ * <p>
+ * Unlike PlainRandomSource, every source has its own generator and is not synchronized, so a source must only be used
+ * by one thread at a time. Sources are split off a master generator, which is seeded randomly unless the system
+ * property {@value #MASTER_SEED_PROPERTY} is set (or setMasterSeed is called). With a master seed the sources are
+ * created in the same order with the same seeds on every run, which makes simulations reproducible for regression
+ * testing as long as only one thread creates sources.
+ * </p>
+ */
+public final class SimulationRandomSource implements IRandomSource {
+  public static final String MASTER_SEED_PROPERTY = "triplea.simulation.seed";
+  private static SplittableRandom s_master = createMaster();
+  private final SplittableRandom m_random;
+
+  private SimulationRandomSource(final SplittableRandom random) {
+    m_random = random;
+  }
+
+  private static SplittableRandom createMaster() {
+    final Long seed = Long.getLong(MASTER_SEED_PROPERTY);
+    return seed == null ? new SplittableRandom() : new SplittableRandom(seed);
+  }
+
+  /**
+   * @return a new source, independent of all other sources.
+   */
+  public static synchronized SimulationRandomSource create() {
+    return new SimulationRandomSource(s_master.split());
+  }
+
+  /**
+   * Restarts the master generator with the given seed, so the following sources are the same on every run.
+   */
+  public static synchronized void setMasterSeed(final long seed) {
+    s_master = new SplittableRandom(seed);
+  }
+
+  /**
+   * @return a new source, independent of this one, to be used by another thread.
+   */
+  public SimulationRandomSource split() {
+    return new SimulationRandomSource(m_random.split());
+  }
+
+  @Override
+  public int[] getRandom(final int max, final int count, final String annotation) throws IllegalArgumentException {
+    if (count <= 0) {
+      throw new IllegalArgumentException("count must be > 0, annotation:" + annotation);
+    }
+    final int[] numbers = new int[count];
+    for (int i = 0; i < count; i++) {
+      numbers[i] = m_random.nextInt(max);
+    }
+    return numbers;
+  }
+
+  @Override
+  public int getRandom(final int max, final String annotation) throws IllegalArgumentException {
+    return m_random.nextInt(max);
+  }
+}
@@ -7,7 +7,11 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Utility class for ensuring that locks are acquired in a consistent order.
@@ -20,8 +24,13 @@ import java.util.concurrent.locks.Lock;
  * meant more for when
  * you are considering your ambitious multi-threaded code a mistake, and you are trying to limit the damage.
  * <p>
+ * For that reason the ordering is only checked by a LockUtil made with {@link #create()} when the
+ * {@value #CHECK_LOCK_ORDERING_PROPERTY} system property is true, otherwise locks are acquired and released directly.
+ * Either way, the LockUtil counts how often locks were acquired and how often and how long threads had to wait.
+ * <p>
  */
 public class LockUtil {
+  public static final String CHECK_LOCK_ORDERING_PROPERTY = "triplea.checkLockOrdering";
   // the locks the current thread has
   // because locks can be re-entrant, store this as a count
   private final static ThreadLocal<Map<Lock, Integer>> m_locksHeld = new ThreadLocal<>();
@@ -30,10 +39,39 @@ public class LockUtil {
   private final static Map<Lock, Set<WeakLockRef>> m_locksHeldWhenAcquired = new WeakHashMap<>();
   private final Object m_mutex = new Object();
   private static ErrorReporter m_errorReporter = new ErrorReporter();
+  private final boolean m_checkOrdering;
+  private final LongAdder m_acquisitions = new LongAdder();
+  private final LongAdder m_contendedAcquisitions = new LongAdder();
+  private final LongAdder m_waitNanos = new LongAdder();
+
+  /**
+   * Creates a LockUtil that checks the lock ordering.
+   */
+  public LockUtil() {
+    this(true);
+  }
 
-  public LockUtil() {}
+  /**
+   * @param checkOrdering
+   *        whether to check the lock ordering
+   */
+  public LockUtil(final boolean checkOrdering) {
+    m_checkOrdering = checkOrdering;
+  }
+
+  /**
+   * @return a LockUtil that checks the lock ordering only if the {@value #CHECK_LOCK_ORDERING_PROPERTY} system property
+   *         is true.
+   */
+  public static LockUtil create() {
+    return new LockUtil(Boolean.getBoolean(CHECK_LOCK_ORDERING_PROPERTY));
+  }
 
   public void acquireLock(final Lock aLock) {
+    if (!m_checkOrdering) {
+      lock(aLock);
+      return;
+    }
     synchronized (m_mutex) {
       if (m_locksHeld.get() == null) {
         m_locksHeld.set(new HashMap<>());
@@ -71,10 +109,37 @@ public class LockUtil {
         m_locksHeld.get().put(aLock, 1);
       }
     }
-    aLock.lock();
+    lock(aLock);
+  }
+
+  private void lock(final Lock aLock) {
+    m_acquisitions.increment();
+    if (!tryLockNow(aLock)) {
+      m_contendedAcquisitions.increment();
+      final long start = System.nanoTime();
+      aLock.lock();
+      m_waitNanos.add(System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Unlike the untimed tryLock, which lets a reader barge ahead of queued writers, this respects the lock's fairness.
+   */
+  private static boolean tryLockNow(final Lock aLock) {
+    try {
+      return aLock.tryLock(0, TimeUnit.NANOSECONDS);
+    } catch (final InterruptedException e) {
+      // lock() below is not interruptible either, so keep the interrupt for whoever checks it next
+      Thread.currentThread().interrupt();
+      return false;
+    }
   }
 
   public void releaseLock(final Lock aLock) {
+    if (!m_checkOrdering) {
+      aLock.unlock();
+      return;
+    }
     synchronized (m_mutex) {
       int count = m_locksHeld.get().get(aLock);
       count--;
@@ -87,7 +152,20 @@ public class LockUtil {
     aLock.unlock();
   }
 
+  /**
+   * @return whether the current thread holds the lock. Without checking the lock ordering this is asked of the lock
+   *         itself, so it must be a ReentrantLock or the write lock of a ReentrantReadWriteLock.
+   */
   public boolean isLockHeld(final Lock aLock) {
+    if (!m_checkOrdering) {
+      if (aLock instanceof ReentrantLock) {
+        return ((ReentrantLock) aLock).isHeldByCurrentThread();
+      }
+      if (aLock instanceof ReentrantReadWriteLock.WriteLock) {
+        return ((ReentrantReadWriteLock.WriteLock) aLock).isHeldByCurrentThread();
+      }
+      throw new IllegalArgumentException("Can not tell whether " + aLock + " is held");
+    }
     if (m_locksHeld.get() == null) {
       return false;
     }
@@ -96,6 +174,37 @@ public class LockUtil {
     }
   }
 
+  public boolean isCheckingOrdering() {
+    return m_checkOrdering;
+  }
+
+  /**
+   * @return how many times a lock was acquired.
+   */
+  public long getAcquisitions() {
+    return m_acquisitions.sum();
+  }
+
+  /**
+   * @return how many times a lock was already held by another thread when it was to be acquired.
+   */
+  public long getContendedAcquisitions() {
+    return m_contendedAcquisitions.sum();
+  }
+
+  /**
+   * @return the total time, in nanoseconds, spent waiting for locks held by other threads.
+   */
+  public long getWaitNanos() {
+    return m_waitNanos.sum();
+  }
+
+  @Override
+  public String toString() {
+    return getAcquisitions() + " lock acquisitions, " + getContendedAcquisitions() + " contended, waited "
+        + TimeUnit.NANOSECONDS.toMillis(getWaitNanos()) + " ms";
+  }
+
   public void setErrorReporter(final ErrorReporter reporter) {
     m_errorReporter = reporter;
   }
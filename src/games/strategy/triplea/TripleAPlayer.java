@@ -392,7 +392,7 @@ public class TripleAPlayer extends AbstractHumanPlayer<TripleAFrame> implements
             new CompositeMatchAnd<>(Matches.unitIsOwnedBy(id), Matches.UnitHasTakenSomeBombingUnitDamage);
         final Collection<Unit> damagedUnits = new ArrayList<>();
         for (final Territory t : data.getMap().getTerritories()) {
-          damagedUnits.addAll(Match.getMatches(t.getUnits().getUnits(), myDamaged));
+          damagedUnits.addAll(t.getUnits().getMatches(myDamaged));
         }
         if (damagedUnits.size() > 0) {
           final HashMap<Unit, IntegerMap<RepairRule>> repair =
@@ -103,27 +103,19 @@ public class TripleAUnit extends Unit {
 
   @GameProperty(xmlProperty = false, gameProperty = true, adds = false)
   public void setTransportedBy(final TripleAUnit transportedBy) {
+    final TripleAUnit oldTransportedBy = m_transportedBy;
     m_transportedBy = transportedBy;
+    if (oldTransportedBy != transportedBy && getData() != null) {
+      getData().getUnitIndex().transportChanged(this, oldTransportedBy, transportedBy);
+    }
   }
 
   /**
-   * This is a very slow method because it checks all territories on the map. Try not to use this method if possible.
+   * @return the units in the same territory as us that we are transporting, looked up in the unit index of the game
+   *         data.
    */
   public List<Unit> getTransporting() {
-    // we don't store the units we are transporting
-    // rather we look at the transported by property of units
-    for (final Territory t : getData().getMap()) {
-      // find the territory this transport is in
-      if (t.getUnits().getUnits().contains(this)) {
-        return t.getUnits().getMatches(new Match<Unit>() {
-          @Override
-          public boolean match(final Unit o) {
-            return TripleAUnit.get(o).getTransportedBy() == TripleAUnit.this;
-          }
-        });
-      }
-    }
-    return Collections.emptyList();
+    return getData().getUnitIndex().getTransporting(this);
   }
 
   public List<Unit> getTransporting(final Collection<Unit> transportedUnitsPossible) {
@@ -101,6 +101,11 @@ public class FastOddsEstimator implements IOddsCalculator {
 
   }
 
+  @Override
+  public void setTargetPrecision(final double precision) {
+
+  }
+
   @Override
   public void cancel() {
 
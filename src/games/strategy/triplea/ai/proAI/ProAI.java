@@ -46,8 +46,8 @@ import games.strategy.triplea.delegate.remote.IAbstractPlaceDelegate;
 import games.strategy.triplea.delegate.remote.IMoveDelegate;
 import games.strategy.triplea.delegate.remote.IPurchaseDelegate;
 import games.strategy.triplea.delegate.remote.ITechDelegate;
+import games.strategy.triplea.oddsCalculator.ta.CachingOddsCalculator;
 import games.strategy.triplea.oddsCalculator.ta.ConcurrentOddsCalculator;
-import games.strategy.triplea.oddsCalculator.ta.IOddsCalculator;
 import games.strategy.triplea.ui.TripleAFrame;
 import games.strategy.util.Match;
 import games.strategy.util.Tuple;
@@ -60,7 +60,8 @@ public class ProAI extends AbstractAI {
   private final static Logger s_logger = Logger.getLogger(ProAI.class.getName());
 
   // Odds calculator
-  private final static IOddsCalculator concurrentCalc = new ConcurrentOddsCalculator("ProAI");
+  private final static CachingOddsCalculator concurrentCalc =
+      new CachingOddsCalculator(new ConcurrentOddsCalculator("ProAI"));
   protected ProOddsCalculator calc;
 
   // Phases
@@ -159,6 +160,8 @@ public class ProAI extends AbstractAI {
     }
     ProLogger
         .info(player.getName() + " time for nonCombat=" + nonCombat + " time=" + (System.currentTimeMillis() - start));
+    ProLogger.debug(
+        "Battle calculator cache hits=" + concurrentCalc.getHits() + ", misses=" + concurrentCalc.getMisses());
   }
 
   @Override
@@ -192,7 +195,7 @@ public class ProAI extends AbstractAI {
       GameData dataCopy;
       try {
         data.acquireReadLock();
-        dataCopy = GameDataUtils.cloneGameData(data, true);
+        dataCopy = GameDataUtils.cloneGameDataForSimulation(data, true);
       } catch (final Throwable t) {
         ProLogger.log(Level.WARNING, "Error trying to clone game data for simulating phases", t);
         return;
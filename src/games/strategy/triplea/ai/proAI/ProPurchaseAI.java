@@ -87,7 +87,7 @@ public class ProPurchaseAI {
           continue;
         }
         final Unit possibleFactoryNeedingRepair = TripleAUnit.getBiggestProducer(
-            Match.getMatches(fixTerr.getUnits().getUnits(), ourFactories), fixTerr, player, data, false);
+            fixTerr.getUnits().getMatches(ourFactories), fixTerr, player, data, false);
         if (Matches.UnitHasTakenSomeBombingUnitDamage.match(possibleFactoryNeedingRepair)) {
           unitsThatCanProduceNeedingRepair.put(possibleFactoryNeedingRepair, fixTerr);
         }
@@ -132,7 +132,7 @@ public class ProPurchaseAI {
     final ProPurchaseOptionMap purchaseOptions = ProData.purchaseOptions;
 
     ProLogger.info("Starting purchase phase with resources: " + resourceTracker);
-    if (!player.getUnits().getUnits().isEmpty()) {
+    if (!player.getUnits().isEmpty()) {
       ProLogger.info("Starting purchase phase with unplaced units=" + player.getUnits().getUnits());
     }
 
@@ -262,7 +262,7 @@ public class ProPurchaseAI {
     }
 
     // Place remaining units (currently only implemented to handle land units, ex. WW2v3 China)
-    if (player.getUnits().getUnits().isEmpty()) {
+    if (player.getUnits().isEmpty()) {
       return;
     }
 
@@ -23,11 +23,15 @@ import games.strategy.util.Match;
  */
 public class ProOddsCalculator {
 
+  // stop simulating a battle once its win percentage is known to within +-5%
+  private static final double WIN_PERCENTAGE_PRECISION = 0.05;
+
   private final IOddsCalculator calc;
   private boolean isCanceled = false;
 
   public ProOddsCalculator(final IOddsCalculator calc) {
     this.calc = calc;
+    calc.setTargetPrecision(WIN_PERCENTAGE_PRECISION);
   }
 
   public void setData(final GameData data) {
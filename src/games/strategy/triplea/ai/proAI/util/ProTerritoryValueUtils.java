@@ -141,8 +141,7 @@ public class ProTerritoryValueUtils {
     final GameData data = ProData.getData();
     for (final Territory t : data.getMap().getTerritories()) {
       if (!t.isWater()) {
-        final int landMassSize = 1 + data.getMap()
-            .getNeighbors(t, 6, ProMatches.territoryCanPotentiallyMoveLandUnits(player, data, true)).size();
+        final int landMassSize = 1 + ProUtils.getPotentialLandDistances(data, player).getNeighbors(t, 6).size();
         if (landMassSize > maxLandMassSize) {
           maxLandMassSize = landMassSize;
         }
@@ -190,8 +189,7 @@ public class ProTerritoryValueUtils {
 
       // Calculate value
       final int isNeutral = t.getOwner().isNull() ? 1 : 0;
-      final int landMassSize = 1 + data.getMap()
-          .getNeighbors(t, 6, ProMatches.territoryCanPotentiallyMoveLandUnits(player, data, true)).size();
+      final int landMassSize = 1 + ProUtils.getPotentialLandDistances(data, player).getNeighbors(t, 6).size();
       final double value = Math.sqrt(factoryProduction + Math.sqrt(playerProduction)) * 32 / (1 + 3 * isNeutral)
           * landMassSize / maxLandMassSize;
       enemyCapitalsAndFactoriesMap.put(t, value);
@@ -214,8 +212,7 @@ public class ProTerritoryValueUtils {
     final Set<Territory> nearbyEnemyCapitalsAndFactories =
         findNearbyEnemyCapitalsAndFactories(t, enemyCapitalsAndFactoriesMap);
     for (final Territory enemyCapitalOrFactory : nearbyEnemyCapitalsAndFactories) {
-      final int distance = data.getMap().getDistance(t, enemyCapitalOrFactory,
-          ProMatches.territoryCanPotentiallyMoveLandUnits(player, data, true));
+      final int distance = ProUtils.getPotentialLandDistances(data, player).getDistance(t, enemyCapitalOrFactory);
       if (distance > 0) {
         values.add(enemyCapitalsAndFactoriesMap.get(enemyCapitalOrFactory) / Math.pow(2, distance));
       }
@@ -229,13 +226,12 @@ public class ProTerritoryValueUtils {
     // Determine value based on nearby territory production
     double nearbyEnemyValue = 0;
     final Set<Territory> nearbyTerritories =
-        data.getMap().getNeighbors(t, 2, ProMatches.territoryCanPotentiallyMoveLandUnits(player, data, true));
+        ProUtils.getPotentialLandDistances(data, player).getNeighbors(t, 2);
     final List<Territory> nearbyEnemyTerritories = Match.getMatches(nearbyTerritories,
         ProMatches.territoryIsEnemyOrCantBeHeld(player, data, territoriesThatCantBeHeld));
     nearbyEnemyTerritories.removeAll(territoriesToAttack);
     for (final Territory nearbyEnemyTerritory : nearbyEnemyTerritories) {
-      final int distance = data.getMap().getDistance(t, nearbyEnemyTerritory,
-          ProMatches.territoryCanPotentiallyMoveLandUnits(player, data, true));
+      final int distance = ProUtils.getPotentialLandDistances(data, player).getDistance(t, nearbyEnemyTerritory);
       if (distance > 0) {
         double value = TerritoryAttachment.getProduction(nearbyEnemyTerritory);
         if (nearbyEnemyTerritory.getOwner().isNull()) {
@@ -249,7 +245,7 @@ public class ProTerritoryValueUtils {
       }
     }
     final int landMassSize = 1
-        + data.getMap().getNeighbors(t, 6, ProMatches.territoryCanPotentiallyMoveLandUnits(player, data, true)).size();
+        + ProUtils.getPotentialLandDistances(data, player).getNeighbors(t, 6).size();
     double value = nearbyEnemyValue * landMassSize / maxLandMassSize + capitalOrFactoryValue;
     if (ProMatches.territoryHasInfraFactoryAndIsLand(player).match(t)) {
       value *= 1.1; // prefer territories with factories
@@ -45,7 +45,7 @@ public class ProTransportUtils {
     final Set<Territory> neighbors = data.getMap().getNeighbors(t, Matches.TerritoryIsLand);
     for (final Territory neighbor : neighbors) {
       numUnitsToLoad +=
-          Match.getMatches(neighbor.getUnits().getUnits(), ProMatches.unitIsOwnedTransportableUnit(player)).size();
+          neighbor.getUnits().getMatches(ProMatches.unitIsOwnedTransportableUnit(player)).size();
     }
     return numUnitsToLoad;
   }
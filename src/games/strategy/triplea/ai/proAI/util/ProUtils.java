@@ -1,6 +1,7 @@
 package games.strategy.triplea.ai.proAI.util;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -15,6 +16,7 @@ import games.strategy.engine.data.PlayerID;
 import games.strategy.engine.data.RelationshipTracker;
 import games.strategy.engine.data.RelationshipType;
 import games.strategy.engine.data.Territory;
+import games.strategy.engine.data.TerritoryDistances;
 import games.strategy.engine.data.Unit;
 import games.strategy.triplea.Properties;
 import games.strategy.triplea.ai.proAI.ProData;
@@ -165,16 +167,23 @@ public class ProUtils {
     return capitals;
   }
 
+  /**
+   * @return the distances through the land territories the player's land units could potentially move through.
+   */
+  public static TerritoryDistances getPotentialLandDistances(final GameData data, final PlayerID player) {
+    return TerritoryDistances.get(data, Arrays.asList("territoryCanPotentiallyMoveLandUnits", player),
+        ProMatches.territoryCanPotentiallyMoveLandUnits(player, data, true));
+  }
+
   public static int getClosestEnemyLandTerritoryDistance(final GameData data, final PlayerID player,
       final Territory t) {
-    final Set<Territory> landTerritories =
-        data.getMap().getNeighbors(t, 9, ProMatches.territoryCanPotentiallyMoveLandUnits(player, data, true));
+    final TerritoryDistances landDistances = getPotentialLandDistances(data, player);
+    final Set<Territory> landTerritories = landDistances.getNeighbors(t, 9);
     final List<Territory> enemyLandTerritories =
         Match.getMatches(landTerritories, Matches.isTerritoryOwnedBy(getPotentialEnemyPlayers(player)));
     int minDistance = 10;
     for (final Territory enemyLandTerritory : enemyLandTerritories) {
-      final int distance = data.getMap().getDistance(t, enemyLandTerritory,
-          ProMatches.territoryCanPotentiallyMoveLandUnits(player, data, true));
+      final int distance = landDistances.getDistance(t, enemyLandTerritory);
       if (distance < minDistance) {
         minDistance = distance;
       }
@@ -188,8 +197,8 @@ public class ProUtils {
 
   public static int getClosestEnemyOrNeutralLandTerritoryDistance(final GameData data, final PlayerID player,
       final Territory t, final Map<Territory, Double> territoryValueMap) {
-    final Set<Territory> landTerritories =
-        data.getMap().getNeighbors(t, 9, ProMatches.territoryCanPotentiallyMoveLandUnits(player, data, true));
+    final TerritoryDistances landDistances = getPotentialLandDistances(data, player);
+    final Set<Territory> landTerritories = landDistances.getNeighbors(t, 9);
     final List<Territory> enemyLandTerritories =
         Match.getMatches(landTerritories, Matches.isTerritoryOwnedBy(getEnemyPlayers(player)));
     int minDistance = 10;
@@ -197,8 +206,7 @@ public class ProUtils {
       if (territoryValueMap.get(enemyLandTerritory) <= 0) {
         continue;
       }
-      int distance = data.getMap().getDistance(t, enemyLandTerritory,
-          ProMatches.territoryCanPotentiallyMoveLandUnits(player, data, true));
+      int distance = landDistances.getDistance(t, enemyLandTerritory);
       if (enemyLandTerritory.getOwner().isNull()) {
         distance++;
       }
@@ -218,10 +226,10 @@ public class ProUtils {
     final Set<Territory> neighborTerritories = data.getMap().getNeighbors(t, 9);
     final List<Territory> enemyOrAdjacentLandTerritories =
         Match.getMatches(neighborTerritories, ProMatches.territoryIsOrAdjacentToEnemyNotNeutralLand(player, data));
+    final TerritoryDistances waterDistances = TerritoryDistances.get(data, Matches.TerritoryIsWater);
     int minDistance = 10;
     for (final Territory enemyLandTerritory : enemyOrAdjacentLandTerritories) {
-      final int distance =
-          data.getMap().getDistance_IgnoreEndForCondition(t, enemyLandTerritory, Matches.TerritoryIsWater);
+      final int distance = waterDistances.getDistance_IgnoreEndForCondition(t, enemyLandTerritory);
       if (distance > 0 && distance < minDistance) {
         minDistance = distance;
       }
@@ -936,7 +936,7 @@ public class RulesAttachment extends AbstractPlayerRulesAttachment {
     }
     for (final Territory terr : Territories) {
       final Collection<Unit> allUnits =
-          Match.getMatches(terr.getUnits().getUnits(), Matches.unitIsBeingTransported().invert());
+          terr.getUnits().getMatches(Matches.unitIsBeingTransported().invert());
       if (exclType.equals("direct")) {
         allUnits.removeAll(Match.getMatches(allUnits, Matches.unitIsOwnedByOfAnyOfThesePlayers(players).invert()));
       } else if (exclType.equals("allied")) {
@@ -1007,7 +1007,7 @@ public class RulesAttachment extends AbstractPlayerRulesAttachment {
       // get all the units in the territory
       final Territory terr = ownedTerrIter.next();
       final Collection<Unit> allUnits =
-          Match.getMatches(terr.getUnits().getUnits(), Matches.unitIsBeingTransported().invert());
+          terr.getUnits().getMatches(Matches.unitIsBeingTransported().invert());
       if (exclType.equals("allied")) { // any allied units in the territory. (does not include owned units)
         allUnits.removeAll(Match.getMatches(allUnits, Matches.unitIsOwnedByOfAnyOfThesePlayers(players)));
         allUnits.retainAll(Match.getMatches(allUnits, Matches.alliedUnitOfAnyOfThesePlayers(players, data)));
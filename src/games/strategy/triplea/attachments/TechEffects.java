@@ -0,0 +1,146 @@
+package games.strategy.triplea.attachments;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import games.strategy.engine.data.GameData;
+import games.strategy.engine.data.PlayerID;
+import games.strategy.engine.data.UnitType;
+import games.strategy.engine.data.changefactory.ChangeFactory;
+import games.strategy.triplea.delegate.TechAdvance;
+import games.strategy.triplea.delegate.TechTracker;
+import games.strategy.util.IntegerMap;
+
+/**
+ * What the technology attachments of all techs a player has add up to. Worked out once per player, and again after a
+ * change is made to the game data that may change the techs or their attachments.
+ */
+final class TechEffects {
+  final IntegerMap<UnitType> m_attackBonus = new IntegerMap<>();
+  final IntegerMap<UnitType> m_defenseBonus = new IntegerMap<>();
+  final IntegerMap<UnitType> m_movementBonus = new IntegerMap<>();
+  final IntegerMap<UnitType> m_radarBonus = new IntegerMap<>();
+  final IntegerMap<UnitType> m_airAttackBonus = new IntegerMap<>();
+  final IntegerMap<UnitType> m_airDefenseBonus = new IntegerMap<>();
+  final IntegerMap<UnitType> m_productionBonus = new IntegerMap<>();
+  final IntegerMap<UnitType> m_rocketDiceNumber = new IntegerMap<>();
+  final IntegerMap<UnitType> m_attackRollsBonus = new IntegerMap<>();
+  final IntegerMap<UnitType> m_defenseRollsBonus = new IntegerMap<>();
+  final IntegerMap<UnitType> m_bombingBonus = new IntegerMap<>();
+  final IntegerMap<UnitType> m_airborneCapacity = new IntegerMap<>();
+  final int m_minimumTerritoryValueForProductionBonus;
+  final double m_repairDiscount;
+  final int m_warBondDiceSides;
+  final int m_warBondDiceNumber;
+  final int m_rocketDistance;
+  final int m_rocketNumberPerTerritory;
+  final boolean m_allowAirborneForces;
+  final int m_airborneDistance;
+  final Map<UnitType, Set<String>> m_unitAbilitiesGained = new HashMap<>();
+  final Set<UnitType> m_airborneTypes = new HashSet<>();
+  final Set<UnitType> m_airborneBases = new HashSet<>();
+  final HashMap<String, HashSet<UnitType>> m_airborneTargettedByAA = new HashMap<>();
+
+  private TechEffects(final Collection<TechAdvance> advances) {
+    int minimumTerritoryValue = -1;
+    double repairDiscount = 1.0D;
+    int warBondDiceSides = 0;
+    int warBondDiceNumber = 0;
+    int rocketDistance = 0;
+    int rocketNumberPerTerritory = 0;
+    boolean allowAirborneForces = false;
+    int airborneDistance = 0;
+    for (final TechAdvance ta : advances) {
+      final TechAbilityAttachment taa = TechAbilityAttachment.get(ta);
+      if (taa == null) {
+        continue;
+      }
+      m_attackBonus.add(taa.getAttackBonus());
+      m_defenseBonus.add(taa.getDefenseBonus());
+      m_movementBonus.add(taa.getMovementBonus());
+      m_radarBonus.add(taa.getRadarBonus());
+      m_airAttackBonus.add(taa.getAirAttackBonus());
+      m_airDefenseBonus.add(taa.getAirDefenseBonus());
+      m_productionBonus.add(taa.getProductionBonus());
+      m_rocketDiceNumber.add(taa.getRocketDiceNumber());
+      m_attackRollsBonus.add(taa.getAttackRollsBonus());
+      m_defenseRollsBonus.add(taa.getDefenseRollsBonus());
+      m_bombingBonus.add(taa.getBombingBonus());
+      m_airborneCapacity.add(taa.getAirborneCapacity());
+      final int min = taa.getMinimumTerritoryValueForProductionBonus();
+      if (min != -1 && (minimumTerritoryValue == -1 || min < minimumTerritoryValue)) {
+        minimumTerritoryValue = min;
+      }
+      if (taa.getRepairDiscount() != -1) {
+        repairDiscount -= taa.getRepairDiscount() / 100.0D;
+      }
+      warBondDiceSides += Math.max(0, taa.getWarBondDiceSides());
+      warBondDiceNumber += Math.max(0, taa.getWarBondDiceNumber());
+      rocketDistance += Math.max(0, taa.getRocketDistance());
+      rocketNumberPerTerritory += Math.max(0, taa.getRocketNumberPerTerritory());
+      allowAirborneForces = allowAirborneForces || taa.getAirborneForces();
+      airborneDistance += taa.getAirborneDistance();
+      for (final Entry<UnitType, HashSet<String>> entry : taa.getUnitAbilitiesGained().entrySet()) {
+        m_unitAbilitiesGained.computeIfAbsent(entry.getKey(), k -> new HashSet<>()).addAll(entry.getValue());
+      }
+      m_airborneTypes.addAll(taa.getAirborneTypes());
+      m_airborneBases.addAll(taa.getAirborneBases());
+      final HashMap<String, HashSet<UnitType>> mapAA = taa.getAirborneTargettedByAA();
+      if (mapAA != null) {
+        for (final Entry<String, HashSet<UnitType>> entry : mapAA.entrySet()) {
+          m_airborneTargettedByAA.computeIfAbsent(entry.getKey(), k -> new HashSet<>()).addAll(entry.getValue());
+        }
+      }
+    }
+    m_minimumTerritoryValueForProductionBonus = Math.max(0, minimumTerritoryValue);
+    m_repairDiscount = Math.max(0.0D, repairDiscount);
+    m_warBondDiceSides = warBondDiceSides;
+    m_warBondDiceNumber = warBondDiceNumber;
+    m_rocketDistance = rocketDistance;
+    m_rocketNumberPerTerritory = rocketNumberPerTerritory;
+    m_allowAirborneForces = allowAirborneForces;
+    m_airborneDistance = Math.max(0, airborneDistance);
+  }
+
+  /**
+   * @return the abilities the techs of the player give the unit type, never null.
+   */
+  Set<String> getUnitAbilitiesGained(final UnitType ut) {
+    final Set<String> abilities = m_unitAbilitiesGained.get(ut);
+    return abilities == null ? Collections.emptySet() : abilities;
+  }
+
+  /**
+   * @return what the techs the player has add up to, do not change it.
+   */
+  static TechEffects get(final PlayerID player, final GameData data) {
+    return getForData(data).computeIfAbsent(player,
+        p -> new TechEffects(TechTracker.getCurrentTechAdvances(p, data)));
+  }
+
+  private static Map<PlayerID, TechEffects> getForData(final GameData data) {
+    return data.getDerivedState(TechEffects.class, d -> {
+      final Map<PlayerID, TechEffects> forData = new ConcurrentHashMap<>();
+      d.addChangeRecorder(change -> {
+        if (!ChangeFactory.isUnitOwnerOrResourceChange(change)) {
+          forData.clear();
+        }
+      });
+      return forData;
+    });
+  }
+
+  /**
+   * Makes the tech effects of the players of the game data be worked out again, for when a tech or tech attachment was
+   * changed without going through a change.
+   */
+  static void clear(final GameData data) {
+    getForData(data).clear();
+  }
+}
@@ -65,6 +65,47 @@ public class UnitAttachment extends DefaultAttachment {
     return rVal;
   }
 
+  // the capabilities of a unit type, kept as bits by UnitType.getCapabilities() so the Matches need not look up the
+  // unit attachment
+  public static final int CAPABILITY_AIR = 1;
+  public static final int CAPABILITY_SEA = 1 << 1;
+  public static final int CAPABILITY_LAND = 1 << 2;
+  public static final int CAPABILITY_INFRASTRUCTURE = 1 << 3;
+  public static final int CAPABILITY_AA = 1 << 4;
+  public static final int CAPABILITY_SUB = 1 << 5;
+  public static final int CAPABILITY_DESTROYER = 1 << 6;
+  public static final int CAPABILITY_CAN_TRANSPORT = 1 << 7;
+  public static final int CAPABILITY_COMBAT_TRANSPORT = 1 << 8;
+  public static final int CAPABILITY_CARRIER = 1 << 9;
+  public static final int CAPABILITY_CAN_LAND_ON_CARRIER = 1 << 10;
+  public static final int CAPABILITY_CAN_PRODUCE_UNITS = 1 << 11;
+  public static final int CAPABILITY_STRATEGIC_BOMBER = 1 << 12;
+  public static final int CAPABILITY_AIR_TRANSPORT = 1 << 13;
+  public static final int CAPABILITY_AIR_TRANSPORTABLE = 1 << 14;
+
+  /**
+   * @return the CAPABILITY_* bits of this unit type.
+   */
+  public int computeCapabilities() {
+    int capabilities = 0;
+    capabilities |= m_isAir ? CAPABILITY_AIR : 0;
+    capabilities |= m_isSea ? CAPABILITY_SEA : 0;
+    capabilities |= !m_isAir && !m_isSea ? CAPABILITY_LAND : 0;
+    capabilities |= m_isInfrastructure ? CAPABILITY_INFRASTRUCTURE : 0;
+    capabilities |= m_isAAforBombingThisUnitOnly || m_isAAforCombatOnly || m_isAAforFlyOverOnly ? CAPABILITY_AA : 0;
+    capabilities |= m_isSub ? CAPABILITY_SUB : 0;
+    capabilities |= m_isDestroyer ? CAPABILITY_DESTROYER : 0;
+    capabilities |= m_transportCapacity != -1 ? CAPABILITY_CAN_TRANSPORT : 0;
+    capabilities |= m_isCombatTransport ? CAPABILITY_COMBAT_TRANSPORT : 0;
+    capabilities |= m_carrierCapacity != -1 ? CAPABILITY_CARRIER : 0;
+    capabilities |= m_carrierCost != -1 ? CAPABILITY_CAN_LAND_ON_CARRIER : 0;
+    capabilities |= m_canProduceUnits ? CAPABILITY_CAN_PRODUCE_UNITS : 0;
+    capabilities |= m_isStrategicBomber ? CAPABILITY_STRATEGIC_BOMBER : 0;
+    capabilities |= m_isAirTransport ? CAPABILITY_AIR_TRANSPORT : 0;
+    capabilities |= m_isAirTransportable ? CAPABILITY_AIR_TRANSPORTABLE : 0;
+    return capabilities;
+  }
+
   private static Collection<UnitType> getUnitTypesFromUnitList(final Collection<Unit> units) {
     final Collection<UnitType> types = new ArrayList<>();
     for (final Unit u : units) {
@@ -2613,7 +2654,7 @@ public class UnitAttachment extends DefaultAttachment {
       stackingMatch.add(Matches.isUnitAllied(owner, data));
     }
     // else if (stackingType.equals("total"))
-    final int totalInTerritory = Match.countMatches(t.getUnits().getUnits(), stackingMatch);
+    final int totalInTerritory = t.getUnits().countMatches(stackingMatch);
     return Math.max(0, max - totalInTerritory);
   }
 
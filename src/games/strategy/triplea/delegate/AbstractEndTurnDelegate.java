@@ -378,7 +378,7 @@ public abstract class AbstractEndTurnDelegate extends BaseTripleADelegate implem
         continue;
       }
       int loss = 0;
-      final Collection<Unit> enemies = Match.getMatches(b.getUnits().getUnits(), enemyUnits);
+      final Collection<Unit> enemies = b.getUnits().getMatches(enemyUnits);
       if (enemies.isEmpty()) {
         continue;
       }
@@ -888,7 +888,7 @@ public abstract class AbstractPlaceDelegate extends BaseTripleADelegate implemen
       } else if (((isBid || canProduceFightersOnCarriers() || AirThatCantLandUtil.isLHTRCarrierProduction(getData()))
           && Match.someMatch(allProducedUnits, Matches.UnitIsCarrier))
           || ((isBid || canProduceNewFightersOnOldCarriers() || AirThatCantLandUtil.isLHTRCarrierProduction(getData()))
-              && Match.someMatch(to.getUnits().getUnits(), Matches.UnitIsCarrier))) {
+              && to.getUnits().someMatch(Matches.UnitIsCarrier))) {
         placeableUnits.addAll(
             Match.getMatches(units, new CompositeMatchAnd<>(Matches.UnitIsAir, Matches.UnitCanLandOnCarrier)));
       }
@@ -1098,7 +1098,7 @@ public abstract class AbstractPlaceDelegate extends BaseTripleADelegate implemen
     if (unitPlacementPerTerritoryRestricted) {
       if (ra != null && ra.getPlacementPerTerritory() > 0) {
         final int allowedPlacement = ra.getPlacementPerTerritory();
-        final int ownedUnitsInTerritory = Match.countMatches(to.getUnits().getUnits(), Matches.unitIsOwnedBy(player));
+        final int ownedUnitsInTerritory = to.getUnits().countMatches(Matches.unitIsOwnedBy(player));
         if (ownedUnitsInTerritory >= allowedPlacement) {
           return 0;
         }
@@ -1,6 +1,7 @@
 package games.strategy.triplea.delegate;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -14,10 +15,10 @@ import java.util.Map;
 import java.util.Set;
 
 import games.strategy.engine.data.GameData;
-import games.strategy.engine.data.GameMap;
 import games.strategy.engine.data.PlayerID;
 import games.strategy.engine.data.Route;
 import games.strategy.engine.data.Territory;
+import games.strategy.engine.data.TerritoryDistances;
 import games.strategy.engine.data.Unit;
 import games.strategy.triplea.Constants;
 import games.strategy.triplea.TripleAUnit;
@@ -65,7 +66,7 @@ public class AirMovementValidator {
     final Match<Unit> airAlliedNotOwned = new CompositeMatchAnd<>(Matches.unitIsOwnedBy(player).invert(),
         Matches.isUnitAllied(player, data), Matches.UnitIsAir, Matches.UnitCanLandOnCarrier);
     final HashSet<Unit> airThatMustLandOnCarriersHash = new HashSet<>();
-    airThatMustLandOnCarriersHash.addAll(Match.getMatches(routeEnd.getUnits().getUnits(), airAlliedNotOwned));
+    airThatMustLandOnCarriersHash.addAll(routeEnd.getUnits().getMatches(airAlliedNotOwned));
     airThatMustLandOnCarriersHash.addAll(Match.getMatches(units, airAlliedNotOwned));
     // now we must see if we also need to account for units (allied cargo) that are moving with our carriers, if we have
     // selected any
@@ -111,13 +112,13 @@ public class AirMovementValidator {
     // of our remaining carrier units
     final int maxMovementLeftForAllOwnedCarriers = maxMovementLeftForAllOwnedCarriers(player, data);
     final List<Territory> landingSpots = new ArrayList<>(Collections.singleton(routeEnd));
-    landingSpots.addAll(data.getMap().getNeighbors(routeEnd, maxMovementLeftForTheseAirUnitsBeingValidated,
-        // where can we fly to?
-        Matches.airCanFlyOver(player, data, areNeutralsPassableByAir(data))));
+    // where can we fly to?
+    landingSpots.addAll(getAirDistances(player, data, areNeutralsPassableByAir(data)).getNeighbors(routeEnd,
+        maxMovementLeftForTheseAirUnitsBeingValidated));
     // we only want to consider
     landingSpots.removeAll(Match.getMatches(landingSpots, Matches.seaCanMoveOver(player, data).invert()));
     // places we can move carriers to
-    Collections.sort(landingSpots, getLowestToHighestDistance(routeEnd, Matches.seaCanMoveOver(player, data)));
+    Collections.sort(landingSpots, getLowestToHighestDistance(routeEnd, getSeaDistances(player, data)));
     final Collection<Territory> potentialCarrierOrigins = new LinkedHashSet<>(landingSpots);
     potentialCarrierOrigins.addAll(data.getMap().getNeighbors(new HashSet<>(landingSpots),
         maxMovementLeftForAllOwnedCarriers, Matches.seaCanMoveOver(player, data)));
@@ -148,7 +149,7 @@ public class AirMovementValidator {
   }
 
   private static int getMovementLeftForAirUnitNotMovedYet(final Unit airBeingValidated, final Route route) {
-    if (route.getEnd().getUnits().getUnits().contains(airBeingValidated)) {
+    if (route.getEnd().getUnits().contains(airBeingValidated)) {
       // they are not being moved, they are already at the end
       return ((TripleAUnit) airBeingValidated).getMovementLeft();
     } else {
@@ -439,15 +440,30 @@ public class AirMovementValidator {
     }
   }
 
+  /**
+   * @return the distances through territories air units of the player may fly over.
+   */
+  private static TerritoryDistances getAirDistances(final PlayerID player, final GameData data,
+      final boolean areNeutralsPassableByAir) {
+    return TerritoryDistances.get(data, Arrays.asList("airCanFlyOver", player, areNeutralsPassableByAir),
+        Matches.airCanFlyOver(player, data, areNeutralsPassableByAir));
+  }
+
+  /**
+   * @return the distances through sea zones sea units of the player may move over.
+   */
+  private static TerritoryDistances getSeaDistances(final PlayerID player, final GameData data) {
+    return TerritoryDistances.get(data, Arrays.asList("seaCanMoveOver", player), Matches.seaCanMoveOver(player, data));
+  }
+
   private static Comparator<Territory> getLowestToHighestDistance(final Territory territoryWeMeasureDistanceFrom,
-      final Match<Territory> condition) {
+      final TerritoryDistances distances) {
     return (t1, t2) -> {
       if (t1.equals(t2)) {
         return 0;
       }
-      final GameMap map = t1.getData().getMap();
-      final int distance1 = map.getDistance(territoryWeMeasureDistanceFrom, t1, condition);
-      final int distance2 = map.getDistance(territoryWeMeasureDistanceFrom, t2, condition);
+      final int distance1 = distances.getDistance(territoryWeMeasureDistanceFrom, t1);
+      final int distance2 = distances.getDistance(territoryWeMeasureDistanceFrom, t2);
       if (distance1 == distance2) {
         return 0;
       }
@@ -524,7 +540,7 @@ public class AirMovementValidator {
     final Match<Unit> ownedAirMatch =
         new CompositeMatchAnd<>(Matches.UnitIsAir, Matches.unitOwnedBy(player), Matches.UnitIsKamikaze.invert());
     final List<Unit> ownedAir = new ArrayList<>();
-    ownedAir.addAll(Match.getMatches(route.getEnd().getUnits().getUnits(), ownedAirMatch));
+    ownedAir.addAll(route.getEnd().getUnits().getMatches(ownedAirMatch));
     ownedAir.addAll(Match.getMatches(units, ownedAirMatch));
     // sort the list by shortest range first so those birds will get first pick of landingspots
     Collections.sort(ownedAir, getLowestToHighestMovementComparatorIncludingUnitsNotYetMoved(route));
@@ -554,9 +570,10 @@ public class AirMovementValidator {
       return (neutralViolatingRoute != null && neutralViolatingRoute.getMovementCost(unit) <= movementLeft
           && getNeutralCharge(data, neutralViolatingRoute) <= player.getResources().getQuantity(Constants.PUS));
     } else {
-      final Route noNeutralRoute = data.getMap().getRoute(currentSpot, landingSpot,
-          Matches.airCanFlyOver(player, data, areNeutralsPassableByAir));
-      return (noNeutralRoute != null && noNeutralRoute.getMovementCost(unit) <= movementLeft);
+      // the movement cost of a route is its number of steps
+      final int distance = getAirDistances(player, data, areNeutralsPassableByAir).getDistance(currentSpot,
+          landingSpot);
+      return (distance >= 0 && distance <= movementLeft);
     }
   }
 
@@ -12,7 +12,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.WeakHashMap;
 
 import games.strategy.engine.data.GameData;
 import games.strategy.engine.data.NamedAttachable;
@@ -25,6 +25,7 @@ import games.strategy.engine.data.Territory;
 import games.strategy.engine.data.TerritoryEffect;
 import games.strategy.engine.data.Unit;
 import games.strategy.engine.data.UnitType;
+import games.strategy.engine.data.changefactory.ChangeFactory;
 import games.strategy.engine.delegate.IDelegateBridge;
 import games.strategy.engine.framework.GameRunner;
 import games.strategy.engine.random.IRandomStats.DiceType;
@@ -54,10 +55,38 @@ import games.strategy.util.Tuple;
  * was being dduplicated all over the place.
  */
 public class BattleCalculator {
-  private static Map<String, List<UnitType>> oolCache = new ConcurrentHashMap<>();
+  private static final Map<GameData, OrderOfLossesCache> s_oolCaches = new WeakHashMap<>();
 
+  /**
+   * @return the order of losses cache of the game data, it is cleared when a change is made to the game data that may
+   *         change the order (anything but unit, owner and resource changes, for example techs).
+   */
+  public static OrderOfLossesCache getOOLCache(final GameData data) {
+    synchronized (s_oolCaches) {
+      OrderOfLossesCache cache = s_oolCaches.get(data);
+      if (cache == null) {
+        final OrderOfLossesCache newCache = new OrderOfLossesCache();
+        data.addChangeRecorder(change -> {
+          if (!ChangeFactory.isUnitOwnerOrResourceChange(change)) {
+            newCache.clear();
+          }
+        });
+        s_oolCaches.put(data, newCache);
+        cache = newCache;
+      }
+      return cache;
+    }
+  }
+
+  /**
+   * Clears the order of losses caches of all game data.
+   */
   public static void clearOOLCache() {
-    oolCache.clear();
+    synchronized (s_oolCaches) {
+      for (final OrderOfLossesCache cache : s_oolCaches.values()) {
+        cache.clear();
+      }
+    }
   }
 
   // There is a problem with this variable, that it isn't
@@ -633,6 +662,18 @@ public class BattleCalculator {
     return killed;
   }
 
+  /**
+   * The order in which units are taken as casualties by default in a battle that is not amphibious, the first unit
+   * is the first to be taken. Units with more than one hitpoint left are damaged before any unit is killed.
+   */
+  public static List<Unit> sortUnitsForCasualties(final Collection<Unit> targetsToPickFrom, final boolean defending,
+      final PlayerID player, final Collection<Unit> enemyUnits, final Territory battlesite,
+      final Collection<TerritoryEffect> territoryEffects, final GameData data) {
+    return sortUnitsForCasualtiesWithSupport(targetsToPickFrom, targetsToPickFrom.size(), defending, player,
+        enemyUnits, false, new ArrayList<>(), battlesite, getCostsForTUV(player, data), territoryEffects, data, true,
+        true);
+  }
+
   /**
    * A unit with two hitpoints will be listed twice if they will die. The first time they are listed it is as damaged.
    * The second time they
@@ -711,48 +752,12 @@ public class BattleCalculator {
       final Collection<Unit> amphibiousLandAttackers, final Territory battlesite, final IntegerMap<UnitType> costs,
       final Collection<TerritoryEffect> territoryEffects, final GameData data,
       final boolean bonus) {
-    // Convert unit lists to unit type lists
-    final List<UnitType> targetTypes = new ArrayList<>();
-    for (final Unit u : targetsToPickFrom) {
-      targetTypes.add(u.getType());
-    }
-    final List<UnitType> amphibTypes = new ArrayList<>();
-    if (amphibiousLandAttackers != null) {
-      for (final Unit u : amphibiousLandAttackers) {
-        amphibTypes.add(u.getType());
-      }
-    }
-    // Calculate hashes and cache key
-    int targetsHashCode = 1;
-    for (final UnitType ut : targetTypes) {
-      targetsHashCode += ut.hashCode();
-    }
-    targetsHashCode *= 31;
-    int amphibHashCode = 1;
-    for (final UnitType ut : amphibTypes) {
-      amphibHashCode += ut.hashCode();
-    }
-    amphibHashCode *= 31;
-    String key = player.getName() + "|" + battlesite.getName() + "|" + defending + "|" + amphibious + "|"
-        + targetsHashCode + "|" + amphibHashCode;
-    // Check OOL cache
-    final List<UnitType> stored = oolCache.get(key);
+    final OrderOfLossesCache oolCache = getOOLCache(data);
+    final List<Unit> stored = oolCache.get(player, battlesite, defending, amphibious, bonus, targetsToPickFrom,
+        amphibiousLandAttackers);
     if (stored != null) {
-      // System.out.println("Hit with cacheSize=" + oolCache.size() + ", key=" + key);
-      final List<Unit> result = new ArrayList<>();
-      final List<Unit> selectFrom = new ArrayList<>(targetsToPickFrom);
-      for (final UnitType ut : stored) {
-        for (final Iterator<Unit> it = selectFrom.iterator(); it.hasNext();) {
-          final Unit u = it.next();
-          if (ut.equals(u.getType())) {
-            result.add(u);
-            it.remove();
-          }
-        }
-      }
-      return result;
+      return stored;
     }
-    // System.out.println("Miss with cacheSize=" + oolCache.size() + ", key=" + key);
     // Sort enough units to kill off
     final List<Unit> sortedUnitsList = new ArrayList<>(targetsToPickFrom);
     Collections.sort(sortedUnitsList, new UnitBattleComparator(defending, costs, territoryEffects, data, bonus, false));
@@ -888,31 +893,7 @@ public class BattleCalculator {
     }
     sortedWellEnoughUnitsList.addAll(sortedUnitsList);
     // Cache result and all subsets of the result
-    final List<UnitType> unitTypes = new ArrayList<>();
-    for (final Unit u : sortedWellEnoughUnitsList) {
-      unitTypes.add(u.getType());
-    }
-    for (final Iterator<UnitType> it = unitTypes.iterator(); it.hasNext();) {
-      oolCache.put(key, new ArrayList<>(unitTypes));
-      final UnitType unitTypeToRemove = it.next();
-      targetTypes.remove(unitTypeToRemove);
-      if (Collections.frequency(targetTypes, unitTypeToRemove) < Collections.frequency(amphibTypes, unitTypeToRemove)) {
-        amphibTypes.remove(unitTypeToRemove);
-      }
-      targetsHashCode = 1;
-      for (final UnitType ut : targetTypes) {
-        targetsHashCode += ut.hashCode();
-      }
-      targetsHashCode *= 31;
-      amphibHashCode = 1;
-      for (final UnitType ut : amphibTypes) {
-        amphibHashCode += ut.hashCode();
-      }
-      amphibHashCode *= 31;
-      key = player.getName() + "|" + battlesite.getName() + "|" + defending + "|" + amphibious + "|" + targetsHashCode
-          + "|" + amphibHashCode;
-      it.remove();
-    }
+    oolCache.put(player, battlesite, defending, amphibious, bonus, sortedWellEnoughUnitsList, amphibiousLandAttackers);
     return sortedWellEnoughUnitsList;
   }
 
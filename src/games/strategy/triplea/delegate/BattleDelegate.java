@@ -385,9 +385,9 @@ public class BattleDelegate extends BaseTripleADelegate implements IBattleDelega
       final IDelegateBridge bridge) {
     if (TechTracker.hasParatroopers(player)) {
       final Collection<Unit> airTransports =
-          Match.getMatches(battleSite.getUnits().getUnits(), Matches.UnitIsAirTransport);
+          battleSite.getUnits().getMatches(Matches.UnitIsAirTransport);
       final Collection<Unit> paratroops =
-          Match.getMatches(battleSite.getUnits().getUnits(), Matches.UnitIsAirTransportable);
+          battleSite.getUnits().getMatches(Matches.UnitIsAirTransportable);
       if (!airTransports.isEmpty() && !paratroops.isEmpty()) {
         final CompositeChange change = new CompositeChange();
         for (final Unit u : paratroops) {
@@ -711,7 +711,7 @@ public class BattleTracker implements java.io.Serializable {
         if (changeTracker != null) {
           changeTracker.addChange(takeOverFriendlyTerritories);
         }
-        final Collection<Unit> units = Match.getMatches(item.getUnits().getUnits(), Matches.UnitIsInfrastructure);
+        final Collection<Unit> units = item.getUnits().getMatches(Matches.UnitIsInfrastructure);
         if (!units.isEmpty()) {
           final Change takeOverNonComUnits = ChangeFactory.changeOwner(units, terrOrigOwner, territory);
           bridge.addChange(takeOverNonComUnits);
@@ -858,7 +858,7 @@ public class BattleTracker implements java.io.Serializable {
       return ChangeFactory.EMPTY_CHANGE;
     }
     // if just an enemy factory &/or AA then no battle
-    final Collection<Unit> enemyUnits = Match.getMatches(site.getUnits().getUnits(), Matches.enemyUnit(id, data));
+    final Collection<Unit> enemyUnits = site.getUnits().getMatches(Matches.enemyUnit(id, data));
     if (route.getEnd() != null && Match.allMatch(enemyUnits, Matches.UnitIsInfrastructure)) {
       return ChangeFactory.EMPTY_CHANGE;
     }
@@ -80,7 +80,7 @@ public class EndTurnDelegate extends AbstractEndTurnDelegate {
         new CompositeMatchAnd<>(Matches.unitIsOwnedBy(player), Matches.UnitCreatesUnits);
     final CompositeChange change = new CompositeChange();
     for (final Territory t : data.getMap().getTerritories()) {
-      final Collection<Unit> myCreators = Match.getMatches(t.getUnits().getUnits(), myCreatorsMatch);
+      final Collection<Unit> myCreators = t.getUnits().getMatches(myCreatorsMatch);
       if (myCreators != null && !myCreators.isEmpty()) {
         final Collection<Unit> toAdd = new ArrayList<>();
         final Collection<Unit> toAddSea = new ArrayList<>();
@@ -175,7 +175,7 @@ public class EndTurnDelegate extends AbstractEndTurnDelegate {
     final Match<Unit> myCreatorsMatch = new CompositeMatchAnd<>(Matches.unitIsOwnedBy(player),
         negativeResources ? Matches.UnitCreatesResourcesNegative : Matches.UnitCreatesResourcesPositive);
     for (final Territory t : data.getMap().getTerritories()) {
-      final Collection<Unit> myCreators = Match.getMatches(t.getUnits().getUnits(), myCreatorsMatch);
+      final Collection<Unit> myCreators = t.getUnits().getMatches(myCreatorsMatch);
       if (myCreators != null && !myCreators.isEmpty()) {
         for (final Unit u : myCreators) {
           final CompositeChange change = new CompositeChange();
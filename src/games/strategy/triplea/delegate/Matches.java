@@ -66,6 +66,32 @@ import games.strategy.util.Util;
  * The benefits should be obvious to any right minded person.
  */
 public class Matches {
+  /**
+   * Units whose type has all the required capabilities and none of the excluded ones, see UnitType.getCapabilities().
+   */
+  private static Match<Unit> unitHasCapabilities(final int required, final int excluded) {
+    final int tested = required | excluded;
+    return new Match<Unit>() {
+      @Override
+      public boolean match(final Unit unit) {
+        return (unit.getType().getCapabilities() & tested) == required;
+      }
+    };
+  }
+
+  /**
+   * Unit types that have all the required capabilities and none of the excluded ones.
+   */
+  private static Match<UnitType> unitTypeHasCapabilities(final int required, final int excluded) {
+    final int tested = required | excluded;
+    return new Match<UnitType>() {
+      @Override
+      public boolean match(final UnitType type) {
+        return (type.getCapabilities() & tested) == required;
+      }
+    };
+  }
+
   public static final Match<Object> IsTerritory = new Match<Object>() {
     @Override
     public boolean match(final Object o) {
@@ -99,36 +125,15 @@ public class Matches {
       return ua.getHitPoints() - unit.getHits() <= 1;
     }
   };
-  public static final Match<Unit> UnitIsSea = new Match<Unit>() {
-    @Override
-    public boolean match(final Unit unit) {
-      final UnitAttachment ua = UnitAttachment.get(unit.getType());
-      return ua.getIsSea();
-    }
-  };
-  public static final Match<Unit> UnitIsSub = new Match<Unit>() {
-    @Override
-    public boolean match(final Unit unit) {
-      final UnitAttachment ua = UnitAttachment.get(unit.getType());
-      return ua.getIsSub();
-    }
-  };
+  public static final Match<Unit> UnitIsSea = unitHasCapabilities(UnitAttachment.CAPABILITY_SEA, 0);
+  public static final Match<Unit> UnitIsSub = unitHasCapabilities(UnitAttachment.CAPABILITY_SUB, 0);
   public static final Match<Unit> UnitIsNotSub = new InverseMatch<>(UnitIsSub);
-  public static final Match<Unit> UnitIsCombatTransport = new Match<Unit>() {
-    @Override
-    public boolean match(final Unit unit) {
-      final UnitAttachment ua = UnitAttachment.get(unit.getType());
-      return (ua.getIsCombatTransport() && ua.getIsSea());
-    }
-  };
+  public static final Match<Unit> UnitIsCombatTransport =
+      unitHasCapabilities(UnitAttachment.CAPABILITY_COMBAT_TRANSPORT | UnitAttachment.CAPABILITY_SEA, 0);
   public static final Match<Unit> UnitIsNotCombatTransport = new InverseMatch<>(UnitIsCombatTransport);
-  public static final Match<Unit> UnitIsTransportButNotCombatTransport = new Match<Unit>() {
-    @Override
-    public boolean match(final Unit unit) {
-      final UnitAttachment ua = UnitAttachment.get(unit.getType());
-      return (ua.getTransportCapacity() != -1 && ua.getIsSea() && !ua.getIsCombatTransport());
-    }
-  };
+  public static final Match<Unit> UnitIsTransportButNotCombatTransport =
+      unitHasCapabilities(UnitAttachment.CAPABILITY_CAN_TRANSPORT | UnitAttachment.CAPABILITY_SEA,
+          UnitAttachment.CAPABILITY_COMBAT_TRANSPORT);
   public static final Match<Unit> UnitIsNotTransportButCouldBeCombatTransport = new Match<Unit>() {
     @Override
     public boolean match(final Unit unit) {
@@ -140,27 +145,11 @@ public class Matches {
       }
     }
   };
-  public static final Match<Unit> UnitIsDestroyer = new Match<Unit>() {
-    @Override
-    public boolean match(final Unit unit) {
-      final UnitAttachment ua = UnitAttachment.get(unit.getType());
-      return ua.getIsDestroyer();
-    }
-  };
-  public static final Match<UnitType> UnitTypeIsDestroyer = new Match<UnitType>() {
-    @Override
-    public boolean match(final UnitType type) {
-      final UnitAttachment ua = UnitAttachment.get(type);
-      return ua.getIsDestroyer();
-    }
-  };
-  public static final Match<Unit> UnitIsTransport = new Match<Unit>() {
-    @Override
-    public boolean match(final Unit unit) {
-      final UnitAttachment ua = UnitAttachment.get(unit.getType());
-      return (ua.getTransportCapacity() != -1 && ua.getIsSea());
-    }
-  };
+  public static final Match<Unit> UnitIsDestroyer = unitHasCapabilities(UnitAttachment.CAPABILITY_DESTROYER, 0);
+  public static final Match<UnitType> UnitTypeIsDestroyer =
+      unitTypeHasCapabilities(UnitAttachment.CAPABILITY_DESTROYER, 0);
+  public static final Match<Unit> UnitIsTransport =
+      unitHasCapabilities(UnitAttachment.CAPABILITY_CAN_TRANSPORT | UnitAttachment.CAPABILITY_SEA, 0);
   public static final Match<Unit> UnitIsNotTransport = UnitIsTransport.invert();
   public static final Match<Unit> UnitIsTransportAndNotDestroyer = new Match<Unit>() {
     @Override
@@ -169,33 +158,13 @@ public class Matches {
       return (!Matches.UnitIsDestroyer.match(unit) && ua.getTransportCapacity() != -1 && ua.getIsSea());
     }
   };
-  public static final Match<UnitType> UnitTypeIsStrategicBomber = new Match<UnitType>() {
-    @Override
-    public boolean match(final UnitType obj) {
-      final UnitAttachment ua = UnitAttachment.get(obj);
-      if (ua == null) {
-        return false;
-      }
-      return ua.getIsStrategicBomber();
-    }
-  };
-  public static final Match<Unit> UnitIsStrategicBomber = new Match<Unit>() {
-    @Override
-    public boolean match(final Unit obj) {
-      return UnitTypeIsStrategicBomber.match(obj.getType());
-    }
-  };
+  public static final Match<UnitType> UnitTypeIsStrategicBomber =
+      unitTypeHasCapabilities(UnitAttachment.CAPABILITY_STRATEGIC_BOMBER, 0);
+  public static final Match<Unit> UnitIsStrategicBomber =
+      unitHasCapabilities(UnitAttachment.CAPABILITY_STRATEGIC_BOMBER, 0);
   public static final Match<Unit> UnitIsNotStrategicBomber = new InverseMatch<>(UnitIsStrategicBomber);
-  public static final Match<UnitType> UnitTypeCanLandOnCarrier = new Match<UnitType>() {
-    @Override
-    public boolean match(final UnitType obj) {
-      final UnitAttachment ua = UnitAttachment.get(obj);
-      if (ua == null) {
-        return false;
-      }
-      return ua.getCarrierCost() != -1;
-    }
-  };
+  public static final Match<UnitType> UnitTypeCanLandOnCarrier =
+      unitTypeHasCapabilities(UnitAttachment.CAPABILITY_CAN_LAND_ON_CARRIER, 0);
   public static final Match<UnitType> UnitTypeCannotLandOnCarrier =
       new InverseMatch<>(UnitTypeCanLandOnCarrier);
   public static final Match<Unit> unitHasMoved = new Match<Unit>() {
@@ -262,28 +231,9 @@ public class Matches {
     };
   }
 
-  public static final Match<Unit> UnitIsNotSea = new Match<Unit>() {
-    @Override
-    public boolean match(final Unit obj) {
-      final Unit unit = obj;
-      final UnitAttachment ua = UnitAttachment.get(unit.getType());
-      return !ua.getIsSea();
-    }
-  };
-  public static final Match<UnitType> UnitTypeIsSea = new Match<UnitType>() {
-    @Override
-    public boolean match(final UnitType obj) {
-      final UnitAttachment ua = UnitAttachment.get(obj);
-      return ua.getIsSea();
-    }
-  };
-  public static final Match<UnitType> UnitTypeIsNotSea = new Match<UnitType>() {
-    @Override
-    public boolean match(final UnitType type) {
-      final UnitAttachment ua = UnitAttachment.get(type);
-      return !ua.getIsSea();
-    }
-  };
+  public static final Match<Unit> UnitIsNotSea = unitHasCapabilities(0, UnitAttachment.CAPABILITY_SEA);
+  public static final Match<UnitType> UnitTypeIsSea = unitTypeHasCapabilities(UnitAttachment.CAPABILITY_SEA, 0);
+  public static final Match<UnitType> UnitTypeIsNotSea = unitTypeHasCapabilities(0, UnitAttachment.CAPABILITY_SEA);
   public static final Match<UnitType> UnitTypeIsSeaOrAir = new Match<UnitType>() {
     @Override
     public boolean match(final UnitType type) {
@@ -298,20 +248,8 @@ public class Matches {
       return (ua.getCarrierCapacity() != -1);
     }
   };
-  public static final Match<Unit> UnitIsAir = new Match<Unit>() {
-    @Override
-    public boolean match(final Unit unit) {
-      final UnitAttachment ua = UnitAttachment.get(unit.getType());
-      return ua.getIsAir();
-    }
-  };
-  public static final Match<Unit> UnitIsNotAir = new Match<Unit>() {
-    @Override
-    public boolean match(final Unit unit) {
-      final UnitAttachment ua = UnitAttachment.get(unit.getType());
-      return !ua.getIsAir();
-    }
-  };
+  public static final Match<Unit> UnitIsAir = unitHasCapabilities(UnitAttachment.CAPABILITY_AIR, 0);
+  public static final Match<Unit> UnitIsNotAir = unitHasCapabilities(0, UnitAttachment.CAPABILITY_AIR);
 
   public static Match<UnitType> unitTypeCanBombard(final PlayerID id) {
     return new Match<UnitType>() {
@@ -509,20 +447,11 @@ public class Matches {
       return ua.getCanDieFromReachingMaxDamage();
     }
   };
-  public static final Match<Unit> UnitIsInfrastructure = new Match<Unit>() {
-    @Override
-    public boolean match(final Unit unit) {
-      return UnitTypeIsInfrastructure.match(unit.getType());
-    }
-  };
+  public static final Match<Unit> UnitIsInfrastructure =
+      unitHasCapabilities(UnitAttachment.CAPABILITY_INFRASTRUCTURE, 0);
   public static final Match<Unit> UnitIsNotInfrastructure = new InverseMatch<>(UnitIsInfrastructure);
-  public static final Match<UnitType> UnitTypeIsInfrastructure = new Match<UnitType>() {
-    @Override
-    public boolean match(final UnitType ut) {
-      final UnitAttachment ua = UnitAttachment.get(ut);
-      return ua.getIsInfrastructure();
-    }
-  };
+  public static final Match<UnitType> UnitTypeIsInfrastructure =
+      unitTypeHasCapabilities(UnitAttachment.CAPABILITY_INFRASTRUCTURE, 0);
 
   /**
    * Checks for having attack/defense and for providing support. Does not check for having AA ability.
@@ -661,38 +590,11 @@ public class Matches {
       return ua.getIsKamikaze();
     }
   };
-  public static final Match<UnitType> UnitTypeIsAir = new Match<UnitType>() {
-    @Override
-    public boolean match(final UnitType obj) {
-      final UnitType type = obj;
-      final UnitAttachment ua = UnitAttachment.get(type);
-      return ua.getIsAir();
-    }
-  };
-  public static final Match<UnitType> UnitTypeIsNotAir = new Match<UnitType>() {
-    @Override
-    public boolean match(final UnitType obj) {
-      final UnitType type = obj;
-      final UnitAttachment ua = UnitAttachment.get(type);
-      return !ua.getIsAir();
-    }
-  };
-  public static final Match<Unit> UnitCanLandOnCarrier = new Match<Unit>() {
-    @Override
-    public boolean match(final Unit obj) {
-      final Unit unit = obj;
-      final UnitAttachment ua = UnitAttachment.get(unit.getType());
-      return ua.getCarrierCost() != -1;
-    }
-  };
-  public static final Match<Unit> UnitIsCarrier = new Match<Unit>() {
-    @Override
-    public boolean match(final Unit obj) {
-      final Unit unit = obj;
-      final UnitAttachment ua = UnitAttachment.get(unit.getType());
-      return ua.getCarrierCapacity() != -1;
-    }
-  };
+  public static final Match<UnitType> UnitTypeIsAir = unitTypeHasCapabilities(UnitAttachment.CAPABILITY_AIR, 0);
+  public static final Match<UnitType> UnitTypeIsNotAir = unitTypeHasCapabilities(0, UnitAttachment.CAPABILITY_AIR);
+  public static final Match<Unit> UnitCanLandOnCarrier =
+      unitHasCapabilities(UnitAttachment.CAPABILITY_CAN_LAND_ON_CARRIER, 0);
+  public static final Match<Unit> UnitIsCarrier = unitHasCapabilities(UnitAttachment.CAPABILITY_CARRIER, 0);
 
   public static Match<Territory> TerritoryHasOwnedCarrier(final PlayerID player) {
     return new Match<Territory>() {
@@ -754,22 +656,9 @@ public class Matches {
     }
   };
   public static final Match<Unit> UnitWasNotLoadedThisTurn = new InverseMatch<>(UnitWasLoadedThisTurn);
-  public static final Match<Unit> UnitCanTransport = new Match<Unit>() {
-    @Override
-    public boolean match(final Unit obj) {
-      final Unit unit = obj;
-      final UnitAttachment ua = UnitAttachment.get(unit.getType());
-      return ua.getTransportCapacity() != -1;
-    }
-  };
-  public static final Match<UnitType> UnitTypeCanTransport = new Match<UnitType>() {
-    @Override
-    public boolean match(final UnitType obj) {
-      final UnitType type = obj;
-      final UnitAttachment ua = UnitAttachment.get(type);
-      return ua.getTransportCapacity() != -1;
-    }
-  };
+  public static final Match<Unit> UnitCanTransport = unitHasCapabilities(UnitAttachment.CAPABILITY_CAN_TRANSPORT, 0);
+  public static final Match<UnitType> UnitTypeCanTransport =
+      unitTypeHasCapabilities(UnitAttachment.CAPABILITY_CAN_TRANSPORT, 0);
   public static final Match<UnitType> UnitTypeCanBeTransported = new Match<UnitType>() {
     @Override
     public boolean match(final UnitType obj) {
@@ -778,19 +667,10 @@ public class Matches {
       return ua.getTransportCost() != -1;
     }
   };
-  public static final Match<Unit> UnitCanProduceUnits = new Match<Unit>() {
-    @Override
-    public boolean match(final Unit obj) {
-      return UnitTypeCanProduceUnits.match(obj.getType());
-    }
-  };
-  public static final Match<UnitType> UnitTypeCanProduceUnits = new Match<UnitType>() {
-    @Override
-    public boolean match(final UnitType obj) {
-      final UnitAttachment ua = UnitAttachment.get(obj);
-      return ua.getCanProduceUnits();
-    }
-  };
+  public static final Match<Unit> UnitCanProduceUnits =
+      unitHasCapabilities(UnitAttachment.CAPABILITY_CAN_PRODUCE_UNITS, 0);
+  public static final Match<UnitType> UnitTypeCanProduceUnits =
+      unitTypeHasCapabilities(UnitAttachment.CAPABILITY_CAN_PRODUCE_UNITS, 0);
   public static final Match<Unit> UnitCanNotProduceUnits = new InverseMatch<>(UnitCanProduceUnits);
   public static final Match<UnitType> UnitTypeIsInfrastructureButNotAAofAnyKind = new Match<UnitType>() {
     @Override
@@ -1002,19 +882,9 @@ public class Matches {
       return ua.getIsAAforFlyOverOnly();
     }
   };
-  public static final Match<Unit> UnitIsAAforAnything = new Match<Unit>() {
-    @Override
-    public boolean match(final Unit obj) {
-      return UnitTypeIsAAforAnything.match(obj.getType());
-    }
-  };
-  public static final Match<UnitType> UnitTypeIsAAforAnything = new Match<UnitType>() {
-    @Override
-    public boolean match(final UnitType obj) {
-      final UnitAttachment ua = UnitAttachment.get(obj);
-      return ua.getIsAAforBombingThisUnitOnly() || ua.getIsAAforCombatOnly() || ua.getIsAAforFlyOverOnly();
-    }
-  };
+  public static final Match<Unit> UnitIsAAforAnything = unitHasCapabilities(UnitAttachment.CAPABILITY_AA, 0);
+  public static final Match<UnitType> UnitTypeIsAAforAnything =
+      unitTypeHasCapabilities(UnitAttachment.CAPABILITY_AA, 0);
   public static final Match<Unit> UnitIsNotAA = new InverseMatch<>(UnitIsAAforAnything);
   public static final Match<Unit> UnitMaxAAattacksIsInfinite = new Match<Unit>() {
     @Override
@@ -1882,7 +1752,7 @@ public class Matches {
     return new Match<Unit>() {
       @Override
       public boolean match(final Unit o) {
-        return territory.getUnits().getUnits().contains(o);
+        return territory.getUnits().contains(o);
       }
     };
   }
@@ -2329,9 +2199,8 @@ public class Matches {
     };
   }
 
-  public final static Match<Unit> UnitIsLand = new CompositeMatchAnd<>(UnitIsNotSea, UnitIsNotAir);
-  public final static Match<UnitType> UnitTypeIsLand =
-      new CompositeMatchAnd<>(UnitTypeIsNotSea, UnitTypeIsNotAir);
+  public static final Match<Unit> UnitIsLand = unitHasCapabilities(UnitAttachment.CAPABILITY_LAND, 0);
+  public static final Match<UnitType> UnitTypeIsLand = unitTypeHasCapabilities(UnitAttachment.CAPABILITY_LAND, 0);
   public final static Match<Unit> UnitIsNotLand = new InverseMatch<>(UnitIsLand);
 
   public static Match<Unit> unitIsOfType(final UnitType type) {
@@ -2382,14 +2251,7 @@ public class Matches {
     };
   }
 
-  public static final Match<UnitType> UnitTypeIsSub = new Match<UnitType>() {
-    @Override
-    public boolean match(final UnitType obj) {
-      final UnitType type = obj;
-      final UnitAttachment ua = UnitAttachment.get(type);
-      return ua.getIsSub();
-    }
-  };
+  public static final Match<UnitType> UnitTypeIsSub = unitTypeHasCapabilities(UnitAttachment.CAPABILITY_SUB, 0);
 
   public static Match<Unit> unitOwnerHasImprovedArtillerySupportTech() {
     return new Match<Unit>() {
@@ -2483,7 +2345,7 @@ public class Matches {
         }
         final Match<Unit> repairUnit = new CompositeMatchAnd<>(Matches.alliedUnit(player, data),
             Matches.UnitCanRepairOthers, Matches.UnitCanRepairThisUnit(damagedUnit));
-        if (Match.someMatch(territory.getUnits().getUnits(), repairUnit)) {
+        if (territory.getUnits().someMatch(repairUnit)) {
           return true;
         }
         if (Matches.UnitIsSea.match(damagedUnit)) {
@@ -2491,7 +2353,7 @@ public class Matches {
           final List<Territory> neighbors =
               new ArrayList<>(data.getMap().getNeighbors(territory, Matches.TerritoryIsLand));
           for (final Territory current : neighbors) {
-            if (Match.someMatch(current.getUnits().getUnits(), repairUnitLand)) {
+            if (current.getUnits().someMatch(repairUnitLand)) {
               return true;
             }
           }
@@ -2500,7 +2362,7 @@ public class Matches {
           final List<Territory> neighbors =
               new ArrayList<>(data.getMap().getNeighbors(territory, Matches.TerritoryIsWater));
           for (final Territory current : neighbors) {
-            if (Match.someMatch(current.getUnits().getUnits(), repairUnitSea)) {
+            if (current.getUnits().someMatch(repairUnitSea)) {
               return true;
             }
           }
@@ -2556,7 +2418,7 @@ public class Matches {
       public boolean match(final Unit unitWhichWillGetBonus) {
         final Match<Unit> givesBonusUnit = new CompositeMatchAnd<>(Matches.alliedUnit(player, data),
             UnitCanGiveBonusMovementToThisUnit(unitWhichWillGetBonus));
-        if (Match.someMatch(territory.getUnits().getUnits(), givesBonusUnit)) {
+        if (territory.getUnits().someMatch(givesBonusUnit)) {
           return true;
         }
         if (Matches.UnitIsSea.match(unitWhichWillGetBonus)) {
@@ -2564,7 +2426,7 @@ public class Matches {
           final List<Territory> neighbors =
               new ArrayList<>(data.getMap().getNeighbors(territory, Matches.TerritoryIsLand));
           for (final Territory current : neighbors) {
-            if (Match.someMatch(current.getUnits().getUnits(), givesBonusUnitLand)) {
+            if (current.getUnits().someMatch(givesBonusUnitLand)) {
               return true;
             }
           }
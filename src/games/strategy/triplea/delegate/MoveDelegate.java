@@ -334,7 +334,7 @@ public class MoveDelegate extends AbstractMoveDelegate {
         continue;
       }
       final Collection<Unit> crippledAlliedCarriers =
-          Match.getMatches(t.getUnits().getUnits(), crippledAlliedCarriersMatch);
+          t.getUnits().getMatches(crippledAlliedCarriersMatch);
       if (crippledAlliedCarriers.isEmpty()) {
         continue;
       }
@@ -365,20 +365,20 @@ public class MoveDelegate extends AbstractMoveDelegate {
           final Collection<Unit> givesBonusUnits = new ArrayList<>();
           final Match<Unit> givesBonusUnit = new CompositeMatchAnd<>(Matches.alliedUnit(player, data),
               Matches.UnitCanGiveBonusMovementToThisUnit(u));
-          givesBonusUnits.addAll(Match.getMatches(t.getUnits().getUnits(), givesBonusUnit));
+          givesBonusUnits.addAll(t.getUnits().getMatches(givesBonusUnit));
           if (Matches.UnitIsSea.match(u)) {
             final Match<Unit> givesBonusUnitLand = new CompositeMatchAnd<>(givesBonusUnit, Matches.UnitIsLand);
             final List<Territory> neighbors =
                 new ArrayList<>(data.getMap().getNeighbors(t, Matches.TerritoryIsLand));
             for (final Territory current : neighbors) {
-              givesBonusUnits.addAll(Match.getMatches(current.getUnits().getUnits(), givesBonusUnitLand));
+              givesBonusUnits.addAll(current.getUnits().getMatches(givesBonusUnitLand));
             }
           } else if (Matches.UnitIsLand.match(u)) {
             final Match<Unit> givesBonusUnitSea = new CompositeMatchAnd<>(givesBonusUnit, Matches.UnitIsSea);
             final List<Territory> neighbors =
                 new ArrayList<>(data.getMap().getNeighbors(t, Matches.TerritoryIsWater));
             for (final Territory current : neighbors) {
-              givesBonusUnits.addAll(Match.getMatches(current.getUnits().getUnits(), givesBonusUnitSea));
+              givesBonusUnits.addAll(current.getUnits().getMatches(givesBonusUnitSea));
             }
           }
           for (final Unit bonusGiver : givesBonusUnits) {
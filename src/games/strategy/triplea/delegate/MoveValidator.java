@@ -11,8 +11,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import games.strategy.engine.data.GameData;
+import games.strategy.engine.data.MultiConditionRouteFinder;
 import games.strategy.engine.data.PlayerID;
 import games.strategy.engine.data.ResourceCollection;
 import games.strategy.engine.data.Route;
@@ -1519,6 +1521,51 @@ public class MoveValidator {
     return canCarry;
   }
 
+  /**
+   * The shortest routes from a territory for a player and kind of units, keeping to each combination of the conditions
+   * getBestRoute prefers.
+   */
+  private static final class BestRouteSearch {
+    private final Match<Territory> m_noNeutral = Matches.TerritoryIsNeutralButNotWater.invert();
+    private final Match<Territory> m_noAA;
+    private final Match<Territory> m_noEnemy;
+    private final MultiConditionRouteFinder m_finder;
+
+    private BestRouteSearch(final Territory start, final GameData data, final PlayerID player, final boolean hasLand,
+        final boolean hasAir, final boolean isNeutralsImpassable) {
+      m_noAA = Matches.territoryHasEnemyAAforAnything(player, data).invert();
+      m_noEnemy = Matches.territoryHasEnemyUnits(player, data).invert();
+      // no impassable or restricted territories
+      final CompositeMatchAnd<Territory> noImpassable =
+          new CompositeMatchAnd<>(Matches.TerritoryIsPassableAndNotRestricted(player, data));
+      // if we have air or land, we don't want to move over territories owned by players who's relationships will not
+      // let us move into them
+      if (hasAir) {
+        noImpassable.add(Matches.TerritoryAllowsCanMoveAirUnitsOverOwnedLand(player, data));
+      }
+      if (hasLand) {
+        noImpassable.add(Matches.TerritoryAllowsCanMoveLandUnitsOverOwnedLand(player, data));
+      }
+      if (isNeutralsImpassable) {
+        noImpassable.add(m_noNeutral);
+      }
+      m_finder = new MultiConditionRouteFinder(data.getMap(), start, noImpassable, Arrays.asList(
+          Matches.TerritoryIsLand, Matches.TerritoryIsWater, m_noNeutral, m_noAA, m_noEnemy));
+    }
+  }
+
+  private static BestRouteSearch getBestRouteSearch(final Territory start, final GameData data,
+      final PlayerID player, final boolean hasLand, final boolean hasAir, final boolean isNeutralsImpassable) {
+    // searches for getBestRoute, kept with the game data and dropped whenever it changes
+    final Map<List<Object>, BestRouteSearch> searches = data.getDerivedState(BestRouteSearch.class, d -> {
+      final Map<List<Object>, BestRouteSearch> newSearches = new ConcurrentHashMap<>();
+      d.addChangeRecorder(change -> newSearches.clear());
+      return newSearches;
+    });
+    return searches.computeIfAbsent(Arrays.asList(start, player, hasLand, hasAir, isNeutralsImpassable),
+        k -> new BestRouteSearch(start, data, player, hasLand, hasAir, isNeutralsImpassable));
+  }
+
   /**
    * Get the route ignoring forced territories
    */
@@ -1530,32 +1577,15 @@ public class MoveValidator {
     final boolean isNeutralsImpassable =
         isNeutralsImpassable(data) || (hasAir && !games.strategy.triplea.Properties.getNeutralFlyoverAllowed(data));
     // Ignore the end territory in our tests. it must be in the route, so it shouldn't affect the route choice
-    // final Match<Territory> territoryIsEnd = Matches.territoryIs(end);
-    // No neutral countries on route predicate
-    final Match<Territory> noNeutral = Matches.TerritoryIsNeutralButNotWater.invert();
-    // No aa guns on route predicate
-    final Match<Territory> noAA = Matches.territoryHasEnemyAAforAnything(player, data).invert();
-    // no enemy units on the route predicate
-    final Match<Territory> noEnemy = Matches.territoryHasEnemyUnits(player, data).invert();
-    // no impassable or restricted territories
-    final CompositeMatchAnd<Territory> noImpassable =
-        new CompositeMatchAnd<>(Matches.TerritoryIsPassableAndNotRestricted(player, data));
-    // if we have air or land, we don't want to move over territories owned by players who's relationships will not let
-    // us move into them
-    if (hasAir) {
-      noImpassable.add(Matches.TerritoryAllowsCanMoveAirUnitsOverOwnedLand(player, data));
-    }
-    if (hasLand) {
-      noImpassable.add(Matches.TerritoryAllowsCanMoveLandUnitsOverOwnedLand(player, data));
-    }
+    // all the routes come from one search, which keeps to no impassable or restricted territories (and no neutral
+    // territories when they are impassable)
+    final BestRouteSearch search = getBestRouteSearch(start, data, player, hasLand, hasAir, isNeutralsImpassable);
+    final MultiConditionRouteFinder finder = search.m_finder;
+    final Match<Territory> noNeutral = search.m_noNeutral;
+    final Match<Territory> noAA = search.m_noAA;
+    final Match<Territory> noEnemy = search.m_noEnemy;
     // now find the default route
-    Route defaultRoute;
-    if (isNeutralsImpassable) {
-      defaultRoute =
-          data.getMap().getRoute_IgnoreEnd(start, end, new CompositeMatchAnd<>(noNeutral, noImpassable));
-    } else {
-      defaultRoute = data.getMap().getRoute_IgnoreEnd(start, end, noImpassable);
-    }
+    Route defaultRoute = finder.getRoute(end, Collections.emptyList());
     // since all routes require at least noImpassable, then if we cannot find a route without impassables, just return
     // any route
     if (defaultRoute == null) {
@@ -1580,14 +1610,7 @@ public class MoveValidator {
     // If start and end are land, try a land route.
     // don't force a land route, since planes may be moving
     if (!start.isWater() && !end.isWater()) {
-      Route landRoute;
-      if (isNeutralsImpassable) {
-        landRoute = data.getMap().getRoute_IgnoreEnd(start, end,
-            new CompositeMatchAnd<>(Matches.TerritoryIsLand, noNeutral, noImpassable));
-      } else {
-        landRoute = data.getMap().getRoute_IgnoreEnd(start, end,
-            new CompositeMatchAnd<>(Matches.TerritoryIsLand, noImpassable));
-      }
+      final Route landRoute = finder.getRoute(end, Collections.singletonList(Matches.TerritoryIsLand));
       if (landRoute != null
           && ((landRoute.getLargestMovementCost(unitsWhichAreNotBeingTransportedOrDependent) <= defaultRoute
               .getLargestMovementCost(unitsWhichAreNotBeingTransportedOrDependent))
@@ -1600,9 +1623,7 @@ public class MoveValidator {
     // if the start and end are in water, try and get a water route
     // dont force a water route, since planes may be moving
     if (start.isWater() && end.isWater()) {
-      final Route waterRoute =
-          data.getMap().getRoute_IgnoreEnd(start, end,
-              new CompositeMatchAnd<>(Matches.TerritoryIsWater, noImpassable));
+      final Route waterRoute = finder.getRoute(end, Collections.singletonList(Matches.TerritoryIsWater));
       if (waterRoute != null
           && ((waterRoute.getLargestMovementCost(unitsWhichAreNotBeingTransportedOrDependent) <= defaultRoute
               .getLargestMovementCost(unitsWhichAreNotBeingTransportedOrDependent)) || (forceLandOrSeaRoute && Match
@@ -1613,32 +1634,25 @@ public class MoveValidator {
     }
     // these are the conditions we would like the route to satisfy, starting
     // with the most important
-    List<Match<Territory>> tests;
-    if (isNeutralsImpassable) {
-      tests = new ArrayList<>(Arrays.asList(
-          // best if no enemy and no neutral
-          new CompositeMatchAnd<>(noEnemy, noNeutral),
-          // we will be satisfied if no aa and no neutral
-          new CompositeMatchAnd<>(noAA, noNeutral)));
-    } else {
-      tests = new ArrayList<>(Arrays.asList(
-          // best if no enemy and no neutral
-          new CompositeMatchAnd<>(noEnemy, noNeutral),
-          // we will be satisfied if no aa and no neutral
-          new CompositeMatchAnd<>(noAA, noNeutral),
-          // single matches
-          noEnemy, noAA, noNeutral));
-    }
-    for (final Match<Territory> t : tests) {
-      Match<Territory> testMatch = null;
+    final List<List<Match<Territory>>> tests = new ArrayList<>(Arrays.asList(
+        // best if no enemy and no neutral
+        Arrays.asList(noEnemy, noNeutral),
+        // we will be satisfied if no aa and no neutral
+        Arrays.asList(noAA, noNeutral)));
+    if (!isNeutralsImpassable) {
+      // single matches
+      tests.add(Collections.singletonList(noEnemy));
+      tests.add(Collections.singletonList(noAA));
+      tests.add(Collections.singletonList(noNeutral));
+    }
+    for (final List<Match<Territory>> t : tests) {
+      final List<Match<Territory>> testMatches = new ArrayList<>(t);
       if (mustGoLand) {
-        testMatch = new CompositeMatchAnd<>(t, Matches.TerritoryIsLand, noImpassable);
+        testMatches.add(Matches.TerritoryIsLand);
       } else if (mustGoSea) {
-        testMatch = new CompositeMatchAnd<>(t, Matches.TerritoryIsWater, noImpassable);
-      } else {
-        testMatch = new CompositeMatchAnd<>(t, noImpassable);
+        testMatches.add(Matches.TerritoryIsWater);
       }
-      final Route testRoute = data.getMap().getRoute_IgnoreEnd(start, end, testMatch);
+      final Route testRoute = finder.getRoute(end, testMatches);
       if (testRoute != null
           && testRoute.getLargestMovementCost(unitsWhichAreNotBeingTransportedOrDependent) <= defaultRoute
               .getLargestMovementCost(unitsWhichAreNotBeingTransportedOrDependent)) {
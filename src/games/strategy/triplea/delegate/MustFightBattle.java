@@ -508,7 +508,7 @@ public class MustFightBattle extends AbstractBattle implements BattleStepStrings
       }
       if (!m_battleSite.isWater() && TechAttachment.isAirTransportable(m_attacker)) {
         final Collection<Unit> bombers =
-            Match.getMatches(m_battleSite.getUnits().getUnits(), Matches.UnitIsAirTransport);
+            m_battleSite.getUnits().getMatches(Matches.UnitIsAirTransport);
         if (!bombers.isEmpty()) {
           final Collection<Unit> dependents = getDependentUnits(bombers);
           if (!dependents.isEmpty()) {
@@ -848,7 +848,7 @@ public class MustFightBattle extends AbstractBattle implements BattleStepStrings
             matchAllied.add(Matches.UnitIsTransport);
             matchAllied.add(Matches.UnitIsNotCombatTransport);
             matchAllied.add(Matches.isUnitAllied(m_attacker, m_data));
-            final List<Unit> alliedTransports = Match.getMatches(m_battleSite.getUnits().getUnits(), matchAllied);
+            final List<Unit> alliedTransports = m_battleSite.getUnits().getMatches(matchAllied);
             // If no transports, just end the battle
             if (alliedTransports.isEmpty()) {
               endBattle(bridge);
@@ -858,7 +858,7 @@ public class MustFightBattle extends AbstractBattle implements BattleStepStrings
               // in and attacks
               // add back in the non-combat units (Trns)
               m_attackingUnits =
-                  Match.getMatches(m_battleSite.getUnits().getUnits(), Matches.unitIsOwnedBy(m_attacker));
+                  m_battleSite.getUnits().getMatches(Matches.unitIsOwnedBy(m_attacker));
             } else {
               endBattle(bridge);
               defenderWins(bridge);
@@ -1743,7 +1743,7 @@ public class MustFightBattle extends AbstractBattle implements BattleStepStrings
     matchAllied.add(Matches.UnitIsNotCombatTransport);
     matchAllied.add(Matches.isUnitAllied(player, m_data));
     matchAllied.add(Matches.UnitIsSea);
-    final List<Unit> alliedTransports = Match.getMatches(m_battleSite.getUnits().getUnits(), matchAllied);
+    final List<Unit> alliedTransports = m_battleSite.getUnits().getMatches(matchAllied);
     // If no transports, just return
     if (alliedTransports.isEmpty()) {
       return;
@@ -1753,7 +1753,7 @@ public class MustFightBattle extends AbstractBattle implements BattleStepStrings
     alliedUnitsMatch.add(Matches.isUnitAllied(player, m_data));
     alliedUnitsMatch.add(Matches.UnitIsNotLand);
     alliedUnitsMatch.add(new InverseMatch<>(Matches.unitIsSubmerged(m_data)));
-    final Collection<Unit> alliedUnits = Match.getMatches(m_battleSite.getUnits().getUnits(), alliedUnitsMatch);
+    final Collection<Unit> alliedUnits = m_battleSite.getUnits().getMatches(alliedUnitsMatch);
     // If transports are unescorted, check opposing forces to see if the Trns die automatically
     if (alliedTransports.size() == alliedUnits.size()) {
       // Get all the ENEMY sea and air units (that can attack) in the territory
@@ -1762,7 +1762,7 @@ public class MustFightBattle extends AbstractBattle implements BattleStepStrings
       // enemyUnitsMatch.add(Matches.UnitIsNotTransportButCouldBeCombatTransport);
       enemyUnitsMatch.add(Matches.unitIsNotSubmerged(m_data));
       enemyUnitsMatch.add(Matches.unitCanAttack(player));
-      final Collection<Unit> enemyUnits = Match.getMatches(m_battleSite.getUnits().getUnits(), enemyUnitsMatch);
+      final Collection<Unit> enemyUnits = m_battleSite.getUnits().getMatches(enemyUnitsMatch);
       // If there are attackers set their movement to 0 and kill the transports
       if (enemyUnits.size() > 0) {
         final Change change = ChangeFactory.markNoMovementChange(Match.getMatches(enemyUnits, Matches.UnitIsSea));
@@ -2366,7 +2366,7 @@ public class MustFightBattle extends AbstractBattle implements BattleStepStrings
   private void landParatroops(final IDelegateBridge bridge) {
     if (TechAttachment.isAirTransportable(m_attacker)) {
       final Collection<Unit> airTransports =
-          Match.getMatches(m_battleSite.getUnits().getUnits(), Matches.UnitIsAirTransport);
+          m_battleSite.getUnits().getMatches(Matches.UnitIsAirTransport);
       if (!airTransports.isEmpty()) {
         final Collection<Unit> dependents = getDependentUnits(airTransports);
         if (!dependents.isEmpty()) {
@@ -2645,7 +2645,7 @@ public class MustFightBattle extends AbstractBattle implements BattleStepStrings
     if (!carriers.isEmpty() && !games.strategy.triplea.Properties.getAlliedAirIndependent(data)) {
       final Match<Unit> alliedFighters = new CompositeMatchAnd<>(Matches.isUnitAllied(attacker, data),
           Matches.unitIsOwnedBy(attacker).invert(), Matches.UnitIsAir, Matches.UnitCanLandOnCarrier);
-      final Collection<Unit> alliedAirInTerr = Match.getMatches(battleSite.getUnits().getUnits(), alliedFighters);
+      final Collection<Unit> alliedAirInTerr = battleSite.getUnits().getMatches(alliedFighters);
       for (final Unit fighter : alliedAirInTerr) {
         final TripleAUnit taUnit = (TripleAUnit) fighter;
         if (taUnit.getTransportedBy() != null) {
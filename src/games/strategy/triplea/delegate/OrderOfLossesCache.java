@@ -0,0 +1,249 @@
+package games.strategy.triplea.delegate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import games.strategy.engine.data.PlayerID;
+import games.strategy.engine.data.Territory;
+import games.strategy.engine.data.Unit;
+import games.strategy.engine.data.UnitType;
+
+/**
+ * Remembers the order in which units of each type are taken as casualties, so the order has to be worked out only
+ * once for the same kinds of units in the same battle.
+ * <p>
+ * The least recently used orders are forgotten when there are too many, or when they take too much memory. Players,
+ * territories and unit types are stored as numbers, so the cache holds no references to the game data.
+ * </p>
+ */
+public final class OrderOfLossesCache {
+  static final int MAX_ENTRIES = 10000;
+  // about 4 MB
+  static final int MAX_STORED_VALUES = 1000000;
+  // the memory taken by an entry besides its arrays, counted in values
+  private static final int ENTRY_OVERHEAD = 24;
+  private final int m_maxEntries;
+  private final int m_maxStoredValues;
+  private final LinkedHashMap<Key, int[]> m_orders = new LinkedHashMap<>(16, 0.75f, true);
+  private final Map<String, Integer> m_playerIndices = new HashMap<>();
+  private final Map<String, Integer> m_territoryIndices = new HashMap<>();
+  private final Map<String, Integer> m_unitTypeIndices = new HashMap<>();
+  private int m_storedValues = 0;
+  private long m_hits = 0;
+  private long m_misses = 0;
+
+  private static final class Key {
+    private final int m_player;
+    private final int m_battlesite;
+    private final int m_flags;
+    // pairs of unit type index and count, the targets first then the amphibious land attackers
+    private final int[] m_units;
+    private final int m_hashCode;
+
+    private Key(final int player, final int battlesite, final int flags, final int[] units) {
+      m_player = player;
+      m_battlesite = battlesite;
+      m_flags = flags;
+      m_units = units;
+      m_hashCode = 31 * (31 * (31 * player + battlesite) + flags) + Arrays.hashCode(units);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      final Key other = (Key) o;
+      return m_hashCode == other.m_hashCode && m_player == other.m_player && m_battlesite == other.m_battlesite
+          && m_flags == other.m_flags && Arrays.equals(m_units, other.m_units);
+    }
+
+    @Override
+    public int hashCode() {
+      return m_hashCode;
+    }
+  }
+
+  public OrderOfLossesCache() {
+    this(MAX_ENTRIES, MAX_STORED_VALUES);
+  }
+
+  OrderOfLossesCache(final int maxEntries, final int maxStoredValues) {
+    m_maxEntries = maxEntries;
+    m_maxStoredValues = maxStoredValues;
+  }
+
+  /**
+   * @return the targets in the order they are taken as casualties, or null if the order is not known.
+   */
+  public synchronized List<Unit> get(final PlayerID player, final Territory battlesite, final boolean defending,
+      final boolean amphibious, final boolean bonus, final Collection<Unit> targets,
+      final Collection<Unit> amphibiousLandAttackers) {
+    final int[] order = m_orders.get(key(player, battlesite, defending, amphibious, bonus, typesOf(targets),
+        typesOf(amphibiousLandAttackers)));
+    if (order == null) {
+      m_misses++;
+      return null;
+    }
+    m_hits++;
+    final Map<Integer, ArrayDeque<Unit>> unitsByType = new HashMap<>();
+    for (final Unit unit : targets) {
+      unitsByType.computeIfAbsent(indexOf(unit.getType()), k -> new ArrayDeque<>()).add(unit);
+    }
+    final List<Unit> result = new ArrayList<>(order.length);
+    for (final int unitType : order) {
+      result.add(unitsByType.get(unitType).poll());
+    }
+    return result;
+  }
+
+  /**
+   * Remembers the order of the given targets, and of every battle that has the targets that are left after the
+   * first ones are taken as casualties.
+   */
+  public synchronized void put(final PlayerID player, final Territory battlesite, final boolean defending,
+      final boolean amphibious, final boolean bonus, final List<Unit> sortedTargets,
+      final Collection<Unit> amphibiousLandAttackers) {
+    final int[] order = typesOf(sortedTargets);
+    final int[] amphibiousTypes = typesOf(amphibiousLandAttackers);
+    final int[] targetCounts = count(order);
+    final int[] amphibiousCounts = count(amphibiousTypes);
+    final int playerIndex = index(m_playerIndices, player.getName());
+    final int battlesiteIndex = index(m_territoryIndices, battlesite.getName());
+    final int flags = flags(defending, amphibious, bonus);
+    for (int i = 0; i < order.length; i++) {
+      final int[] remaining = Arrays.copyOfRange(order, i, order.length);
+      final Key key = new Key(playerIndex, battlesiteIndex, flags, pack(targetCounts, amphibiousCounts));
+      final int[] old = m_orders.put(key, remaining);
+      m_storedValues += ENTRY_OVERHEAD + key.m_units.length + remaining.length;
+      if (old != null) {
+        m_storedValues -= ENTRY_OVERHEAD + key.m_units.length + old.length;
+      }
+      final int unitType = order[i];
+      targetCounts[unitType]--;
+      // no more amphibious land attackers of a type than targets
+      amphibiousCounts[unitType] = Math.min(amphibiousCounts[unitType], targetCounts[unitType]);
+    }
+    evict();
+  }
+
+  private void evict() {
+    final Iterator<Map.Entry<Key, int[]>> iter = m_orders.entrySet().iterator();
+    while (iter.hasNext() && (m_orders.size() > m_maxEntries || m_storedValues > m_maxStoredValues)) {
+      final Map.Entry<Key, int[]> eldest = iter.next();
+      m_storedValues -= ENTRY_OVERHEAD + eldest.getKey().m_units.length + eldest.getValue().length;
+      iter.remove();
+    }
+  }
+
+  public synchronized void clear() {
+    m_orders.clear();
+    m_storedValues = 0;
+  }
+
+  public synchronized int size() {
+    return m_orders.size();
+  }
+
+  public synchronized long getHits() {
+    return m_hits;
+  }
+
+  public synchronized long getMisses() {
+    return m_misses;
+  }
+
+  /**
+   * @return the share of orders that were found in the cache, between 0 and 1.
+   */
+  public synchronized double getHitRate() {
+    final long lookups = m_hits + m_misses;
+    return lookups == 0 ? 0 : (double) m_hits / lookups;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "OrderOfLossesCache: size=" + m_orders.size() + ", storedValues=" + m_storedValues + ", hits=" + m_hits
+        + ", misses=" + m_misses + ", hitRate=" + getHitRate();
+  }
+
+  private Key key(final PlayerID player, final Territory battlesite, final boolean defending,
+      final boolean amphibious, final boolean bonus, final int[] targetTypes, final int[] amphibiousTypes) {
+    return new Key(index(m_playerIndices, player.getName()), index(m_territoryIndices, battlesite.getName()),
+        flags(defending, amphibious, bonus), pack(count(targetTypes), count(amphibiousTypes)));
+  }
+
+  /**
+   * @return how many of each unit type there are, by unit type index.
+   */
+  private int[] count(final int[] unitTypes) {
+    final int[] counts = new int[m_unitTypeIndices.size()];
+    for (final int unitType : unitTypes) {
+      counts[unitType]++;
+    }
+    return counts;
+  }
+
+  private static int flags(final boolean defending, final boolean amphibious, final boolean bonus) {
+    return (defending ? 1 : 0) | (amphibious ? 2 : 0) | (bonus ? 4 : 0);
+  }
+
+  /**
+   * @return the index and count of every unit type with a count, first for the targets then for the amphibious land
+   *         attackers, separated by -1.
+   */
+  private static int[] pack(final int[] targetCounts, final int[] amphibiousCounts) {
+    int length = 1;
+    for (int i = 0; i < targetCounts.length; i++) {
+      length += (targetCounts[i] > 0 ? 2 : 0) + (amphibiousCounts[i] > 0 ? 2 : 0);
+    }
+    final int[] packed = new int[length];
+    int j = 0;
+    for (int i = 0; i < targetCounts.length; i++) {
+      if (targetCounts[i] > 0) {
+        packed[j++] = i;
+        packed[j++] = targetCounts[i];
+      }
+    }
+    packed[j++] = -1;
+    for (int i = 0; i < amphibiousCounts.length; i++) {
+      if (amphibiousCounts[i] > 0) {
+        packed[j++] = i;
+        packed[j++] = amphibiousCounts[i];
+      }
+    }
+    return packed;
+  }
+
+  private int[] typesOf(final Collection<Unit> units) {
+    if (units == null) {
+      return new int[0];
+    }
+    final int[] types = new int[units.size()];
+    int i = 0;
+    for (final Unit unit : units) {
+      types[i++] = indexOf(unit.getType());
+    }
+    return types;
+  }
+
+  private int indexOf(final UnitType unitType) {
+    return index(m_unitTypeIndices, unitType.getName());
+  }
+
+  private static int index(final Map<String, Integer> indices, final String name) {
+    final Integer index = indices.get(name);
+    if (index != null) {
+      return index;
+    }
+    indices.put(name, indices.size());
+    return indices.size() - 1;
+  }
+}
@@ -131,7 +131,7 @@ public class RandomStartDelegate extends BaseTripleADelegate {
           if (!allPickableTerritories.contains(picked)
               || !m_currentPickingPlayer.getUnits().getUnits().containsAll(unitsToPlace)
               || unitsToPlace.size() > UNITS_PER_PICK || (unitsToPlace.size() < UNITS_PER_PICK
-                  && unitsToPlace.size() < m_currentPickingPlayer.getUnits().getUnits().size())) {
+                  && unitsToPlace.size() < m_currentPickingPlayer.getUnits().size())) {
             getRemotePlayer(m_currentPickingPlayer).reportMessage("Chosen territory or units invalid!",
                 "Chosen territory or units invalid!");
           } else {
@@ -178,7 +178,7 @@ public class RandomStartDelegate extends BaseTripleADelegate {
         if (!territoriesToPickFrom.contains(picked)
             || !m_currentPickingPlayer.getUnits().getUnits().containsAll(unitsToPlace)
             || unitsToPlace.size() > UNITS_PER_PICK || (unitsToPlace.size() < UNITS_PER_PICK
-                && unitsToPlace.size() < m_currentPickingPlayer.getUnits().getUnits().size())) {
+                && unitsToPlace.size() < m_currentPickingPlayer.getUnits().size())) {
           getRemotePlayer(m_currentPickingPlayer).reportMessage("Chosen territory or units invalid!",
               "Chosen territory or units invalid!");
         } else {
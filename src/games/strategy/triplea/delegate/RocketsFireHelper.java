@@ -190,7 +190,7 @@ public class RocketsFireHelper {
     if (attackFrom == null) {
       rockets = null;
     } else {
-      rockets = new ArrayList<>(Match.getMatches(attackFrom.getUnits().getUnits(), rocketMatch(player, data)));
+      rockets = new ArrayList<>(attackFrom.getUnits().getMatches(rocketMatch(player, data)));
     }
     final int numberOfAttacks = (rockets == null ? 1
         : Math.min(TechAbilityAttachment.getRocketNumberPerTerritory(player, data),
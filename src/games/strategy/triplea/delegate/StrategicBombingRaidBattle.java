@@ -85,7 +85,7 @@ public class StrategicBombingRaidBattle extends AbstractBattle implements Battle
     m_attackingUnits.retainAll(m_battleSite.getUnits().getUnits());
     final Iterator<Unit> iter = m_targets.keySet().iterator();
     while (iter.hasNext()) {
-      if (!m_battleSite.getUnits().getUnits().contains(iter.next())) {
+      if (!m_battleSite.getUnits().contains(iter.next())) {
         iter.remove();
       }
     }
@@ -100,10 +100,10 @@ public class StrategicBombingRaidBattle extends AbstractBattle implements Battle
             Matches.UnitIsAAthatCanFire(m_attackingUnits, airborneTechTargetsAllowed, m_attacker,
                 Matches.UnitIsAAforBombingThisUnitOnly, m_round, true, m_data)));
     if (m_targets.isEmpty()) {
-      m_defendingUnits = Match.getMatches(m_battleSite.getUnits().getUnits(), defenders);
+      m_defendingUnits = m_battleSite.getUnits().getMatches(defenders);
     } else {
       final List<Unit> targets =
-          Match.getMatches(m_battleSite.getUnits().getUnits(), Matches.UnitIsAAthatCanFire(m_attackingUnits,
+          m_battleSite.getUnits().getMatches(Matches.UnitIsAAthatCanFire(m_attackingUnits,
               airborneTechTargetsAllowed, m_attacker, Matches.UnitIsAAforBombingThisUnitOnly, m_round, true, m_data));
       targets.addAll(m_targets.keySet());
       m_defendingUnits = targets;
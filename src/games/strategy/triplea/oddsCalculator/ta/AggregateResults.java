@@ -3,7 +3,9 @@ package games.strategy.triplea.oddsCalculator.ta;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import games.strategy.engine.data.GameData;
 import games.strategy.engine.data.PlayerID;
@@ -13,44 +15,139 @@ import games.strategy.triplea.delegate.BattleCalculator;
 import games.strategy.util.IntegerMap;
 import games.strategy.util.Tuple;
 
+/**
+ * The combined results of many simulated battles.
+ * The results are not kept, each one only updates running totals, so the memory used does not grow with the number
+ * of battles. For the battle closest to the average we keep the first battle for each combination of attacking and
+ * defending combat units left, which is all we need to find it once the averages are known.
+ */
 public class AggregateResults implements Serializable {
-  private static final long serialVersionUID = -556699626060414738L;
-  // can be empty!
-  private final List<BattleResults> m_results;
+  private static final long serialVersionUID = 4036251476349553263L;
+  // for 95% confidence intervals
+  private static final double CONFIDENCE_Z = 1.96;
+  // can be zero!
+  private int m_rollCount = 0;
+  private long m_attackingCombatUnitsLeft = 0;
+  private long m_defendingCombatUnitsLeft = 0;
+  private int m_attackerWins = 0;
+  private long m_attackingCombatUnitsLeftWhenAttackerWon = 0;
+  private int m_defenderWins = 0;
+  private long m_defendingCombatUnitsLeftWhenDefenderWon = 0;
+  private int m_draws = 0;
+  private long m_battleRoundsFought = 0;
+  // how many of each unit type were left over, summed over all battles
+  private final IntegerMap<UnitType> m_remainingAttackingUnitTypes = new IntegerMap<>();
+  private final IntegerMap<UnitType> m_remainingDefendingUnitTypes = new IntegerMap<>();
+  // the first battle for each combination of attacking and defending combat units left
+  private final Map<Long, Candidate> m_candidates = new HashMap<>();
   private long m_time;
 
-  public AggregateResults(final int expectedCount) {
-    m_results = new ArrayList<>(expectedCount);
+  private static final class Candidate implements Serializable {
+    private static final long serialVersionUID = -3296185853796281305L;
+    private final int m_index;
+    private final BattleResults m_result;
+
+    private Candidate(final int index, final BattleResults result) {
+      m_index = index;
+      m_result = result;
+    }
+  }
+
+  /**
+   * @param expectedCount
+   *        the number of battles we expect, not needed anymore as the results are not kept.
+   */
+  public AggregateResults(final int expectedCount) {}
+
+  /**
+   * A copy of the given results.
+   */
+  protected AggregateResults(final AggregateResults results) {
+    addResults(results);
+    m_time = results.m_time;
   }
 
   public void addResult(final BattleResults result) {
-    m_results.add(result);
+    final int attackingLeft = result.getAttackingCombatUnitsLeft();
+    final int defendingLeft = result.getDefendingCombatUnitsLeft();
+    m_attackingCombatUnitsLeft += attackingLeft;
+    m_defendingCombatUnitsLeft += defendingLeft;
+    if (result.attackerWon()) {
+      m_attackerWins++;
+      m_attackingCombatUnitsLeftWhenAttackerWon += attackingLeft;
+    } else if (result.defenderWon()) {
+      m_defenderWins++;
+      m_defendingCombatUnitsLeftWhenDefenderWon += defendingLeft;
+    } else {
+      m_draws++;
+    }
+    m_battleRoundsFought += result.getBattleRoundsFought();
+    for (final Unit unit : result.getRemainingAttackingUnits()) {
+      m_remainingAttackingUnitTypes.add(unit.getType(), 1);
+    }
+    for (final Unit unit : result.getRemainingDefendingUnits()) {
+      m_remainingDefendingUnitTypes.add(unit.getType(), 1);
+    }
+    final Long key = candidateKey(attackingLeft, defendingLeft);
+    if (!m_candidates.containsKey(key)) {
+      m_candidates.put(key, new Candidate(m_rollCount, result));
+    }
+    m_rollCount++;
   }
 
   public void addResults(final Collection<BattleResults> results) {
-    m_results.addAll(results);
+    for (final BattleResults result : results) {
+      addResult(result);
+    }
+  }
+
+  /**
+   * Adds the results of other battles, as if they had been added one by one after ours.
+   */
+  public void addResults(final AggregateResults results) {
+    m_attackingCombatUnitsLeft += results.m_attackingCombatUnitsLeft;
+    m_defendingCombatUnitsLeft += results.m_defendingCombatUnitsLeft;
+    m_attackerWins += results.m_attackerWins;
+    m_attackingCombatUnitsLeftWhenAttackerWon += results.m_attackingCombatUnitsLeftWhenAttackerWon;
+    m_defenderWins += results.m_defenderWins;
+    m_defendingCombatUnitsLeftWhenDefenderWon += results.m_defendingCombatUnitsLeftWhenDefenderWon;
+    m_draws += results.m_draws;
+    m_battleRoundsFought += results.m_battleRoundsFought;
+    m_remainingAttackingUnitTypes.add(results.m_remainingAttackingUnitTypes);
+    m_remainingDefendingUnitTypes.add(results.m_remainingDefendingUnitTypes);
+    for (final Map.Entry<Long, Candidate> entry : results.m_candidates.entrySet()) {
+      if (!m_candidates.containsKey(entry.getKey())) {
+        final Candidate candidate = entry.getValue();
+        m_candidates.put(entry.getKey(), new Candidate(m_rollCount + candidate.m_index, candidate.m_result));
+      }
+    }
+    m_rollCount += results.m_rollCount;
   }
 
-  public List<BattleResults> getResults() {
-    return m_results;
+  private static Long candidateKey(final int attackingLeft, final int defendingLeft) {
+    return ((long) attackingLeft << 32) | defendingLeft;
   }
 
   /**
    * This could be null if we have zero results!
    */
   public BattleResults getBattleResultsClosestToAverage() {
+    final double averageAttackingUnitsLeft = getAverageAttackingUnitsLeft();
+    final double averageDefendingUnitsLeft = getAverageDefendingUnitsLeft();
     double closestBattleDif = Integer.MAX_VALUE;
-    BattleResults closestBattle = null;
-    for (final BattleResults results : m_results) {
-      double dif = Math.abs(results.getAttackingCombatUnitsLeft() - getAverageAttackingUnitsLeft());
-      dif += Math.abs(results.getDefendingCombatUnitsLeft() - getAverageDefendingUnitsLeft());
-      if (dif < closestBattleDif) {
+    Candidate closestBattle = null;
+    for (final Candidate candidate : m_candidates.values()) {
+      double dif = Math.abs(candidate.m_result.getAttackingCombatUnitsLeft() - averageAttackingUnitsLeft);
+      dif += Math.abs(candidate.m_result.getDefendingCombatUnitsLeft() - averageDefendingUnitsLeft);
+      // on a tie the earliest battle wins
+      if (dif < closestBattleDif
+          || (dif == closestBattleDif && closestBattle != null && candidate.m_index < closestBattle.m_index)) {
         closestBattleDif = dif;
-        closestBattle = results;
+        closestBattle = candidate;
       }
     }
     // can be null!
-    return closestBattle;
+    return closestBattle == null ? null : closestBattle.m_result;
   }
 
   public List<Unit> getAverageAttackingUnitsRemaining() {
@@ -66,15 +163,10 @@ public class AggregateResults implements Serializable {
   }
 
   public double getAverageAttackingUnitsLeft() {
-    if (m_results.isEmpty()) // can be empty!
-    {
+    if (m_rollCount == 0) {
       return 0.0;
     }
-    double count = 0;
-    for (final BattleResults result : m_results) {
-      count += result.getAttackingCombatUnitsLeft();
-    }
-    return count / m_results.size();
+    return (double) m_attackingCombatUnitsLeft / m_rollCount;
   }
 
   /**
@@ -82,23 +174,25 @@ public class AggregateResults implements Serializable {
    */
   public Tuple<Double, Double> getAverageTUVofUnitsLeftOver(final IntegerMap<UnitType> attackerCostsForTUV,
       final IntegerMap<UnitType> defenderCostsForTUV) {
-    if (m_results.isEmpty()) // can be empty!
-    {
+    if (m_rollCount == 0) {
       return Tuple.of(0.0, 0.0);
     }
-    double attackerTUV = 0;
-    double defenderTUV = 0;
-    for (final BattleResults result : m_results) {
-      attackerTUV += BattleCalculator.getTUV(result.getRemainingAttackingUnits(), attackerCostsForTUV);
-      defenderTUV += BattleCalculator.getTUV(result.getRemainingDefendingUnits(), defenderCostsForTUV);
+    final double attackerTUV = getTUV(m_remainingAttackingUnitTypes, attackerCostsForTUV);
+    final double defenderTUV = getTUV(m_remainingDefendingUnitTypes, defenderCostsForTUV);
+    return Tuple.of(attackerTUV / m_rollCount, defenderTUV / m_rollCount);
+  }
+
+  private static long getTUV(final IntegerMap<UnitType> unitTypes, final IntegerMap<UnitType> costs) {
+    long tuv = 0;
+    for (final UnitType unitType : unitTypes.keySet()) {
+      tuv += (long) unitTypes.getInt(unitType) * costs.getInt(unitType);
     }
-    return Tuple.of(attackerTUV / m_results.size(), defenderTUV / m_results.size());
+    return tuv;
   }
 
   public double getAverageTUVswing(final PlayerID attacker, final Collection<Unit> attackers, final PlayerID defender,
       final Collection<Unit> defenders, final GameData data) {
-    if (m_results.isEmpty()) // can be empty!
-    {
+    if (m_rollCount == 0) {
       return 0.0;
     }
     final IntegerMap<UnitType> attackerCostsForTUV = BattleCalculator.getCostsForTUV(attacker, data);
@@ -113,115 +207,75 @@ public class AggregateResults implements Serializable {
   }
 
   public double getAverageAttackingUnitsLeftWhenAttackerWon() {
-    if (m_results.isEmpty()) // can be empty!
-    {
+    if (m_attackerWins == 0) {
       return 0.0;
     }
-    double count = 0;
-    double total = 0;
-    for (final BattleResults result : m_results) {
-      if (result.attackerWon()) {
-        count += result.getAttackingCombatUnitsLeft();
-        total += 1;
-      }
-    }
-    if (total <= 0) {
-      return 0;
-    }
-    return count / total;
+    return (double) m_attackingCombatUnitsLeftWhenAttackerWon / m_attackerWins;
   }
 
   public double getAverageDefendingUnitsLeft() {
-    if (m_results.isEmpty()) // can be empty!
-    {
+    if (m_rollCount == 0) {
       return 0.0;
     }
-    double count = 0;
-    for (final BattleResults result : m_results) {
-      count += result.getDefendingCombatUnitsLeft();
-    }
-    return count / m_results.size();
+    return (double) m_defendingCombatUnitsLeft / m_rollCount;
   }
 
   public double getAverageDefendingUnitsLeftWhenDefenderWon() {
-    if (m_results.isEmpty()) // can be empty!
-    {
+    if (m_defenderWins == 0) {
       return 0.0;
     }
-    double count = 0;
-    double total = 0;
-    for (final BattleResults result : m_results) {
-      if (result.defenderWon()) {
-        count += result.getDefendingCombatUnitsLeft();
-        total += 1;
-      }
-    }
-    if (total <= 0) {
-      return 0;
-    }
-    return count / total;
+    return (double) m_defendingCombatUnitsLeftWhenDefenderWon / m_defenderWins;
   }
 
   public double getAttackerWinPercent() {
-    if (m_results.isEmpty()) // can be empty!
-    {
+    if (m_rollCount == 0) {
       return 0.0;
     }
-    double count = 0;
-    for (final BattleResults result : m_results) {
-      if (result.attackerWon()) {
-        count++;
-      }
+    return (double) m_attackerWins / m_rollCount;
+  }
+
+  /**
+   * Half the width of the 95% confidence interval of the attacker win percent, for example 0.02 for +-2%.
+   * This is a Wilson score interval, which unlike the usual normal interval does not shrink to nothing when every
+   * battle so far had the same outcome.
+   */
+  public double getAttackerWinPercentPrecision() {
+    if (m_rollCount == 0) {
+      return 0.5;
     }
-    return count / m_results.size();
+    final double winPercent = getAttackerWinPercent();
+    final double z2 = CONFIDENCE_Z * CONFIDENCE_Z;
+    final double n = m_rollCount;
+    return CONFIDENCE_Z * Math.sqrt(winPercent * (1 - winPercent) / n + z2 / (4 * n * n)) / (1 + z2 / n);
   }
 
   public double getDefenderWinPercent() {
-    if (m_results.isEmpty()) // can be empty!
-    {
+    if (m_rollCount == 0) {
       return 0.0;
     }
-    double count = 0;
-    for (final BattleResults result : m_results) {
-      if (result.defenderWon()) {
-        count++;
-      }
-    }
-    return count / m_results.size();
+    return (double) m_defenderWins / m_rollCount;
   }
 
   public double getAverageBattleRoundsFought() {
-    if (m_results.isEmpty()) // can be empty!
-    {
+    if (m_rollCount == 0) {
       return 0.0;
     }
-    double count = 0;
-    for (final BattleResults result : m_results) {
-      count += result.getBattleRoundsFought();
-    }
-    if (count == 0) {
+    if (m_battleRoundsFought == 0) {
       // If this is a 'fake' aggregate result, return 1.0
       return 1.0;
     }
-    return count / m_results.size();
+    return (double) m_battleRoundsFought / m_rollCount;
   }
 
   public double getDrawPercent() {
-    if (m_results.isEmpty()) // can be empty!
-    {
+    if (m_rollCount == 0) {
       return 0.0;
     }
-    double count = 0;
-    for (final BattleResults result : m_results) {
-      if (result.draw()) {
-        count++;
-      }
-    }
-    return count / m_results.size();
+    return (double) m_draws / m_rollCount;
   }
 
   public int getRollCount() {
-    return m_results.size();
+    return m_rollCount;
   }
 
   public long getTime() {
@@ -0,0 +1,336 @@
+package games.strategy.triplea.oddsCalculator.ta;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import games.strategy.engine.data.GameData;
+import games.strategy.engine.data.PlayerID;
+import games.strategy.engine.data.Territory;
+import games.strategy.engine.data.TerritoryEffect;
+import games.strategy.engine.data.Unit;
+import games.strategy.engine.data.changefactory.ChangeFactory;
+import games.strategy.engine.data.events.GameDataChangeListener;
+import games.strategy.triplea.TripleAUnit;
+
+/**
+ * Remembers the results of another odds calculator, so asking about the same battle again returns at once.
+ * Battles are the same when the same kinds of units (type, owner, damage and the like) fight in the same territory
+ * with the same settings, the units themselves may be different ones. The units remaining in the results are then
+ * the equivalent units of the battle asked about.
+ * <p>
+ * The results are forgotten when the game data is replaced, and when a change is made to it that may change how battles
+ * are fought (anything but unit, owner and resource changes, for example techs, relationships and properties).
+ * </p>
+ */
+public class CachingOddsCalculator implements IOddsCalculator {
+  private static final int MAX_CACHED_RESULTS = 1000;
+  private final IOddsCalculator m_calculator;
+  private final Map<List<Object>, CachedBattle> m_cache = new LinkedHashMap<List<Object>, CachedBattle>(16, 0.75f,
+      true) {
+    private static final long serialVersionUID = -2430815208311839447L;
+
+    @Override
+    protected boolean removeEldestEntry(final Map.Entry<List<Object>, CachedBattle> eldest) {
+      return size() > MAX_CACHED_RESULTS;
+    }
+  };
+  private final Object m_mutexData = new Object();
+  private GameData m_data = null;
+  private volatile boolean m_isCacheStale = false;
+  private final GameDataChangeListener m_changeRecorder = change -> {
+    if (!ChangeFactory.isUnitOwnerOrResourceChange(change)) {
+      m_isCacheStale = true;
+    }
+  };
+  private volatile boolean m_cancelled = false;
+  private int m_hits = 0;
+  private int m_misses = 0;
+  // the battle to calculate
+  private PlayerID m_attacker = null;
+  private PlayerID m_defender = null;
+  private Territory m_location = null;
+  private Collection<Unit> m_attackingUnits = null;
+  private Collection<Unit> m_defendingUnits = null;
+  private Collection<Unit> m_bombardingUnits = null;
+  private Collection<TerritoryEffect> m_territoryEffects = null;
+  private int m_runCount = 0;
+  private boolean m_isCalcSet = false;
+  // the settings the battle is calculated with
+  private boolean m_keepOneAttackingLandUnit = false;
+  private boolean m_amphibious = false;
+  private int m_retreatAfterRound = -1;
+  private int m_retreatAfterXUnitsLeft = -1;
+  private boolean m_retreatWhenOnlyAirLeft = false;
+  private String m_attackerOrderOfLosses = null;
+  private String m_defenderOrderOfLosses = null;
+  private double m_targetPrecision = 0;
+
+  private static final class CachedBattle {
+    private final AggregateResults m_results;
+    private final Map<String, List<Unit>> m_units;
+
+    private CachedBattle(final AggregateResults results, final Map<String, List<Unit>> units) {
+      m_results = results;
+      m_units = units;
+    }
+  }
+
+  /**
+   * Cached results for another battle, with the remaining units translated into the units of this battle.
+   */
+  private static final class TranslatedResults extends AggregateResults {
+    private static final long serialVersionUID = 8466315284768941651L;
+    private final Map<Unit, Unit> m_translation;
+
+    private TranslatedResults(final AggregateResults results, final Map<Unit, Unit> translation) {
+      super(results);
+      m_translation = translation;
+    }
+
+    private List<Unit> translate(final List<Unit> units) {
+      final List<Unit> translated = new ArrayList<>(units.size());
+      for (final Unit unit : units) {
+        final Unit translatedUnit = m_translation.get(unit);
+        translated.add(translatedUnit == null ? unit : translatedUnit);
+      }
+      return translated;
+    }
+
+    @Override
+    public List<Unit> getAverageAttackingUnitsRemaining() {
+      return translate(super.getAverageAttackingUnitsRemaining());
+    }
+
+    @Override
+    public List<Unit> getAverageDefendingUnitsRemaining() {
+      return translate(super.getAverageDefendingUnitsRemaining());
+    }
+  }
+
+  public CachingOddsCalculator(final IOddsCalculator calculator) {
+    m_calculator = calculator;
+  }
+
+  @Override
+  public void setGameData(final GameData data) {
+    synchronized (m_mutexData) {
+      if (data != m_data) {
+        if (m_data != null) {
+          m_data.removeChangeRecorder(m_changeRecorder);
+        }
+        m_data = data;
+        if (data != null) {
+          data.addChangeRecorder(m_changeRecorder);
+        }
+        m_isCacheStale = true;
+      }
+    }
+    m_calculator.setGameData(data);
+  }
+
+  @Override
+  public synchronized void setCalculateData(final PlayerID attacker, final PlayerID defender, final Territory location,
+      final Collection<Unit> attacking, final Collection<Unit> defending, final Collection<Unit> bombarding,
+      final Collection<TerritoryEffect> territoryEffects, final int runCount) {
+    m_attacker = attacker;
+    m_defender = defender;
+    m_location = location;
+    m_attackingUnits = new ArrayList<>(attacking);
+    m_defendingUnits = new ArrayList<>(defending);
+    m_bombardingUnits = new ArrayList<>(bombarding);
+    m_territoryEffects = new ArrayList<>(territoryEffects);
+    m_runCount = runCount;
+    m_isCalcSet = true;
+  }
+
+  @Override
+  public synchronized AggregateResults calculate() {
+    if (!m_isCalcSet) {
+      throw new IllegalStateException("Called calculate before setting calculate data!");
+    }
+    m_cancelled = false;
+    if (m_isCacheStale) {
+      m_isCacheStale = false;
+      m_cache.clear();
+    }
+    final Map<String, List<Unit>> units = new HashMap<>();
+    final List<Object> key = Arrays.asList(nameOf(m_attacker), nameOf(m_defender), m_location.getName(),
+        nameOf(m_location.getOwner()), unitKeys(m_attackingUnits, "attacking", units),
+        unitKeys(m_defendingUnits, "defending", units), unitKeys(m_bombardingUnits, "bombarding", units),
+        territoryEffectNames(), m_runCount, m_keepOneAttackingLandUnit, m_amphibious, m_retreatAfterRound,
+        m_retreatAfterXUnitsLeft, m_retreatWhenOnlyAirLeft, m_attackerOrderOfLosses, m_defenderOrderOfLosses,
+        m_targetPrecision);
+    final CachedBattle cached = m_cache.get(key);
+    if (cached != null) {
+      m_hits++;
+      final Map<Unit, Unit> translation = new HashMap<>();
+      for (final Map.Entry<String, List<Unit>> entry : cached.m_units.entrySet()) {
+        final List<Unit> cachedUnits = entry.getValue();
+        final List<Unit> ourUnits = units.get(entry.getKey());
+        for (int i = 0; i < cachedUnits.size(); i++) {
+          translation.put(cachedUnits.get(i), ourUnits.get(i));
+        }
+      }
+      return new TranslatedResults(cached.m_results, translation);
+    }
+    m_misses++;
+    final AggregateResults results = m_calculator.setCalculateDataAndCalculate(m_attacker, m_defender, m_location,
+        m_attackingUnits, m_defendingUnits, m_bombardingUnits, m_territoryEffects, m_runCount);
+    // cancelled results may be missing runs
+    if (!m_cancelled && results.getRollCount() > 0) {
+      m_cache.put(key, new CachedBattle(results, units));
+    }
+    return results;
+  }
+
+  private static String nameOf(final PlayerID player) {
+    return player == null ? PlayerID.NULL_PLAYERID.getName() : player.getName();
+  }
+
+  /**
+   * Counts the kinds of units fighting, and adds the units of each kind to the given map.
+   */
+  private static Map<String, Integer> unitKeys(final Collection<Unit> units, final String side,
+      final Map<String, List<Unit>> unitsByKey) {
+    final Map<String, Integer> count = new TreeMap<>();
+    for (final Unit unit : units) {
+      final TripleAUnit taUnit = TripleAUnit.get(unit);
+      final String key = unit.getType().getName() + "," + nameOf(unit.getOwner()) + "," + unit.getHits() + ","
+          + taUnit.getUnitDamage() + "," + taUnit.getSubmerged() + "," + taUnit.getWasAmphibious() + ","
+          + taUnit.getDisabled() + "," + (taUnit.getTransportedBy() != null);
+      count.merge(key, 1, Integer::sum);
+      unitsByKey.computeIfAbsent(side + "," + key, k -> new ArrayList<>()).add(unit);
+    }
+    return count;
+  }
+
+  private TreeSet<String> territoryEffectNames() {
+    final TreeSet<String> names = new TreeSet<>();
+    for (final TerritoryEffect territoryEffect : m_territoryEffects) {
+      names.add(territoryEffect.getName());
+    }
+    return names;
+  }
+
+  @Override
+  public AggregateResults setCalculateDataAndCalculate(final PlayerID attacker, final PlayerID defender,
+      final Territory location, final Collection<Unit> attacking, final Collection<Unit> defending,
+      final Collection<Unit> bombarding, final Collection<TerritoryEffect> territoryEffects, final int runCount) {
+    synchronized (this) {
+      setCalculateData(attacker, defender, location, attacking, defending, bombarding, territoryEffects, runCount);
+      return calculate();
+    }
+  }
+
+  /**
+   * @return how often the results were found in the cache.
+   */
+  public synchronized int getHits() {
+    return m_hits;
+  }
+
+  /**
+   * @return how often the results had to be calculated.
+   */
+  public synchronized int getMisses() {
+    return m_misses;
+  }
+
+  @Override
+  public int getRunCount() {
+    return m_runCount;
+  }
+
+  @Override
+  public boolean getIsReady() {
+    return m_isCalcSet && m_calculator.getIsReady();
+  }
+
+  @Override
+  public synchronized void setKeepOneAttackingLandUnit(final boolean bool) {
+    m_keepOneAttackingLandUnit = bool;
+    m_calculator.setKeepOneAttackingLandUnit(bool);
+  }
+
+  @Override
+  public synchronized void setAmphibious(final boolean bool) {
+    m_amphibious = bool;
+    m_calculator.setAmphibious(bool);
+  }
+
+  @Override
+  public synchronized void setRetreatAfterRound(final int value) {
+    m_retreatAfterRound = value;
+    m_calculator.setRetreatAfterRound(value);
+  }
+
+  @Override
+  public synchronized void setRetreatAfterXUnitsLeft(final int value) {
+    m_retreatAfterXUnitsLeft = value;
+    m_calculator.setRetreatAfterXUnitsLeft(value);
+  }
+
+  @Override
+  public synchronized void setRetreatWhenOnlyAirLeft(final boolean value) {
+    m_retreatWhenOnlyAirLeft = value;
+    m_calculator.setRetreatWhenOnlyAirLeft(value);
+  }
+
+  @Override
+  public synchronized void setAttackerOrderOfLosses(final String attackerOrderOfLosses) {
+    m_attackerOrderOfLosses = attackerOrderOfLosses;
+    m_calculator.setAttackerOrderOfLosses(attackerOrderOfLosses);
+  }
+
+  @Override
+  public synchronized void setDefenderOrderOfLosses(final String defenderOrderOfLosses) {
+    m_defenderOrderOfLosses = defenderOrderOfLosses;
+    m_calculator.setDefenderOrderOfLosses(defenderOrderOfLosses);
+  }
+
+  @Override
+  public synchronized void setTargetPrecision(final double precision) {
+    m_targetPrecision = precision;
+    m_calculator.setTargetPrecision(precision);
+  }
+
+  // not synchronized, we need to be able to cancel at any time
+  @Override
+  public void cancel() {
+    m_cancelled = true;
+    m_calculator.cancel();
+  }
+
+  @Override
+  public void shutdown() {
+    synchronized (m_mutexData) {
+      if (m_data != null) {
+        m_data.removeChangeRecorder(m_changeRecorder);
+        m_data = null;
+      }
+    }
+    m_calculator.shutdown();
+  }
+
+  @Override
+  public int getThreadCount() {
+    return m_calculator.getThreadCount();
+  }
+
+  @Override
+  public void addOddsCalculatorListener(final OddsCalculatorListener listener) {
+    m_calculator.addOddsCalculatorListener(listener);
+  }
+
+  @Override
+  public void removeOddsCalculatorListener(final OddsCalculatorListener listener) {
+    m_calculator.removeOddsCalculatorListener(listener);
+  }
+}
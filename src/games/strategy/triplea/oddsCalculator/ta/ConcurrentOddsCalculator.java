@@ -13,24 +13,37 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import games.strategy.engine.data.Change;
+import games.strategy.engine.data.CompositeChange;
 import games.strategy.engine.data.GameData;
 import games.strategy.engine.data.PlayerID;
 import games.strategy.engine.data.Territory;
 import games.strategy.engine.data.TerritoryEffect;
 import games.strategy.engine.data.Unit;
+import games.strategy.engine.data.events.GameDataChangeListener;
 import games.strategy.engine.framework.GameDataUtils;
 import games.strategy.util.CountUpAndDownLatch;
 
 /**
- * Concurrent wrapper class for the OddsCalculator. It spawns multiple worker threads and splits up the run count
- * across these workers. This is mainly to be used by AIs since they call the OddsCalculator a lot.
+ * Concurrent wrapper class for the OddsCalculator. It spawns multiple worker threads, which keep taking small chunks
+ * of the runs until all runs are taken, so a slow worker does not hold up the others. This is mainly to be used by
+ * AIs since they call the OddsCalculator a lot.
  */
 public class ConcurrentOddsCalculator implements IOddsCalculator {
   private static final Logger s_logger = Logger.getLogger(ConcurrentOddsCalculator.class.getName());
   private static final int MAX_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors());
+  private static final int MAX_RECORDED_CHANGES = 10000;
+  // how many runs a worker takes at a time, small enough that cancelling and reaching the target precision take
+  // effect quickly
+  static final int RUNS_PER_CHUNK = 20;
+  // how often the results so far are passed to the listeners
+  private static final long PARTIAL_RESULTS_INTERVAL_MILLIS = 200;
   private int m_currentThreads = MAX_THREADS;
   private final ExecutorService m_executor;
   private final CopyOnWriteArrayList<OddsCalculator> m_workers = new CopyOnWriteArrayList<>();
@@ -42,6 +55,10 @@ public class ConcurrentOddsCalculator implements IOddsCalculator {
   private volatile boolean m_isShutDown = false;
   // shortcut setting of previous game data if we are trying to set it to a new one, or shutdown
   private volatile int m_cancelCurrentOperation = 0;
+  private volatile double m_targetPrecision = 0;
+  private volatile int m_runCount = 0;
+  private volatile boolean m_cancelled = false;
+  private volatile long m_partialResultsInterval = PARTIAL_RESULTS_INTERVAL_MILLIS;
   // do not let calcing happen while we are setting game data
   private final CountUpAndDownLatch m_latchSetData = new CountUpAndDownLatch();
   // do not let setting of game data happen multiple times while we offload creating workers and copying data to a
@@ -53,6 +70,22 @@ public class ConcurrentOddsCalculator implements IOddsCalculator {
   // do not let multiple calculations or setting calc data happen at same time
   private final Object m_mutexCalcIsRunning = new Object();
   private final List<OddsCalculatorListener> m_listeners = new ArrayList<>();
+  // the game data our workers are copies of, and the changes made to it since the workers were last brought up to
+  // date, so setting the same game data again only has to replay those changes instead of copying everything again
+  private volatile GameData m_recordedData = null;
+  private final List<Change> m_recordedChanges = new ArrayList<>();
+  private boolean m_tooManyRecordedChanges = false;
+  private final GameDataChangeListener m_changeRecorder = change -> {
+    synchronized (m_recordedChanges) {
+      if (m_recordedChanges.size() >= MAX_RECORDED_CHANGES) {
+        // copying the data again is cheaper than replaying this many changes, stop holding on to them
+        m_tooManyRecordedChanges = true;
+        m_recordedChanges.clear();
+      } else if (!m_tooManyRecordedChanges) {
+        m_recordedChanges.add(change);
+      }
+    }
+  };
 
   public ConcurrentOddsCalculator(final String threadNamePrefix) {
     m_executor = Executors.newFixedThreadPool(MAX_THREADS,
@@ -80,6 +113,7 @@ public class ConcurrentOddsCalculator implements IOddsCalculator {
       m_isCalcSet = false;
       if (data == null || m_isShutDown) {
         m_workers.clear();
+        stopRecordingChanges();
         ++m_cancelCurrentOperation;
         // allow calcing and other stuff to go ahead
         m_latchSetData.countDown();
@@ -97,6 +131,14 @@ public class ConcurrentOddsCalculator implements IOddsCalculator {
     return m_currentThreads;
   }
 
+  /**
+   * The workers, once the game data they copy has been set.
+   */
+  List<OddsCalculator> getWorkers() {
+    awaitLatch();
+    return m_workers;
+  }
+
   // use both time and memory left to determine how many copies to make
   private static int getThreadsToUse(final long timeToCopyInMillis, final long memoryUsedBeforeCopy) {
     if (timeToCopyInMillis > 20000 || MAX_THREADS == 1) {
@@ -124,6 +166,28 @@ public class ConcurrentOddsCalculator implements IOddsCalculator {
   }
 
   private void createWorkers(final GameData data) {
+    if (data == null || data != m_recordedData || !synchronizeWorkers(data)) {
+      copyDataForWorkers(data);
+    }
+    if (m_cancelCurrentOperation < 0 || data == null) {
+      // we could have cancelled while setting data, so clear the workers again if so
+      m_workers.clear();
+      stopRecordingChanges();
+      m_isDataSet = false;
+    } else {
+      // should make sure that all workers have their game data set before we can call calculate and other things
+      m_isDataSet = true;
+      notifyListenersGameDataIsSet();
+    }
+    // allow setting new data to take place if it is waiting on us
+    m_latchWorkerThreadsCreation.countDown();
+    // allow calcing and other stuff to go ahead
+    m_latchSetData.countDown();
+    s_logger.fine("Initialized worker thread pool with size: " + m_workers.size());
+  }
+
+  private void copyDataForWorkers(final GameData data) {
+    stopRecordingChanges();
     m_workers.clear();
     if (data != null && m_cancelCurrentOperation >= 0) {
       // see how long 1 copy takes (some games can get REALLY big)
@@ -135,7 +199,9 @@ public class ConcurrentOddsCalculator implements IOddsCalculator {
             // when once is enough)
         // don't let the data change while we make the first copy
         data.acquireReadLock();
-        newData = GameDataUtils.cloneGameData(data, false);
+        newData = GameDataUtils.cloneGameDataForSimulation(data, false);
+        // start recording while we still hold the lock, so that every change is either in the copy or recorded
+        startRecordingChanges(data);
       } finally {
         data.releaseReadLock();
       }
@@ -175,20 +241,92 @@ public class ConcurrentOddsCalculator implements IOddsCalculator {
         newData.releaseReadLock();
       }
     }
-    if (m_cancelCurrentOperation < 0 || data == null) {
-      // we could have cancelled while setting data, so clear the workers again if so
-      m_workers.clear();
-      m_isDataSet = false;
-    } else {
-      // should make sure that all workers have their game data set before we can call calculate and other things
-      m_isDataSet = true;
-      notifyListenersGameDataIsSet();
+  }
+
+  /**
+   * Brings the workers' copies of the game data up to date by replaying the changes made to the game data since
+   * they were last brought up to date.
+   *
+   * @return false if the workers could not be brought up to date, and the data needs to be copied again.
+   */
+  private boolean synchronizeWorkers(final GameData data) {
+    if (m_workers.isEmpty() || m_cancelCurrentOperation < 0) {
+      return false;
+    }
+    final byte[] changes;
+    final int round;
+    final int roundOffset;
+    final int stepIndex;
+    try {
+      data.acquireReadLock();
+      synchronized (m_recordedChanges) {
+        if (m_tooManyRecordedChanges) {
+          return false;
+        }
+        changes = GameDataUtils.writeGameObject(new CompositeChange(new ArrayList<>(m_recordedChanges)));
+        m_recordedChanges.clear();
+      }
+      roundOffset = data.getSequence().getRoundOffset();
+      round = data.getSequence().getRound() - roundOffset;
+      stepIndex = data.getSequence().getStepIndex();
+    } catch (final RuntimeException e) {
+      s_logger.log(Level.WARNING, "Could not record changes for battle calculator workers, copying data instead", e);
+      return false;
+    } finally {
+      data.releaseReadLock();
+    }
+    // catch up the workers concurrently, the last one in our own thread
+    final AtomicBoolean failed = new AtomicBoolean(false);
+    final CountDownLatch workerLatch = new CountDownLatch(m_workers.size() - 1);
+    final List<OddsCalculator> workers = new ArrayList<>(m_workers);
+    for (int i = 0; i < workers.size(); i++) {
+      final OddsCalculator worker = workers.get(i);
+      final Runnable synchronizeWorker = () -> {
+        try {
+          if (m_cancelCurrentOperation >= 0 && !failed.get()) {
+            worker.synchronizeData(changes, round, roundOffset, stepIndex);
+          }
+        } catch (final RuntimeException e) {
+          s_logger.log(Level.WARNING, "Could not update battle calculator worker, copying data instead", e);
+          failed.set(true);
+        }
+      };
+      if (i < workers.size() - 1) {
+        m_executor.submit(() -> {
+          synchronizeWorker.run();
+          workerLatch.countDown();
+        });
+      } else {
+        synchronizeWorker.run();
+      }
+    }
+    try {
+      workerLatch.await();
+    } catch (final InterruptedException e) {
+      failed.set(true);
+    }
+    return !failed.get() && m_cancelCurrentOperation >= 0;
+  }
+
+  private void startRecordingChanges(final GameData data) {
+    synchronized (m_recordedChanges) {
+      m_recordedChanges.clear();
+      m_tooManyRecordedChanges = false;
+    }
+    data.addChangeRecorder(m_changeRecorder);
+    m_recordedData = data;
+  }
+
+  private void stopRecordingChanges() {
+    final GameData recordedData = m_recordedData;
+    if (recordedData != null) {
+      recordedData.removeChangeRecorder(m_changeRecorder);
+      m_recordedData = null;
+    }
+    synchronized (m_recordedChanges) {
+      m_recordedChanges.clear();
+      m_tooManyRecordedChanges = false;
     }
-    // allow setting new data to take place if it is waiting on us
-    m_latchWorkerThreadsCreation.countDown();
-    // allow calcing and other stuff to go ahead
-    m_latchSetData.countDown();
-    s_logger.fine("Initialized worker thread pool with size: " + m_workers.size());
   }
 
   @Override
@@ -196,6 +334,7 @@ public class ConcurrentOddsCalculator implements IOddsCalculator {
     m_isShutDown = true;
     m_cancelCurrentOperation = Integer.MIN_VALUE / 2;
     cancel();
+    stopRecordingChanges();
     m_executor.shutdown();
     synchronized (m_listeners) {
       m_listeners.clear();
@@ -220,23 +359,24 @@ public class ConcurrentOddsCalculator implements IOddsCalculator {
   @Override
   public void setCalculateData(final PlayerID attacker, final PlayerID defender, final Territory location,
       final Collection<Unit> attacking, final Collection<Unit> defending, final Collection<Unit> bombarding,
-      final Collection<TerritoryEffect> territoryEffects, int runCount) {
+      final Collection<TerritoryEffect> territoryEffects, final int runCount) {
     synchronized (m_mutexCalcIsRunning) {
       awaitLatch();
       m_isCalcSet = false;
-      final int workerNum = m_workers.size();
-      final int workerRunCount = Math.max(1, (runCount / Math.max(1, workerNum)));
+      m_cancelled = false;
+      m_runCount = Math.max(0, runCount);
       for (final OddsCalculator worker : m_workers) {
         if (!m_isDataSet || m_isShutDown) {
           // we could have attempted to set a new game data, while the old one was still being set, causing it to abort
           // with null data
           return;
         }
+        // the workers take the runs in chunks, we check the precision of the combined results after each chunk
+        worker.setTargetPrecision(0);
         worker.setCalculateData(attacker, defender, location, attacking, defending, bombarding, territoryEffects,
-            (runCount <= 0 ? 0 : workerRunCount));
-        runCount -= workerRunCount;
+            m_runCount);
       }
-      if (!m_isDataSet || m_isShutDown || workerNum <= 0) {
+      if (!m_isDataSet || m_isShutDown || m_workers.isEmpty()) {
         return;
       }
       m_isCalcSet = true;
@@ -244,18 +384,20 @@ public class ConcurrentOddsCalculator implements IOddsCalculator {
   }
 
   /**
-   * Concurrently calculates odds using the OddsCalculatorWorker. It uses Executor to process the results. Then waits
-   * for all the future
-   * results and combines them together.
+   * Concurrently calculates odds using the OddsCalculatorWorker. Every worker keeps taking chunks of the runs from a
+   * shared counter and adds the results of each chunk to the combined results, until all runs are taken, the combined
+   * results are precise enough, or we are cancelled. The results so far are passed to the listeners as they come in.
    */
   @Override
   public AggregateResults calculate() throws IllegalStateException {
     synchronized (m_mutexCalcIsRunning) {
       awaitLatch();
       final long start = System.currentTimeMillis();
-      // Create worker thread pool and start all workers
-      int totalRunCount = 0;
-      final List<Future<AggregateResults>> list = new ArrayList<>();
+      final int runCount = m_runCount;
+      final AggregateResults results = new AggregateResults(runCount);
+      final AtomicInteger runsTaken = new AtomicInteger(0);
+      final AtomicLong lastPartialResultsTime = new AtomicLong(start);
+      final List<Future<?>> list = new ArrayList<>();
       for (final OddsCalculator worker : m_workers) {
         if (!getIsReady()) {
           // we could have attempted to set a new game data, while the old one was still being set, causing it to abort
@@ -265,20 +407,17 @@ public class ConcurrentOddsCalculator implements IOddsCalculator {
         if (!worker.getIsReady()) {
           throw new IllegalStateException("Called calculate before setting calculate data!");
         }
-        if (worker.getRunCount() > 0) {
-          totalRunCount += worker.getRunCount();
-          final Future<AggregateResults> workerResult = m_executor.submit(worker);
-          list.add(workerResult);
+        if (runCount > 0) {
+          list.add(m_executor.submit(() -> runChunks(worker, runCount, runsTaken, results, start,
+              lastPartialResultsTime)));
         }
       }
-      // Wait for all worker futures to complete and combine results
-      final AggregateResults results = new AggregateResults(totalRunCount);
+      // Wait for all workers to take their last chunk
       final Set<InterruptedException> interruptExceptions = new HashSet<>();
       final Map<String, Set<ExecutionException>> executionExceptions = new HashMap<>();
-      for (final Future<AggregateResults> future : list) {
+      for (final Future<?> future : list) {
         try {
-          final AggregateResults result = future.get();
-          results.addResults(result.getResults());
+          future.get();
         } catch (final InterruptedException e) {
           interruptExceptions.add(e);
         } catch (final ExecutionException e) {
@@ -313,6 +452,39 @@ public class ConcurrentOddsCalculator implements IOddsCalculator {
     }
   }
 
+  /**
+   * Lets the worker fight chunks of the runs until there are none left, adding the results of each chunk to the
+   * combined results.
+   */
+  private void runChunks(final OddsCalculator worker, final int runCount, final AtomicInteger runsTaken,
+      final AggregateResults results, final long start, final AtomicLong lastPartialResultsTime) {
+    while (!m_cancelled && !m_isShutDown) {
+      final int first = runsTaken.getAndAdd(RUNS_PER_CHUNK);
+      if (first >= runCount) {
+        return;
+      }
+      final AggregateResults chunkResults = worker.calculate(Math.min(RUNS_PER_CHUNK, runCount - first));
+      AggregateResults partialResults = null;
+      synchronized (results) {
+        results.addResults(chunkResults);
+        if (m_targetPrecision > 0 && results.getAttackerWinPercentPrecision() <= m_targetPrecision) {
+          // precise enough, do not hand out any more runs
+          runsTaken.set(runCount);
+        }
+        final long now = System.currentTimeMillis();
+        if (now - lastPartialResultsTime.get() >= m_partialResultsInterval && runsTaken.get() < runCount
+            && hasListeners()) {
+          lastPartialResultsTime.set(now);
+          partialResults = new AggregateResults(results);
+          partialResults.setTime(now - start);
+        }
+      }
+      if (partialResults != null) {
+        notifyListenersResultsUpdated(partialResults);
+      }
+    }
+  }
+
   @Override
   public AggregateResults setCalculateDataAndCalculate(final PlayerID attacker, final PlayerID defender,
       final Territory location, final Collection<Unit> attacking, final Collection<Unit> defending,
@@ -330,11 +502,7 @@ public class ConcurrentOddsCalculator implements IOddsCalculator {
 
   @Override
   public int getRunCount() {
-    int totalRunCount = 0;
-    for (final OddsCalculator worker : m_workers) {
-      totalRunCount += worker.getRunCount();
-    }
-    return totalRunCount;
+    return m_runCount;
   }
 
   @Override
@@ -408,9 +576,23 @@ public class ConcurrentOddsCalculator implements IOddsCalculator {
     }
   }
 
+  @Override
+  public void setTargetPrecision(final double precision) {
+    // passed to the workers with the calculate data
+    m_targetPrecision = precision;
+  }
+
+  /**
+   * How long to wait at least between passing the results so far to the listeners.
+   */
+  void setPartialResultsInterval(final long millis) {
+    m_partialResultsInterval = millis;
+  }
+
   // not on purpose, we need to be able to cancel at any time
   @Override
   public void cancel() {
+    m_cancelled = true;
     for (final OddsCalculator worker : m_workers) {
       worker.cancel();
     }
@@ -430,6 +612,20 @@ public class ConcurrentOddsCalculator implements IOddsCalculator {
     }
   }
 
+  private boolean hasListeners() {
+    synchronized (m_listeners) {
+      return !m_listeners.isEmpty();
+    }
+  }
+
+  private void notifyListenersResultsUpdated(final AggregateResults partialResults) {
+    synchronized (m_listeners) {
+      for (final OddsCalculatorListener listener : m_listeners) {
+        listener.resultsUpdated(partialResults);
+      }
+    }
+  }
+
   private void notifyListenersGameDataIsSet() {
     synchronized (m_listeners) {
       for (final OddsCalculatorListener listener : m_listeners) {
@@ -0,0 +1,333 @@
+package games.strategy.triplea.oddsCalculator.ta;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import games.strategy.engine.data.GameData;
+import games.strategy.engine.data.PlayerID;
+import games.strategy.engine.data.Territory;
+import games.strategy.engine.data.TerritoryEffect;
+import games.strategy.engine.data.Unit;
+import games.strategy.engine.random.SimulationRandomSource;
+import games.strategy.triplea.TripleAUnit;
+import games.strategy.triplea.attachments.UnitAttachment;
+import games.strategy.triplea.attachments.UnitSupportAttachment;
+import games.strategy.triplea.delegate.BattleCalculator;
+import games.strategy.triplea.delegate.DiceRoll;
+import games.strategy.triplea.delegate.IBattle.WhoWon;
+import games.strategy.triplea.delegate.Matches;
+import games.strategy.util.IntegerMap;
+import games.strategy.util.LinkedIntegerMap;
+import games.strategy.util.Match;
+import games.strategy.util.Tuple;
+
+/**
+ * Fights the battles of the odds calculator much faster than MustFightBattle, for plain battles where nothing changes
+ * while they are fought: no AA guns, subs, transports, bombarding, support, retreats and the like.
+ * The power, rolls and hitpoints of every unit, and the order in which the units are taken as casualties, are worked
+ * out once with the same rules MustFightBattle uses. Each battle then only rolls dice and counts hits over arrays.
+ * <p>
+ * The dice are not rolled in the same order as MustFightBattle rolls them, so a single battle will not end the same way
+ * for the same random numbers, but the results over many battles are the same.
+ * </p>
+ */
+final class FastBattleSimulator {
+  private final GameData m_data;
+  private final int m_diceSides;
+  // zero or less means the battle is fought until one side is gone
+  private final int m_maxRounds;
+  private final Side m_attacking;
+  private final Side m_defending;
+
+  /**
+   * The units of one side of the battle, in the order they are taken as casualties.
+   */
+  private static final class Side {
+    private final Unit[] m_units;
+    private final int[] m_power;
+    private final int[] m_rolls;
+    private final boolean[] m_chooseBestRoll;
+    private final int[] m_hitPoints;
+    // whether the unit has an attack (or defense) value, if no unit left on both sides has one the battle is a draw
+    private final boolean[] m_hasCombatValue;
+
+    private Side(final List<Unit> units, final Map<Unit, Tuple<Integer, Integer>> powerAndRolls,
+        final boolean defending, final GameData data) {
+      final int count = units.size();
+      final boolean lhtrBombers = games.strategy.triplea.Properties.getLHTR_Heavy_Bombers(data);
+      m_units = units.toArray(new Unit[count]);
+      m_power = new int[count];
+      m_rolls = new int[count];
+      m_chooseBestRoll = new boolean[count];
+      m_hitPoints = new int[count];
+      m_hasCombatValue = new boolean[count];
+      for (int i = 0; i < count; i++) {
+        final Unit unit = m_units[i];
+        final UnitAttachment ua = UnitAttachment.get(unit.getType());
+        final Tuple<Integer, Integer> unitPowerAndRolls = powerAndRolls.get(unit);
+        m_power[i] = unitPowerAndRolls.getFirst();
+        m_rolls[i] = m_power[i] <= 0 ? 0 : unitPowerAndRolls.getSecond();
+        m_chooseBestRoll[i] = m_rolls[i] > 1 && (lhtrBombers || ua.getChooseBestRoll());
+        m_hitPoints[i] = ua.getHitPoints() - unit.getHits();
+        m_hasCombatValue[i] =
+            (defending ? ua.getDefense(unit.getOwner()) : ua.getAttack(unit.getOwner())) >= 1;
+      }
+    }
+
+    private int rollHits(final int[] hitPoints, final int diceSides, final SimulationRandomSource random) {
+      int hits = 0;
+      for (int i = 0; i < hitPoints.length; i++) {
+        if (hitPoints[i] <= 0) {
+          continue;
+        }
+        final int power = m_power[i];
+        final int rolls = m_rolls[i];
+        if (m_chooseBestRoll[i]) {
+          int smallestDie = diceSides;
+          for (int roll = 0; roll < rolls; roll++) {
+            smallestDie = Math.min(smallestDie, random.getRandom(diceSides, null));
+          }
+          if (smallestDie < power) {
+            hits++;
+          }
+        } else {
+          for (int roll = 0; roll < rolls; roll++) {
+            // zero based
+            if (random.getRandom(diceSides, null) < power) {
+              hits++;
+            }
+          }
+        }
+      }
+      return hits;
+    }
+
+    /**
+     * Takes the hits like BattleCalculator.selectCasualties, first damaging the units with more than one hitpoint
+     * left, then killing units in order.
+     *
+     * @return the number of units left.
+     */
+    private static int takeHits(final int[] hitPoints, final int hits) {
+      int totalHitPoints = 0;
+      for (final int unitHitPoints : hitPoints) {
+        totalHitPoints += unitHitPoints;
+      }
+      if (hits >= totalHitPoints) {
+        for (int i = 0; i < hitPoints.length; i++) {
+          hitPoints[i] = 0;
+        }
+        return 0;
+      }
+      int hitsLeft = hits;
+      for (int i = 0; i < hitPoints.length && hitsLeft > 0; i++) {
+        if (hitPoints[i] > 1) {
+          final int damage = Math.min(hitsLeft, hitPoints[i] - 1);
+          hitPoints[i] -= damage;
+          hitsLeft -= damage;
+        }
+      }
+      for (int i = 0; i < hitPoints.length && hitsLeft > 0; i++) {
+        if (hitPoints[i] > 0) {
+          hitPoints[i] = 0;
+          hitsLeft--;
+        }
+      }
+      int unitsLeft = 0;
+      for (final int unitHitPoints : hitPoints) {
+        if (unitHitPoints > 0) {
+          unitsLeft++;
+        }
+      }
+      return unitsLeft;
+    }
+
+    private boolean hasCombatValueLeft(final int[] hitPoints) {
+      for (int i = 0; i < hitPoints.length; i++) {
+        if (hitPoints[i] > 0 && m_hasCombatValue[i]) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private List<Unit> getUnitsLeft(final int[] hitPoints) {
+      final List<Unit> units = new ArrayList<>(hitPoints.length);
+      for (int i = 0; i < hitPoints.length; i++) {
+        if (hitPoints[i] > 0) {
+          units.add(m_units[i]);
+        }
+      }
+      return units;
+    }
+  }
+
+  private FastBattleSimulator(final GameData data, final Territory location, final Side attacking,
+      final Side defending) {
+    m_data = data;
+    m_diceSides = data.getDiceSides();
+    m_maxRounds = location.isWater() ? games.strategy.triplea.Properties.getSeaBattleRounds(data)
+        : games.strategy.triplea.Properties.getLandBattleRounds(data);
+    m_attacking = attacking;
+    m_defending = defending;
+  }
+
+  /**
+   * @return a simulator for the battle, or null if the battle can only be fought with MustFightBattle.
+   */
+  static FastBattleSimulator compile(final GameData data, final PlayerID attacker, final PlayerID defender,
+      final Territory location, final Collection<Unit> attackingUnits, final Collection<Unit> defendingUnits,
+      final Collection<Unit> bombardingUnits, final Collection<TerritoryEffect> territoryEffects,
+      final boolean amphibious, final boolean keepOneAttackingLandUnit, final int retreatAfterRound,
+      final int retreatAfterXUnitsLeft, final boolean retreatWhenOnlyAirLeft, final List<Unit> attackerOrderOfLosses,
+      final List<Unit> defenderOrderOfLosses) {
+    if (amphibious || !bombardingUnits.isEmpty() || retreatAfterRound > -1 || retreatAfterXUnitsLeft > -1
+        || retreatWhenOnlyAirLeft || games.strategy.triplea.Properties.getLow_Luck(data)) {
+      return null;
+    }
+    final List<Unit> attacking = new ArrayList<>(attackingUnits);
+    final List<Unit> defending = new ArrayList<>(defendingUnits);
+    if (!isPlain(attacking, true, attacker, attacker, location, data)
+        || !isPlain(defending, false, defender, attacker, location, data)
+        || hasSupport(attacking, defending, data) || hasSupport(defending, attacking, data)) {
+      return null;
+    }
+    if (keepOneAttackingLandUnit && Match.someMatch(attacking, Matches.UnitIsNotLand)) {
+      return null;
+    }
+    final List<Unit> attackingOrder = getCasualtyOrder(attacking, false, attacker, defending, attackerOrderOfLosses,
+        location, territoryEffects, data);
+    final List<Unit> defendingOrder = getCasualtyOrder(defending, true, defender, attacking, defenderOrderOfLosses,
+        location, territoryEffects, data);
+    if (attackingOrder == null || defendingOrder == null) {
+      return null;
+    }
+    final Side attackingSide = new Side(attackingOrder, DiceRoll.getUnitPowerAndRollsForNormalBattles(attackingOrder,
+        defending, false, false, data, location, territoryEffects, false, new ArrayList<>()), false, data);
+    final Side defendingSide = new Side(defendingOrder, DiceRoll.getUnitPowerAndRollsForNormalBattles(defendingOrder,
+        attacking, true, false, data, location, territoryEffects, false, new ArrayList<>()), true, data);
+    return new FastBattleSimulator(data, location, attackingSide, defendingSide);
+  }
+
+  /**
+   * Whether the units only fight by rolling dice and taking hits, so every round of the battle is the same.
+   */
+  private static boolean isPlain(final List<Unit> units, final boolean attacking, final PlayerID owner,
+      final PlayerID attacker, final Territory location, final GameData data) {
+    for (final Unit unit : units) {
+      final UnitAttachment ua = UnitAttachment.get(unit.getType());
+      final TripleAUnit taUnit = TripleAUnit.get(unit);
+      if (!unit.getOwner().equals(owner)) {
+        return false;
+      }
+      if (location.isWater() ? Matches.UnitIsLand.match(unit) : Matches.UnitIsSea.match(unit)) {
+        return false;
+      }
+      if (Matches.UnitIsInfrastructure.match(unit) || Matches.UnitIsAAforAnything.match(unit)
+          || Matches.UnitIsSub.match(unit) || Matches.UnitCanTransport.match(unit) || Matches.UnitIsCarrier.match(unit)
+          || Matches.UnitIsAirTransport.match(unit) || ua.getIsSuicide() || ua.getIsKamikaze()
+          || !ua.getWhenCombatDamaged().isEmpty()) {
+        return false;
+      }
+      if (taUnit.getTransportedBy() != null || taUnit.getSubmerged() || taUnit.getWasInAirBattle()
+          || Matches.UnitIsDisabled.match(unit)
+          || Matches.UnitCanBeCapturedOnEnteringToInThisTerritory(attacker, location, data).match(unit)) {
+        return false;
+      }
+      if (!Matches.UnitCanBeInBattle(attacking, !location.isWater(), data, 1, true, false, false).match(unit)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Whether any of the units gives support to its own side or to the enemy, which changes as units are killed.
+   */
+  private static boolean hasSupport(final List<Unit> units, final List<Unit> enemyUnits, final GameData data) {
+    for (final boolean defence : new boolean[] {false, true}) {
+      final Set<List<UnitSupportAttachment>> friendlySupport = new HashSet<>();
+      DiceRoll.getSupport(units, friendlySupport, new IntegerMap<>(),
+          new HashMap<UnitSupportAttachment, LinkedIntegerMap<Unit>>(), data, defence, true);
+      final Set<List<UnitSupportAttachment>> enemySupport = new HashSet<>();
+      DiceRoll.getSupport(units, enemySupport, new IntegerMap<>(),
+          new HashMap<UnitSupportAttachment, LinkedIntegerMap<Unit>>(), data, !defence, false);
+      if (!friendlySupport.isEmpty() || (!enemyUnits.isEmpty() && !enemySupport.isEmpty())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * The units in the order they are taken as casualties, the units in the order of losses first like DummyPlayer
+   * picks them. Null if that order would not be kept, as the order of losses does not say which units to damage.
+   */
+  private static List<Unit> getCasualtyOrder(final List<Unit> units, final boolean defending, final PlayerID player,
+      final List<Unit> enemyUnits, final List<Unit> orderOfLosses, final Territory location,
+      final Collection<TerritoryEffect> territoryEffects, final GameData data) {
+    final List<Unit> order = new ArrayList<>();
+    if (orderOfLosses != null && !orderOfLosses.isEmpty()) {
+      if (!Match.allMatch(units, Matches.UnitHasOnlyOneHitPointLeft)) {
+        return null;
+      }
+      for (final Unit unit : orderOfLosses) {
+        if (units.contains(unit)) {
+          order.add(unit);
+        }
+      }
+    }
+    if (units.isEmpty()) {
+      return order;
+    }
+    for (final Unit unit : BattleCalculator.sortUnitsForCasualties(units, defending, player, enemyUnits, location,
+        territoryEffects, data)) {
+      if (!order.contains(unit)) {
+        order.add(unit);
+      }
+    }
+    return order;
+  }
+
+  /**
+   * Fights the battle once.
+   */
+  BattleResults fight(final SimulationRandomSource random) {
+    final int[] attackingHitPoints = m_attacking.m_hitPoints.clone();
+    final int[] defendingHitPoints = m_defending.m_hitPoints.clone();
+    int round = 1;
+    WhoWon whoWon;
+    if (attackingHitPoints.length == 0) {
+      whoWon = WhoWon.DEFENDER;
+    } else if (defendingHitPoints.length == 0) {
+      whoWon = WhoWon.ATTACKER;
+    } else {
+      while (true) {
+        // both sides fire before casualties are removed
+        final int attackingHits = m_attacking.rollHits(attackingHitPoints, m_diceSides, random);
+        final int defendingHits = m_defending.rollHits(defendingHitPoints, m_diceSides, random);
+        final int defendingLeft = Side.takeHits(defendingHitPoints, attackingHits);
+        final int attackingLeft = Side.takeHits(attackingHitPoints, defendingHits);
+        if (attackingLeft == 0) {
+          whoWon = WhoWon.DEFENDER;
+          break;
+        } else if (defendingLeft == 0) {
+          whoWon = WhoWon.ATTACKER;
+          break;
+        } else if ((m_maxRounds > 0 && m_maxRounds <= round) || (!m_attacking.hasCombatValueLeft(attackingHitPoints)
+            && !m_defending.hasCombatValueLeft(defendingHitPoints))) {
+          whoWon = WhoWon.DRAW;
+          break;
+        }
+        round++;
+      }
+    }
+    return new BattleResults(round, m_attacking.getUnitsLeft(attackingHitPoints),
+        m_defending.getUnitsLeft(defendingHitPoints), whoWon, m_data);
+  }
+}
@@ -42,6 +42,16 @@ public interface IOddsCalculator {
 
   void setDefenderOrderOfLosses(final String defenderOrderOfLosses);
 
+  /**
+   * Lets calculate stop before making all runs once the attacker win percent is known precisely enough, then the run
+   * count is only the most runs to make.
+   *
+   * @param precision
+   *        half the width of the 95% confidence interval of the attacker win percent to stop at, for example 0.02 for
+   *        +-2%. Zero, the default, always makes all runs.
+   */
+  void setTargetPrecision(final double precision);
+
   void cancel();
 
   void shutdown();
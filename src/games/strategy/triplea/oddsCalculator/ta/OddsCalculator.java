@@ -30,7 +30,7 @@ import games.strategy.engine.gamePlayer.IRemotePlayer;
 import games.strategy.engine.history.DelegateHistoryWriter;
 import games.strategy.engine.history.IDelegateHistoryWriter;
 import games.strategy.engine.random.IRandomStats.DiceType;
-import games.strategy.engine.random.PlainRandomSource;
+import games.strategy.engine.random.SimulationRandomSource;
 import games.strategy.net.GUID;
 import games.strategy.sound.HeadlessSoundChannel;
 import games.strategy.sound.ISound;
@@ -77,6 +77,18 @@ public class OddsCalculator implements IOddsCalculator, Callable<AggregateResult
   private String m_attackerOrderOfLosses = null;
   private String m_defenderOrderOfLosses = null;
   private int m_runCount = 0;
+  private double m_targetPrecision = 0;
+  // the units we placed in our copy of the game data for the calculations, so we can take them out again
+  private CompositeChange m_calculateDataChanges = new CompositeChange();
+  // our own generator, so that concurrent workers do not share one
+  private SimulationRandomSource m_randomSource = null;
+  // plain battles are fought by the FastBattleSimulator instead of MustFightBattle
+  private boolean m_useFastBattleSimulator = true;
+  // the orders of losses and the simulator for the battle, worked out once for all the runs of a calculation
+  private boolean m_isBattlePrepared = false;
+  private List<Unit> m_attackerOrderOfLossesUnits = null;
+  private List<Unit> m_defenderOrderOfLossesUnits = null;
+  private FastBattleSimulator m_fastSimulator = null;
   private volatile boolean m_cancelled = false;
   private volatile boolean m_isDataSet = false;
   private volatile boolean m_isCalcSet = false;
@@ -88,13 +100,21 @@ public class OddsCalculator implements IOddsCalculator, Callable<AggregateResult
   }
 
   public OddsCalculator(final GameData data, final boolean dataHasAlreadyBeenCloned) {
-    m_data = data == null ? null : (dataHasAlreadyBeenCloned ? data : GameDataUtils.cloneGameData(data, false));
+    m_data = data == null ? null
+        : (dataHasAlreadyBeenCloned ? data : GameDataUtils.cloneGameDataForSimulation(data, false));
     if (data != null) {
       m_isDataSet = true;
       notifyListenersGameDataIsSet();
     }
   }
 
+  /**
+   * Our copy of the game data.
+   */
+  GameData getGameData() {
+    return m_data;
+  }
+
   @Override
   public void setGameData(final GameData data) {
     if (m_isRunning) {
@@ -102,8 +122,44 @@ public class OddsCalculator implements IOddsCalculator, Callable<AggregateResult
     }
     m_isDataSet = false;
     m_isCalcSet = false;
-    m_data = (data == null ? null : GameDataUtils.cloneGameData(data, false));
-    // reset old data
+    m_data = (data == null ? null : GameDataUtils.cloneGameDataForSimulation(data, false));
+    resetCalculateData();
+    if (data != null) {
+      m_isDataSet = true;
+      notifyListenersGameDataIsSet();
+    }
+  }
+
+  /**
+   * Brings our copy of the game data up to date with the game data it was copied from, instead of copying it again.
+   * The units placed for earlier calculations are taken out, then the changes made to the original since our
+   * copy was last updated are performed on our copy.
+   *
+   * @param changes
+   *        the changes made to the original, written with GameDataUtils.writeGameObject
+   * @param round
+   *        the original's current round, not counting the round offset
+   * @param roundOffset
+   *        the original's round offset
+   * @param stepIndex
+   *        the original's current step index
+   */
+  synchronized void synchronizeData(final byte[] changes, final int round, final int roundOffset,
+      final int stepIndex) {
+    m_isDataSet = false;
+    m_isCalcSet = false;
+    if (!m_calculateDataChanges.isEmpty()) {
+      m_data.performChange(m_calculateDataChanges.invert());
+    }
+    m_data.performChange((Change) GameDataUtils.readGameObject(changes, m_data));
+    m_data.getSequence().setRoundOffset(roundOffset);
+    m_data.getSequence().setRoundAndStepIndex(round, stepIndex);
+    resetCalculateData();
+    m_isDataSet = true;
+    notifyListenersGameDataIsSet();
+  }
+
+  private void resetCalculateData() {
     m_attacker = null;
     m_defender = null;
     m_location = null;
@@ -112,10 +168,8 @@ public class OddsCalculator implements IOddsCalculator, Callable<AggregateResult
     m_bombardingUnits = new ArrayList<>();
     m_territoryEffects = new ArrayList<>();
     m_runCount = 0;
-    if (data != null) {
-      m_isDataSet = true;
-      notifyListenersGameDataIsSet();
-    }
+    m_calculateDataChanges = new CompositeChange();
+    m_isBattlePrepared = false;
   }
 
   /**
@@ -123,9 +177,10 @@ public class OddsCalculator implements IOddsCalculator, Callable<AggregateResult
    */
   @Override
   @SuppressWarnings("unchecked")
-  public void setCalculateData(final PlayerID attacker, final PlayerID defender, final Territory location,
-      final Collection<Unit> attacking, final Collection<Unit> defending, final Collection<Unit> bombarding,
-      final Collection<TerritoryEffect> territoryEffects, final int runCount) throws IllegalStateException {
+  public synchronized void setCalculateData(final PlayerID attacker, final PlayerID defender,
+      final Territory location, final Collection<Unit> attacking, final Collection<Unit> defending,
+      final Collection<Unit> bombarding, final Collection<TerritoryEffect> territoryEffects, final int runCount)
+      throws IllegalStateException {
     if (m_isRunning) {
       return;
     }
@@ -143,10 +198,17 @@ public class OddsCalculator implements IOddsCalculator, Callable<AggregateResult
     m_bombardingUnits = (Collection<Unit>) GameDataUtils.translateIntoOtherGameData(bombarding, m_data);
     m_territoryEffects =
         (Collection<TerritoryEffect>) GameDataUtils.translateIntoOtherGameData(territoryEffects, m_data);
-    m_data.performChange(ChangeFactory.removeUnits(m_location, m_location.getUnits().getUnits()));
-    m_data.performChange(ChangeFactory.addUnits(m_location, m_attackingUnits));
-    m_data.performChange(ChangeFactory.addUnits(m_location, m_defendingUnits));
+    final Change placeUnits = new CompositeChange(
+        ChangeFactory.removeUnits(m_location, m_location.getUnits().getUnits()),
+        ChangeFactory.addUnits(m_location, m_attackingUnits),
+        ChangeFactory.addUnits(m_location, m_defendingUnits));
+    m_data.performChange(placeUnits);
+    m_calculateDataChanges.add(placeUnits);
+    m_randomSource = SimulationRandomSource.create();
     m_runCount = runCount;
+    m_isBattlePrepared = false;
+    // a cancel of an earlier calculation must not stop this one
+    m_cancelled = false;
     m_isCalcSet = true;
   }
 
@@ -184,36 +246,57 @@ public class OddsCalculator implements IOddsCalculator, Callable<AggregateResult
   @Override
   public void setKeepOneAttackingLandUnit(final boolean bool) {
     m_keepOneAttackingLandUnit = bool;
+    m_isBattlePrepared = false;
   }
 
   @Override
   public void setAmphibious(final boolean bool) {
     m_amphibious = bool;
+    m_isBattlePrepared = false;
   }
 
   @Override
   public void setRetreatAfterRound(final int value) {
     m_retreatAfterRound = value;
+    m_isBattlePrepared = false;
   }
 
   @Override
   public void setRetreatAfterXUnitsLeft(final int value) {
     m_retreatAfterXUnitsLeft = value;
+    m_isBattlePrepared = false;
   }
 
   @Override
   public void setRetreatWhenOnlyAirLeft(final boolean value) {
     m_retreatWhenOnlyAirLeft = value;
+    m_isBattlePrepared = false;
   }
 
   @Override
   public void setAttackerOrderOfLosses(final String attackerOrderOfLosses) {
     m_attackerOrderOfLosses = attackerOrderOfLosses;
+    m_isBattlePrepared = false;
   }
 
   @Override
   public void setDefenderOrderOfLosses(final String defenderOrderOfLosses) {
     m_defenderOrderOfLosses = defenderOrderOfLosses;
+    m_isBattlePrepared = false;
+  }
+
+  @Override
+  public void setTargetPrecision(final double precision) {
+    m_targetPrecision = precision;
+  }
+
+  /**
+   * Lets plain battles be fought by the FastBattleSimulator, which is the default. Turn it off to always fight battles
+   * with MustFightBattle.
+   */
+  void setUseFastBattleSimulator(final boolean useFastBattleSimulator) {
+    m_useFastBattleSimulator = useFastBattleSimulator;
+    m_isBattlePrepared = false;
   }
 
   @Override
@@ -234,26 +317,48 @@ public class OddsCalculator implements IOddsCalculator, Callable<AggregateResult
     return 1;
   }
 
-  private AggregateResults calculate(final int count) {
+  private void prepareBattle() {
+    if (m_isBattlePrepared) {
+      return;
+    }
+    m_attackerOrderOfLossesUnits =
+        OddsCalculator.getUnitListByOrderOfLoss(m_attackerOrderOfLosses, m_attackingUnits, m_data);
+    m_defenderOrderOfLossesUnits =
+        OddsCalculator.getUnitListByOrderOfLoss(m_defenderOrderOfLosses, m_defendingUnits, m_data);
+    m_fastSimulator = m_useFastBattleSimulator
+        ? FastBattleSimulator.compile(m_data, m_attacker, m_defender, m_location, m_attackingUnits, m_defendingUnits,
+            m_bombardingUnits, m_territoryEffects, m_amphibious, m_keepOneAttackingLandUnit, m_retreatAfterRound,
+            m_retreatAfterXUnitsLeft, m_retreatWhenOnlyAirLeft, m_attackerOrderOfLossesUnits,
+            m_defenderOrderOfLossesUnits)
+        : null;
+    m_isBattlePrepared = true;
+  }
+
+  /**
+   * Fights the battle set with the calculate data the given number of times. May be called again to fight more runs
+   * of the same battle, the battle is only prepared once.
+   */
+  synchronized AggregateResults calculate(final int count) {
     m_isRunning = true;
     final long start = System.currentTimeMillis();
     final AggregateResults rVal = new AggregateResults(count);
     final BattleTracker battleTracker = new BattleTracker();
-    // CasualtySortingCaching can cause issues if there is more than 1 one battle being calced at the same time (like if
-    // the AI and a human
-    // are both using the calc)
-    // TODO: first, see how much it actually speeds stuff up by, and if it does make a difference then convert it to a
-    // per-thread, per-calc
-    // caching
-    final List<Unit> attackerOrderOfLosses =
-        OddsCalculator.getUnitListByOrderOfLoss(m_attackerOrderOfLosses, m_attackingUnits, m_data);
-    final List<Unit> defenderOrderOfLosses =
-        OddsCalculator.getUnitListByOrderOfLoss(m_defenderOrderOfLosses, m_defendingUnits, m_data);
+    prepareBattle();
+    final List<Unit> attackerOrderOfLosses = m_attackerOrderOfLossesUnits;
+    final List<Unit> defenderOrderOfLosses = m_defenderOrderOfLossesUnits;
+    final FastBattleSimulator fastSimulator = m_fastSimulator;
     for (int i = 0; i < count && !m_cancelled; i++) {
+      if (fastSimulator != null) {
+        rVal.addResult(fastSimulator.fight(m_randomSource));
+        if (m_targetPrecision > 0 && rVal.getAttackerWinPercentPrecision() <= m_targetPrecision) {
+          break;
+        }
+        continue;
+      }
       final CompositeChange allChanges = new CompositeChange();
-      final DummyDelegateBridge bridge1 = new DummyDelegateBridge(m_attacker, m_data, allChanges, attackerOrderOfLosses,
-          defenderOrderOfLosses, m_keepOneAttackingLandUnit, m_retreatAfterRound, m_retreatAfterXUnitsLeft,
-          m_retreatWhenOnlyAirLeft);
+      final DummyDelegateBridge bridge1 = new DummyDelegateBridge(m_attacker, m_data, allChanges, m_randomSource,
+          attackerOrderOfLosses, defenderOrderOfLosses, m_keepOneAttackingLandUnit, m_retreatAfterRound,
+          m_retreatAfterXUnitsLeft, m_retreatWhenOnlyAirLeft);
       final GameDelegateBridge bridge = new GameDelegateBridge(bridge1);
       final MustFightBattle battle = new MustFightBattle(m_location, m_attacker, m_data, battleTracker);
       battle.setHeadless(true);
@@ -268,6 +373,9 @@ public class OddsCalculator implements IOddsCalculator, Callable<AggregateResult
       m_data.performChange(allChanges.invert());
       battleTracker.clear();
       battleTracker.clearBattleRecords();
+      if (m_targetPrecision > 0 && rVal.getAttackerWinPercentPrecision() <= m_targetPrecision) {
+        break;
+      }
     }
     // BattleCalculator.DisableCasualtySortingCaching();
     rVal.setTime(System.currentTimeMillis() - start);
@@ -380,7 +488,7 @@ public class OddsCalculator implements IOddsCalculator, Callable<AggregateResult
 
 
 class DummyDelegateBridge implements IDelegateBridge {
-  private final PlainRandomSource m_randomSource = new PlainRandomSource();
+  private final SimulationRandomSource m_randomSource;
   private final ITripleADisplay m_display = new HeadlessDisplay();
   private final ISound m_soundChannel = new HeadlessSoundChannel();
   private final DummyPlayer m_attackingPlayer;
@@ -392,9 +500,9 @@ class DummyDelegateBridge implements IDelegateBridge {
   private MustFightBattle m_battle = null;
 
   public DummyDelegateBridge(final PlayerID attacker, final GameData data, final CompositeChange allChanges,
-      final List<Unit> attackerOrderOfLosses, final List<Unit> defenderOrderOfLosses,
-      final boolean attackerKeepOneLandUnit, final int retreatAfterRound, final int retreatAfterXUnitsLeft,
-      final boolean retreatWhenOnlyAirLeft) {
+      final SimulationRandomSource randomSource, final List<Unit> attackerOrderOfLosses,
+      final List<Unit> defenderOrderOfLosses, final boolean attackerKeepOneLandUnit, final int retreatAfterRound,
+      final int retreatAfterXUnitsLeft, final boolean retreatWhenOnlyAirLeft) {
     m_attackingPlayer =
         new DummyPlayer(this, true, "battle calc dummy", "None (AI)", attackerOrderOfLosses, attackerKeepOneLandUnit,
             retreatAfterRound, retreatAfterXUnitsLeft, retreatWhenOnlyAirLeft);
@@ -403,6 +511,7 @@ class DummyDelegateBridge implements IDelegateBridge {
     m_data = data;
     m_attacker = attacker;
     m_allChanges = allChanges;
+    m_randomSource = randomSource;
   }
 
   @Override
@@ -8,4 +8,10 @@ public interface OddsCalculatorListener {
    * We have finished copying the game data(s).
    */
   void dataReady();
+
+  /**
+   * The results of the runs fought so far, while a calculation is still going on. Called from the calculating
+   * threads, each time with a new copy of the results.
+   */
+  default void resultsUpdated(final AggregateResults partialResults) {}
 }
@@ -370,6 +370,20 @@ public class OddsCalculatorPanel extends JPanel {
         });
     final AtomicReference<Collection<Unit>> defenders = new AtomicReference<>();
     final AtomicReference<Collection<Unit>> attackers = new AtomicReference<>();
+    // show the results so far while the calculation goes on
+    final OddsCalculatorListener partialResultsListener = new OddsCalculatorListener() {
+      @Override
+      public void dataReady() {}
+
+      @Override
+      public void resultsUpdated(final AggregateResults partialResults) {
+        SwingUtilities.invokeLater(() -> {
+          if (dialog.isVisible()) {
+            showResults(partialResults, attackers.get(), defenders.get());
+          }
+        });
+      }
+    };
     dialog.pack();
     dialog.setLocationRelativeTo(this);
     final Thread calcThread = new Thread(() -> {
@@ -418,9 +432,11 @@ public class OddsCalculatorPanel extends JPanel {
         final Collection<TerritoryEffect> territoryEffects = getTerritoryEffects();
         defenders.set(defending);
         attackers.set(attacking);
+        m_calculator.addOddsCalculatorListener(partialResultsListener);
         results.set(m_calculator.setCalculateDataAndCalculate(getAttacker(), getDefender(), location, attacking,
             defending, bombarding, territoryEffects, m_numRuns.getValue()));
       } finally {
+        m_calculator.removeOddsCalculatorListener(partialResultsListener);
         SwingUtilities.invokeLater(() -> {
           dialog.setVisible(false);
           dialog.dispose();
@@ -436,33 +452,42 @@ public class OddsCalculatorPanel extends JPanel {
     if (results == null || results.get() == null) {
       setResultsToBlank();
     } else {
-      m_attackerWin.setText(formatPercentage(results.get().getAttackerWinPercent()));
-      m_defenderWin.setText(formatPercentage(results.get().getDefenderWinPercent()));
-      m_draw.setText(formatPercentage(results.get().getDrawPercent()));
-      final boolean isLand = isLand();
-      final List<Unit> mainCombatAttackers =
-          Match.getMatches(attackers.get(), Matches.UnitCanBeInBattle(true, isLand, m_data, 1, false, true, true));
-      final List<Unit> mainCombatDefenders =
-          Match.getMatches(defenders.get(), Matches.UnitCanBeInBattle(false, isLand, m_data, 1, false, true, true));
-      final int attackersTotal = mainCombatAttackers.size();
-      final int defendersTotal = mainCombatDefenders.size();
-      m_defenderLeft.setText(formatValue(results.get().getAverageDefendingUnitsLeft()) + " /" + defendersTotal);
-      m_attackerLeft.setText(formatValue(results.get().getAverageAttackingUnitsLeft()) + " /" + attackersTotal);
-      m_defenderLeftWhenDefenderWon
-          .setText(formatValue(results.get().getAverageDefendingUnitsLeftWhenDefenderWon()) + " /" + defendersTotal);
-      m_attackerLeftWhenAttackerWon
-          .setText(formatValue(results.get().getAverageAttackingUnitsLeftWhenAttackerWon()) + " /" + attackersTotal);
-      m_roundsAverage.setText("" + formatValue(results.get().getAverageBattleRoundsFought()));
-      try {
-        m_data.acquireReadLock();
-        m_averageChangeInTUV.setText("" + formatValue(results.get().getAverageTUVswing(getAttacker(),
-            mainCombatAttackers, getDefender(), mainCombatDefenders, m_data)));
-      } finally {
-        m_data.releaseReadLock();
-      }
-      m_count.setText(results.get().getRollCount() + "");
-      m_time.setText(formatValue(results.get().getTime() / 1000.0) + "s");
+      showResults(results.get(), attackers.get(), defenders.get());
+    }
+  }
+
+  private void showResults(final AggregateResults results, final Collection<Unit> attackers,
+      final Collection<Unit> defenders) {
+    if (attackers == null || defenders == null) {
+      return;
+    }
+    m_attackerWin.setText(formatPercentage(results.getAttackerWinPercent()) + " +/- "
+        + formatPercentage(results.getAttackerWinPercentPrecision()));
+    m_defenderWin.setText(formatPercentage(results.getDefenderWinPercent()));
+    m_draw.setText(formatPercentage(results.getDrawPercent()));
+    final boolean isLand = isLand();
+    final List<Unit> mainCombatAttackers =
+        Match.getMatches(attackers, Matches.UnitCanBeInBattle(true, isLand, m_data, 1, false, true, true));
+    final List<Unit> mainCombatDefenders =
+        Match.getMatches(defenders, Matches.UnitCanBeInBattle(false, isLand, m_data, 1, false, true, true));
+    final int attackersTotal = mainCombatAttackers.size();
+    final int defendersTotal = mainCombatDefenders.size();
+    m_defenderLeft.setText(formatValue(results.getAverageDefendingUnitsLeft()) + " /" + defendersTotal);
+    m_attackerLeft.setText(formatValue(results.getAverageAttackingUnitsLeft()) + " /" + attackersTotal);
+    m_defenderLeftWhenDefenderWon
+        .setText(formatValue(results.getAverageDefendingUnitsLeftWhenDefenderWon()) + " /" + defendersTotal);
+    m_attackerLeftWhenAttackerWon
+        .setText(formatValue(results.getAverageAttackingUnitsLeftWhenAttackerWon()) + " /" + attackersTotal);
+    m_roundsAverage.setText("" + formatValue(results.getAverageBattleRoundsFought()));
+    try {
+      m_data.acquireReadLock();
+      m_averageChangeInTUV.setText("" + formatValue(results.getAverageTUVswing(getAttacker(), mainCombatAttackers,
+          getDefender(), mainCombatDefenders, m_data)));
+    } finally {
+      m_data.releaseReadLock();
     }
+    m_count.setText(results.getRollCount() + "");
+    m_time.setText(formatValue(results.getTime() / 1000.0) + "s");
   }
 
   public String formatPercentage(final double percentage) {
@@ -725,6 +750,7 @@ public class OddsCalculatorPanel extends JPanel {
     m_retreatAfterXUnitsLeft.setToolTipText(
         "-1 means never. If positive and 'retreat when only air left' is also selected, then we will retreat when X of non-air units is left.");
     setResultsToBlank();
+    m_attackerWin.setToolTipText("The attacker wins this often with 95% confidence.");
     m_defenderLeft.setToolTipText(
         "Units Left does not include AA guns and other infrastructure, and does not include Bombarding sea units for land battles.");
     m_attackerLeft.setToolTipText(
@@ -878,7 +878,7 @@ public class MovePanel extends AbstractMovePanel {
           unitsToLoadMatch.add(Matches.unitIsOwnedBy(player));
           unitsToLoadMatch.add(Matches.unitHasNotMoved);
           final Collection<Unit> unitsToLoad =
-              Match.getMatches(route.getStart().getUnits().getUnits(), unitsToLoadMatch);
+              route.getStart().getUnits().getMatches(unitsToLoadMatch);
           unitsToLoad.removeAll(selectedUnits);
           for (final Unit u : s_dependentUnits.keySet()) {
             unitsToLoad.removeAll(s_dependentUnits.get(u));
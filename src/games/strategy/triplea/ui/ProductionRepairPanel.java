@@ -131,7 +131,7 @@ public class ProductionRepairPanel extends JPanel {
           Match.getMatches(data.getMap().getTerritories(), Matches.territoryHasUnitsThatMatch(myDamagedUnits));
       for (final RepairRule repairRule : player.getRepairFrontier()) {
         for (final Territory terr : terrsWithPotentiallyDamagedUnits) {
-          for (final Unit u : Match.getMatches(terr.getUnits().getUnits(), myDamagedUnits)) {
+          for (final Unit u : terr.getUnits().getMatches(myDamagedUnits)) {
             if (!repairRule.getResults().keySet().iterator().next().equals(u.getType())) {
               continue;
             }
@@ -0,0 +1,238 @@
+package games.strategy.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The getters, setters and resetters of the java bean style properties of each class, looked up once per class and
+ * property name and kept as method handles, so getting and setting a property does not have to search the methods
+ * and fields of the class every time.
+ */
+public final class PropertyAccessors {
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+  private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+  private static final MethodType RESETTER_TYPE = MethodType.methodType(void.class, Object.class);
+  private static final ClassValue<PropertyAccessors> s_accessors = new ClassValue<PropertyAccessors>() {
+    @Override
+    protected PropertyAccessors computeValue(final Class<?> type) {
+      return new PropertyAccessors(type);
+    }
+  };
+
+  private final Class<?> m_class;
+  // the public methods with one parameter, by name
+  private final Map<String, List<Method>> m_oneArgumentMethods = new HashMap<>();
+  // the public methods without parameters, by name
+  private final Map<String, Method> m_noArgumentMethods = new HashMap<>();
+  private final ConcurrentHashMap<String, Property> m_properties = new ConcurrentHashMap<>();
+
+  /**
+   * The accessors of one property.
+   */
+  public static final class Property {
+    private final String m_name;
+    private final Class<?> m_class;
+    // null if there is no such field
+    private final MethodHandle m_getter;
+    private final Class<?>[] m_setterArgumentTypes;
+    private final MethodHandle[] m_setters;
+    // null if there is no resetter
+    private final MethodHandle m_resetter;
+
+    private Property(final PropertyAccessors accessors, final String name) {
+      m_name = name;
+      m_class = accessors.m_class;
+      m_getter = findGetter(accessors.m_class, name);
+      final List<Method> setters = accessors.m_oneArgumentMethods.getOrDefault("set" + capitalizeFirstLetter(name),
+          Collections.emptyList());
+      m_setterArgumentTypes = new Class<?>[setters.size()];
+      m_setters = new MethodHandle[setters.size()];
+      for (int i = 0; i < setters.size(); i++) {
+        m_setterArgumentTypes[i] = setters.get(i).getParameterTypes()[0];
+        m_setters[i] = unreflect(setters.get(i)).asType(SETTER_TYPE);
+      }
+      final Method resetter = accessors.m_noArgumentMethods.get("reset" + capitalizeFirstLetter(name));
+      m_resetter = resetter == null ? null : unreflect(resetter).asType(RESETTER_TYPE);
+    }
+
+    public String getName() {
+      return m_name;
+    }
+
+    public boolean hasField() {
+      return m_getter != null;
+    }
+
+    public boolean hasSetter() {
+      return m_setters.length > 0;
+    }
+
+    public boolean hasResetter() {
+      return m_resetter != null;
+    }
+
+    /**
+     * @return the value of the field named m_ followed by the property name, or else the field named like the property.
+     */
+    public Object getFieldValue(final Object subject) {
+      if (m_getter == null) {
+        throw new IllegalStateException("No such Property Field named: " + "m_" + m_name + ", or: " + m_name
+            + ", for Subject: " + subject.toString());
+      }
+      try {
+        return m_getter.invokeExact(subject);
+      } catch (final Throwable e) {
+        throw propagate(e, "Could not get property:" + m_name + " subject:" + subject);
+      }
+    }
+
+    /**
+     * Sets the property with the setter taking the class of the value, or with the first setter if there is none.
+     */
+    public void set(final Object subject, final Object value) {
+      final MethodHandle setter = getSetter(value == null ? null : value.getClass());
+      if (setter == null) {
+        throw new IllegalStateException(
+            "No method called:" + "set" + capitalizeFirstLetter(m_name) + " on:" + subject);
+      }
+      try {
+        setter.invokeExact(subject, value);
+      } catch (final Throwable e) {
+        throw propagate(e, "Could not set property:" + m_name + " subject:" + subject + " new value:" + value);
+      }
+    }
+
+    /**
+     * @return the setter taking exactly the given argument type, or the first setter if the argument type is null or
+     *         there is no such setter, or null if there are no setters.
+     */
+    public MethodHandle getSetter(final Class<?> argumentType) {
+      if (m_setters.length == 0) {
+        return null;
+      }
+      for (int i = 0; i < m_setters.length; i++) {
+        if (m_setterArgumentTypes[i] == argumentType) {
+          return m_setters[i];
+        }
+      }
+      return m_setters[0];
+    }
+
+    /**
+     * @return the setter taking exactly the given argument type, or null if there is none.
+     */
+    public MethodHandle getExactSetter(final Class<?> argumentType) {
+      for (int i = 0; i < m_setters.length; i++) {
+        if (m_setterArgumentTypes[i] == argumentType) {
+          return m_setters[i];
+        }
+      }
+      return null;
+    }
+
+    public void reset(final Object subject) {
+      if (m_resetter == null) {
+        throw new IllegalStateException(
+            "No method called:" + "reset" + capitalizeFirstLetter(m_name) + " on:" + subject);
+      }
+      try {
+        m_resetter.invokeExact(subject);
+      } catch (final Throwable e) {
+        throw propagate(e, "Could not reset property:" + m_name + " subject:" + subject);
+      }
+    }
+
+    @Override
+    public String toString() {
+      return "Property " + m_name + " of " + m_class.getName();
+    }
+  }
+
+  private PropertyAccessors(final Class<?> type) {
+    m_class = type;
+    for (final Method method : type.getMethods()) {
+      final int parameterCount = method.getParameterCount();
+      if (parameterCount == 1 && method.getName().startsWith("set")) {
+        m_oneArgumentMethods.computeIfAbsent(method.getName(), k -> new ArrayList<>()).add(method);
+      } else if (parameterCount == 0 && method.getName().startsWith("reset")) {
+        m_noArgumentMethods.putIfAbsent(method.getName(), method);
+      }
+    }
+  }
+
+  /**
+   * @return the accessors of the given property of the given class, looked up the first time they are asked for.
+   */
+  public static Property get(final Class<?> type, final String propertyName) {
+    final PropertyAccessors accessors = s_accessors.get(type);
+    final Property property = accessors.m_properties.get(propertyName);
+    if (property != null) {
+      return property;
+    }
+    return accessors.m_properties.computeIfAbsent(propertyName, name -> new Property(accessors, name));
+  }
+
+  public static Property get(final Object subject, final String propertyName) {
+    return get(subject.getClass(), propertyName);
+  }
+
+  /**
+   * @return the field with the given name of the class or of one of its super classes, or null if there is none.
+   */
+  static Field findField(final Class<?> type, final String name) {
+    for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+      for (final Field field : c.getDeclaredFields()) {
+        if (field.getName().equals(name)) {
+          return field;
+        }
+      }
+    }
+    return null;
+  }
+
+  private static MethodHandle findGetter(final Class<?> type, final String name) {
+    Field field = findField(type, "m_" + name);
+    if (field == null) {
+      field = findField(type, name);
+    }
+    if (field == null) {
+      return null;
+    }
+    field.setAccessible(true);
+    try {
+      return MethodHandles.lookup().unreflectGetter(field).asType(GETTER_TYPE);
+    } catch (final IllegalAccessException e) {
+      throw new IllegalStateException("Could not access field:" + field, e);
+    }
+  }
+
+  private static MethodHandle unreflect(final Method method) {
+    // the class itself need not be public
+    method.setAccessible(true);
+    try {
+      return MethodHandles.lookup().unreflect(method);
+    } catch (final IllegalAccessException e) {
+      throw new IllegalStateException("Could not access method:" + method, e);
+    }
+  }
+
+  private static RuntimeException propagate(final Throwable e, final String message) {
+    if (e instanceof Error) {
+      throw (Error) e;
+    }
+    return new IllegalStateException(message, e);
+  }
+
+  static String capitalizeFirstLetter(final String aString) {
+    return Character.toUpperCase(aString.charAt(0)) + aString.substring(1);
+  }
+}
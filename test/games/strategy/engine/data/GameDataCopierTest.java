@@ -0,0 +1,201 @@
+package games.strategy.engine.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.google.common.collect.Multimap;
+
+import games.strategy.engine.data.changefactory.ChangeFactory;
+import games.strategy.engine.data.export.GameDataExporter;
+import games.strategy.engine.delegate.IDelegate;
+import games.strategy.engine.history.HistoryNode;
+import games.strategy.engine.history.HistoryWriter;
+import games.strategy.net.GUID;
+import games.strategy.triplea.xml.LoadGameUtil;
+import games.strategy.triplea.xml.LoadGameUtil.TestMapXml;
+import games.strategy.util.Version;
+
+public class GameDataCopierTest {
+  private static final TestMapXml[] s_maps =
+      {TestMapXml.BIG_WORLD_1942, TestMapXml.IRON_BLITZ, TestMapXml.WW2V3_1941, TestMapXml.GLOBAL1940};
+
+  @Test
+  public void testCopyIsEquivalent() {
+    for (final TestMapXml map : s_maps) {
+      final GameData data = LoadGameUtil.loadTestGame(map);
+      final GameData copy = GameDataCopier.copy(data, true);
+      assertEquals(map.toString(), new GameDataExporter(data).getXML(), new GameDataExporter(copy).getXML());
+      for (final Territory territory : data.getMap().getTerritories()) {
+        final Territory copied = copy.getMap().getTerritory(territory.getName());
+        assertEquals(territory.getOwner().getName(), copied.getOwner().getName());
+        assertEquals(territory.getUnits().getUnitCount(), copied.getUnits().getUnitCount());
+        assertEquals(territory.getAttachments().keySet(), copied.getAttachments().keySet());
+        assertEquals(data.getMap().getNeighbors(territory).size(), copy.getMap().getNeighbors(copied).size());
+      }
+      assertEquals(data.getUnits().getUnits().size(), copy.getUnits().getUnits().size());
+      assertEquals(data.getSequence().size(), copy.getSequence().size());
+      assertEquals(data.getSequence().getStep().getName(), copy.getSequence().getStep().getName());
+    }
+  }
+
+  @Test
+  public void testCopyDoesNotReferenceOriginal() {
+    for (final TestMapXml map : s_maps) {
+      final GameData data = LoadGameUtil.loadTestGame(map);
+      final Set<Object> original = reachableGameObjects(data);
+      final GameData copy = GameDataCopier.copy(data, false);
+      for (final Object object : reachableGameObjects(copy)) {
+        assertFalse(map + " copy references " + object, original.contains(object));
+      }
+    }
+  }
+
+  @Test
+  public void testCopiedObjectsBelongToCopy() {
+    final GameData data = LoadGameUtil.loadTestGame(TestMapXml.IRON_BLITZ);
+    final GameData copy = GameDataCopier.copyForSimulation(data, false);
+    for (final Territory territory : copy.getMap().getTerritories()) {
+      assertSame(copy, territory.getData());
+      for (final Unit unit : territory.getUnits()) {
+        assertSame(copy, unit.getData());
+        assertSame(unit, copy.getUnits().get(unit.getID()));
+        assertSame(copy.getUnitTypeList().getUnitType(unit.getType().getName()), unit.getType());
+      }
+    }
+    for (final PlayerID player : copy.getPlayerList()) {
+      assertSame(copy, player.getData());
+    }
+  }
+
+  @Test
+  public void testChangesToCopyDoNotAffectOriginal() {
+    final GameData data = LoadGameUtil.loadTestGame(TestMapXml.IRON_BLITZ);
+    final GameData copy = GameDataCopier.copy(data, false);
+    final Territory territory = data.getMap().getTerritories().stream()
+        .filter(t -> !t.getUnits().isEmpty()).findFirst().get();
+    final Territory copied = copy.getMap().getTerritory(territory.getName());
+    final PlayerID originalOwner = territory.getOwner();
+    final PlayerID newOwner = copy.getPlayerList().getPlayers().get(0).equals(originalOwner)
+        ? copy.getPlayerList().getPlayers().get(1) : copy.getPlayerList().getPlayers().get(0);
+    copy.performChange(ChangeFactory.changeOwner(copied, newOwner));
+    assertSame(newOwner, copied.getOwner());
+    assertSame(originalOwner, territory.getOwner());
+    final Unit unit = copied.getUnits().getUnits().iterator().next();
+    copy.performChange(ChangeFactory.removeUnits(copied, Collections.singleton(unit)));
+    assertEquals(copied.getUnits().getUnitCount() + 1, territory.getUnits().getUnitCount());
+  }
+
+  @Test
+  public void testCopyDelegates() {
+    final GameData data = LoadGameUtil.loadTestGame(TestMapXml.WW2V3_1941);
+    final GameData copy = GameDataCopier.copyForSimulation(data, true);
+    assertEquals(data.getDelegateList().size(), copy.getDelegateList().size());
+    for (final IDelegate delegate : data.getDelegateList()) {
+      final IDelegate copied = copy.getDelegateList().getDelegate(delegate.getName());
+      assertNotSame(delegate, copied);
+      assertEquals(delegate.getClass(), copied.getClass());
+      assertEquals(delegate.getDisplayName(), copied.getDisplayName());
+    }
+    assertEquals(0, GameDataCopier.copy(data, false).getDelegateList().size());
+  }
+
+  @Test
+  public void testHistory() {
+    final GameData data = LoadGameUtil.loadTestGame(TestMapXml.IRON_BLITZ);
+    final Territory territory = data.getMap().getTerritories().get(0);
+    final PlayerID player = data.getPlayerList().getPlayers().get(0);
+    final HistoryWriter writer = data.getHistory().getHistoryWriter();
+    writer.startNextStep("step", "delegate", player, "Step");
+    writer.startEvent("event");
+    writer.addChange(ChangeFactory.changeOwner(territory, player));
+    final HistoryNode root = (HistoryNode) data.getHistory().getRoot();
+    final int nodes = Collections.list(root.preorderEnumeration()).size();
+
+    final GameData copy = GameDataCopier.copy(data, false);
+    final HistoryNode copiedRoot = (HistoryNode) copy.getHistory().getRoot();
+    assertEquals(nodes, Collections.list(copiedRoot.preorderEnumeration()).size());
+    final Change delta = copy.getHistory().getDelta(copiedRoot, copy.getHistory().getLastNode());
+    copy.performChange(delta);
+    assertSame(copy.getPlayerList().getPlayerID(player.getName()),
+        copy.getMap().getTerritory(territory.getName()).getOwner());
+
+    final GameData simulation = GameDataCopier.copyForSimulation(data, false);
+    assertEquals(0, ((HistoryNode) simulation.getHistory().getRoot()).getChildCount());
+  }
+
+  /**
+   * Every game object (and every collection holding game objects) reachable from the given data.
+   */
+  private static Set<Object> reachableGameObjects(final GameData data) {
+    final Set<Object> found = Collections.newSetFromMap(new IdentityHashMap<>());
+    final List<Object> toVisit = new ArrayList<>();
+    toVisit.add(data);
+    while (!toVisit.isEmpty()) {
+      final Object object = toVisit.remove(toVisit.size() - 1);
+      if (object == null || object == PlayerID.NULL_PLAYERID || !found.add(object)) {
+        continue;
+      }
+      final Class<?> type = object.getClass();
+      if (type.isArray()) {
+        if (!type.getComponentType().isPrimitive()) {
+          for (int i = 0; i < Array.getLength(object); i++) {
+            toVisit.add(Array.get(object, i));
+          }
+        }
+      } else if (object instanceof Multimap) {
+        toVisit.addAll(((Multimap<?, ?>) object).keySet());
+        toVisit.addAll(((Multimap<?, ?>) object).values());
+      } else if (object instanceof Map) {
+        toVisit.addAll(((Map<?, ?>) object).keySet());
+        toVisit.addAll(((Map<?, ?>) object).values());
+      } else if (object instanceof Collection) {
+        toVisit.addAll((Collection<?>) object);
+      } else if (type.getName().startsWith("games.strategy.") && !(object instanceof Enum)
+          && !(object instanceof GUID) && !(object instanceof Version)) {
+        boolean hasFields = false;
+        for (Class<?> current = type; current.getName().startsWith("games.strategy."); current =
+            current.getSuperclass()) {
+          for (final Field field : current.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())) {
+              continue;
+            }
+            hasFields = true;
+            if (!field.getType().isPrimitive()) {
+              field.setAccessible(true);
+              try {
+                toVisit.add(field.get(object));
+              } catch (final IllegalAccessException e) {
+                throw new IllegalStateException(e);
+              }
+            }
+          }
+        }
+        if (!hasFields) {
+          // stateless objects are shared
+          found.remove(object);
+        }
+      } else {
+        found.remove(object);
+      }
+    }
+    // empty collections may be shared singletons
+    found.removeIf(object -> (object instanceof Collection && ((Collection<?>) object).isEmpty())
+        || (object instanceof Map && ((Map<?, ?>) object).isEmpty()));
+    return found;
+  }
+}
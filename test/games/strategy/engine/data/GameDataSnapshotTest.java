@@ -0,0 +1,80 @@
+package games.strategy.engine.data;
+
+import static games.strategy.triplea.delegate.GameDataTestUtil.germans;
+import static games.strategy.triplea.delegate.GameDataTestUtil.infantry;
+import static games.strategy.triplea.delegate.GameDataTestUtil.territory;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import games.strategy.engine.data.changefactory.ChangeFactory;
+import games.strategy.triplea.TripleA;
+import games.strategy.triplea.ui.display.HeadlessDisplay;
+import games.strategy.triplea.ui.display.ITripleADisplay;
+import games.strategy.triplea.xml.LoadGameUtil;
+
+public class GameDataSnapshotTest {
+  @Test
+  public void testRestorePutsUnitsBack() {
+    final GameData data = LoadGameUtil.loadTestGame(LoadGameUtil.TestMapXml.REVISED);
+    final Territory germany = territory("Germany", data);
+    final List<Unit> units = new ArrayList<>(germany.getUnits().getUnits());
+    final GameDataSnapshot snapshot = GameDataSnapshot.take(data, Collections.emptyList());
+    final Change change = ChangeFactory.addUnits(germany, infantry(data).create(2, germans(data)));
+    data.performChange(change);
+    snapshot.restore(change.invert());
+    assertEquals(units, new ArrayList<>(germany.getUnits().getUnits()));
+    assertEquals(units.size(), germany.getUnits().size());
+  }
+
+  @Test
+  public void testGameLoaderIsLeftAlone() {
+    final GameData data = LoadGameUtil.loadTestGame(LoadGameUtil.TestMapXml.REVISED);
+    final TestLoader loader = new TestLoader(new HeadlessDisplay());
+    data.setGameLoader(loader);
+    final GameDataSnapshot snapshot = GameDataSnapshot.take(data, Collections.emptyList());
+    snapshot.restore(ChangeFactory.EMPTY_CHANGE);
+    // only caches are cleared, not the display the loader was started with
+    assertNotNull(loader.getDisplay());
+  }
+
+  @Test
+  public void testNullPlayerIsLeftAlone() {
+    final GameData data = LoadGameUtil.loadTestGame(LoadGameUtil.TestMapXml.REVISED);
+    final GameDataSnapshot snapshot = GameDataSnapshot.take(data, Collections.emptyList());
+    // the null player is shared by every game, so putting one game back must not touch it
+    final List<Unit> units = infantry(data).create(1, germans(data));
+    PlayerID.NULL_PLAYERID.getUnits().addAllUnits(units);
+    try {
+      snapshot.restore(ChangeFactory.EMPTY_CHANGE);
+      assertTrue(PlayerID.NULL_PLAYERID.getUnits().getUnits().containsAll(units));
+    } finally {
+      PlayerID.NULL_PLAYERID.getUnits().removeAllUnits(units);
+    }
+  }
+
+  private static final class TestLoader extends TripleA {
+    private static final long serialVersionUID = 1L;
+    // some state, so that the snapshot covers the loader
+    private final String m_name = "test";
+
+    private TestLoader(final ITripleADisplay display) {
+      this.display = display;
+    }
+
+    private ITripleADisplay getDisplay() {
+      return display;
+    }
+
+    @Override
+    public String toString() {
+      return m_name;
+    }
+  }
+}
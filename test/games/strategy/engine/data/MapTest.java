@@ -5,6 +5,12 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.junit.Before;
@@ -192,6 +198,11 @@ public class MapTest {
     assertNull(rt);
   }
 
+  @Test(expected = IllegalArgumentException.class)
+  public void testRouteFromNowhere() {
+    map.getRoute(nowhere, aa);
+  }
+
   @Test
   public void testImpossibleLandRoute() {
     final Route rt = map.getLandRoute(aa, cd);
@@ -245,4 +256,52 @@ public class MapTest {
     assertTrue(neighbors.contains(bb));
     assertTrue(neighbors.contains(ca));
   }
+
+  @Test
+  public void testNeighborsWithDistanceAndCondition() {
+    final Match<Territory> land = new Match<Territory>() {
+      @Override
+      public boolean match(final Territory t) {
+        return !t.isWater();
+      }
+    };
+    // cd can only be reached over water
+    assertEquals(new HashSet<>(Arrays.asList(ab, ac, ad, ba, bb, ca, cb, da, db)),
+        map.getNeighbors(aa, 10, land));
+    assertEquals(new HashSet<>(Arrays.asList(aa, ac, ad, bb, ca, cb, da)),
+        map.getNeighbors(new HashSet<>(Arrays.asList(ab, ba)), 2, land));
+    assertTrue(map.getNeighbors(new HashSet<>(Arrays.asList(ab, ba)), 0).isEmpty());
+  }
+
+  @Test
+  public void testVisitNeighbors() {
+    final List<Territory> visited = new ArrayList<>();
+    final List<Integer> distances = new ArrayList<>();
+    final Map<Territory, Integer> tested = new HashMap<>();
+    final Match<Territory> counted = new Match<Territory>() {
+      @Override
+      public boolean match(final Territory t) {
+        tested.merge(t, 1, Integer::sum);
+        return true;
+      }
+    };
+    map.visitNeighbors(aa, 3, counted, (territory, distance) -> {
+      visited.add(territory);
+      distances.add(distance);
+    });
+    assertEquals(map.getNeighbors(aa, 3), new HashSet<>(visited));
+    assertEquals(visited.size(), new HashSet<>(visited).size());
+    assertEquals(Arrays.asList(1, 1, 2, 2, 2, 3, 3, 3, 3), distances);
+    for (final int count : tested.values()) {
+      assertEquals(1, count);
+    }
+  }
+
+  @Test
+  public void testDistanceAfterConnectionAdded() {
+    assertEquals(6, map.getDistance(aa, dd));
+    map.addConnection(aa, dd);
+    assertEquals(1, map.getDistance(aa, dd));
+    assertEquals(Arrays.asList(ba, aa, dd), map.getRoute(ba, dd).getAllTerritories());
+  }
 }
@@ -0,0 +1,61 @@
+package games.strategy.engine.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import games.strategy.triplea.delegate.Matches;
+import games.strategy.triplea.xml.LoadGameUtil;
+import games.strategy.util.CompositeMatchAnd;
+import games.strategy.util.Match;
+
+public class MultiConditionRouteFinderTest {
+  @Test
+  public void testRoutesMatchSeparateSearches() {
+    final GameData data = LoadGameUtil.loadTestGame(LoadGameUtil.TestMapXml.REVISED);
+    final PlayerID germans = data.getPlayerList().getPlayerID("Germans");
+    final Match<Territory> required = Matches.TerritoryIsPassableAndNotRestricted(germans, data);
+    final Match<Territory> noEnemy = Matches.territoryHasEnemyUnits(germans, data).invert();
+    final Match<Territory> noNeutral = Matches.TerritoryIsNeutralButNotWater.invert();
+    final List<Match<Territory>> conditions = Arrays.asList(Matches.TerritoryIsLand, noEnemy, noNeutral);
+    final GameMap map = data.getMap();
+    for (final String startName : Arrays.asList("Germany", "5 Sea Zone", "Eastern United States")) {
+      final Territory start = map.getTerritory(startName);
+      final MultiConditionRouteFinder finder = new MultiConditionRouteFinder(map, start, required, conditions);
+      for (final Territory end : map.getTerritories()) {
+        if (end.equals(start)) {
+          continue;
+        }
+        for (int mask = 0; mask < 1 << conditions.size(); mask++) {
+          final List<Match<Territory>> wanted = new ArrayList<>();
+          final CompositeMatchAnd<Territory> cond = new CompositeMatchAnd<>(required);
+          for (int i = 0; i < conditions.size(); i++) {
+            if ((mask & 1 << i) != 0) {
+              wanted.add(conditions.get(i));
+              cond.add(conditions.get(i));
+            }
+          }
+          final Route route = finder.getRoute(end, wanted);
+          final Route expected = map.getRoute_IgnoreEnd(start, end, cond);
+          if (expected == null) {
+            assertNull(end.getName(), route);
+            continue;
+          }
+          assertEquals(end.getName(), expected.numberOfSteps(), route.numberOfSteps());
+          assertEquals(start, route.getStart());
+          assertEquals(end, route.getEnd());
+          assertTrue(map.isValidRoute(route));
+          for (final Territory step : route.getMiddleSteps()) {
+            assertTrue(step.getName(), cond.match(step));
+          }
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package games.strategy.engine.data;
+
+import static games.strategy.triplea.delegate.GameDataTestUtil.americans;
+import static games.strategy.triplea.delegate.GameDataTestUtil.germans;
+import static games.strategy.triplea.delegate.GameDataTestUtil.russians;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import games.strategy.engine.data.changefactory.ChangeFactory;
+import games.strategy.engine.framework.GameDataUtils;
+import games.strategy.triplea.attachments.RelationshipTypeAttachment;
+import games.strategy.triplea.xml.LoadGameUtil;
+
+public class RelationshipTrackerTest {
+  private static void assertMatrixMatchesAttachments(final GameData data) {
+    final RelationshipTracker tracker = data.getRelationshipTracker();
+    final List<PlayerID> players = new ArrayList<>(data.getPlayerList().getPlayers());
+    players.add(PlayerID.NULL_PLAYERID);
+    for (final PlayerID p1 : players) {
+      final Set<PlayerID> allies = new HashSet<>();
+      final Set<PlayerID> enemies = new HashSet<>();
+      for (final PlayerID p2 : players) {
+        final RelationshipTypeAttachment rta = tracker.getRelationshipType(p1, p2).getRelationshipTypeAttachment();
+        final String pair = p1.getName() + ":" + p2.getName();
+        assertEquals(pair, rta.isAllied(), tracker.isAllied(p1, p2));
+        assertEquals(pair, rta.isWar(), tracker.isAtWar(p1, p2));
+        assertEquals(pair, rta.isNeutral(), tracker.isNeutral(p1, p2));
+        assertEquals(pair, rta.getCanMoveLandUnitsOverOwnedLand(), tracker.canMoveLandUnitsOverOwnedLand(p1, p2));
+        assertEquals(pair, rta.getCanLandAirUnitsOnOwnedLand(), tracker.canLandAirUnitsOnOwnedLand(p1, p2));
+        assertEquals(pair, rta.getCanTakeOverOwnedTerritory(), tracker.canTakeOverOwnedTerritory(p1, p2));
+        assertEquals(pair, rta.getCanMoveThroughCanals(), tracker.canMoveThroughCanals(p1, p2));
+        assertEquals(pair, rta.isAllied() && rta.getAlliancesCanChainTogether(),
+            tracker.alliancesCanChainTogether(p1, p2));
+        if (!p2.isNull() && !p2.equals(p1)) {
+          if (rta.isAllied()) {
+            allies.add(p2);
+          }
+          if (rta.isWar()) {
+            enemies.add(p2);
+          }
+        }
+      }
+      if (!p1.isNull()) {
+        assertEquals(p1.getName(), allies, tracker.getAllies(p1, false));
+        assertEquals(p1.getName(), enemies, tracker.getEnemies(p1));
+      }
+    }
+  }
+
+  @Test
+  public void testMatrixMatchesTheRelationshipTypes() {
+    assertMatrixMatchesAttachments(LoadGameUtil.loadTestGame(LoadGameUtil.TestMapXml.REVISED));
+    assertMatrixMatchesAttachments(LoadGameUtil.loadTestGame(LoadGameUtil.TestMapXml.WW2V3_1942));
+    assertMatrixMatchesAttachments(LoadGameUtil.loadTestGame(LoadGameUtil.TestMapXml.GLOBAL1940));
+  }
+
+  @Test
+  public void testMatrixFollowsRelationshipChanges() {
+    final GameData data = LoadGameUtil.loadTestGame(LoadGameUtil.TestMapXml.REVISED);
+    final RelationshipTracker tracker = data.getRelationshipTracker();
+    final PlayerID germans = germans(data);
+    final PlayerID russians = russians(data);
+    assertTrue(tracker.isAtWar(germans, russians));
+    assertTrue(tracker.getEnemies(germans).contains(russians));
+    final Change change = ChangeFactory.relationshipChange(germans, russians,
+        tracker.getRelationshipType(germans, russians), data.getRelationshipTypeList().getDefaultAlliedRelationship());
+    data.performChange(change);
+    assertFalse(tracker.isAtWar(germans, russians));
+    assertTrue(tracker.isAllied(russians, germans));
+    assertFalse(tracker.getEnemies(germans).contains(russians));
+    assertTrue(tracker.getAllies(germans, true).contains(russians));
+    data.performChange(change.invert());
+    assertTrue(tracker.isAtWar(germans, russians));
+    assertTrue(tracker.getEnemies(russians).contains(germans));
+  }
+
+  @Test
+  public void testPlayersOfACopyOfTheGameData() {
+    final GameData data = LoadGameUtil.loadTestGame(LoadGameUtil.TestMapXml.REVISED);
+    final GameData copy = GameDataUtils.cloneGameData(data);
+    final RelationshipTracker tracker = data.getRelationshipTracker();
+    assertTrue(tracker.isAtWar(germans(copy), americans(data)));
+    assertTrue(tracker.isAllied(americans(copy), russians(copy)));
+    assertTrue(tracker.getEnemies(germans(copy)).contains(americans(data)));
+    assertMatrixMatchesAttachments(copy);
+  }
+}
@@ -0,0 +1,73 @@
+package games.strategy.engine.data;
+
+import static games.strategy.triplea.delegate.GameDataTestUtil.germans;
+import static games.strategy.triplea.delegate.GameDataTestUtil.infantry;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.lang.ref.WeakReference;
+
+import org.junit.Test;
+
+import games.strategy.engine.data.changefactory.ChangeFactory;
+import games.strategy.triplea.delegate.Matches;
+import games.strategy.triplea.xml.LoadGameUtil;
+import games.strategy.util.Match;
+
+public class TerritoryDistancesTest {
+  @Test
+  public void testDistancesMatchTheMap() {
+    final GameData data = LoadGameUtil.loadTestGame(LoadGameUtil.TestMapXml.REVISED);
+    final GameMap map = data.getMap();
+    final Match<Territory> land = Matches.isTerritoryAllied(germans(data), data);
+    final TerritoryDistances distances = TerritoryDistances.get(data, "allied", land);
+    for (final String name : new String[] {"Germany", "Norway", "5 Sea Zone"}) {
+      final Territory from = map.getTerritory(name);
+      for (final Territory to : map.getTerritories()) {
+        assertEquals(to.getName(), map.getDistance(from, to, land), distances.getDistance(from, to));
+        assertEquals(to.getName(), map.getDistance_IgnoreEndForCondition(from, to, land),
+            distances.getDistance_IgnoreEndForCondition(from, to));
+      }
+      for (int distance = 0; distance < 4; distance++) {
+        assertEquals(map.getNeighbors(from, distance, land), distances.getNeighbors(from, distance));
+      }
+    }
+  }
+
+  @Test
+  public void testDistancesAreKeptUntilTerritoriesChange() {
+    final GameData data = LoadGameUtil.loadTestGame(LoadGameUtil.TestMapXml.REVISED);
+    final Territory germany = data.getMap().getTerritory("Germany");
+    final Territory easternEurope = data.getMap().getTerritory("Eastern Europe");
+    final Match<Territory> allied = Matches.isTerritoryAllied(germans(data), data);
+    final TerritoryDistances distances = TerritoryDistances.get(data, "allied", allied);
+    assertEquals(1, distances.getDistance(germany, easternEurope));
+    data.performChange(ChangeFactory.addUnits(germany, infantry(data).create(1, germans(data))));
+    assertSame(distances, TerritoryDistances.get(data, "allied", allied));
+    data.performChange(ChangeFactory.changeOwner(easternEurope, data.getPlayerList().getPlayerID("Russians")));
+    final TerritoryDistances changed = TerritoryDistances.get(data, "allied", allied);
+    assertNotSame(distances, changed);
+    assertEquals(-1, changed.getDistance(germany, easternEurope));
+    assertEquals(1, changed.getDistance_IgnoreEndForCondition(germany, easternEurope));
+  }
+
+  private static WeakReference<GameData> searchNewGame() {
+    final GameData data = LoadGameUtil.loadTestGame(LoadGameUtil.TestMapXml.REVISED);
+    final GameMap map = data.getMap();
+    TerritoryDistances.get(data, Matches.TerritoryIsLand).getDistance(map.getTerritory("Germany"),
+        map.getTerritory("Norway"));
+    return new WeakReference<>(data);
+  }
+
+  @Test
+  public void testDistancesDoNotKeepGameDataAlive() throws InterruptedException {
+    final WeakReference<GameData> reference = searchNewGame();
+    for (int i = 0; i < 20 && reference.get() != null; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    assertNull(reference.get());
+  }
+}
@@ -0,0 +1,117 @@
+package games.strategy.engine.data;
+
+import static games.strategy.triplea.delegate.GameDataTestUtil.armour;
+import static games.strategy.triplea.delegate.GameDataTestUtil.germans;
+import static games.strategy.triplea.delegate.GameDataTestUtil.infantry;
+import static games.strategy.triplea.delegate.GameDataTestUtil.russians;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ObjectStreamClass;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import games.strategy.engine.data.changefactory.ChangeFactory;
+import games.strategy.engine.framework.GameDataUtils;
+import games.strategy.triplea.xml.LoadGameUtil;
+import games.strategy.util.IntegerMap;
+
+public class UnitCollectionCountsTest {
+  private GameData m_data;
+  private PlayerID m_germans;
+  private PlayerID m_russians;
+  private Territory m_territory;
+
+  @Before
+  public void setUp() {
+    m_data = LoadGameUtil.loadTestGame(LoadGameUtil.TestMapXml.REVISED);
+    m_germans = germans(m_data);
+    m_russians = russians(m_data);
+    m_territory = m_data.getMap().getTerritory("Germany");
+    m_territory.getUnits().removeAllUnits(m_territory.getUnits().getUnits());
+  }
+
+  @Test
+  public void testCountsFollowAddAndRemove() {
+    final UnitCollection units = m_territory.getUnits();
+    final List<Unit> infantry = infantry(m_data).create(3, m_germans);
+    final List<Unit> armour = armour(m_data).create(2, m_russians);
+    units.addAllUnits(infantry);
+    units.addAllUnits(armour);
+    assertEquals(5, units.size());
+    assertEquals(3, units.getUnitCount(infantry(m_data), m_germans));
+    assertEquals(0, units.getUnitCount(infantry(m_data), m_russians));
+    assertEquals(2, units.getUnitCount(m_russians));
+    assertTrue(units.hasUnitsFromMultiplePlayers());
+    final IntegerMap<UnitType> byType = units.getUnitsByType();
+    assertEquals(3, byType.getInt(infantry(m_data)));
+    assertEquals(2, byType.getInt(armour(m_data)));
+    units.removeAllUnits(armour);
+    assertEquals(3, units.size());
+    assertFalse(units.hasUnitsFromMultiplePlayers());
+    assertEquals(Collections.singleton(m_germans), units.getPlayersWithUnits());
+    assertEquals(0, units.getUnitsByType(m_russians).totalValues());
+    assertTrue(units.containsAll(infantry));
+    assertFalse(units.contains(armour.get(0)));
+  }
+
+  @Test
+  public void testOrderIsKept() {
+    final UnitCollection units = m_territory.getUnits();
+    final List<Unit> added = new ArrayList<>(infantry(m_data).create(2, m_germans));
+    added.addAll(armour(m_data).create(2, m_germans));
+    added.addAll(infantry(m_data).create(2, m_germans));
+    units.addAllUnits(added);
+    units.removeAllUnits(added.subList(1, 2));
+    added.remove(1);
+    assertEquals(added, new ArrayList<>(units.getUnits()));
+    assertEquals(added.subList(0, 1), new ArrayList<>(units.getUnits(infantry(m_data), 1)));
+  }
+
+  @Test
+  public void testUnitAddedTwice() {
+    final UnitCollection units = m_territory.getUnits();
+    final Unit unit = infantry(m_data).create(1, m_germans).get(0);
+    units.addAllUnits(Collections.singleton(unit));
+    units.addAllUnits(Collections.singleton(unit));
+    assertEquals(2, units.size());
+    assertEquals(2, units.getUnits().size());
+    units.removeAllUnits(Collections.singleton(unit));
+    assertTrue(units.isEmpty());
+    assertEquals(0, units.getUnitCount(infantry(m_data)));
+  }
+
+  @Test
+  public void testCountsFollowOwnerChanges() {
+    final UnitCollection units = m_territory.getUnits();
+    final List<Unit> infantry = infantry(m_data).create(2, m_germans);
+    units.addAllUnits(infantry);
+    assertEquals(2, units.getUnitCount(m_germans));
+    m_data.performChange(ChangeFactory.changeOwner(infantry, m_russians, m_territory));
+    assertEquals(0, units.getUnitCount(m_germans));
+    assertEquals(2, units.getUnitCount(infantry(m_data), m_russians));
+  }
+
+  @Test
+  public void testCopies() {
+    final List<Unit> infantry = infantry(m_data).create(2, m_germans);
+    m_territory.getUnits().addAllUnits(infantry);
+    for (final GameData copy : new GameData[] {GameDataUtils.cloneGameData(m_data),
+        GameDataUtils.cloneGameDataBySerialization(m_data, false)}) {
+      final UnitCollection units = copy.getMap().getTerritory("Germany").getUnits();
+      assertEquals(infantry, new ArrayList<>(units.getUnits()));
+      assertTrue(units.contains(infantry.get(1)));
+      assertEquals(2, units.getUnitCount(germans(copy)));
+    }
+  }
+
+  @Test
+  public void testUnitsAreSavedAsAList() {
+    assertEquals(List.class, ObjectStreamClass.lookup(UnitCollection.class).getField("m_units").getType());
+  }
+}
@@ -0,0 +1,101 @@
+package games.strategy.engine.data;
+
+import static games.strategy.triplea.delegate.GameDataTestUtil.germans;
+import static games.strategy.triplea.delegate.GameDataTestUtil.infantry;
+import static games.strategy.triplea.delegate.GameDataTestUtil.transport;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Test;
+
+import games.strategy.engine.data.changefactory.ChangeFactory;
+import games.strategy.engine.framework.GameDataUtils;
+import games.strategy.triplea.TripleAUnit;
+import games.strategy.triplea.delegate.TransportTracker;
+import games.strategy.triplea.xml.LoadGameUtil;
+
+public class UnitIndexTest {
+  /**
+   * Checks the unit index of the game data against a search of all territories.
+   */
+  static void assertIndexConsistent(final GameData data) {
+    final UnitIndex index = data.getUnitIndex();
+    for (final Territory territory : data.getMap().getTerritories()) {
+      for (final Unit unit : territory.getUnits()) {
+        assertSame(unit.toString(), territory, index.getTerritory(unit));
+        final List<Unit> transporting = new ArrayList<>();
+        for (final Unit other : territory.getUnits()) {
+          if (((TripleAUnit) other).getTransportedBy() == unit) {
+            transporting.add(other);
+          }
+        }
+        assertEquals(unit.toString(), new HashSet<>(transporting), new HashSet<>(index.getTransporting(unit)));
+        assertEquals(unit.toString(), transporting.size(), index.getTransporting(unit).size());
+      }
+    }
+  }
+
+  @Test
+  public void testIndexFollowsUnitAndTransportChanges() {
+    final GameData data = LoadGameUtil.loadTestGame(LoadGameUtil.TestMapXml.REVISED);
+    assertIndexConsistent(data);
+    final PlayerID germans = germans(data);
+    final Territory germany = data.getMap().getTerritory("Germany");
+    final Territory sz5 = data.getMap().getTerritory("5 Sea Zone");
+    final Territory sz7 = data.getMap().getTerritory("7 Sea Zone");
+    final TripleAUnit transport = (TripleAUnit) transport(data).create(1, germans).get(0);
+    final List<Unit> infantry = infantry(data).create(2, germans);
+    data.performChange(ChangeFactory.addUnits(sz5, Collections.singleton(transport)));
+    data.performChange(ChangeFactory.addUnits(germany, infantry));
+    assertSame(sz5, data.getUnitIndex().getTerritory(transport));
+    assertTrue(TransportTracker.transporting(transport).isEmpty());
+    // load the infantry
+    final CompositeChange load = new CompositeChange();
+    load.add(ChangeFactory.moveUnits(germany, sz5, infantry));
+    for (final Unit unit : infantry) {
+      load.add(ChangeFactory.unitPropertyChange(unit, transport, TripleAUnit.TRANSPORTED_BY));
+    }
+    data.performChange(load);
+    assertIndexConsistent(data);
+    assertEquals(new HashSet<>(infantry), new HashSet<>(TransportTracker.transporting(transport)));
+    // move the loaded transport
+    final List<Unit> moved = new ArrayList<>(infantry);
+    moved.add(transport);
+    final Change move = ChangeFactory.moveUnits(sz5, sz7, moved);
+    data.performChange(move);
+    assertIndexConsistent(data);
+    assertSame(sz7, data.getUnitIndex().getTerritory(infantry.get(0)));
+    assertEquals(2, TransportTracker.transporting(transport).size());
+    // the cargo is lost with the transport
+    final Change remove = ChangeFactory.removeUnits(sz7, moved);
+    data.performChange(remove);
+    assertIndexConsistent(data);
+    assertNull(data.getUnitIndex().getTerritory(transport));
+    assertTrue(TransportTracker.transporting(transport).isEmpty());
+    data.performChange(remove.invert());
+    assertEquals(2, TransportTracker.transporting(transport).size());
+    data.performChange(move.invert());
+    data.performChange(load.invert());
+    assertIndexConsistent(data);
+    assertTrue(TransportTracker.transporting(transport).isEmpty());
+    assertSame(germany, data.getUnitIndex().getTerritory(infantry.get(0)));
+  }
+
+  @Test
+  public void testIndexOfACopyIsBuiltFromItsMap() {
+    final GameData data = LoadGameUtil.loadTestGame(LoadGameUtil.TestMapXml.REVISED);
+    final Territory germany = data.getMap().getTerritory("Germany");
+    final Unit unit = germany.getUnits().getUnits().iterator().next();
+    assertSame(germany, data.getUnitIndex().getTerritory(unit));
+    final GameData copy = GameDataUtils.cloneGameData(data);
+    assertIndexConsistent(copy);
+    assertSame(copy.getMap().getTerritory("Germany"), copy.getUnitIndex().getTerritory(unit));
+  }
+}
@@ -0,0 +1,65 @@
+package games.strategy.engine.data;
+
+import static games.strategy.triplea.delegate.GameDataTestUtil.fighter;
+import static games.strategy.triplea.delegate.GameDataTestUtil.infantry;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import games.strategy.engine.data.changefactory.ChangeFactory;
+import games.strategy.triplea.attachments.UnitAttachment;
+import games.strategy.triplea.delegate.Matches;
+import games.strategy.triplea.xml.LoadGameUtil;
+
+public class UnitTypeTest {
+  private static void assertCapabilitiesMatchAttachment(final GameData data) {
+    for (final UnitType type : data.getUnitTypeList()) {
+      final UnitAttachment ua = UnitAttachment.get(type);
+      final String name = type.getName();
+      assertEquals(name, ua.getIsAir(), Matches.UnitTypeIsAir.match(type));
+      assertEquals(name, ua.getIsSea(), Matches.UnitTypeIsSea.match(type));
+      assertEquals(name, !ua.getIsAir() && !ua.getIsSea(), Matches.UnitTypeIsLand.match(type));
+      assertEquals(name, ua.getIsInfrastructure(), Matches.UnitTypeIsInfrastructure.match(type));
+      assertEquals(name, ua.getIsSub(), Matches.UnitTypeIsSub.match(type));
+      assertEquals(name, ua.getIsDestroyer(), Matches.UnitTypeIsDestroyer.match(type));
+      assertEquals(name, ua.getTransportCapacity() != -1, Matches.UnitTypeCanTransport.match(type));
+      assertEquals(name, ua.getCarrierCost() != -1, Matches.UnitTypeCanLandOnCarrier.match(type));
+      assertEquals(name, ua.getCanProduceUnits(), Matches.UnitTypeCanProduceUnits.match(type));
+      assertEquals(name, ua.getIsStrategicBomber(), Matches.UnitTypeIsStrategicBomber.match(type));
+      assertEquals(name, ua.getIsAAforBombingThisUnitOnly() || ua.getIsAAforCombatOnly() || ua.getIsAAforFlyOverOnly(),
+          Matches.UnitTypeIsAAforAnything.match(type));
+      final Unit unit = type.create(1, PlayerID.NULL_PLAYERID, true).get(0);
+      assertEquals(name, ua.getTransportCapacity() != -1 && ua.getIsSea(), Matches.UnitIsTransport.match(unit));
+      assertEquals(name, ua.getTransportCapacity() != -1 && ua.getIsSea() && !ua.getIsCombatTransport(),
+          Matches.UnitIsTransportButNotCombatTransport.match(unit));
+      assertEquals(name, ua.getCarrierCapacity() != -1, Matches.UnitIsCarrier.match(unit));
+      assertEquals(name, !ua.getIsAir(), Matches.UnitIsNotAir.match(unit));
+      assertEquals(name, ua.getIsSea() || ua.getIsAir(), Matches.UnitIsNotLand.match(unit));
+    }
+  }
+
+  @Test
+  public void testCapabilitiesMatchTheUnitAttachment() {
+    assertCapabilitiesMatchAttachment(LoadGameUtil.loadTestGame(LoadGameUtil.TestMapXml.REVISED));
+    assertCapabilitiesMatchAttachment(LoadGameUtil.loadTestGame(LoadGameUtil.TestMapXml.WW2V3_1942));
+    assertCapabilitiesMatchAttachment(LoadGameUtil.loadTestGame(LoadGameUtil.TestMapXml.GLOBAL1940));
+  }
+
+  @Test
+  public void testCapabilitiesFollowAttachmentChanges() {
+    final GameData data = LoadGameUtil.loadTestGame(LoadGameUtil.TestMapXml.REVISED);
+    final UnitType infantry = infantry(data);
+    assertTrue(Matches.UnitTypeIsLand.match(infantry));
+    final Change change = ChangeFactory.attachmentPropertyChange(UnitAttachment.get(infantry), "true", "isAir");
+    data.performChange(change);
+    assertTrue(Matches.UnitTypeIsAir.match(infantry));
+    assertFalse(Matches.UnitTypeIsLand.match(infantry));
+    // other unit types keep what they had
+    assertTrue(Matches.UnitTypeIsAir.match(fighter(data)));
+    data.performChange(change.invert());
+    assertFalse(Matches.UnitTypeIsAir.match(infantry));
+    assertTrue(Matches.UnitTypeIsLand.match(infantry));
+  }
+}
@@ -0,0 +1,84 @@
+package games.strategy.engine.framework;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import games.strategy.engine.data.GameData;
+import games.strategy.triplea.xml.LoadGameUtil;
+
+public class AutoSaverTest {
+  private File m_folder;
+
+  @Before
+  public void setUp() throws IOException {
+    m_folder = Files.createTempDirectory("autosaves").toFile();
+  }
+
+  @After
+  public void tearDown() {
+    for (final File file : m_folder.listFiles()) {
+      file.delete();
+    }
+    m_folder.delete();
+  }
+
+  private static GameData copy(final GameData data, final String name) {
+    final GameData copy = GameDataUtils.cloneGameData(data, false);
+    copy.getProperties().set("autosave", name);
+    return copy;
+  }
+
+  private static String load(final File file) throws IOException {
+    return (String) new GameDataManager().loadGame(file).getProperties().get("autosave");
+  }
+
+  @Test
+  public void testOverlappingSavesCoalesced() throws Exception {
+    final GameData data = LoadGameUtil.loadTestGame(LoadGameUtil.TestMapXml.REVISED);
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    final CountDownLatch writerBusy = new CountDownLatch(1);
+    executor.execute(() -> {
+      try {
+        writerBusy.await();
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    final AutoSaver saver = new AutoSaver(executor);
+    final File first = new File(m_folder, "autosave.tsvg");
+    final File second = new File(m_folder, "autosave2.tsvg");
+    saver.save(first, copy(data, "first"));
+    saver.save(first, copy(data, "newer first"));
+    saver.save(second, copy(data, "second"));
+    assertEquals(1, saver.getCoalescedCount());
+    assertEquals(0, saver.getSaveCount());
+    writerBusy.countDown();
+    assertTrue(saver.shutDown(60000));
+    assertEquals(2, saver.getSaveCount());
+    assertEquals(0, saver.getFailureCount());
+    assertEquals("newer first", load(first));
+    assertEquals("second", load(second));
+    assertEquals(second.length(), saver.getLastSize());
+  }
+
+  @Test
+  public void testSaveAfterShutDownFails() {
+    final GameData data = LoadGameUtil.loadTestGame(LoadGameUtil.TestMapXml.REVISED);
+    final AutoSaver saver = new AutoSaver();
+    assertTrue(saver.shutDown(1000));
+    saver.save(new File(m_folder, "autosave.tsvg"), data);
+    assertEquals(1, saver.getFailureCount());
+    assertEquals(0, m_folder.listFiles().length);
+  }
+}
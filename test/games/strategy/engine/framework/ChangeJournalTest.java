@@ -0,0 +1,195 @@
+package games.strategy.engine.framework;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.util.concurrent.MoreExecutors;
+
+import games.strategy.engine.data.Change;
+import games.strategy.engine.data.GameData;
+import games.strategy.engine.data.GameStep;
+import games.strategy.engine.data.PlayerID;
+import games.strategy.engine.data.Resource;
+import games.strategy.engine.data.Territory;
+import games.strategy.engine.data.Unit;
+import games.strategy.engine.data.changefactory.ChangeFactory;
+import games.strategy.engine.history.HistoryWriter;
+import games.strategy.triplea.Constants;
+import games.strategy.triplea.xml.LoadGameUtil;
+
+public class ChangeJournalTest {
+  private static final int ROUNDS = 5;
+  private File m_folder;
+  private GameData m_data;
+  private ChangeJournal m_journal;
+  // the game as it was after each step written to the journal
+  private final List<String> m_steps = new ArrayList<>();
+
+  @Before
+  public void setUp() throws IOException {
+    m_folder = Files.createTempDirectory("journal").toFile();
+    m_data = LoadGameUtil.loadTestGame(LoadGameUtil.TestMapXml.REVISED);
+    m_journal = new ChangeJournal(m_folder, new AutoSaver(MoreExecutors.newDirectExecutorService()));
+    m_journal.startSnapshot(GameDataUtils.cloneGameData(m_data, true));
+    final HistoryWriter writer = m_data.getHistory().getHistoryWriter();
+    writer.startNextRound(m_data.getSequence().getRound());
+    m_journal.startNextRound(m_data.getSequence().getRound());
+    final Random random = new Random(42);
+    while (m_data.getSequence().getRound() <= ROUNDS) {
+      final GameStep step = m_data.getSequence().getStep();
+      writer.startNextStep(step.getName(), step.getDelegate().getName(), step.getPlayerID(), step.getDisplayName());
+      m_journal.startNextStep(step.getName(), step.getDelegate().getName(), step.getPlayerID(),
+          step.getDisplayName());
+      playStep(random);
+      step.incrementRunCount();
+      final boolean newRound = m_data.getSequence().next();
+      if (newRound) {
+        writer.startNextRound(m_data.getSequence().getRound());
+        m_journal.startNextRound(m_data.getSequence().getRound());
+      }
+      m_journal.endStep(m_data);
+      m_steps.add(describe(m_data));
+      if (newRound && m_data.getSequence().getRound() % 2 == 1) {
+        m_journal.startSnapshot(GameDataUtils.cloneGameData(m_data, true));
+      }
+    }
+    // a step the process dies part way through
+    final GameStep step = m_data.getSequence().getStep();
+    writer.startNextStep(step.getName(), step.getDelegate().getName(), step.getPlayerID(), step.getDisplayName());
+    m_journal.startNextStep(step.getName(), step.getDelegate().getName(), step.getPlayerID(), step.getDisplayName());
+    playStep(random);
+  }
+
+  @After
+  public void tearDown() {
+    m_journal.close();
+    for (final File file : m_folder.listFiles()) {
+      file.delete();
+    }
+    m_folder.delete();
+  }
+
+  private void playStep(final Random random) {
+    final PlayerID player = m_data.getSequence().getStep().getPlayerID();
+    if (player == null) {
+      return;
+    }
+    final HistoryWriter writer = m_data.getHistory().getHistoryWriter();
+    final List<Territory> territories = m_data.getMap().getTerritories();
+    final Resource pus = m_data.getResourceList().getResource(Constants.PUS);
+    writer.startEvent(player.getName() + " moves");
+    m_journal.startEvent(player.getName() + " moves");
+    for (int i = 0; i < 6; i++) {
+      final Territory territory = territories.get(random.nextInt(territories.size()));
+      final List<Unit> units = new ArrayList<>(territory.getUnits().getUnits());
+      final Change change;
+      switch (random.nextInt(4)) {
+        case 0:
+          change = ChangeFactory.changeResourcesChange(player, pus, random.nextInt(20));
+          break;
+        case 1:
+          change = ChangeFactory.changeOwner(territory, player);
+          break;
+        case 2:
+          change = ChangeFactory.addUnits(territory, m_data.getUnitTypeList()
+              .getUnitType(Constants.UNIT_TYPE_INFANTRY).create(1 + random.nextInt(3), player));
+          break;
+        default:
+          change = ChangeFactory.removeUnits(territory, units.subList(0, Math.min(2, units.size())));
+          break;
+      }
+      m_data.performChange(change);
+      writer.addChange(change);
+      m_journal.addChange(change);
+    }
+  }
+
+  private static String describe(final GameData data) {
+    final StringBuilder description = new StringBuilder();
+    description.append(data.getSequence().getRound()).append(':').append(data.getSequence().getStepIndex());
+    for (final GameStep step : data.getSequence()) {
+      description.append(',').append(step.getRunCount());
+    }
+    description.append('\n').append(data.getHistory().getLastNode()).append('\n');
+    for (final Territory territory : data.getMap().getTerritories()) {
+      description.append(territory.getName()).append(':').append(territory.getOwner().getName());
+      for (final Unit unit : territory.getUnits().getUnits()) {
+        description.append(' ').append(unit.getID()).append('/').append(unit.getOwner().getName());
+      }
+      description.append('\n');
+    }
+    for (final PlayerID player : data.getPlayerList().getPlayers()) {
+      description.append(player.getName()).append(':').append(player.getResources()).append('\n');
+    }
+    return description.toString();
+  }
+
+  private File getFile(final int generation, final String extension) {
+    return new File(m_folder, "journal_" + generation + extension);
+  }
+
+  @Test
+  public void testRecoversLastStepWritten() throws IOException {
+    assertEquals(m_steps.get(m_steps.size() - 1), describe(ChangeJournal.recover(m_folder)));
+    // the two newest generations are kept, along with the lock file
+    assertEquals(5, m_folder.listFiles().length);
+    assertTrue(getFile(3, ".tsvg").exists());
+    assertTrue(m_journal.getBytesWritten() / m_journal.getFrameCount() * 10 < getFile(3, ".tsvg").length());
+  }
+
+  @Test
+  public void testFrameCutShortIgnored() throws IOException {
+    try (RandomAccessFile log = new RandomAccessFile(getFile(3, ChangeJournal.LOG_EXTENSION), "rw")) {
+      log.setLength(log.length() - 10);
+    }
+    assertEquals(m_steps.get(m_steps.size() - 2), describe(ChangeJournal.recover(m_folder)));
+  }
+
+  @Test
+  public void testRecoversFromPreviousSnapshot() throws IOException {
+    assertTrue(getFile(3, ".tsvg").delete());
+    assertEquals(m_steps.get(m_steps.size() - 1), describe(ChangeJournal.recover(m_folder)));
+  }
+
+  @Test
+  public void testSecondJournalInFolderNotWritten() throws IOException {
+    final GameData newGame = LoadGameUtil.loadTestGame(LoadGameUtil.TestMapXml.REVISED);
+    final ChangeJournal journal = new ChangeJournal(m_folder, new AutoSaver(MoreExecutors.newDirectExecutorService()));
+    journal.startSnapshot(GameDataUtils.cloneGameData(newGame, true));
+    assertFalse(journal.isWriting());
+    assertTrue(m_journal.isWriting());
+    assertEquals(m_steps.get(m_steps.size() - 1), describe(ChangeJournal.recover(m_folder)));
+  }
+
+  @Test
+  public void testEarlierGameIgnored() throws IOException {
+    m_journal.close();
+    final GameData newGame = LoadGameUtil.loadTestGame(LoadGameUtil.TestMapXml.REVISED);
+    final ChangeJournal journal = new ChangeJournal(m_folder, new AutoSaver(MoreExecutors.newDirectExecutorService()));
+    journal.startSnapshot(GameDataUtils.cloneGameData(newGame, true));
+    journal.close();
+    // the earlier game's generations are left alone
+    assertTrue(getFile(3, ".tsvg").exists());
+    assertTrue(getFile(4, ".tsvg").delete());
+    try {
+      ChangeJournal.recover(m_folder);
+      fail("Recovered the earlier game");
+    } catch (final IOException expected) {
+      // expected
+    }
+  }
+}
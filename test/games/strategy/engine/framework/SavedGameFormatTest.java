@@ -0,0 +1,224 @@
+package games.strategy.engine.framework;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import games.strategy.engine.ClientContext;
+import games.strategy.engine.data.GameData;
+import games.strategy.engine.data.Territory;
+import games.strategy.triplea.xml.LoadGameUtil;
+import games.strategy.util.Version;
+
+public class SavedGameFormatTest {
+  private GameData m_data;
+
+  @Before
+  public void setUp() {
+    m_data = LoadGameUtil.loadTestGame(LoadGameUtil.TestMapXml.REVISED);
+  }
+
+  private byte[] save(final GameDataManager manager) throws IOException {
+    final ByteArrayOutputStream sink = new ByteArrayOutputStream();
+    manager.saveGame(sink, m_data, false);
+    return sink.toByteArray();
+  }
+
+  private byte[] saveInOldFormat() throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(ClientContext.engineVersion().getVersion());
+      out.writeObject(m_data);
+      out.writeObject("<EndDelegateList>");
+    }
+    final ByteArrayOutputStream sink = new ByteArrayOutputStream();
+    try (GZIPOutputStream zippedOut = new GZIPOutputStream(sink)) {
+      zippedOut.write(bytes.toByteArray());
+    }
+    return sink.toByteArray();
+  }
+
+  private void assertSameGame(final GameData loaded) {
+    assertEquals(m_data.getProperties().get(GameData.GAME_UUID), loaded.getProperties().get(GameData.GAME_UUID));
+    assertEquals(m_data.getMap().getTerritories().size(), loaded.getMap().getTerritories().size());
+    for (final Territory territory : m_data.getMap().getTerritories()) {
+      final Territory loadedTerritory = loaded.getMap().getTerritory(territory.getName());
+      assertEquals(territory.getName(), territory.getOwner().getName(), loadedTerritory.getOwner().getName());
+      assertEquals(territory.getName(), territory.getUnits().getUnitCount(),
+          loadedTerritory.getUnits().getUnitCount());
+    }
+  }
+
+  private static byte[] header(final int schemaVersion) throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final DataOutputStream out = new DataOutputStream(bytes);
+    out.write(SavedGameFormat.MAGIC);
+    out.writeInt(schemaVersion);
+    out.writeUTF(ClientContext.engineVersion().getVersion().toStringFull("."));
+    return bytes.toByteArray();
+  }
+
+  @Test
+  public void testSaveAndLoad() throws IOException {
+    final byte[] saved = save(new GameDataManager());
+    assertArrayEquals(SavedGameFormat.MAGIC, Arrays.copyOf(saved, SavedGameFormat.MAGIC.length));
+    assertSameGame(new GameDataManager().loadGame(new ByteArrayInputStream(saved), null));
+  }
+
+  @Test
+  public void testLoadGameSavedInOldFormat() throws IOException {
+    final byte[] saved = saveInOldFormat();
+    assertFalse(SavedGameFormat.isSavedGameFormat(new ByteArrayInputStream(saved)));
+    // a stream that does not support mark
+    assertSameGame(new GameDataManager().loadGame(new BufferedInputStream(new ByteArrayInputStream(saved)) {
+      @Override
+      public boolean markSupported() {
+        return false;
+      }
+    }, null));
+  }
+
+  @Test
+  public void testNotLargerThanOldFormat() throws IOException {
+    assertTrue(save(new GameDataManager()).length <= saveInOldFormat().length);
+  }
+
+  @Test
+  public void testUnknownSectionSkipped() throws IOException {
+    final byte[] saved = save(new GameDataManager());
+    final int headerLength = header(SavedGameFormat.SCHEMA_VERSION).length;
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final DataOutputStream out = new DataOutputStream(bytes);
+    out.write(saved, 0, headerLength);
+    out.writeInt(0x4e455754);
+    out.writeInt(3);
+    out.write(new byte[] {1, 2, 3});
+    out.write(saved, headerLength, saved.length - headerLength);
+    assertSameGame(new GameDataManager().loadGame(new ByteArrayInputStream(bytes.toByteArray()), null));
+  }
+
+  @Test
+  public void testLoadSchemaVersion1() throws IOException {
+    final ByteArrayOutputStream game = new ByteArrayOutputStream();
+    try (ObjectOutputStream gameOut = new ObjectOutputStream(new DeflaterOutputStream(game))) {
+      gameOut.writeObject(m_data);
+      gameOut.writeObject("<EndDelegateList>");
+    }
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final DataOutputStream out = new DataOutputStream(bytes);
+    out.write(header(1));
+    out.writeInt(SavedGameFormat.GAME_SECTION);
+    out.writeInt(game.size());
+    game.writeTo(out);
+    out.writeInt(SavedGameFormat.END_SECTION);
+    assertSameGame(new GameDataManager().loadGame(new ByteArrayInputStream(bytes.toByteArray()), null));
+  }
+
+  @Test
+  public void testManyBlocks() throws Exception {
+    final int[] values = new int[SavedGameFormat.BLOCK_SIZE];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = i % 1000;
+    }
+    final SavedGameFormat.CapturedGame game = SavedGameFormat.captureGame(out -> {
+      out.writeObject(values);
+      out.writeObject("end");
+    });
+    final ByteArrayOutputStream sink = new ByteArrayOutputStream();
+    SavedGameFormat.write(sink, ClientContext.engineVersion().getVersion(), game);
+    assertTrue(sink.size() < SavedGameFormat.BLOCK_SIZE);
+    final SavedGameFormat.SavedGame saved = SavedGameFormat.read(new ByteArrayInputStream(sink.toByteArray()));
+    assertEquals(SavedGameFormat.SCHEMA_VERSION, saved.getSchemaVersion());
+    try (ObjectInputStream in = saved.openGame()) {
+      assertArrayEquals(values, (int[]) in.readObject());
+      assertEquals("end", in.readObject());
+    }
+  }
+
+  @Test
+  public void testSaveGameReplacing() throws IOException {
+    final File folder = Files.createTempDirectory("saves").toFile();
+    try {
+      final File file = new File(folder, "autosave.tsvg");
+      GameDataManager.saveGameReplacing(file, out -> out.write(1));
+      try {
+        GameDataManager.saveGameReplacing(file, out -> {
+          out.write(2);
+          throw new IOException("Failed part way");
+        });
+        fail("Save did not fail");
+      } catch (final IOException expected) {
+        // expected
+      }
+      assertArrayEquals(new byte[] {1}, Files.readAllBytes(file.toPath()));
+      assertEquals(Arrays.asList(file), Arrays.asList(folder.listFiles()));
+      GameDataManager.saveGameReplacing(file, out -> out.write(3));
+      assertArrayEquals(new byte[] {3}, Files.readAllBytes(file.toPath()));
+      assertEquals(Arrays.asList(file), Arrays.asList(folder.listFiles()));
+    } finally {
+      for (final File file : folder.listFiles()) {
+        file.delete();
+      }
+      folder.delete();
+    }
+  }
+
+  @Test
+  public void testNewerSchemaNotLoaded() throws IOException {
+    final byte[] saved = save(new GameDataManager());
+    final byte[] newer = header(SavedGameFormat.SCHEMA_VERSION + 1);
+    System.arraycopy(newer, 0, saved, 0, newer.length);
+    try {
+      new GameDataManager().loadGame(new ByteArrayInputStream(saved), null);
+      fail("Loaded a game saved in a newer format");
+    } catch (final IOException expected) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testUpgradersRunInOrder() throws IOException {
+    final List<String> upgraded = new ArrayList<>();
+    final GameDataManager manager = new GameDataManager();
+    manager.addUpgrader(upgrader("first", true, upgraded));
+    manager.addUpgrader(upgrader("skipped", false, upgraded));
+    manager.addUpgrader(upgrader("second", true, upgraded));
+    manager.loadGame(new ByteArrayInputStream(save(manager)), null);
+    assertEquals(Arrays.asList("first", "second"), upgraded);
+  }
+
+  private static GameDataUpgrader upgrader(final String name, final boolean applies, final List<String> upgraded) {
+    return new GameDataUpgrader() {
+      @Override
+      public boolean appliesTo(final Version savedWith) {
+        assertEquals(ClientContext.engineVersion().getVersion(), savedWith);
+        return applies;
+      }
+
+      @Override
+      public void upgrade(final GameData data) {
+        upgraded.add(name);
+      }
+    };
+  }
+}
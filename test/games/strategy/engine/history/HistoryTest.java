@@ -0,0 +1,233 @@
+package games.strategy.engine.history;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import games.strategy.engine.data.Change;
+import games.strategy.engine.data.GameData;
+import games.strategy.engine.data.PlayerID;
+import games.strategy.engine.data.Resource;
+import games.strategy.engine.data.Territory;
+import games.strategy.engine.data.Unit;
+import games.strategy.engine.data.UnitType;
+import games.strategy.engine.data.changefactory.ChangeFactory;
+import games.strategy.engine.data.events.TerritoryListener;
+import games.strategy.triplea.Constants;
+import games.strategy.triplea.TripleAUnit;
+import games.strategy.triplea.xml.LoadGameUtil;
+import games.strategy.util.IntegerMap;
+
+public class HistoryTest {
+  private static final int ROUNDS = 12;
+  private GameData m_data;
+  private History m_history;
+
+  @Before
+  public void setUp() {
+    m_data = LoadGameUtil.loadTestGame(LoadGameUtil.TestMapXml.REVISED);
+    m_history = m_data.getHistory();
+    play(1, ROUNDS, new Random(42), null);
+  }
+
+  /**
+   * Plays the rounds, adding random changes to the history.
+   *
+   * @param states
+   *        if not null, the game as it was at the start of each round and step played is put in it
+   */
+  private void play(final int firstRound, final int lastRound, final Random random,
+      final Map<HistoryNode, String> states) {
+    final HistoryWriter writer = m_history.getHistoryWriter();
+    final List<Territory> territories = m_data.getMap().getTerritories();
+    final Resource pus = m_data.getResourceList().getResource(Constants.PUS);
+    for (int round = firstRound; round <= lastRound; round++) {
+      writer.startNextRound(round);
+      if (states != null) {
+        states.put(m_history.getLastNode(), describe());
+      }
+      for (final PlayerID player : m_data.getPlayerList().getPlayers()) {
+        writer.startNextStep(player.getName() + round, "move", player, "Move");
+        if (states != null) {
+          states.put(m_history.getLastNode(), describe());
+        }
+        writer.startEvent("Moves");
+        for (int i = 0; i < 30; i++) {
+          final Territory territory = territories.get(random.nextInt(territories.size()));
+          final List<Unit> units = new ArrayList<>(territory.getUnits().getUnits());
+          final Change change;
+          switch (random.nextInt(7)) {
+            case 0:
+              final List<Territory> neighbors = new ArrayList<>(m_data.getMap().getNeighbors(territory));
+              change = ChangeFactory.moveUnits(territory, neighbors.get(random.nextInt(neighbors.size())),
+                  units.subList(0, units.size() / 2));
+              break;
+            case 1:
+              change = ChangeFactory.changeOwner(territory, player);
+              break;
+            case 2:
+              change = ChangeFactory.changeResourcesChange(player, pus, random.nextInt(20) - 5);
+              break;
+            case 3:
+              final UnitType type = m_data.getUnitTypeList().getUnitType(Constants.UNIT_TYPE_INFANTRY);
+              change = ChangeFactory.addUnits(territory, type.create(1 + random.nextInt(3), player));
+              break;
+            case 4:
+              change = ChangeFactory.removeUnits(territory, units.subList(0, Math.min(2, units.size())));
+              break;
+            case 5:
+              final IntegerMap<Unit> hits = new IntegerMap<>();
+              for (final Unit unit : units) {
+                hits.put(unit, random.nextInt(2));
+              }
+              change = ChangeFactory.unitsHit(hits);
+              break;
+            default:
+              change = units.isEmpty() ? ChangeFactory.EMPTY_CHANGE
+                  : ChangeFactory.unitPropertyChange(units.get(0), round, TripleAUnit.ALREADY_MOVED);
+              break;
+          }
+          m_data.performChange(change);
+          writer.addChange(change);
+        }
+      }
+    }
+  }
+
+  private String describe() {
+    final StringBuilder description = new StringBuilder();
+    for (final Territory territory : m_data.getMap().getTerritories()) {
+      description.append(territory.getName()).append(':').append(territory.getOwner().getName());
+      // undoing changes does not keep the order of the units in a territory, so neither do we
+      final List<String> units = new ArrayList<>();
+      for (final Unit unit : territory.getUnits().getUnits()) {
+        units.add(unit.getID() + "/" + unit.getOwner().getName() + "/" + unit.getHits() + "/"
+            + ((TripleAUnit) unit).getAlreadyMoved());
+      }
+      Collections.sort(units);
+      description.append(units).append(territory.getUnits().getUnitCount()).append('\n');
+    }
+    for (final PlayerID player : m_data.getPlayerList().getPlayers()) {
+      description.append(player.getName()).append(':').append(player.getResources()).append('\n');
+    }
+    return description.toString();
+  }
+
+  private List<HistoryNode> getSteps() {
+    final List<HistoryNode> steps = new ArrayList<>();
+    for (final Object node : Collections.list(((HistoryNode) m_history.getRoot()).preorderEnumeration())) {
+      if (node instanceof Round || node instanceof Step) {
+        steps.add((HistoryNode) node);
+      }
+    }
+    return steps;
+  }
+
+  @Test
+  public void testCheckpointsGiveSameStateAsChanges() {
+    final List<HistoryNode> steps = getSteps();
+    m_history.setCheckpointLimit(0);
+    final Map<HistoryNode, String> expected = new HashMap<>();
+    for (final HistoryNode step : steps) {
+      m_history.gotoNode(step);
+      expected.put(step, describe());
+    }
+    assertEquals(0, m_history.getCheckpointCount());
+    m_history.setCheckpointLimit(4);
+    final Random random = new Random(7);
+    for (int i = 0; i < 60; i++) {
+      final HistoryNode step = steps.get(random.nextInt(steps.size()));
+      m_history.gotoNode(step);
+      assertEquals(step.toString(), expected.get(step), describe());
+    }
+    assertTrue(m_history.getCheckpointCount() > 0);
+    assertTrue(m_history.getCheckpointCount() <= 4);
+    assertTrue(m_history.getCheckpointsRestored() > 0);
+  }
+
+  @Test
+  public void testTerritoryListenersToldOfRestoredChanges() {
+    final List<HistoryNode> steps = getSteps();
+    m_history.setCheckpointLimit(ROUNDS);
+    // take the checkpoints
+    m_history.gotoNode(steps.get(0));
+    m_history.gotoNode(steps.get(steps.size() - 1));
+    m_history.gotoNode(steps.get(steps.size() / 2));
+    final Map<Territory, String> owners = new HashMap<>();
+    final Map<Territory, Integer> unitCounts = new HashMap<>();
+    for (final Territory territory : m_data.getMap().getTerritories()) {
+      owners.put(territory, territory.getOwner().getName());
+      unitCounts.put(territory, territory.getUnits().getUnitCount());
+    }
+    final Set<Territory> ownerChanged = new HashSet<>();
+    final Set<Territory> unitsChanged = new HashSet<>();
+    m_data.addTerritoryListener(new TerritoryListener() {
+      @Override
+      public void unitsChanged(final Territory territory) {
+        unitsChanged.add(territory);
+      }
+
+      @Override
+      public void ownerChanged(final Territory territory) {
+        ownerChanged.add(territory);
+      }
+
+      @Override
+      public void attachmentChanged(final Territory territory) {}
+    });
+    m_history.gotoNode(steps.get(1));
+    boolean anyChanged = false;
+    for (final Territory territory : m_data.getMap().getTerritories()) {
+      if (!owners.get(territory).equals(territory.getOwner().getName())) {
+        assertTrue(territory.getName(), ownerChanged.contains(territory));
+        anyChanged = true;
+      }
+      if (unitCounts.get(territory) != territory.getUnits().getUnitCount()) {
+        assertTrue(territory.getName(), unitsChanged.contains(territory));
+        anyChanged = true;
+      }
+    }
+    assertTrue(anyChanged);
+  }
+
+  @Test
+  public void testCheckpointsKeptWhenChangesAdded() {
+    m_history.setCheckpointLimit(0);
+    final Map<HistoryNode, String> expected = new HashMap<>();
+    for (final HistoryNode step : getSteps()) {
+      m_history.gotoNode(step);
+      expected.put(step, describe());
+    }
+    m_history.setCheckpointLimit(ROUNDS);
+    final List<HistoryNode> steps = getSteps();
+    for (final HistoryNode step : steps) {
+      m_history.gotoNode(step);
+    }
+    final int checkpoints = m_history.getCheckpointCount();
+    assertTrue(checkpoints > 0);
+    // the game goes on, creating and hitting units the checkpoints have not seen
+    m_history.gotoNode(m_history.getLastNode());
+    play(ROUNDS + 1, ROUNDS + 2, new Random(43), expected);
+    assertEquals(checkpoints, m_history.getCheckpointCount());
+    final List<HistoryNode> allSteps = getSteps();
+    final int restored = m_history.getCheckpointsRestored();
+    final Random random = new Random(7);
+    for (int i = 0; i < 60; i++) {
+      final HistoryNode step = allSteps.get(random.nextInt(allSteps.size()));
+      m_history.gotoNode(step);
+      assertEquals(step.toString(), expected.get(step), describe());
+    }
+    assertTrue(m_history.getCheckpointsRestored() > restored);
+  }
+}
@@ -0,0 +1,44 @@
+package games.strategy.engine.random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class SimulationRandomSourceTest {
+
+  @Test
+  public void testRange() {
+    final SimulationRandomSource random = SimulationRandomSource.create();
+    final boolean[] rolled = new boolean[6];
+    for (final int roll : random.getRandom(6, 1000, "test")) {
+      assertTrue(roll >= 0 && roll < 6);
+      rolled[roll] = true;
+    }
+    for (final boolean value : rolled) {
+      assertTrue(value);
+    }
+  }
+
+  @Test
+  public void testMasterSeedIsReproducible() {
+    SimulationRandomSource.setMasterSeed(42);
+    final int[] first = SimulationRandomSource.create().getRandom(6, 100, "test");
+    final int[] second = SimulationRandomSource.create().getRandom(6, 100, "test");
+    SimulationRandomSource.setMasterSeed(42);
+    assertArrayEquals(first, SimulationRandomSource.create().getRandom(6, 100, "test"));
+    assertArrayEquals(second, SimulationRandomSource.create().getRandom(6, 100, "test"));
+    assertFalse(Arrays.equals(first, second));
+  }
+
+  @Test
+  public void testSplitSourcesAreIndependent() {
+    SimulationRandomSource.setMasterSeed(7);
+    final SimulationRandomSource random = SimulationRandomSource.create();
+    final int[] split = random.split().getRandom(1000, 10, "test");
+    assertFalse(Arrays.equals(split, random.getRandom(1000, 10, "test")));
+  }
+}
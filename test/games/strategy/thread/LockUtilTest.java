@@ -1,12 +1,15 @@
 package games.strategy.thread;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -76,6 +79,95 @@ public class LockUtilTest {
     assertTrue(l1.getHoldCount() == 0);
     assertFalse(S_LOCKUTIL.isLockHeld(l1));
   }
+
+  @Test
+  public void testWithoutCheckingOrdering() {
+    final LockUtil lockUtil = new LockUtil(false);
+    lockUtil.setErrorReporter(m_reporter);
+    final ReentrantLock l1 = new ReentrantLock();
+    final ReentrantLock l2 = new ReentrantLock();
+    lockUtil.acquireLock(l1);
+    lockUtil.acquireLock(l2);
+    lockUtil.releaseLock(l2);
+    lockUtil.releaseLock(l1);
+    lockUtil.acquireLock(l2);
+    lockUtil.acquireLock(l1);
+    assertTrue(l1.isHeldByCurrentThread());
+    lockUtil.releaseLock(l1);
+    lockUtil.releaseLock(l2);
+    assertFalse(m_reporter.errorOccured());
+    assertEquals(0, l2.getHoldCount());
+    assertEquals(4, lockUtil.getAcquisitions());
+    assertEquals(0, lockUtil.getContendedAcquisitions());
+  }
+
+  @Test
+  public void testContendedAcquisitionsCounted() throws Exception {
+    final LockUtil lockUtil = new LockUtil(false);
+    final ReentrantLock lock = new ReentrantLock();
+    lockUtil.acquireLock(lock);
+    final Thread waiting = new Thread(() -> {
+      lockUtil.acquireLock(lock);
+      lockUtil.releaseLock(lock);
+    });
+    waiting.start();
+    while (!lock.hasQueuedThread(waiting)) {
+      Thread.sleep(1);
+    }
+    lockUtil.releaseLock(lock);
+    waiting.join();
+    assertEquals(2, lockUtil.getAcquisitions());
+    assertEquals(1, lockUtil.getContendedAcquisitions());
+    assertTrue(lockUtil.getWaitNanos() > 0);
+  }
+
+  @Test
+  public void testReaderWaitsForQueuedWriter() throws Exception {
+    final LockUtil lockUtil = new LockUtil(false);
+    final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    lock.readLock().lock();
+    final Thread writer = new Thread(() -> {
+      lockUtil.acquireLock(lock.writeLock());
+      lockUtil.releaseLock(lock.writeLock());
+    });
+    writer.start();
+    while (!lock.hasQueuedThread(writer)) {
+      Thread.sleep(1);
+    }
+    final AtomicBoolean read = new AtomicBoolean();
+    final Thread reader = new Thread(() -> {
+      lockUtil.acquireLock(lock.readLock());
+      read.set(true);
+      lockUtil.releaseLock(lock.readLock());
+    });
+    reader.start();
+    // the reader must queue behind the writer rather than barge ahead of it
+    while (!lock.hasQueuedThread(reader) && !read.get()) {
+      Thread.sleep(1);
+    }
+    assertFalse(read.get());
+    lock.readLock().unlock();
+    writer.join();
+    reader.join();
+    assertTrue(read.get());
+    assertEquals(2, lockUtil.getContendedAcquisitions());
+  }
+
+  @Test
+  public void testLockHeldWithoutCheckingOrdering() {
+    final LockUtil lockUtil = new LockUtil(false);
+    final ReentrantLock lock = new ReentrantLock();
+    final ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+    assertFalse(lockUtil.isLockHeld(lock));
+    lockUtil.acquireLock(lock);
+    lockUtil.acquireLock(readWriteLock.writeLock());
+    assertTrue(lockUtil.isLockHeld(lock));
+    assertTrue(lockUtil.isLockHeld(readWriteLock.writeLock()));
+    lockUtil.releaseLock(readWriteLock.writeLock());
+    lockUtil.releaseLock(lock);
+    assertFalse(lockUtil.isLockHeld(lock));
+    assertFalse(lockUtil.isLockHeld(readWriteLock.writeLock()));
+  }
 }
 
 
@@ -0,0 +1,47 @@
+package games.strategy.triplea.attachments;
+
+import static games.strategy.triplea.delegate.GameDataTestUtil.fighter;
+import static games.strategy.triplea.delegate.GameDataTestUtil.germans;
+import static games.strategy.triplea.delegate.GameDataTestUtil.infantry;
+import static games.strategy.triplea.delegate.GameDataTestUtil.russians;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import games.strategy.engine.data.Change;
+import games.strategy.engine.data.GameData;
+import games.strategy.engine.data.PlayerID;
+import games.strategy.engine.data.changefactory.ChangeFactory;
+import games.strategy.triplea.xml.LoadGameUtil;
+
+public class TechAbilityAttachmentTest {
+  @Test
+  public void testTechEffectsFollowTechChanges() {
+    final GameData data = LoadGameUtil.loadTestGame(LoadGameUtil.TestMapXml.REVISED);
+    final PlayerID germans = germans(data);
+    assertEquals(0, TechAbilityAttachment.getMovementBonus(fighter(data), germans, data));
+    final Change change = ChangeFactory.attachmentPropertyChange(TechAttachment.get(germans), "true", "longRangeAir");
+    data.performChange(change);
+    assertEquals(2, TechAbilityAttachment.getMovementBonus(fighter(data), germans, data));
+    assertEquals(0, TechAbilityAttachment.getMovementBonus(infantry(data), germans, data));
+    assertEquals(0, TechAbilityAttachment.getMovementBonus(fighter(data), russians(data), data));
+    data.performChange(change.invert());
+    assertEquals(0, TechAbilityAttachment.getMovementBonus(fighter(data), germans, data));
+  }
+
+  @Test
+  public void testTechEffectsAreKeptUntilAChange() {
+    final GameData data = LoadGameUtil.loadTestGame(LoadGameUtil.TestMapXml.REVISED);
+    final PlayerID germans = germans(data);
+    final TechEffects effects = TechEffects.get(germans, data);
+    assertSame(effects, TechEffects.get(germans, data));
+    // unit changes do not change techs
+    data.performChange(
+        ChangeFactory.addUnits(data.getMap().getTerritory("Germany"), infantry(data).create(1, germans)));
+    assertSame(effects, TechEffects.get(germans, data));
+    data.performChange(ChangeFactory.attachmentPropertyChange(TechAttachment.get(germans), "true", "jetPower"));
+    final TechEffects changed = TechEffects.get(germans, data);
+    assertEquals(1, changed.m_defenseBonus.getInt(fighter(data)) - effects.m_defenseBonus.getInt(fighter(data)));
+  }
+}
@@ -0,0 +1,143 @@
+package games.strategy.triplea.delegate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import games.strategy.engine.data.GameData;
+import games.strategy.engine.data.PlayerID;
+import games.strategy.engine.data.Territory;
+import games.strategy.engine.data.Unit;
+import games.strategy.engine.data.UnitType;
+import games.strategy.engine.data.changefactory.ChangeFactory;
+import games.strategy.engine.framework.GameDataUtils;
+import games.strategy.triplea.attachments.TechAttachment;
+import games.strategy.triplea.xml.LoadGameUtil;
+
+public class OrderOfLossesCacheTest {
+  private GameData m_data;
+  private PlayerID m_germans;
+  private Territory m_germany;
+  private UnitType m_infantry;
+  private UnitType m_artillery;
+
+  @Before
+  public void setUp() throws Exception {
+    m_data = LoadGameUtil.loadTestGame(LoadGameUtil.TestMapXml.REVISED);
+    m_germans = GameDataTestUtil.germans(m_data);
+    m_germany = m_data.getMap().getTerritory("Germany");
+    m_infantry = GameDataTestUtil.infantry(m_data);
+    m_artillery = m_data.getUnitTypeList().getUnitType("artillery");
+  }
+
+  /**
+   * Infantry and artillery taken in turns.
+   */
+  private List<Unit> createInterleaved(final int pairs) {
+    final List<Unit> units = new ArrayList<>();
+    for (int i = 0; i < pairs; i++) {
+      units.addAll(m_infantry.create(1, m_germans));
+      units.addAll(m_artillery.create(1, m_germans));
+    }
+    return units;
+  }
+
+  private static List<UnitType> typesOf(final List<Unit> units) {
+    final List<UnitType> types = new ArrayList<>();
+    for (final Unit unit : units) {
+      types.add(unit.getType());
+    }
+    return types;
+  }
+
+  @Test
+  public void testOrderOfOtherUnitsOfTheSameTypes() {
+    final OrderOfLossesCache cache = new OrderOfLossesCache();
+    final List<Unit> sorted = createInterleaved(2);
+    cache.put(m_germans, m_germany, true, false, true, sorted, null);
+    final List<Unit> others = new ArrayList<>(m_artillery.create(2, m_germans));
+    others.addAll(m_infantry.create(2, m_germans));
+    final List<Unit> order = cache.get(m_germans, m_germany, true, false, true, others, null);
+    assertEquals(typesOf(sorted), typesOf(order));
+    assertEquals(others.size(), order.size());
+    assertEquals(others.size(), new HashSet<>(order).size());
+    assertEquals(1, cache.getHits());
+  }
+
+  @Test
+  public void testOrderAfterTheFirstCasualties() {
+    final OrderOfLossesCache cache = new OrderOfLossesCache();
+    final List<Unit> sorted = createInterleaved(3);
+    cache.put(m_germans, m_germany, false, false, true, sorted, null);
+    assertEquals(sorted.size(), cache.size());
+    final List<Unit> left = new ArrayList<>(sorted.subList(3, sorted.size()));
+    Collections.reverse(left);
+    assertEquals(typesOf(sorted.subList(3, sorted.size())),
+        typesOf(cache.get(m_germans, m_germany, false, false, true, left, null)));
+  }
+
+  @Test
+  public void testDifferentBattlesAreNotMixedUp() {
+    final OrderOfLossesCache cache = new OrderOfLossesCache();
+    final List<Unit> sorted = createInterleaved(2);
+    cache.put(m_germans, m_germany, true, false, true, sorted, null);
+    assertNull(cache.get(m_germans, m_germany, false, false, true, sorted, null));
+    assertNull(cache.get(m_germans, m_germany, true, false, false, sorted, null));
+    assertNull(cache.get(GameDataTestUtil.russians(m_data), m_germany, true, false, true, sorted, null));
+    assertNull(cache.get(m_germans, m_data.getMap().getTerritory("Eastern Europe"), true, false, true, sorted, null));
+    assertNull(cache.get(m_germans, m_germany, true, false, true, sorted.subList(0, 3), sorted.subList(0, 1)));
+    assertEquals(sorted, cache.get(m_germans, m_germany, true, false, true, sorted, null));
+    assertEquals(1, cache.getHits());
+    assertEquals(5, cache.getMisses());
+    assertEquals(1.0 / 6, cache.getHitRate(), 0.0001);
+  }
+
+  @Test
+  public void testLeastRecentlyUsedOrdersAreEvicted() {
+    final OrderOfLossesCache cache = new OrderOfLossesCache(3, OrderOfLossesCache.MAX_STORED_VALUES);
+    final List<Unit> first = m_infantry.create(2, m_germans);
+    final List<Unit> second = m_artillery.create(2, m_germans);
+    cache.put(m_germans, m_germany, true, false, true, first, null);
+    cache.put(m_germans, m_germany, true, false, true, second, null);
+    assertEquals(3, cache.size());
+    assertNull(cache.get(m_germans, m_germany, true, false, true, first, null));
+    assertEquals(second, cache.get(m_germans, m_germany, true, false, true, second, null));
+  }
+
+  @Test
+  public void testMemoryIsBounded() {
+    final OrderOfLossesCache cache = new OrderOfLossesCache(OrderOfLossesCache.MAX_ENTRIES, 200);
+    final List<Unit> sorted = createInterleaved(20);
+    cache.put(m_germans, m_germany, true, false, true, sorted, null);
+    assertTrue(cache.size() > 0 && cache.size() < sorted.size());
+    // the orders of the smallest battles were put last
+    final List<Unit> lastTwo = sorted.subList(sorted.size() - 2, sorted.size());
+    assertEquals(lastTwo, cache.get(m_germans, m_germany, true, false, true, lastTwo, null));
+    assertNull(cache.get(m_germans, m_germany, true, false, true, sorted, null));
+    cache.clear();
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testCacheOfEachGameData() {
+    final OrderOfLossesCache cache = BattleCalculator.getOOLCache(m_data);
+    assertSame(cache, BattleCalculator.getOOLCache(m_data));
+    assertNotSame(cache, BattleCalculator.getOOLCache(GameDataUtils.cloneGameData(m_data)));
+    cache.put(m_germans, m_germany, true, false, true, createInterleaved(1), null);
+    m_data.performChange(ChangeFactory.addUnits(m_germany, m_infantry.create(1, m_germans)));
+    assertEquals(2, cache.size());
+    // techs may change the order
+    m_data.performChange(ChangeFactory.attachmentPropertyChange(TechAttachment.get(m_germans), "true", "jetPower"));
+    assertEquals(0, cache.size());
+  }
+}
@@ -0,0 +1,158 @@
+package games.strategy.triplea.oddsCalculator.ta;
+
+import static games.strategy.triplea.delegate.GameDataTestUtil.armour;
+import static games.strategy.triplea.delegate.GameDataTestUtil.factory;
+import static games.strategy.triplea.delegate.GameDataTestUtil.germans;
+import static games.strategy.triplea.delegate.GameDataTestUtil.infantry;
+import static games.strategy.triplea.delegate.GameDataTestUtil.russians;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import games.strategy.engine.data.GameData;
+import games.strategy.engine.data.PlayerID;
+import games.strategy.engine.data.Unit;
+import games.strategy.engine.data.UnitType;
+import games.strategy.triplea.delegate.BattleCalculator;
+import games.strategy.triplea.delegate.IBattle;
+import games.strategy.triplea.delegate.IBattle.WhoWon;
+import games.strategy.triplea.xml.LoadGameUtil;
+import games.strategy.util.IntegerMap;
+import games.strategy.util.Tuple;
+
+public class AggregateResultsTest {
+  private GameData m_data;
+
+  @Before
+  public void setUp() throws Exception {
+    m_data = LoadGameUtil.loadTestGame(LoadGameUtil.TestMapXml.REVISED);
+  }
+
+  private List<Unit> randomUnits(final Random random, final PlayerID player) {
+    final List<Unit> units = new ArrayList<>();
+    units.addAll(infantry(m_data).create(random.nextInt(4), player));
+    units.addAll(armour(m_data).create(random.nextInt(3), player));
+    units.addAll(factory(m_data).create(random.nextInt(2), player));
+    return units;
+  }
+
+  private List<BattleResults> randomResults(final int count) {
+    final Random random = new Random(count);
+    final List<BattleResults> results = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      final IBattle battle = mock(IBattle.class);
+      when(battle.getBattleRound()).thenReturn(1 + random.nextInt(5));
+      when(battle.getRemainingAttackingUnits()).thenReturn(randomUnits(random, russians(m_data)));
+      when(battle.getRemainingDefendingUnits()).thenReturn(randomUnits(random, germans(m_data)));
+      results.add(new BattleResults(battle, WhoWon.values()[random.nextInt(WhoWon.values().length)], m_data));
+    }
+    return results;
+  }
+
+  private static void assertSameStatistics(final List<BattleResults> expected, final AggregateResults actual,
+      final GameData data) {
+    double attackingLeft = 0;
+    double defendingLeft = 0;
+    double attackerWins = 0;
+    double defenderWins = 0;
+    double draws = 0;
+    double rounds = 0;
+    double attackerTUV = 0;
+    double defenderTUV = 0;
+    final IntegerMap<UnitType> costs = BattleCalculator.getCostsForTUV(russians(data), data);
+    for (final BattleResults result : expected) {
+      attackingLeft += result.getAttackingCombatUnitsLeft();
+      defendingLeft += result.getDefendingCombatUnitsLeft();
+      attackerWins += result.attackerWon() ? 1 : 0;
+      defenderWins += result.defenderWon() ? 1 : 0;
+      draws += result.draw() ? 1 : 0;
+      rounds += result.getBattleRoundsFought();
+      attackerTUV += BattleCalculator.getTUV(result.getRemainingAttackingUnits(), costs);
+      defenderTUV += BattleCalculator.getTUV(result.getRemainingDefendingUnits(), costs);
+    }
+    final int count = expected.size();
+    assertEquals(count, actual.getRollCount());
+    assertEquals(attackingLeft / count, actual.getAverageAttackingUnitsLeft(), 0.0);
+    assertEquals(defendingLeft / count, actual.getAverageDefendingUnitsLeft(), 0.0);
+    assertEquals(attackerWins / count, actual.getAttackerWinPercent(), 0.0);
+    assertEquals(defenderWins / count, actual.getDefenderWinPercent(), 0.0);
+    assertEquals(draws / count, actual.getDrawPercent(), 0.0);
+    assertEquals(rounds / count, actual.getAverageBattleRoundsFought(), 0.0);
+    final Tuple<Double, Double> tuv = actual.getAverageTUVofUnitsLeftOver(costs, costs);
+    assertEquals(attackerTUV / count, tuv.getFirst(), 0.0);
+    assertEquals(defenderTUV / count, tuv.getSecond(), 0.0);
+
+    BattleResults closest = null;
+    double closestDif = Integer.MAX_VALUE;
+    for (final BattleResults result : expected) {
+      final double dif = Math.abs(result.getAttackingCombatUnitsLeft() - attackingLeft / count)
+          + Math.abs(result.getDefendingCombatUnitsLeft() - defendingLeft / count);
+      if (dif < closestDif) {
+        closestDif = dif;
+        closest = result;
+      }
+    }
+    assertSame(closest, actual.getBattleResultsClosestToAverage());
+  }
+
+  @Test
+  public void testStatistics() {
+    final List<BattleResults> results = randomResults(500);
+    final AggregateResults aggregate = new AggregateResults(results.size());
+    for (final BattleResults result : results) {
+      aggregate.addResult(result);
+    }
+    assertSameStatistics(results, aggregate, m_data);
+  }
+
+  @Test
+  public void testAddingAggregateResults() {
+    final List<BattleResults> results = randomResults(300);
+    final AggregateResults aggregate = new AggregateResults(0);
+    for (int i = 0; i < results.size(); i += 75) {
+      final AggregateResults part = new AggregateResults(75);
+      part.addResults(results.subList(i, i + 75));
+      aggregate.addResults(part);
+    }
+    assertSameStatistics(results, aggregate, m_data);
+  }
+
+  @Test
+  public void testAttackerWinPercentPrecision() {
+    final Random random = new Random(1);
+    final AggregateResults aggregate = new AggregateResults(100);
+    for (int i = 0; i < 100; i++) {
+      final IBattle battle = mock(IBattle.class);
+      when(battle.getBattleRound()).thenReturn(1);
+      when(battle.getRemainingAttackingUnits()).thenReturn(randomUnits(random, russians(m_data)));
+      when(battle.getRemainingDefendingUnits()).thenReturn(randomUnits(random, germans(m_data)));
+      aggregate.addResult(new BattleResults(battle, i % 2 == 0 ? WhoWon.ATTACKER : WhoWon.DEFENDER, m_data));
+    }
+    // with draws the attacker wins less than half
+    final double winPercent = aggregate.getAttackerWinPercent();
+    final double z2 = 1.96 * 1.96;
+    final double expected = 1.96 * Math.sqrt(winPercent * (1 - winPercent) / 100 + z2 / 40000) / (1 + z2 / 100);
+    assertEquals(expected, aggregate.getAttackerWinPercentPrecision(), 1e-12);
+    assertTrue(expected > 0.05 && expected < 0.1);
+  }
+
+  @Test
+  public void testNoResults() {
+    final AggregateResults aggregate = new AggregateResults(0);
+    assertEquals(0, aggregate.getRollCount());
+    assertEquals(0.0, aggregate.getAttackerWinPercent(), 0.0);
+    assertEquals(0.0, aggregate.getAverageBattleRoundsFought(), 0.0);
+    assertNull(aggregate.getBattleResultsClosestToAverage());
+    assertEquals(0, aggregate.getAverageAttackingUnitsRemaining().size());
+  }
+}
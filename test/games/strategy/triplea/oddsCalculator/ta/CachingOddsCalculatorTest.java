@@ -0,0 +1,87 @@
+package games.strategy.triplea.oddsCalculator.ta;
+
+import static games.strategy.triplea.delegate.GameDataTestUtil.germans;
+import static games.strategy.triplea.delegate.GameDataTestUtil.infantry;
+import static games.strategy.triplea.delegate.GameDataTestUtil.russians;
+import static games.strategy.triplea.delegate.GameDataTestUtil.territory;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import games.strategy.engine.data.GameData;
+import games.strategy.engine.data.Territory;
+import games.strategy.engine.data.Unit;
+import games.strategy.engine.data.changefactory.ChangeFactory;
+import games.strategy.triplea.attachments.TechAttachment;
+import games.strategy.triplea.delegate.TerritoryEffectHelper;
+import games.strategy.triplea.xml.LoadGameUtil;
+
+public class CachingOddsCalculatorTest {
+  private GameData m_data;
+  private CachingOddsCalculator m_calculator;
+  private Territory m_germany;
+
+  @Before
+  public void setUp() throws Exception {
+    m_data = LoadGameUtil.loadTestGame(LoadGameUtil.TestMapXml.REVISED);
+    m_calculator = new CachingOddsCalculator(new OddsCalculator(null));
+    m_calculator.setGameData(m_data);
+    m_germany = territory("Germany", m_data);
+  }
+
+  @After
+  public void tearDown() {
+    m_calculator.shutdown();
+  }
+
+  private AggregateResults calculate(final List<Unit> attacking) {
+    return m_calculator.setCalculateDataAndCalculate(russians(m_data), germans(m_data), m_germany, attacking,
+        new ArrayList<>(m_germany.getUnits().getUnits()), Collections.emptyList(),
+        TerritoryEffectHelper.getEffects(m_germany), 20);
+  }
+
+  @Test
+  public void testSameBattleIsCached() {
+    final AggregateResults first = calculate(infantry(m_data).create(40, russians(m_data)));
+    final List<Unit> otherUnits = infantry(m_data).create(40, russians(m_data));
+    final AggregateResults second = calculate(otherUnits);
+    assertEquals(1, m_calculator.getHits());
+    assertEquals(1, m_calculator.getMisses());
+    assertEquals(first.getAttackerWinPercent(), second.getAttackerWinPercent(), 0.0);
+    assertEquals(first.getAverageAttackingUnitsLeft(), second.getAverageAttackingUnitsLeft(), 0.0);
+    assertEquals(first.getAverageAttackingUnitsRemaining().size(), second.getAverageAttackingUnitsRemaining().size());
+    assertTrue(otherUnits.containsAll(second.getAverageAttackingUnitsRemaining()));
+
+    calculate(infantry(m_data).create(41, russians(m_data)));
+    m_calculator.setRetreatAfterRound(2);
+    calculate(otherUnits);
+    assertEquals(1, m_calculator.getHits());
+    assertEquals(3, m_calculator.getMisses());
+  }
+
+  @Test
+  public void testRuleChangesClearCache() {
+    final List<Unit> attacking = infantry(m_data).create(40, russians(m_data));
+    calculate(attacking);
+    // units moving around does not change the results
+    m_data.performChange(ChangeFactory.addUnits(territory("Eastern Europe", m_data),
+        infantry(m_data).create(1, germans(m_data))));
+    m_calculator.setGameData(m_data);
+    calculate(attacking);
+    assertEquals(1, m_calculator.getHits());
+    // new techs do
+    m_data.performChange(ChangeFactory.attachmentPropertyChange(TechAttachment.get(russians(m_data)), "true",
+        "superSub"));
+    m_calculator.setGameData(m_data);
+    calculate(attacking);
+    assertEquals(1, m_calculator.getHits());
+    assertEquals(2, m_calculator.getMisses());
+  }
+}
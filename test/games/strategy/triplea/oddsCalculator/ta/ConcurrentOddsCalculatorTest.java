@@ -0,0 +1,169 @@
+package games.strategy.triplea.oddsCalculator.ta;
+
+import static games.strategy.triplea.delegate.GameDataTestUtil.germans;
+import static games.strategy.triplea.delegate.GameDataTestUtil.infantry;
+import static games.strategy.triplea.delegate.GameDataTestUtil.russians;
+import static games.strategy.triplea.delegate.GameDataTestUtil.territory;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import games.strategy.engine.data.CompositeChange;
+import games.strategy.engine.data.GameData;
+import games.strategy.engine.data.Territory;
+import games.strategy.engine.data.Unit;
+import games.strategy.engine.data.changefactory.ChangeFactory;
+import games.strategy.engine.framework.GameDataUtils;
+import games.strategy.net.GUID;
+import games.strategy.triplea.delegate.TerritoryEffectHelper;
+import games.strategy.triplea.xml.LoadGameUtil;
+
+public class ConcurrentOddsCalculatorTest {
+  private GameData m_data;
+
+  @Before
+  public void setUp() throws Exception {
+    m_data = LoadGameUtil.loadTestGame(LoadGameUtil.TestMapXml.REVISED);
+  }
+
+  private CompositeChange changeGame() {
+    final Territory germany = territory("Germany", m_data);
+    final Territory karelia = territory("Karelia S.S.R.", m_data);
+    final CompositeChange change = new CompositeChange(ChangeFactory.changeOwner(karelia, germans(m_data)),
+        ChangeFactory.removeUnits(karelia, karelia.getUnits().getUnits()),
+        ChangeFactory.addUnits(germany, infantry(m_data).create(5, germans(m_data))));
+    m_data.performChange(change);
+    m_data.getSequence().next();
+    return change;
+  }
+
+  private static void assertSameState(final GameData expected, final GameData actual) {
+    for (final Territory territory : expected.getMap().getTerritories()) {
+      final Territory copied = actual.getMap().getTerritory(territory.getName());
+      assertEquals(territory.getName(), territory.getOwner().getName(), copied.getOwner().getName());
+      assertEquals(territory.getName(), unitIds(territory.getUnits().getUnits()),
+          unitIds(copied.getUnits().getUnits()));
+    }
+    assertEquals(expected.getSequence().getRound(), actual.getSequence().getRound());
+    assertEquals(expected.getSequence().getStepIndex(), actual.getSequence().getStepIndex());
+  }
+
+  private static Set<GUID> unitIds(final Collection<Unit> units) {
+    final Set<GUID> ids = new HashSet<>();
+    for (final Unit unit : units) {
+      ids.add(unit.getID());
+    }
+    return ids;
+  }
+
+  @Test
+  public void testSynchronizeData() {
+    final OddsCalculator calculator = new OddsCalculator(m_data);
+    // place some units in the copy, these must be taken out again
+    final Territory germany = territory("Germany", m_data);
+    calculator.setCalculateData(russians(m_data), germans(m_data), germany,
+        infantry(m_data).create(10, russians(m_data)), new ArrayList<>(germany.getUnits().getUnits()),
+        Collections.emptyList(), TerritoryEffectHelper.getEffects(germany), 10);
+    calculator.calculate();
+    final CompositeChange change = changeGame();
+    calculator.synchronizeData(GameDataUtils.writeGameObject(change), m_data.getSequence().getRound(), 0,
+        m_data.getSequence().getStepIndex());
+    assertSameState(m_data, calculator.getGameData());
+    calculator.shutdown();
+  }
+
+  @Test
+  public void testSettingSameDataKeepsWorkersCopies() {
+    final ConcurrentOddsCalculator calculator = new ConcurrentOddsCalculator("test");
+    calculator.setGameData(m_data);
+    final List<GameData> copies = new ArrayList<>();
+    for (final OddsCalculator worker : calculator.getWorkers()) {
+      copies.add(worker.getGameData());
+    }
+    final Territory germany = territory("Germany", m_data);
+    calculator.setCalculateDataAndCalculate(russians(m_data), germans(m_data), germany,
+        infantry(m_data).create(10, russians(m_data)), new ArrayList<>(germany.getUnits().getUnits()),
+        Collections.emptyList(), TerritoryEffectHelper.getEffects(germany), 20);
+    changeGame();
+
+    calculator.setGameData(m_data);
+    final List<OddsCalculator> workers = calculator.getWorkers();
+    assertEquals(copies.size(), workers.size());
+    for (int i = 0; i < workers.size(); i++) {
+      assertSame(copies.get(i), workers.get(i).getGameData());
+      assertSameState(m_data, workers.get(i).getGameData());
+    }
+
+    final GameData otherGame = LoadGameUtil.loadTestGame(LoadGameUtil.TestMapXml.REVISED);
+    calculator.setGameData(otherGame);
+    for (final OddsCalculator worker : calculator.getWorkers()) {
+      assertFalse(copies.contains(worker.getGameData()));
+      assertNotSame(otherGame, worker.getGameData());
+    }
+    calculator.shutdown();
+  }
+
+  private AggregateResults calculate(final ConcurrentOddsCalculator calculator, final int runCount) {
+    final Territory germany = territory("Germany", m_data);
+    return calculator.setCalculateDataAndCalculate(russians(m_data), germans(m_data), germany,
+        infantry(m_data).create(10, russians(m_data)), infantry(m_data).create(8, germans(m_data)),
+        Collections.emptyList(), TerritoryEffectHelper.getEffects(germany), runCount);
+  }
+
+  @Test
+  public void testEveryRunIsFoughtOnce() {
+    final ConcurrentOddsCalculator calculator = new ConcurrentOddsCalculator("test");
+    calculator.setGameData(m_data);
+    final int runCount = 7 * ConcurrentOddsCalculator.RUNS_PER_CHUNK + 3;
+    assertEquals(runCount, calculate(calculator, runCount).getRollCount());
+    assertEquals(runCount, calculator.getRunCount());
+    assertEquals(1, calculate(calculator, 1).getRollCount());
+    assertEquals(0, calculate(calculator, 0).getRollCount());
+    calculator.shutdown();
+  }
+
+  @Test
+  public void testPartialResultsAndCancel() {
+    final ConcurrentOddsCalculator calculator = new ConcurrentOddsCalculator("test");
+    calculator.setPartialResultsInterval(0);
+    calculator.setGameData(m_data);
+    final List<AggregateResults> partialResults = new CopyOnWriteArrayList<>();
+    final OddsCalculatorListener cancelOnPartialResults = new OddsCalculatorListener() {
+      @Override
+      public void dataReady() {}
+
+      @Override
+      public void resultsUpdated(final AggregateResults results) {
+        partialResults.add(results);
+        calculator.cancel();
+      }
+    };
+    calculator.addOddsCalculatorListener(cancelOnPartialResults);
+    final int runCount = 1000000;
+    final AggregateResults results = calculate(calculator, runCount);
+    assertFalse(partialResults.isEmpty());
+    final int firstCount = partialResults.get(0).getRollCount();
+    assertTrue(firstCount > 0);
+    // the workers stop within the chunk they are fighting
+    assertTrue(results.getRollCount() >= firstCount);
+    assertTrue(results.getRollCount()
+        <= firstCount + calculator.getThreadCount() * ConcurrentOddsCalculator.RUNS_PER_CHUNK);
+    // a new calculation is not cancelled
+    calculator.removeOddsCalculatorListener(cancelOnPartialResults);
+    assertEquals(50, calculate(calculator, 50).getRollCount());
+    calculator.shutdown();
+  }
+}
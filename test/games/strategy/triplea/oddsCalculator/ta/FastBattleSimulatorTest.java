@@ -0,0 +1,115 @@
+package games.strategy.triplea.oddsCalculator.ta;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import games.strategy.engine.data.GameData;
+import games.strategy.engine.data.PlayerID;
+import games.strategy.engine.data.Territory;
+import games.strategy.engine.data.Unit;
+import games.strategy.triplea.delegate.GameDataTestUtil;
+import games.strategy.triplea.delegate.TerritoryEffectHelper;
+import games.strategy.triplea.xml.LoadGameUtil;
+
+/**
+ * Fights the same battles with the FastBattleSimulator and with MustFightBattle, the results must be the same within
+ * what chance allows.
+ */
+public class FastBattleSimulatorTest {
+  private static final int RUN_COUNT = 1000;
+  private GameData m_data;
+  private PlayerID m_russians;
+  private PlayerID m_germans;
+
+  @Before
+  public void setUp() throws Exception {
+    m_data = LoadGameUtil.loadTestGame(LoadGameUtil.TestMapXml.REVISED);
+    m_russians = GameDataTestUtil.russians(m_data);
+    m_germans = GameDataTestUtil.germans(m_data);
+  }
+
+  private FastBattleSimulator compile(final Territory location, final List<Unit> attacking,
+      final List<Unit> defending) {
+    return FastBattleSimulator.compile(m_data, m_russians, m_germans, location, attacking, defending,
+        Collections.emptyList(), TerritoryEffectHelper.getEffects(location), false, false, -1, -1, false, null, null);
+  }
+
+  private AggregateResults calculate(final Territory location, final List<Unit> attacking,
+      final List<Unit> defending, final boolean useFastBattleSimulator) {
+    final OddsCalculator calculator = new OddsCalculator(m_data);
+    calculator.setUseFastBattleSimulator(useFastBattleSimulator);
+    final AggregateResults results = calculator.setCalculateDataAndCalculate(m_russians, m_germans, location,
+        attacking, defending, Collections.emptyList(), TerritoryEffectHelper.getEffects(location), RUN_COUNT);
+    calculator.shutdown();
+    return results;
+  }
+
+  private void assertSameResults(final Territory location, final List<Unit> attacking, final List<Unit> defending) {
+    assertNotNull(compile(location, attacking, defending));
+    final AggregateResults fast = calculate(location, attacking, defending, true);
+    final AggregateResults full = calculate(location, attacking, defending, false);
+    assertEquals(RUN_COUNT, fast.getRollCount());
+    assertEquals(RUN_COUNT, full.getRollCount());
+    // about four standard errors of the difference
+    assertEquals(full.getAttackerWinPercent(), fast.getAttackerWinPercent(), 0.09);
+    assertEquals(full.getDefenderWinPercent(), fast.getDefenderWinPercent(), 0.09);
+    assertEquals(full.getAverageAttackingUnitsLeft(), fast.getAverageAttackingUnitsLeft(), 0.5);
+    assertEquals(full.getAverageDefendingUnitsLeft(), fast.getAverageDefendingUnitsLeft(), 0.5);
+    assertEquals(full.getAverageBattleRoundsFought(), fast.getAverageBattleRoundsFought(), 0.25);
+  }
+
+  @Test
+  public void testLandBattle() {
+    final Territory easternEurope = m_data.getMap().getTerritory("Eastern Europe");
+    final List<Unit> attacking = new ArrayList<>();
+    attacking.addAll(GameDataTestUtil.infantry(m_data).create(6, m_russians));
+    attacking.addAll(GameDataTestUtil.armour(m_data).create(3, m_russians));
+    attacking.addAll(GameDataTestUtil.fighter(m_data).create(2, m_russians));
+    final List<Unit> defending = new ArrayList<>();
+    defending.addAll(GameDataTestUtil.infantry(m_data).create(7, m_germans));
+    defending.addAll(GameDataTestUtil.armour(m_data).create(2, m_germans));
+    defending.addAll(GameDataTestUtil.fighter(m_data).create(1, m_germans));
+    assertSameResults(easternEurope, attacking, defending);
+  }
+
+  @Test
+  public void testSeaBattleWithMultipleHitpoints() {
+    final Territory seaZone = m_data.getMap().getTerritory("5 Sea Zone");
+    final List<Unit> attacking = new ArrayList<>();
+    attacking.addAll(GameDataTestUtil.battleship(m_data).create(2, m_russians));
+    attacking.addAll(GameDataTestUtil.fighter(m_data).create(1, m_russians));
+    final List<Unit> defending = new ArrayList<>();
+    defending.addAll(GameDataTestUtil.battleship(m_data).create(1, m_germans));
+    defending.addAll(GameDataTestUtil.destroyer(m_data).create(3, m_germans));
+    assertSameResults(seaZone, attacking, defending);
+  }
+
+  @Test
+  public void testBattlesThatAreNotPlain() {
+    final Territory easternEurope = m_data.getMap().getTerritory("Eastern Europe");
+    final Territory seaZone = m_data.getMap().getTerritory("5 Sea Zone");
+    final List<Unit> infantry = GameDataTestUtil.infantry(m_data).create(3, m_germans);
+    // artillery supports infantry
+    assertNull(compile(easternEurope, m_data.getUnitTypeList().getUnitType("artillery").create(1, m_russians),
+        GameDataTestUtil.infantry(m_data).create(3, m_germans)));
+    // aa guns only fire at air units in the first round
+    final List<Unit> defendingWithAaGun = new ArrayList<>(infantry);
+    defendingWithAaGun.addAll(GameDataTestUtil.aaGun(m_data).create(1, m_germans));
+    assertNull(compile(easternEurope, GameDataTestUtil.armour(m_data).create(3, m_russians), defendingWithAaGun));
+    // subs fire first and can submerge
+    assertNull(compile(seaZone, GameDataTestUtil.submarine(m_data).create(2, m_russians),
+        GameDataTestUtil.destroyer(m_data).create(1, m_germans)));
+    // retreats are not simulated
+    assertNull(FastBattleSimulator.compile(m_data, m_russians, m_germans, easternEurope,
+        GameDataTestUtil.armour(m_data).create(3, m_russians), infantry, Collections.emptyList(),
+        TerritoryEffectHelper.getEffects(easternEurope), false, false, 2, -1, false, null, null));
+  }
+}
@@ -19,6 +19,7 @@ import games.strategy.engine.data.GameData;
 import games.strategy.engine.data.PlayerID;
 import games.strategy.engine.data.Territory;
 import games.strategy.engine.data.Unit;
+import games.strategy.engine.random.SimulationRandomSource;
 import games.strategy.triplea.delegate.GameDataTestUtil;
 import games.strategy.triplea.delegate.TerritoryEffectHelper;
 import games.strategy.triplea.xml.LoadGameUtil;
@@ -48,6 +49,44 @@ public class OddsCalculatorTest {
     assertTrue(results.getDrawPercent() < 0.1);
   }
 
+  @Test
+  public void testMasterSeedMakesResultsReproducible() {
+    final Territory germany = m_data.getMap().getTerritory("Germany");
+    final PlayerID russians = GameDataTestUtil.russians(m_data);
+    final PlayerID germans = GameDataTestUtil.germans(m_data);
+    final List<Unit> attackingUnits = GameDataTestUtil.infantry(m_data).create(20, russians);
+    final List<Unit> defendingUnits = new ArrayList<>(germany.getUnits().getUnits());
+    final IOddsCalculator calculator = new OddsCalculator(m_data);
+    final List<Double> results = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      SimulationRandomSource.setMasterSeed(1234);
+      final AggregateResults result = calculator.setCalculateDataAndCalculate(russians, germans, germany,
+          attackingUnits, defendingUnits, Collections.emptyList(), TerritoryEffectHelper.getEffects(germany), 50);
+      results.add(result.getAttackerWinPercent());
+      results.add(result.getAverageAttackingUnitsLeft());
+      results.add(result.getAverageBattleRoundsFought());
+    }
+    calculator.shutdown();
+    assertEquals(results.subList(0, 3), results.subList(3, 6));
+  }
+
+  @Test
+  public void testTargetPrecisionStopsEarly() {
+    final Territory germany = m_data.getMap().getTerritory("Germany");
+    final PlayerID russians = GameDataTestUtil.russians(m_data);
+    final PlayerID germans = GameDataTestUtil.germans(m_data);
+    final List<Unit> attackingUnits = GameDataTestUtil.infantry(m_data).create(100, russians);
+    final List<Unit> defendingUnits = new ArrayList<>(germany.getUnits().getUnits());
+    final IOddsCalculator calculator = new OddsCalculator(m_data);
+    calculator.setTargetPrecision(0.05);
+    final AggregateResults results = calculator.setCalculateDataAndCalculate(russians, germans, germany,
+        attackingUnits, defendingUnits, Collections.emptyList(), TerritoryEffectHelper.getEffects(germany), 1000);
+    calculator.shutdown();
+    assertTrue(results.getRollCount() < 100);
+    assertTrue(results.getAttackerWinPercentPrecision() <= 0.05);
+    assertTrue(results.getAttackerWinPercent() > 0.9);
+  }
+
   @Test
   public void testKeepOneAttackingLand() {
     // 1 bomber and 1 infantry attacking
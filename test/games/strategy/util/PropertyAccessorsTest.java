@@ -0,0 +1,103 @@
+package games.strategy.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class PropertyAccessorsTest {
+  @Test
+  public void testPropertiesAreLookedUpOnce() {
+    final PropertyAccessors.Property property = PropertyAccessors.get(OverloadedClass.class, "count");
+    assertSame(property, PropertyAccessors.get(new OverloadedClass(), "count"));
+    assertTrue(property.hasField());
+    assertTrue(property.hasSetter());
+    assertTrue(property.hasResetter());
+  }
+
+  @Test
+  public void testSetterTakingTheClassOfTheValueIsUsed() {
+    final OverloadedClass subject = new OverloadedClass();
+    PropertyUtil.set("count", "4", subject);
+    assertEquals(4, PropertyUtil.getPropertyFieldObject("count", subject));
+    assertEquals("String", subject.m_lastSetter);
+    PropertyUtil.set("count", 7, subject);
+    assertEquals(7, PropertyUtil.getPropertyFieldObject("count", subject));
+    assertEquals("Integer", subject.m_lastSetter);
+    assertNull(PropertyAccessors.get(OverloadedClass.class, "count").getExactSetter(Double.class));
+  }
+
+  @Test
+  public void testReset() {
+    final OverloadedClass subject = new OverloadedClass();
+    PropertyUtil.set("count", "4", subject, false);
+    PropertyUtil.set("count", 2, subject, true);
+    assertEquals(2, PropertyUtil.getPropertyFieldObject("count", subject));
+    PropertyUtil.reset("count", subject);
+    assertEquals(-1, PropertyUtil.getPropertyFieldObject("count", subject));
+  }
+
+  @Test
+  public void testPrimitiveSetter() {
+    final OverloadedClass subject = new OverloadedClass();
+    PropertyUtil.set("enabled", Boolean.TRUE, subject);
+    assertEquals(Boolean.TRUE, PropertyUtil.getPropertyFieldObject("enabled", subject));
+  }
+
+  @Test
+  public void testFieldOfSuperClass() {
+    final SubClass subject = new SubClass();
+    PropertyUtil.set("count", 3, subject);
+    assertEquals(3, PropertyUtil.getPropertyFieldObject("count", subject));
+    assertEquals("m_count", PropertyUtil.getFieldIncludingFromSuperClasses(SubClass.class, "m_count", true).getName());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testMissingField() {
+    assertFalse(PropertyAccessors.get(OverloadedClass.class, "missing").hasField());
+    PropertyUtil.getPropertyFieldObject("missing", new OverloadedClass());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testMissingResetter() {
+    PropertyUtil.reset("enabled", new OverloadedClass());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testExceptionInSetter() {
+    PropertyUtil.set("count", "not a number", new OverloadedClass());
+  }
+}
+
+
+class OverloadedClass {
+  private int m_count = -1;
+  @SuppressWarnings("unused")
+  private boolean m_enabled = false;
+  String m_lastSetter = null;
+
+  public void setCount(final String value) {
+    m_count = Integer.parseInt(value);
+    m_lastSetter = "String";
+  }
+
+  public void setCount(final Integer value) {
+    m_count = value;
+    m_lastSetter = "Integer";
+  }
+
+  public void resetCount() {
+    m_count = -1;
+  }
+
+  public void setEnabled(final boolean value) {
+    m_enabled = value;
+  }
+}
+
+
+class SubClass extends OverloadedClass {
+}